@@ -0,0 +1,62 @@
+package com.awei.frt.bench;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.model.ProcessingResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BackupFileLoader.loadOperationRecordsFiles：数百个历史备份记录的加载耗时（恢复菜单/孤立备份检查的启动开销）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BackupRecordsBenchmark {
+
+    @Param({"100", "500"})
+    public int recordFiles;
+
+    @Param({"50"})
+    public int recordsPerFile;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("frt-bench-records");
+        Path backup = root.resolve("backup");
+        FixtureGenerator.operationRecords(backup, recordFiles, recordsPerFile, 5L);
+        ConfigLoader.setBackupPathForTesting(backup);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FixtureGenerator.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public Map<String, ProcessingResult> loadOperationRecordsFiles() {
+        return BackupFileLoader.loadOperationRecordsFiles();
+    }
+}
@@ -0,0 +1,63 @@
+package com.awei.frt.bench;
+
+import com.awei.frt.core.uitls.FileSignUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileSignUtil.getFileMd5：不同文件大小的 MD5 计算耗时
+ * - md5Uncached：每次先清缓存，测真实读盘 + 摘要
+ * - md5Cached：命中 LRU 缓存（仅 stat + 查表）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileSignBenchmark {
+
+    @Param({"4096", "1048576", "16777216"}) // 4KB / 1MB / 16MB
+    public int size;
+
+    private Path root;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("frt-bench-md5");
+        file = FixtureGenerator.randomFile(root.resolve("data.bin"), size, 7L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FixtureGenerator.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public String md5Uncached() {
+        FileSignUtil.clearCache();
+        return FileSignUtil.getFileMd5(file);
+    }
+
+    @Benchmark
+    public String md5Cached() {
+        return FileSignUtil.getFileMd5(file);
+    }
+}
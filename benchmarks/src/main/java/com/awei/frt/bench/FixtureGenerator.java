@@ -0,0 +1,210 @@
+package com.awei.frt.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 基准测试夹具生成器
+ * 所有随机内容均由固定种子的 Random 生成：同一组参数在任意 Linux 机器上生成的文件字节完全一致，
+ * 保证基准结果可复现、可横向对比。
+ */
+public final class FixtureGenerator {
+
+    private FixtureGenerator() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 生成多层级目录树（每层 breadth 个子目录、每个目录 filesPerDir 个小文件）
+     * @param root        根目录
+     * @param depth       层数（1 = 只有根目录本身）
+     * @param breadth     每层子目录数
+     * @param filesPerDir 每个目录的文件数
+     * @param seed        随机种子
+     * @return 生成的文件总数
+     */
+    public static int generateTree(Path root, int depth, int breadth, int filesPerDir, long seed) throws IOException {
+        Random random = new Random(seed);
+        return generateLevel(root, depth, breadth, filesPerDir, random);
+    }
+
+    private static int generateLevel(Path dir, int depth, int breadth, int filesPerDir, Random random) throws IOException {
+        Files.createDirectories(dir);
+        int count = 0;
+        for (int i = 0; i < filesPerDir; i++) {
+            writeRandomFile(dir.resolve("file-" + i + (i % 3 == 0 ? ".toml" : ".txt")), 64 + random.nextInt(512), random);
+            count++;
+        }
+        if (depth > 1) {
+            for (int i = 0; i < breadth; i++) {
+                count += generateLevel(dir.resolve("dir-" + i), depth - 1, breadth, filesPerDir, random);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 生成指定大小的随机内容文件
+     */
+    public static Path randomFile(Path path, int size, long seed) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        writeRandomFile(path, size, new Random(seed));
+        return path;
+    }
+
+    private static void writeRandomFile(Path path, int size, Random random) throws IOException {
+        byte[] chunk = new byte[Math.min(size, 64 * 1024)];
+        try (OutputStream out = Files.newOutputStream(path)) {
+            int remaining = size;
+            while (remaining > 0) {
+                random.nextBytes(chunk);
+                int len = Math.min(remaining, chunk.length);
+                out.write(chunk, 0, len);
+                remaining -= len;
+            }
+        }
+    }
+
+    /**
+     * 生成 Forge 模组 jar（META-INF/mods.toml + MANIFEST + 若干填充类文件）
+     */
+    public static Path forgeJar(Path path, String modId, String version, int paddingEntries, long seed) throws IOException {
+        String toml = "modLoader=\"javafml\"\nloaderVersion=\"[47,)\"\nlicense=\"MIT\"\n\n"
+                + "[[mods]]\nmodId=\"" + modId + "\"\nversion=\"${file.jarVersion}\"\n"
+                + "displayName=\"" + modId + " Mod\"\ndescription='''\nGenerated fixture mod " + modId + "\n'''\n";
+        return modJar(path, "META-INF/mods.toml", toml, version, paddingEntries, seed);
+    }
+
+    /**
+     * 生成 Fabric 模组 jar（fabric.mod.json + MANIFEST + 若干填充类文件）
+     */
+    public static Path fabricJar(Path path, String modId, String version, int paddingEntries, long seed) throws IOException {
+        String json = "{\"schemaVersion\":1,\"id\":\"" + modId + "\",\"version\":\"" + version
+                + "\",\"name\":\"" + modId + " Mod\",\"description\":\"Generated fixture mod\"}";
+        return modJar(path, "fabric.mod.json", json, version, paddingEntries, seed);
+    }
+
+    private static Path modJar(Path path, String metadataEntry, String metadata, String version,
+                               int paddingEntries, long seed) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, version);
+        Random random = new Random(seed);
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(path), manifest)) {
+            jar.putNextEntry(new JarEntry(metadataEntry));
+            jar.write(metadata.getBytes(StandardCharsets.UTF_8));
+            jar.closeEntry();
+            byte[] body = new byte[2048];
+            for (int i = 0; i < paddingEntries; i++) {
+                jar.putNextEntry(new JarEntry("com/example/fixture/Class" + i + ".class"));
+                random.nextBytes(body);
+                jar.write(body);
+                jar.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * 生成含文本条目的 zip（ZipEntryContent 基准用）：最后一个条目包含关键字 needle
+     */
+    public static Path textZip(Path path, int entries, int entrySize, String needle, long seed) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Random random = new Random(seed);
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+            for (int i = 0; i < entries; i++) {
+                zip.putNextEntry(new ZipEntry("config/entry-" + i + ".txt"));
+                StringBuilder sb = new StringBuilder(entrySize);
+                while (sb.length() < entrySize) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+                if (i == entries - 1) {
+                    sb.append(needle);
+                }
+                zip.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    /**
+     * 生成备份记录历史（backup/record/backup-*.json），每条记录含 recordsPerFile 条操作记录
+     * @param backupDir      备份根目录
+     * @param files          记录文件数
+     * @param recordsPerFile 每个记录文件的操作记录数
+     */
+    public static void operationRecords(Path backupDir, int files, int recordsPerFile, long seed) throws IOException {
+        Path recordDir = Files.createDirectories(backupDir.resolve("record"));
+        Random random = new Random(seed);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 0, 0, 0);
+        DateTimeFormatter nameFormat = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+        for (int f = 0; f < files; f++) {
+            LocalDateTime time = base.plusMinutes(f * 7L);
+            StringBuilder json = new StringBuilder(256 + recordsPerFile * 320);
+            json.append("{\"resultTime\":\"").append(time).append("\",\"successCount\":").append(recordsPerFile)
+                    .append(",\"skipCount\":0,\"errorCount\":0,\"success\":true,\"operationRecords\":[");
+            for (int r = 0; r < recordsPerFile; r++) {
+                if (r > 0) {
+                    json.append(',');
+                }
+                String name = "mods/mod-" + f + "-" + r + ".jar";
+                json.append("{\"operationType\":\"operation_replace\",\"strategyType\":\"McMod\",")
+                        .append("\"sourcePath\":\"/fixture/update/").append(name).append("\",")
+                        .append("\"targetPath\":\"/fixture/target/").append(name).append("\",")
+                        .append("\"sourceFileSign\":\"").append(hex(random)).append("\",")
+                        .append("\"targetFileSign\":\"").append(hex(random)).append("\",")
+                        .append("\"success\":true}");
+            }
+            json.append("]}");
+            Files.writeString(recordDir.resolve("backup-" + time.format(nameFormat) + ".json"),
+                    json.toString(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String hex(Random random) {
+        StringBuilder sb = new StringBuilder(32);
+        for (int i = 0; i < 32; i++) {
+            sb.append(Character.forDigit(random.nextInt(16), 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 递归删除目录（基准 TearDown 清理夹具用）
+     */
+    public static void deleteRecursively(Path root) throws IOException {
+        if (root == null || !Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
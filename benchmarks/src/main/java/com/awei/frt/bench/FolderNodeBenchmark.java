@@ -0,0 +1,59 @@
+package com.awei.frt.bench;
+
+import com.awei.frt.core.node.FolderNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FolderNode.buildChildren：合成目录树的构建耗时（目录遍历 + 节点分配）
+ * 树规模 = breadth^(depth-1) 个目录 × filesPerDir 个文件
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FolderNodeBenchmark {
+
+    @Param({"3:8:10", "4:8:20"}) // depth:breadth:filesPerDir（约 730 / 11700 个文件）
+    public String shape;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String[] parts = shape.split(":");
+        root = Files.createTempDirectory("frt-bench-tree");
+        FixtureGenerator.generateTree(root.resolve("update"), Integer.parseInt(parts[0]),
+                Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), 42L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FixtureGenerator.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public FolderNode buildChildren() {
+        FolderNode node = new FolderNode(root.resolve("update"), "");
+        node.buildChildren();
+        return node;
+    }
+}
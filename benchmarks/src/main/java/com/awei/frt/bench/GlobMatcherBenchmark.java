@@ -0,0 +1,48 @@
+package com.awei.frt.bench;
+
+import com.awei.frt.core.uitls.GlobMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GlobMatcher.matchesAny：典型规则（3~6 个通配符模式）对一批文件名的匹配耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobMatcherBenchmark {
+
+    private final List<String> patterns = List.of("*.toml", "*.json5", "jei-*.cfg", "options?.txt", "*-client.jar", "config_*");
+    private final String[] names = {
+            "create-common.toml", "jei-client.cfg", "options1.txt", "sodium-0.5.8-client.jar",
+            "README.md", "servers.dat", "config_backup.zip", "journeymap.core.json5"
+    };
+
+    @Benchmark
+    public void matchesAnyCaseSensitive(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(GlobMatcher.matchesAny(name, patterns, true));
+        }
+    }
+
+    @Benchmark
+    public void matchesAnyCaseInsensitive(Blackhole bh) {
+        for (String name : names) {
+            bh.consume(GlobMatcher.matchesAny(name, patterns, false));
+        }
+    }
+}
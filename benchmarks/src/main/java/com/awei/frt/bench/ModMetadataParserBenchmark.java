@@ -0,0 +1,63 @@
+package com.awei.frt.bench;
+
+import com.awei.frt.core.mod.ModInfo;
+import com.awei.frt.core.mod.ModMetadataParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ModMetadataParser.parseJar：生成的 Forge（mods.toml，含版本占位符回退 MANIFEST）/ Fabric（fabric.mod.json）jar 解析耗时
+ * paddingEntries 控制 jar 内填充条目数（中央目录越大，打开 jar 越慢）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModMetadataParserBenchmark {
+
+    @Param({"forge", "fabric"})
+    public String platform;
+
+    @Param({"10", "1000"})
+    public int paddingEntries;
+
+    private Path root;
+    private Path jar;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("frt-bench-mod");
+        jar = "forge".equals(platform)
+                ? FixtureGenerator.forgeJar(root.resolve("fixturemod-1.0.0.jar"), "fixturemod", "1.0.0", paddingEntries, 11L)
+                : FixtureGenerator.fabricJar(root.resolve("fixturemod-1.0.0.jar"), "fixturemod", "1.0.0", paddingEntries, 11L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FixtureGenerator.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public List<ModInfo> parseJar() throws IOException {
+        return ModMetadataParser.parseJar(jar);
+    }
+}
@@ -0,0 +1,262 @@
+package com.awei.frt.bench.workload;
+
+import com.awei.frt.bench.FixtureGenerator;
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.metrics.MetricsRegistry;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.model.RestoreResult;
+import com.awei.frt.service.FileDeleteService;
+import com.awei.frt.service.FileUpdateServiceNew;
+import com.awei.frt.ui.UserPrompter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 端到端宏基准运行器（无界面）：生成合成负载后依次驱动
+ * 更新（FileUpdateServiceNew）→ 恢复（BackupFileLoader.restoreFromResult）→ 删除（FileDeleteService），
+ * 每个阶段报告墙钟耗时、堆峰值、I/O 字节数（/proc/self/io，非 Linux 时取会话指标）与操作计数。
+ *
+ * 用法：java -cp benchmarks/target/benchmarks.jar com.awei.frt.bench.workload.MacroBenchmarkRunner [key=value ...]
+ *   dir=路径        负载目录（默认系统临时目录，运行结束删除；指定时保留）
+ *   rounds=N        轮数（每轮重新生成 update/target/delete，默认 3）
+ *   out=路径        结果另存为 JSON（便于不同构建对比）
+ *   verbose=true    保留服务层控制台输出（默认静默）
+ *   incremental=true 启用增量更新，并在更新后追加一次无变化更新阶段（update-noop）
+ *   其余参数见 WorkloadGenerator.Spec（mods=、configDepth=、history= ...）
+ */
+public final class MacroBenchmarkRunner {
+
+    private static final UserPrompter YES = () -> "y";
+
+    private MacroBenchmarkRunner() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static void main(String[] args) throws Exception {
+        WorkloadGenerator.Spec spec = new WorkloadGenerator.Spec();
+        Path dir = null;
+        int rounds = 3;
+        Path out = null;
+        boolean verbose = false;
+        boolean incremental = false;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            String key = arg.substring(0, eq).trim();
+            String value = arg.substring(eq + 1).trim();
+            switch (key) {
+                case "dir" -> dir = Paths.get(value).toAbsolutePath();
+                case "rounds" -> rounds = Integer.parseInt(value);
+                case "out" -> out = Paths.get(value);
+                case "verbose" -> verbose = Boolean.parseBoolean(value);
+                case "incremental" -> incremental = Boolean.parseBoolean(value);
+                default -> {
+                    if (!spec.set(key, value)) {
+                        throw new IllegalArgumentException("未知参数: " + key);
+                    }
+                }
+            }
+        }
+
+        boolean keep = dir != null;
+        Path root = keep ? Files.createDirectories(dir) : Files.createTempDirectory("frt-macro");
+        PrintStream console = System.out;
+        console.println("[MACRO] 负载参数: " + spec);
+        console.println("[MACRO] 负载目录: " + root);
+
+        List<PhaseResult> results = new ArrayList<>();
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                long genStart = System.nanoTime();
+                WorkloadGenerator.Workload workload = WorkloadGenerator.generate(root, spec);
+                console.printf("[MACRO] 第 %d 轮负载生成完成（%.1f s）：%s%n", round,
+                        (System.nanoTime() - genStart) / 1e9, workload);
+                Config config = configure(workload);
+                config.setIncrementalUpdate(incremental);
+
+                PrintStream quiet = verbose ? console : new PrintStream(OutputStream.nullOutputStream(), true);
+                System.setOut(quiet);
+                try {
+                    ProcessingResult[] updateResult = new ProcessingResult[1];
+                    results.add(measure(round, "update", () -> {
+                        updateResult[0] = new FileUpdateServiceNew(config, YES).updateExecute();
+                        return PhaseCounts.of(updateResult[0]);
+                    }));
+                    if (incremental) {
+                        results.add(measure(round, "update-noop", () ->
+                                PhaseCounts.of(new FileUpdateServiceNew(config, YES).updateExecute())));
+                    }
+                    results.add(measure(round, "restore", () -> {
+                        RestoreResult restored = BackupFileLoader.restoreFromResult(updateResult[0], YES);
+                        return new PhaseCounts(restored.getSuccessCount(), 0, restored.getFailureCount(), null);
+                    }));
+                    results.add(measure(round, "delete", () ->
+                            PhaseCounts.of(new FileDeleteService(config, YES).deleteExecute())));
+                } finally {
+                    System.setOut(console);
+                }
+                for (PhaseResult result : results.subList(results.size() - (incremental ? 4 : 3), results.size())) {
+                    console.println(result.toLine());
+                }
+            }
+        } finally {
+            if (!keep) {
+                FixtureGenerator.deleteRecursively(root);
+            }
+        }
+
+        printSummary(console, results);
+        if (out != null) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("spec", spec.toString());
+            report.put("rounds", rounds);
+            report.put("javaVersion", System.getProperty("java.version"));
+            report.put("phases", results.stream().map(PhaseResult::toMap).toList());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out.toFile(), report);
+            console.println("[MACRO] 结果已写入: " + out.toAbsolutePath());
+        }
+    }
+
+    /**
+     * 把全局配置与备份路径指向负载目录（绝对路径，与测试用法一致）
+     */
+    private static Config configure(WorkloadGenerator.Workload workload) {
+        Config config = ConfigLoader.getConfig();
+        config.setUpdatePath(workload.updateDir());
+        config.setTargetPath(workload.targetDir());
+        config.setDeletePath(workload.deleteDir());
+        ConfigLoader.setBackupPathForTesting(workload.backupDir());
+        return config;
+    }
+
+    private static PhaseResult measure(int round, String phase, Supplier<PhaseCounts> action) {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP).toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long[] ioBefore = readProcIo();
+
+        long start = System.nanoTime();
+        PhaseCounts counts = action.get();
+        long wallNanos = System.nanoTime() - start;
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long[] ioAfter = readProcIo();
+        long readBytes;
+        long writeBytes;
+        if (ioBefore != null && ioAfter != null) {
+            readBytes = ioAfter[0] - ioBefore[0];
+            writeBytes = ioAfter[1] - ioBefore[1];
+        } else {
+            // 非 Linux：退化为会话指标（哈希读取 + 复制写入）
+            MetricsRegistry metrics = counts.metrics();
+            readBytes = metrics != null ? metrics.getBytesHashed() : -1;
+            writeBytes = metrics != null ? metrics.getBytesCopied() : -1;
+        }
+        return new PhaseResult(round, phase, wallNanos, peakHeap, readBytes, writeBytes, counts);
+    }
+
+    /**
+     * 读取 /proc/self/io 的 rchar / wchar（含页缓存命中的逻辑读写字节数）；不可用时返回 null
+     */
+    private static long[] readProcIo() {
+        Path io = Paths.get("/proc/self/io");
+        if (!Files.isReadable(io)) {
+            return null;
+        }
+        try {
+            long rchar = -1;
+            long wchar = -1;
+            for (String line : Files.readAllLines(io)) {
+                if (line.startsWith("rchar:")) {
+                    rchar = Long.parseLong(line.substring(6).trim());
+                } else if (line.startsWith("wchar:")) {
+                    wchar = Long.parseLong(line.substring(6).trim());
+                }
+            }
+            return rchar >= 0 && wchar >= 0 ? new long[]{rchar, wchar} : null;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void printSummary(PrintStream console, List<PhaseResult> results) {
+        console.println("=========================================");
+        console.println("[MACRO] 汇总（各阶段取中位数）");
+        console.println("=========================================");
+        for (String phase : List.of("update", "update-noop", "restore", "delete")) {
+            List<PhaseResult> samples = results.stream().filter(r -> r.phase().equals(phase)).toList();
+            if (samples.isEmpty()) {
+                continue;
+            }
+            console.printf("%-11s wall %8.1f ms | peak heap %10s | read %10s | write %10s%n", phase,
+                    median(samples.stream().mapToLong(PhaseResult::wallNanos).toArray()) / 1e6,
+                    MetricsRegistry.formatBytes(median(samples.stream().mapToLong(PhaseResult::peakHeapBytes).toArray())),
+                    MetricsRegistry.formatBytes(median(samples.stream().mapToLong(PhaseResult::readBytes).toArray())),
+                    MetricsRegistry.formatBytes(median(samples.stream().mapToLong(PhaseResult::writeBytes).toArray())));
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        java.util.Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * 阶段操作计数（metrics 可为 null）
+     */
+    private record PhaseCounts(int success, int skip, int error, MetricsRegistry metrics) {
+        static PhaseCounts of(ProcessingResult result) {
+            return new PhaseCounts(result.getSuccessCount(), result.getSkipCount(), result.getErrorCount(),
+                    result.getMetrics());
+        }
+    }
+
+    private record PhaseResult(int round, String phase, long wallNanos, long peakHeapBytes,
+                               long readBytes, long writeBytes, PhaseCounts counts) {
+
+        String toLine() {
+            return String.format("[MACRO] #%d %-11s wall %8.1f ms | peak heap %10s | read %10s | write %10s | ok %d skip %d err %d",
+                    round, phase, wallNanos / 1e6, MetricsRegistry.formatBytes(peakHeapBytes),
+                    MetricsRegistry.formatBytes(readBytes), MetricsRegistry.formatBytes(writeBytes),
+                    counts.success(), counts.skip(), counts.error());
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("round", round);
+            map.put("phase", phase);
+            map.put("wallMillis", wallNanos / 1e6);
+            map.put("peakHeapBytes", peakHeapBytes);
+            map.put("readBytes", readBytes);
+            map.put("writeBytes", writeBytes);
+            map.put("success", counts.success());
+            map.put("skip", counts.skip());
+            map.put("error", counts.error());
+            if (counts.metrics() != null) {
+                map.put("metrics", counts.metrics().toSnapshot());
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.awei.frt.bench.workload;
+
+import com.awei.frt.bench.FixtureGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 端到端合成负载生成器：按真实整合包更新形态生成 update / target / delete / backup 四个目录
+ * - target/mods：modCount 个 Forge/Fabric 模组 jar（旧版本 1.0.0）
+ * - update/mods：modUpdateRatio 比例的模组升级为 1.1.0（McMod 按 modId 匹配替换）+ modNewCount 个新模组
+ *   （McMod 替换按源文件名定位目标文件，故升级 jar 沿用目标文件名，只变更内容与版本号）
+ * - target/config：多层嵌套配置目录；update/config 镜像其中 configChangeRatio 比例的文件（内容变化）
+ * - 规则文件：根目录 FileSameName 兜底；mods 目录 McMod + strategyChain；config 目录 *.toml → *.txt 链
+ * - delete/config：镜像 target/config 中 deleteRatio 比例的文件
+ * - backup/record：historySessions 个历史会话记录（每个 recordsPerSession 条操作记录）
+ * 同一参数 + 种子生成的负载完全一致，便于不同构建之间横向对比。
+ */
+public final class WorkloadGenerator {
+
+    private static final String ROOT_RULE = """
+            {
+              "strategyType": "FileSameName",
+              "patterns": [],
+              "excludePatterns": ["*.md"],
+              "inheritToSubfolders": true
+            }
+            """;
+    private static final String MODS_RULE = """
+            {
+              "strategyType": "McMod",
+              "patterns": ["*.jar"],
+              "strategyChain": [
+                {"strategyType": "FileSameName", "patterns": ["*.cfg"]}
+              ],
+              "inheritToSubfolders": false
+            }
+            """;
+    private static final String CONFIG_RULE = """
+            {
+              "strategyType": "FileSameName",
+              "patterns": ["*.toml"],
+              "strategyChain": [
+                {"strategyType": "FileSameName", "patterns": ["*.txt"]}
+              ],
+              "inheritToSubfolders": true
+            }
+            """;
+    private static final String DELETE_RULE = """
+            {
+              "strategyType": "FileSameName",
+              "patterns": [],
+              "inheritToSubfolders": true
+            }
+            """;
+
+    private WorkloadGenerator() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 负载参数（key=value 形式解析，未指定的使用默认值）
+     */
+    public static final class Spec {
+        public int modCount = 2000;
+        public double modUpdateRatio = 0.2;
+        public int modNewCount = 50;
+        public int modPaddingEntries = 20;
+        public int configDepth = 3;
+        public int configBreadth = 6;
+        public int configFilesPerDir = 12;
+        public double configChangeRatio = 0.3;
+        public double deleteRatio = 0.05;
+        public int historySessions = 200;
+        public int recordsPerSession = 40;
+        public long seed = 20261019L;
+
+        /**
+         * 解析命令行参数（如 mods=3000 configDepth=4 seed=1）；未知 key 抛 IllegalArgumentException
+         */
+        public static Spec parse(String... args) {
+            Spec spec = new Spec();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq <= 0) {
+                    continue;
+                }
+                spec.set(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+            }
+            return spec;
+        }
+
+        /**
+         * 设置单个参数；不属于负载参数的 key 返回 false（交给调用方处理）
+         */
+        public boolean set(String key, String value) {
+            switch (key) {
+                case "mods" -> modCount = Integer.parseInt(value);
+                case "modUpdateRatio" -> modUpdateRatio = Double.parseDouble(value);
+                case "modNew" -> modNewCount = Integer.parseInt(value);
+                case "modPadding" -> modPaddingEntries = Integer.parseInt(value);
+                case "configDepth" -> configDepth = Integer.parseInt(value);
+                case "configBreadth" -> configBreadth = Integer.parseInt(value);
+                case "configFiles" -> configFilesPerDir = Integer.parseInt(value);
+                case "configChangeRatio" -> configChangeRatio = Double.parseDouble(value);
+                case "deleteRatio" -> deleteRatio = Double.parseDouble(value);
+                case "history" -> historySessions = Integer.parseInt(value);
+                case "recordsPerSession" -> recordsPerSession = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "mods=" + modCount + " modUpdateRatio=" + modUpdateRatio + " modNew=" + modNewCount
+                    + " modPadding=" + modPaddingEntries + " configDepth=" + configDepth
+                    + " configBreadth=" + configBreadth + " configFiles=" + configFilesPerDir
+                    + " configChangeRatio=" + configChangeRatio + " deleteRatio=" + deleteRatio
+                    + " history=" + historySessions + " recordsPerSession=" + recordsPerSession + " seed=" + seed;
+        }
+    }
+
+    /**
+     * 生成结果：各目录路径 + 计划数量（供运行器核对结果）
+     */
+    public record Workload(Path root, Path updateDir, Path targetDir, Path deleteDir, Path backupDir,
+                           int targetMods, int updatedMods, int newMods,
+                           int targetConfigFiles, int changedConfigFiles, int deleteFiles) {
+
+        @Override
+        public String toString() {
+            return "target: " + targetMods + " mods / " + targetConfigFiles + " config files; update: "
+                    + updatedMods + " upgraded + " + newMods + " new mods, " + changedConfigFiles
+                    + " changed config files; delete: " + deleteFiles + " files";
+        }
+    }
+
+    /**
+     * 在 root 下生成完整负载（root 下已有的 update/target/delete 会先清空；backup 保留）
+     */
+    public static Workload generate(Path root, Spec spec) throws IOException {
+        Path updateDir = root.resolve("update");
+        Path targetDir = root.resolve("target");
+        Path deleteDir = root.resolve("delete");
+        Path backupDir = root.resolve("backup");
+        FixtureGenerator.deleteRecursively(updateDir);
+        FixtureGenerator.deleteRecursively(targetDir);
+        FixtureGenerator.deleteRecursively(deleteDir);
+        Random random = new Random(spec.seed);
+
+        // ---- 模组 ----
+        Path targetMods = Files.createDirectories(targetDir.resolve("mods"));
+        Path updateMods = Files.createDirectories(updateDir.resolve("mods"));
+        int updated = 0;
+        for (int i = 0; i < spec.modCount; i++) {
+            String modId = "fixturemod" + i;
+            writeMod(targetMods.resolve(modId + ".jar"), modId, "1.0.0", i, spec, random.nextLong());
+            if (random.nextDouble() < spec.modUpdateRatio) {
+                writeMod(updateMods.resolve(modId + ".jar"), modId, "1.1.0", i, spec, random.nextLong());
+                updated++;
+            }
+        }
+        for (int i = 0; i < spec.modNewCount; i++) {
+            String modId = "newmod" + i;
+            writeMod(updateMods.resolve(modId + ".jar"), modId, "1.0.0", i, spec, random.nextLong());
+        }
+        Files.writeString(updateMods.resolve("modpack.cfg"), "version=" + spec.seed + "\n", StandardCharsets.UTF_8);
+
+        // ---- 配置 ----
+        Path targetConfig = targetDir.resolve("config");
+        int configFiles = FixtureGenerator.generateTree(targetConfig, spec.configDepth, spec.configBreadth,
+                spec.configFilesPerDir, random.nextLong());
+        int changed = 0;
+        int deletes = 0;
+        for (Path file : listFiles(targetConfig)) {
+            Path relative = targetDir.relativize(file);
+            if (random.nextDouble() < spec.configChangeRatio) {
+                FixtureGenerator.randomFile(updateDir.resolve(relative), 64 + random.nextInt(512), random.nextLong());
+                changed++;
+            }
+            if (random.nextDouble() < spec.deleteRatio) {
+                Path mirror = deleteDir.resolve(relative);
+                Files.createDirectories(mirror.getParent());
+                Files.copy(file, mirror);
+                deletes++;
+            }
+        }
+        Files.createDirectories(updateDir.resolve("config"));
+        Files.createDirectories(deleteDir);
+
+        // ---- 规则文件 ----
+        Files.writeString(updateDir.resolve("matching-rules.json"), ROOT_RULE, StandardCharsets.UTF_8);
+        Files.writeString(updateMods.resolve("matching-rules.json"), MODS_RULE, StandardCharsets.UTF_8);
+        Files.writeString(updateDir.resolve("config").resolve("matching-rules.json"), CONFIG_RULE, StandardCharsets.UTF_8);
+        Files.writeString(deleteDir.resolve("matching-rules.json"), DELETE_RULE, StandardCharsets.UTF_8);
+        Files.writeString(updateDir.resolve("README.md"), "generated workload, excluded by rule\n", StandardCharsets.UTF_8);
+
+        // ---- 备份记录历史（仅首次生成，backup 目录跨轮次保留）----
+        if (!Files.isDirectory(backupDir.resolve("record"))) {
+            FixtureGenerator.operationRecords(backupDir, spec.historySessions, spec.recordsPerSession, random.nextLong());
+        }
+
+        return new Workload(root, updateDir, targetDir, deleteDir, backupDir,
+                spec.modCount, updated, spec.modNewCount, configFiles, changed, deletes);
+    }
+
+    private static void writeMod(Path path, String modId, String version, int index, Spec spec, long seed) throws IOException {
+        // 交替生成 Forge / Fabric，贴近混合整合包
+        if (index % 2 == 0) {
+            FixtureGenerator.forgeJar(path, modId, version, spec.modPaddingEntries, seed);
+        } else {
+            FixtureGenerator.fabricJar(path, modId, version, spec.modPaddingEntries, seed);
+        }
+    }
+
+    private static List<Path> listFiles(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            List<Path> files = new ArrayList<>();
+            paths.filter(Files::isRegularFile).sorted().forEach(files::add);
+            return files;
+        }
+    }
+}
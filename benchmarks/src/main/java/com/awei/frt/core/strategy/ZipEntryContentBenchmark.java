@@ -0,0 +1,76 @@
+package com.awei.frt.core.strategy;
+
+import com.awei.frt.bench.FixtureGenerator;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.MatchRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZipEntryContentStrategy.matchesZipContent：扫描 zip 内文本条目查找关键字的耗时（关键字位于最后一个条目，最坏情况）
+ * 与策略同包放置，以便直接调用 protected 的 matchesZipContent。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipEntryContentBenchmark {
+
+    @Param({"20", "200"})
+    public int entries;
+
+    @Param({"4096"})
+    public int entrySize;
+
+    private Path root;
+    private Path zip;
+    private OperationContext context;
+    private final ZipEntryContentStrategy strategy = new ZipEntryContentStrategy();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("frt-bench-zip");
+        zip = FixtureGenerator.textZip(root.resolve("pack.zip"), entries, entrySize, "NEEDLE_KEYWORD", 3L);
+
+        Config config = new Config();
+        config.setBaseDirectory(root);
+        config.setTargetPath(root.resolve("target"));
+        context = new OperationContext(config);
+        MatchRule rule = new MatchRule();
+        rule.setStrategyType("ZipEntryContent");
+        rule.setPatterns(List.of("config/*.txt"));
+        rule.setReplacements(Map.of("contentContains", "needle_keyword,other", "caseSensitive", "false"));
+        context.getRuleInheritanceContext().setRuleChain(rule);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FixtureGenerator.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public boolean matchesZipContent() {
+        return strategy.matchesZipContent(zip, context);
+    }
+}
@@ -1,5 +1,6 @@
 package com.awei.frt;
 
+import com.awei.frt.cli.FrtCli;
 import com.awei.frt.core.builder.BackupFileLoader;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.ProcessingResult;
@@ -7,26 +8,46 @@ import com.awei.frt.model.RestoreResult;
 import com.awei.frt.service.CoreConfigWizard;
 import com.awei.frt.service.FileDeleteService;
 import com.awei.frt.service.FileUpdateServiceNew;
+import com.awei.frt.service.FileWatchService;
 import com.awei.frt.service.RestoreService;
 import com.awei.frt.service.RuleConfigWizard;
 import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.transaction.StagedTransaction;
+import com.awei.frt.util.ConsoleCancel;
+import com.awei.frt.util.ConsoleProgress;
 import com.awei.frt.util.LoggerUtil;
 
 import java.util.Scanner;
 
 /**
  * 主程序入口
- * 多层级文件夹更新工具：控制台模式（默认）与图形界面模式（--ui）
+ * 多层级文件夹更新工具：控制台模式（默认）、图形界面模式（--ui）、监听模式（--watch）
+ * 与无头命令行（update|delete|restore|cleanup，见 FrtCli）
  */
 public class Main {
 
+    /** 监听模式 Ctrl+C 时等待当前批次收尾的最长时间 */
+    private static final long WATCH_SHUTDOWN_TIMEOUT_MILLIS = 60_000;
+
     public static void main(String[] args) {
+        // 无头命令行入口：java -jar FRT.jar update --yes --json ...（不初始化 Swing 与交互菜单）
+        if (args.length > 0 && FrtCli.isCommand(args[0])) {
+            FrtCli.main(args);
+            return;
+        }
+
         // UI 模式入口：java -jar FRT.jar --ui（或 java -cp ... com.awei.frt.ui.MainUI）
         if (args.length > 0 && "--ui".equals(args[0])) {
             com.awei.frt.ui.MainUI.main(args);
             return;
         }
 
+        // 监听模式入口：java -jar FRT.jar --watch（常驻，自动把 update/delete 目录的变化应用到目标目录）
+        if (args.length > 0 && "--watch".equals(args[0])) {
+            runWatchMode();
+            return;
+        }
+
         LoggerUtil logger = null;// 日志工具类
         Scanner scanner = null;
 
@@ -50,6 +71,9 @@ public class Main {
 
             scanner = new Scanner(System.in);
 
+            // 上次事务化更新中断遗留的暂存 / 提交先收尾（须在会话恢复之前，避免恢复后又被前滚覆盖）
+            StagedTransaction.recoverPending();
+
             // 检测是否有未完成的操作会话（上次异常中断遗留），提示用户恢复
             checkInterruptedSession(scanner);
 
@@ -80,11 +104,15 @@ public class Main {
                 switch (choice) {
                     case "1":
                         LoggerUtil.logInfo("[执行] 执行更新操作（增加、替换）...");
-                        updateService.updateExecute();
+                        try (ConsoleCancel cancel = ConsoleCancel.install()) {
+                            updateService.updateExecute(ConsoleProgress.callback(), cancel.token());
+                        }
                         break;
                     case "2":
                         LoggerUtil.logInfo("[删除] 执行删除操作...");
-                        deleteService.deleteExecute();
+                        try (ConsoleCancel cancel = ConsoleCancel.install()) {
+                            deleteService.deleteExecute(ConsoleProgress.callback(), cancel.token());
+                        }
                         break;
                     case "3":
                         LoggerUtil.logInfo("[执行] 执行恢复操作...");
@@ -129,6 +157,33 @@ public class Main {
         }
     }
 
+    /**
+     * 监听模式：常驻监听 update/delete 目录，变化防抖合并后自动执行（Ctrl+C 退出）
+     */
+    private static void runWatchMode() {
+        LoggerUtil logger = LoggerUtil.getInstance(null);
+        try {
+            Config config = ConfigLoader.getConfig();
+            if (config == null) {
+                LoggerUtil.logError("[失败] 配置加载失败，请检查配置文件");
+                System.exit(1);
+                return;
+            }
+            FileWatchService watchService = new FileWatchService(config);
+            // Ctrl+C：发出停止信号后等待进行中的批次执行完，避免拷贝到一半 JVM 就退出
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (!watchService.stop(WATCH_SHUTDOWN_TIMEOUT_MILLIS)) {
+                    LoggerUtil.logWarn("[监听] 等待当前批次结束超时，强制退出");
+                }
+            }, "frt-watch-shutdown"));
+            watchService.run();
+        } catch (Throwable e) {
+            LoggerUtil.logException("[失败] 监听模式异常退出", e);
+        } finally {
+            logger.close();
+        }
+    }
+
     /**
      * 检测并处理未完成的操作会话
      * 操作过程中异常中断会留下 session-current.json，这里提示用户恢复
@@ -0,0 +1,499 @@
+package com.awei.frt.cli;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.BackupGc;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.context.PlanSink;
+import com.awei.frt.core.context.PlanTotals;
+import com.awei.frt.core.transaction.StagedTransaction;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.model.RestoreResult;
+import com.awei.frt.service.FanOutUpdateService;
+import com.awei.frt.service.FileDeleteService;
+import com.awei.frt.service.FileUpdateServiceNew;
+import com.awei.frt.ui.UserPrompter;
+import com.awei.frt.util.JsonLinesPlanSink;
+import com.awei.frt.util.LoggerUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 无头批处理命令行（供部署流水线 / 脚本调用）
+ * <pre>
+ *   java -jar FRT.jar update  [--yes] [--json] [--target DIR]... [--parallel N] [--update DIR] [--incremental] [--transactional] [--plan-file FILE] [--rollback-on-error]
+ *   java -jar FRT.jar delete  [--yes] [--json] [--target DIR] [--delete-path DIR] [--plan-file FILE] [--rollback-on-error]
+ *   java -jar FRT.jar restore [--yes] [--json] [--namespace NS] [--record NAME] [--rollback-on-error]
+ *   java -jar FRT.jar cleanup [--yes] [--json]
+ * </pre>
+ * 不经过任何 y/n 交互：不带 --yes 时只输出操作计划（不改动文件），带 --yes 才真正执行；
+ * 失败后的恢复 / 恢复失败后的回滚由 --rollback-on-error 决定（默认不执行）。
+ * update 指定多个 --target 时走多目标分发（见 FanOutUpdateService），各目标的记录在各自备份命名空间，
+ * 恢复时用 --namespace 指定。
+ * <p>
+ * 输出约定：stdout 只输出结果（--json 时为一个 JSON 对象），日志与过程信息全部转到 stderr，
+ * 且不再把 System.out/err 记录进日志文件（日志框架自身的文件日志照常）。
+ * 快速启动：不初始化 Swing，策略插件只在规则用到未知类型时才扫描（见 StrategyFactory.ensureExternalLoaded）。
+ */
+public final class FrtCli {
+
+    /** 退出码：成功（或无事可做） */
+    public static final int EXIT_OK = 0;
+    /** 退出码：部分失败（有失败项 / 恢复不完整 / 清理不完整） */
+    public static final int EXIT_PARTIAL = 1;
+    /** 退出码：用法错误（未知命令、参数缺值、备份记录不存在） */
+    public static final int EXIT_USAGE = 2;
+    /** 退出码：有待执行的操作但未带 --yes（仅输出了计划） */
+    public static final int EXIT_NOT_CONFIRMED = 3;
+    /** 退出码：致命错误（配置加载失败、未预期异常） */
+    public static final int EXIT_FATAL = 4;
+
+    /** 支持的子命令 */
+    public static final Set<String> COMMANDS = Set.of("update", "delete", "restore", "cleanup");
+
+    // 退出前等待后台备份清理（保留策略 / 回收）结束的最长时间
+    private static final long BACKGROUND_FINISH_TIMEOUT_MILLIS = 120_000;
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private FrtCli() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 是否为命令行子命令（Main 据此分流，早于 Swing / 交互菜单初始化）
+     */
+    public static boolean isCommand(String arg) {
+        return arg != null && COMMANDS.contains(arg);
+    }
+
+    /**
+     * 进程入口：stdout 留给结果输出，其余输出转到 stderr，执行完毕以退出码结束进程
+     */
+    public static void main(String[] args) {
+        PrintStream stdout = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        // 过程输出（预览、文件树、统计、日志控制台）全部转到 stderr，保证 stdout 可被机器解析
+        System.setOut(System.err);
+        LoggerUtil logger = LoggerUtil.getInstance(null);
+        logger.disableSystemOutputCapture();
+        int code;
+        try {
+            code = run(args, stdout);
+            // 保留策略 / 回收在守护线程上执行：退出前让它们跑完，定时任务场景下备份目录大小才有上限
+            if (!BackupGc.finishBackground(BACKGROUND_FINISH_TIMEOUT_MILLIS)) {
+                LoggerUtil.logWarn("[保留策略] 等待后台备份清理超时，剩余部分在下次运行时继续");
+            }
+        } finally {
+            stdout.flush();
+            logger.close();
+        }
+        System.exit(code);
+    }
+
+    /**
+     * 执行一条命令（不退出进程，便于测试）
+     * @param args 命令行参数（首个为子命令）
+     * @param out  结果输出流
+     * @return 退出码（EXIT_*）
+     */
+    public static int run(String[] args, PrintStream out) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            out.println(usage());
+            return EXIT_USAGE;
+        }
+        if (options.help) {
+            out.println(usage());
+            return EXIT_OK;
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("command", options.command);
+        int code;
+        try {
+            Config config = buildConfig(options);
+            if (config == null) {
+                report.put("status", "error");
+                report.put("message", "配置加载失败，请检查配置文件");
+                code = EXIT_FATAL;
+            } else {
+                // 先收尾中断的事务化更新（回滚或前滚），再检查未完成会话
+                StagedTransaction.recoverPending();
+                if (BackupFileLoader.hasSessionRecord()) {
+                    LoggerUtil.logWarn("[警告] 检测到未完成的操作会话（session-current.json），请先在交互模式中处理");
+                }
+                code = switch (options.command) {
+                    case "update" -> runUpdate(config, options, report);
+                    case "delete" -> runDelete(config, options, report);
+                    case "restore" -> BackupFileLoader.runInNamespace(options.namespace,
+                            () -> runRestore(options, report));
+                    default -> runCleanup(options, report);
+                };
+            }
+        } catch (Exception e) {
+            LoggerUtil.logException("[失败] 命令执行失败: " + options.command, e);
+            report.put("status", "error");
+            report.put("message", String.valueOf(e.getMessage()));
+            code = EXIT_FATAL;
+        }
+        report.put("exitCode", code);
+        print(out, report, options.json);
+        return code;
+    }
+
+    // ---------------- 子命令 ----------------
+
+    private static int runUpdate(Config config, Options options, Map<String, Object> report) throws IOException {
+        if (options.targets.size() > 1) {
+            return runFanOut(config, options, report);
+        }
+        FileUpdateServiceNew service = new FileUpdateServiceNew(config, rollbackPrompter(options));
+        if (!options.yes && options.planFile != null) {
+            return streamPlan(sink -> service.planUpdate(sink, false), options.planFile, report);
+        }
+        if (!options.yes) {
+            return reportPlan(service.planUpdate(), report);
+        }
+        return reportApplied(service.applyUpdate(null), report);
+    }
+
+    private static int runDelete(Config config, Options options, Map<String, Object> report) throws IOException {
+        FileDeleteService service = new FileDeleteService(config, rollbackPrompter(options));
+        if (!options.yes && options.planFile != null) {
+            return streamPlan(sink -> service.planDelete(sink, false), options.planFile, report);
+        }
+        if (!options.yes) {
+            return reportPlan(service.planDelete(), report);
+        }
+        return reportApplied(service.applyDelete(null), report);
+    }
+
+    /**
+     * 多目标分发：每个目标一份子报告，整体退出码取最严重者（未确认 > 部分失败 > 成功）
+     */
+    private static int runFanOut(Config config, Options options, Map<String, Object> report) {
+        FanOutUpdateService service = new FanOutUpdateService(config, options.targets,
+                rollbackPrompter(options), options.parallel);
+        Map<Path, ProcessingResult> results = options.yes ? service.applyUpdate() : service.planUpdate();
+        List<Map<String, Object>> targetReports = new ArrayList<>();
+        int code = EXIT_OK;
+        for (Map.Entry<Path, ProcessingResult> entry : results.entrySet()) {
+            Map<String, Object> targetReport = new LinkedHashMap<>();
+            targetReport.put("target", entry.getKey().toString());
+            targetReport.put("namespace", FanOutUpdateService.namespaceOf(entry.getKey()));
+            int targetCode = options.yes ? reportApplied(entry.getValue(), targetReport)
+                    : reportPlan(entry.getValue(), targetReport);
+            targetReport.put("exitCode", targetCode);
+            targetReports.add(targetReport);
+            code = Math.max(code, targetCode);
+        }
+        report.put("status", code == EXIT_OK ? (options.yes ? "applied" : "nothing-to-do")
+                : code == EXIT_PARTIAL ? "partial" : "planned");
+        report.put("targets", targetReports);
+        return code;
+    }
+
+    private static int runRestore(Options options, Map<String, Object> report) {
+        Map<String, ProcessingResult> records = BackupFileLoader.getOperationRecordFiles();
+        String name = options.record;
+        ProcessingResult selected;
+        if (name == null) {
+            if (records.isEmpty()) {
+                report.put("status", "nothing-to-do");
+                report.put("message", "没有可用的备份记录");
+                return EXIT_OK;
+            }
+            // 记录按时间倒序排列，首个即最新
+            name = records.keySet().iterator().next();
+            selected = records.get(name);
+        } else {
+            if (!name.endsWith(".json")) {
+                name = name + ".json";
+            }
+            selected = records.get(name);
+            if (selected == null) {
+                report.put("status", "error");
+                report.put("message", "备份记录不存在: " + options.record);
+                return EXIT_USAGE;
+            }
+        }
+        report.put("record", name);
+        if (!options.yes) {
+            report.put("status", "planned");
+            report.put("plan", operations(selected.getOperationRecords(), true));
+            return EXIT_NOT_CONFIRMED;
+        }
+        RestoreResult restoreResult = BackupFileLoader.restoreFromResult(selected, rollbackPrompter(options));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("successCount", restoreResult.getSuccessCount());
+        result.put("failureCount", restoreResult.getFailureCount());
+        result.put("rollbackCount", restoreResult.getRollbackCount());
+        result.put("failureMessages", restoreResult.getFailureMessages());
+        report.put("status", restoreResult.isFullSuccess() ? "applied" : "partial");
+        report.put("result", result);
+        return restoreResult.isFullSuccess() ? EXIT_OK : EXIT_PARTIAL;
+    }
+
+    private static int runCleanup(Options options, Map<String, Object> report) {
+        BackupGc.Cycle cycle = BackupFileLoader.collectBackupGarbage();
+        if (cycle == null || (cycle.getRecordCount() == 0 && cycle.getUnreadableRecords() == 0)) {
+            // 与交互模式一致：无记录可参照时不清理，防止误删
+            report.put("status", "nothing-to-do");
+            report.put("message", "没有可参照的备份记录，为防止误删备份文件已跳过清理");
+            return EXIT_OK;
+        }
+        List<BackupGc.Orphan> orphans = cycle.getOrphans();
+        List<String> plan = new ArrayList<>();
+        for (BackupGc.Orphan orphan : orphans) {
+            plan.add(orphan.path().toString());
+        }
+        report.put("plan", plan);
+        if (orphans.isEmpty()) {
+            report.put("status", "nothing-to-do");
+            return EXIT_OK;
+        }
+        if (!options.yes) {
+            report.put("status", "planned");
+            return EXIT_NOT_CONFIRMED;
+        }
+        BackupGc.SweepResult sweep = BackupFileLoader.sweepOrphanBackupFiles(() -> "y");
+        int deleted = sweep.deleted();
+        report.put("result", Map.of("deleted", deleted, "total", orphans.size(),
+                "bytesReclaimed", sweep.bytesReclaimed()));
+        report.put("status", deleted == orphans.size() ? "applied" : "partial");
+        return deleted == orphans.size() ? EXIT_OK : EXIT_PARTIAL;
+    }
+
+    // ---------------- 结果组装 ----------------
+
+    private static int reportPlan(ProcessingResult preview, Map<String, Object> report) {
+        List<Map<String, Object>> plan = operations(preview.getOperationRecords(), false);
+        report.put("status", plan.isEmpty() ? "nothing-to-do" : "planned");
+        report.put("plan", plan);
+        return plan.isEmpty() ? EXIT_OK : EXIT_NOT_CONFIRMED;
+    }
+
+    /**
+     * 计划流式写入 JSON Lines 文件（不在内存中保留完整计划），报告只含合计与文件路径
+     */
+    private static int streamPlan(Function<PlanSink, ProcessingResult> planner, Path planFile,
+                                  Map<String, Object> report) throws IOException {
+        PlanTotals totals;
+        try (JsonLinesPlanSink sink = new JsonLinesPlanSink(planFile)) {
+            planner.apply(sink);
+            totals = sink.getTotals();
+        }
+        report.put("status", totals.getTotal() == 0 ? "nothing-to-do" : "planned");
+        report.put("planFile", planFile.toString());
+        report.put("planTotals", totals.toMap());
+        return totals.getTotal() == 0 ? EXIT_OK : EXIT_NOT_CONFIRMED;
+    }
+
+    private static int reportApplied(ProcessingResult result, Map<String, Object> report) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("successCount", result.getSuccessCount());
+        summary.put("skipCount", result.getSkipCount());
+        summary.put("errorCount", result.getErrorCount());
+        summary.put("operations", operations(result.getOperationRecords(), false));
+        if (result.getMetrics() != null) {
+            summary.put("metrics", result.getMetrics().toSnapshot());
+        }
+        boolean partial = result.getErrorCount() > 0;
+        report.put("status", partial ? "partial" : (result.getSuccessCount() > 0 ? "applied" : "nothing-to-do"));
+        report.put("result", summary);
+        return partial ? EXIT_PARTIAL : EXIT_OK;
+    }
+
+    /**
+     * 操作记录转为输出结构
+     * @param successOnly 只保留成功记录（恢复计划只包含真正执行过、可恢复的操作）
+     */
+    private static List<Map<String, Object>> operations(List<OperationRecord> records, boolean successOnly) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        if (records == null) {
+            return list;
+        }
+        for (OperationRecord r : records) {
+            if (successOnly && !r.isSuccess()) {
+                continue;
+            }
+            list.add(JsonLinesPlanSink.toMap(r));
+        }
+        return list;
+    }
+
+    private static void print(PrintStream out, Map<String, Object> report, boolean json) {
+        if (json) {
+            try {
+                out.println(JSON.writeValueAsString(report));
+            } catch (JsonProcessingException e) {
+                // 结构只含基本类型 / 集合，不会走到这里；兜底输出最小 JSON
+                out.println("{\"command\":\"" + report.get("command") + "\",\"status\":\"error\",\"exitCode\":" + EXIT_FATAL + "}");
+            }
+            return;
+        }
+        StringBuilder line = new StringBuilder();
+        line.append(report.get("command")).append(": ").append(report.get("status"));
+        Object plan = report.get("plan");
+        if (plan instanceof List<?> list) {
+            line.append(", 计划 ").append(list.size()).append(" 项");
+        }
+        Object result = report.get("result");
+        if (result instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                if (e.getValue() instanceof Number) {
+                    line.append(", ").append(e.getKey()).append('=').append(e.getValue());
+                }
+            }
+        }
+        if (report.get("message") != null) {
+            line.append(" (").append(report.get("message")).append(')');
+        }
+        out.println(line);
+    }
+
+    // ---------------- 配置与参数 ----------------
+
+    /**
+     * 在已加载配置的副本上应用命令行覆盖项（不修改全局配置单例）
+     */
+    private static Config buildConfig(Options options) {
+        Config loaded = ConfigLoader.getConfig();
+        if (loaded == null) {
+            return null;
+        }
+        Config config = loaded.copy();
+        if (options.update != null) {
+            config.setUpdatePath(options.update);
+        }
+        if (options.targets.size() == 1) {
+            config.setTargetPath(options.targets.get(0));
+        }
+        if (options.deletePath != null) {
+            config.setDeletePath(options.deletePath);
+        }
+        config.setIncrementalUpdate(options.incremental || loaded.isIncrementalUpdate());
+        config.setTransactionalUpdate(options.transactional || loaded.isTransactionalUpdate());
+        return config;
+    }
+
+    /**
+     * 失败恢复 / 恢复回滚询问的固定回答（由 --rollback-on-error 决定）
+     */
+    private static UserPrompter rollbackPrompter(Options options) {
+        String answer = options.rollbackOnError ? "y" : "n";
+        return () -> answer;
+    }
+
+    static String usage() {
+        return String.join(System.lineSeparator(),
+                "用法: java -jar FRT.jar <update|delete|restore|cleanup> [选项]",
+                "  --yes, -y             真正执行（不带时只输出操作计划，有待执行操作时退出码 3）",
+                "  --json                以 JSON 输出计划 / 结果到 stdout",
+                "  --target DIR          覆盖目标目录（update 可重复指定，多个目标并发分发）",
+                "  --parallel N          多目标分发的最大并发数（默认 CPU 核数）",
+                "  --update DIR          覆盖更新目录（update）",
+                "  --delete-path DIR     覆盖删除目录（delete）",
+                "  --incremental         启用增量更新（update）",
+                "  --plan-file FILE      计划逐条流式写入 JSON Lines 文件（update/delete 预览，不在内存保留完整计划）",
+                "  --transactional       事务化更新：全部暂存就绪后统一原子提交（update）",
+                "  --record NAME         指定要恢复的备份记录（restore，默认最新）",
+                "  --namespace NS        恢复多目标分发某个目标的记录（restore，见 update 输出的 namespace）",
+                "  --rollback-on-error   有失败项时自动恢复 / 恢复失败时自动回滚",
+                "退出码: 0 成功, 1 部分失败, 2 用法错误, 3 未确认(仅计划), 4 致命错误");
+    }
+
+    /**
+     * 命令行选项（路径覆盖项按当前工作目录解析为绝对路径）
+     */
+    static final class Options {
+        String command;
+        boolean yes;
+        boolean json;
+        boolean help;
+        boolean incremental;
+        boolean transactional;
+        boolean rollbackOnError;
+        List<Path> targets = new ArrayList<>();
+        int parallel = Runtime.getRuntime().availableProcessors();
+        String namespace;
+        Path update;
+        Path deletePath;
+        Path planFile;
+        String record;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            if (args == null || args.length == 0) {
+                throw new IllegalArgumentException("缺少子命令");
+            }
+            options.command = args[0];
+            if (!isCommand(options.command)) {
+                throw new IllegalArgumentException("未知子命令: " + options.command);
+            }
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "--yes", "-y" -> options.yes = true;
+                    case "--json" -> options.json = true;
+                    case "--help", "-h" -> options.help = true;
+                    case "--incremental" -> options.incremental = true;
+                    case "--transactional" -> options.transactional = true;
+                    case "--rollback-on-error" -> options.rollbackOnError = true;
+                    case "--target" -> options.targets.add(Path.of(value(args, ++i, arg)).toAbsolutePath());
+                    case "--parallel" -> options.parallel = parsePositive(value(args, ++i, arg), arg);
+                    case "--namespace" -> options.namespace = value(args, ++i, arg);
+                    case "--update" -> options.update = Path.of(value(args, ++i, arg)).toAbsolutePath();
+                    case "--delete-path" -> options.deletePath = Path.of(value(args, ++i, arg)).toAbsolutePath();
+                    case "--record" -> options.record = value(args, ++i, arg);
+                    case "--plan-file" -> options.planFile = Path.of(value(args, ++i, arg)).toAbsolutePath();
+                    default -> throw new IllegalArgumentException("未知参数: " + arg);
+                }
+            }
+            if (options.targets.size() > 1 && !options.command.equals("update")) {
+                throw new IllegalArgumentException("多个 --target 仅支持 update 命令");
+            }
+            if (options.planFile != null && (options.targets.size() > 1
+                    || !(options.command.equals("update") || options.command.equals("delete")))) {
+                throw new IllegalArgumentException("--plan-file 仅支持 update / delete 的单目标预览");
+            }
+            return options;
+        }
+
+        private static int parsePositive(String value, String name) {
+            try {
+                int n = Integer.parseInt(value);
+                if (n > 0) {
+                    return n;
+                }
+            } catch (NumberFormatException ignored) {
+                // 落到下方统一报错
+            }
+            throw new IllegalArgumentException("参数取值必须是正整数: " + name + " " + value);
+        }
+
+        private static String value(String[] args, int index, String name) {
+            if (index >= args.length || args[index].startsWith("--")) {
+                throw new IllegalArgumentException("参数缺少取值: " + name);
+            }
+            return args[index];
+        }
+    }
+}
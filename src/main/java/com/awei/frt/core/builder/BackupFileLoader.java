@@ -1,7 +1,10 @@
 package com.awei.frt.core.builder;
 
 import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.metrics.MetricsRegistry;
+import com.awei.frt.core.sync.SyncState;
 import com.awei.frt.core.uitls.FileSignUtil;
+import com.awei.frt.core.uitls.FileTransferUtil;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.OperationRecord;
 import com.awei.frt.model.ProcessingResult;
@@ -30,6 +33,7 @@ import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -39,12 +43,18 @@ import java.util.stream.Stream;
  * @Description: 备份文件加载器
  */
 public class BackupFileLoader {
-    // 加载的备份文件列表
-    private static Map<String, Path> backupFiles = new HashMap<>();
+    // 加载的备份文件列表（MD5 -> 备份文件；全局索引，覆盖所有目标命名空间；多目标分发时并发读写）
+    private static Map<String, Path> backupFiles = new ConcurrentHashMap<>();
+    // 备份文件索引对应的备份根目录（loadBackupFiles 时记录，孤立文件查找在同一目录上进行）
+    private static volatile Path indexedBackupPath;
+    // 首次备份前按需加载备份文件索引（只加载一次，见 ensureBackupIndexLoaded）
+    private static final Object INDEX_LOAD_LOCK = new Object();
     // 加载的操作记录集文件列表
     private static Map<String, ProcessingResult> operationRecordFiles = new HashMap<>();
     // 未完成会话的临时记录文件名（操作过程中实时写入，异常中断后用于恢复）
     private static final String SESSION_RECORD_FILE = "session-current.json";
+    // 会话性能指标文件后缀（与操作记录同名并列：backup-20260131-143045.metrics.json）
+    static final String METRICS_FILE_SUFFIX = ".metrics.json";
 
     /**
      * 备份体系共享 JSON 序列化器（线程安全可复用）：
@@ -90,6 +100,94 @@ public class BackupFileLoader {
     // 会话记录共享 JSON 序列化器（同 BACKUP_MAPPER，别名语义更清晰）
     private static final ObjectMapper SESSION_MAPPER = BACKUP_MAPPER;
 
+    /**
+     * 当前线程的备份命名空间根目录（null = 默认根目录 backup/）：
+     * 多目标分发时每个目标在自己的线程里运行，记录 / 会话文件 / 同步清单 / 备份文件
+     * 都落到 backup/targets/{namespace}/ 下，互不覆盖（见 runInNamespace）
+     */
+    private static final ThreadLocal<Path> NAMESPACE_ROOT = new ThreadLocal<>();
+    // 目标命名空间所在子目录
+    public static final String NAMESPACES_DIR = "targets";
+    // 备份写入中的临时文件后缀（FRT 专用，回收 / 索引只跳过这个后缀，被备份的 *.tmp 文件不受影响）
+    static final String TEMP_SUFFIX = ".frt-tmp";
+
+    /**
+     * 在指定备份命名空间内执行（当前线程生效，执行完恢复原作用域）
+     * @param namespace 命名空间名（null 表示默认根目录）
+     * @param action    要执行的操作
+     * @return 操作结果
+     */
+    public static <T> T runInNamespace(String namespace, java.util.function.Supplier<T> action) {
+        Path previous = NAMESPACE_ROOT.get();
+        Path root = ConfigLoader.getBackupPath();
+        if (namespace == null || root == null) {
+            NAMESPACE_ROOT.remove();
+        } else {
+            NAMESPACE_ROOT.set(root.resolve(NAMESPACES_DIR).resolve(namespace).normalize());
+        }
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                NAMESPACE_ROOT.remove();
+            } else {
+                NAMESPACE_ROOT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 当前作用域的备份根目录（默认 backup/，命名空间内为 backup/targets/{namespace}/）
+     */
+    public static Path getBackupRoot() {
+        Path root = NAMESPACE_ROOT.get();
+        return root != null ? root : ConfigLoader.getBackupPath();
+    }
+
+    /**
+     * 列出已有的目标命名空间（backup/targets/ 下的子目录名）
+     */
+    public static List<String> listNamespaces() {
+        Path backupPath = ConfigLoader.getBackupPath();
+        if (backupPath == null || !Files.isDirectory(backupPath.resolve(NAMESPACES_DIR))) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> dirs = Files.list(backupPath.resolve(NAMESPACES_DIR))) {
+            return dirs.filter(Files::isDirectory)
+                    .map(dir -> dir.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            LoggerUtil.logException("列出备份命名空间失败", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * 加载所有命名空间的操作记录（key 为 "{namespace}/{记录文件名}"），供引用检查跨命名空间使用
+     */
+    private static Map<String, ProcessingResult> loadNamespaceRecords() {
+        Map<String, ProcessingResult> all = new LinkedHashMap<>();
+        for (String namespace : listNamespaces()) {
+            Map<String, ProcessingResult> records = runInNamespace(namespace, BackupFileLoader::loadOperationRecordsFiles);
+            records.forEach((name, result) -> all.put(namespace + "/" + name, result));
+        }
+        return all;
+    }
+
+    /**
+     * 是否为被备份的文件内容（排除 record/ 与 FRT 状态目录 .frt-state/，含各命名空间下的同名目录）
+     */
+    static boolean isBackupContent(Path backupPath, Path filePath) {
+        Path relative = backupPath.relativize(filePath);
+        int metaIndex = relative.getNameCount() > 2 && relative.getName(0).toString().equals(NAMESPACES_DIR) ? 2 : 0;
+        if (relative.getNameCount() <= metaIndex) {
+            return true;
+        }
+        String first = relative.getName(metaIndex).toString();
+        return !first.equals("record") && !first.equals(SyncState.STATE_DIR);
+    }
+
     /**
      * 获取操作记录集文件列表（每次都重新扫描 record 目录，保证最新）：
      * 更新/删除操作产生新备份后，备份功能列表应能立即看到；
@@ -126,35 +224,60 @@ public class BackupFileLoader {
         return backupFiles;
     }
 
+    /**
+     * 测试用：清空内存中的备份文件索引（切换备份路径后下次 getBackupFiles 按新路径重新加载）
+     * 仅测试代码调用；生产流程不要使用
+     */
+    public static void resetBackupIndexForTesting() {
+        backupFiles.clear();
+        indexedBackupPath = null;
+        BackupGc.resetInFlight();
+    }
+
     /**
      * 加载备份文件列表
      * @param backupPath 备份目录路径
      */
     public static Map<String, Path>loadBackupFiles(Path backupPath) {
         if (Files.exists(backupPath)) {
+            // 备份记录/会话文件所在的 record 子目录：这些是操作记录 JSON，不是被备份的文件，
+            // 不应算进备份文件索引（否则会污染 MD5 索引并可能被误删/误恢复）；
+            // 由一轮只读回收顺带建立：指纹未变的备份文件复用持久化索引里的 MD5，不再逐个读盘哈希；
+            // 加载索引不写盘（持久化索引与孤立计数由后台回收 / 清理刷新）
+            BackupGc.Cycle cycle = BackupGc.scan(backupPath);
             // 清空旧数据，避免重复加载
             backupFiles.clear();
-            // 备份记录/会话文件所在的 record 子目录：这些是操作记录 JSON，不是被备份的文件，
-            // 不应算进备份文件索引（否则会污染 MD5 索引并可能被误删/误恢复）
-            Path recordDir = backupPath.resolve("record").normalize();
-            try (Stream<Path> paths = Files.walk(backupPath)) {
-                paths.filter(Files::isRegularFile) // 只保留文件
-                        .filter(filePath -> !filePath.startsWith(recordDir)) // 排除记录目录
-                        .forEach(filePath -> {
-                            if (backupFiles == null) {
-                                backupFiles = new HashMap<>();
-                            }
-                            String fileMd5 = FileSignUtil.getFileMd5(filePath); // 获取文件的MD5特征码
-                            backupFiles.put(fileMd5, filePath);
-                        });
-            } catch (IOException e) {
-                LoggerUtil.logException("加载备份文件列表失败", e);
-                return null;
-            }
+            backupFiles.putAll(cycle.getBlobIndex());
+            indexedBackupPath = backupPath;
         }
         return backupFiles;
     }
 
+    /**
+     * 确保备份文件索引已按备份目录加载（每个进程在首次备份前加载一次）：
+     * 查重要能看到以往运行留下的备份，否则同内容会重复存一份，覆盖同一镜像路径时还会替换掉旧备份。
+     * 复用持久化回收索引的只读扫描（指纹未变的备份文件不再哈希）；
+     * 合并时不覆盖本进程已登记的条目，加载期间其他备份线程在此等待。
+     */
+    private static void ensureBackupIndexLoaded() {
+        if (indexedBackupPath != null) {
+            return;
+        }
+        synchronized (INDEX_LOAD_LOCK) {
+            Path backupPath = ConfigLoader.getBackupPath();
+            if (indexedBackupPath != null || backupPath == null) {
+                return;
+            }
+            if (Files.isDirectory(backupPath)) {
+                Map<String, Path> loaded = BackupGc.scan(backupPath).getBlobIndex();
+                synchronized (BackupGc.REFERENCE_LOCK) {
+                    loaded.forEach(backupFiles::putIfAbsent);
+                }
+            }
+            indexedBackupPath = backupPath;
+        }
+    }
+
     /**
      * 增加备份文件
      * @param filePath 文件路径
@@ -166,21 +289,41 @@ public class BackupFileLoader {
                 LoggerUtil.logErrorMsg("备份文件失败: 不是有效文件");
                 return false;
             }
-            // 检查文件是否已存在于备份文件列表中（存在更改为新路径）
-            String fileMd5 = FileSignUtil.getFileMd5(filePath);
-            Path backupFilePath = getBackupFilePath(filePath);
-            if (backupFiles.containsKey(fileMd5)) {
-                backupFiles.put(fileMd5, backupFilePath);
+            // 同内容（MD5）已有备份文件时直接复用，不再重复复制：
+            // 原实现此处把索引改指向"新路径"却不复制文件，索引指向不存在的文件，恢复时报"备份文件不存在"
+            // （多目标分发时各目标的原文件往往相同，必现）
+            // 特征码已缓存（如策略做过内容比对）时先查重；未缓存时不单独读盘哈希，
+            // 而是边复制到临时文件边计算（一遍读取，见 FileTransferUtil），再按结果查重
+            ensureBackupIndexLoaded();
+            String knownMd5 = FileSignUtil.getCachedMd5(filePath);
+            if (knownMd5 != null && reuseBackup(knownMd5)) {
                 return true;
             }
+            Path backupFilePath = getBackupFilePath(filePath);
 
             // 备份文件（按相对路径镜像存储，避免不同目录下同名文件互相覆盖）
             Path parentDir = backupFilePath.getParent();
             if (parentDir != null && !Files.exists(parentDir)) {
                 Files.createDirectories(parentDir);
             }
-            Files.copy(filePath, backupFilePath, StandardCopyOption.REPLACE_EXISTING);
-            backupFiles.put(fileMd5, backupFilePath);
+            Path tempPath = backupFilePath.resolveSibling(backupFilePath.getFileName() + TEMP_SUFFIX);
+            String fileMd5;
+            try {
+                fileMd5 = FileTransferUtil.copyWithMd5(filePath, tempPath, knownMd5);
+                synchronized (BackupGc.REFERENCE_LOCK) {
+                    if (reuseBackup(fileMd5)) {
+                        // 同内容已有备份：保留已有文件，丢弃刚复制的临时文件
+                        return true;
+                    }
+                    // 落位、在途登记与索引更新在同一把锁内：回收的"指纹未变"判定与改名移出不会夹在中间，
+                    // 不会把刚覆盖到同一镜像路径上的新备份当成旧的孤立文件移走
+                    Files.move(tempPath, backupFilePath, StandardCopyOption.REPLACE_EXISTING);
+                    BackupGc.markInFlight(fileMd5);
+                    backupFiles.put(fileMd5, backupFilePath);
+                }
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
             return true;
         } catch (IOException e) {
             LoggerUtil.logException("备份文件失败", e);
@@ -188,6 +331,43 @@ public class BackupFileLoader {
         }
     }
 
+    /**
+     * 用备份还原单个文件（替换中途被取消时，把写了一半的目标还原为替换前的内容）
+     * @param fileMd5    替换前目标文件的特征码（备份索引 key）
+     * @param targetPath 要还原的目标文件
+     * @return 是否还原成功
+     */
+    public static boolean restoreBackupFile(String fileMd5, Path targetPath) {
+        if (fileMd5 == null || !isBackedUp(fileMd5)) {
+            LoggerUtil.logErrorMsg("还原文件失败: 未找到备份 (MD5: " + fileMd5 + ") " + targetPath);
+            return false;
+        }
+        try {
+            Files.copy(backupFiles.get(fileMd5), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            LoggerUtil.logException("还原文件失败: " + targetPath, e);
+            return false;
+        }
+    }
+
+    // 同内容（MD5）是否已有可用的备份文件
+    private static boolean isBackedUp(String fileMd5) {
+        Path existing = backupFiles.get(fileMd5);
+        return existing != null && Files.isRegularFile(existing);
+    }
+
+    // 复用同内容的已有备份：判定与在途登记在同一把锁内，回收不会在两者之间删掉该备份
+    private static boolean reuseBackup(String fileMd5) {
+        synchronized (BackupGc.REFERENCE_LOCK) {
+            if (!isBackedUp(fileMd5)) {
+                return false;
+            }
+            BackupGc.markInFlight(fileMd5);
+            return true;
+        }
+    }
+
     /**
      * 计算备份文件路径：以基准目录为根镜像原始文件的相对路径，
      * 避免不同目录下同名文件互相覆盖；无法相对化时退回文件名方案
@@ -195,7 +375,7 @@ public class BackupFileLoader {
      * @return 备份文件路径
      */
     private static Path getBackupFilePath(Path filePath) {
-        Path backupPath = ConfigLoader.getBackupPath();
+        Path backupPath = getBackupRoot();
         Config config = ConfigLoader.getConfig();
         if (config == null || filePath == null) {
             return backupPath.resolve(filePath != null ? filePath.getFileName() : Path.of("unknown")).normalize();
@@ -215,6 +395,15 @@ public class BackupFileLoader {
         return backupPath.resolve(rel).normalize();
     }
 
+    /**
+     * 从备份索引移除已被删除的备份文件（仅当索引仍指向该文件时）
+     */
+    static void forgetBackupFile(String fileMd5, Path filePath) {
+        Path normalized = filePath.toAbsolutePath().normalize();
+        backupFiles.computeIfPresent(fileMd5,
+                (md5, indexed) -> indexed.toAbsolutePath().normalize().equals(normalized) ? null : indexed);
+    }
+
     /**
      * 删除备份文件
      * @param filePath 文件路径
@@ -255,7 +444,7 @@ public class BackupFileLoader {
             }
 
             // 2. 检查备份路径是否可用
-            Path backupPath = ConfigLoader.getBackupPath();
+            Path backupPath = getBackupRoot();
             if (backupPath == null) {
                 LoggerUtil.logErrorMsg("保存操作记录失败: 备份路径为空");
                 return false;
@@ -273,8 +462,9 @@ public class BackupFileLoader {
                 return false;
             }
 
-            // 5. 生成友好的备份文件名（backup-20260131-143045.json格式）
-            String fileName = generateFriendlyFileName(record.getResultTime());
+            // 5. 生成友好的备份文件名（backup-20260131-143045.json格式）；
+            //    同一秒内已有记录（如监听模式连续批次）时追加序号，避免覆盖
+            String fileName = uniqueRecordFileName(backupPath, generateFriendlyFileName(record.getResultTime()));
 
             // 6. 构建文件路径并规范化
             Path recordFilePath = backupPath.resolve(fileName + ".json").normalize();
@@ -303,9 +493,11 @@ public class BackupFileLoader {
                         StandardCopyOption.ATOMIC_MOVE,
                         StandardCopyOption.REPLACE_EXISTING);
 
+                // 9.3 性能指标并列写出（失败不影响操作记录本身）
+                saveMetrics(record, backupPath.resolve(fileName + METRICS_FILE_SUFFIX));
                 return true;
             } catch (Exception e) {
-                // 9.3 发生异常，删除临时文件，确保不留下不完整文件
+                // 9.4 发生异常，删除临时文件，确保不留下不完整文件
                 try {
                     if (Files.exists(tempFilePath)) {
                         Files.deleteIfExists(tempFilePath);
@@ -327,6 +519,33 @@ public class BackupFileLoader {
         }
     }
 
+    /**
+     * 写出会话性能指标（操作记录旁的 *.metrics.json；未绑定指标时跳过）
+     * @param record      处理结果（携带 MetricsRegistry）
+     * @param metricsPath 指标文件路径
+     */
+    private static void saveMetrics(ProcessingResult record, Path metricsPath) {
+        if (record.getMetrics() == null) {
+            return;
+        }
+        try {
+            BACKUP_MAPPER.writerWithDefaultPrettyPrinter()
+                    .writeValue(metricsPath.toFile(), record.getMetrics().toSnapshot());
+        } catch (Exception e) {
+            LoggerUtil.logErrorMsg("保存性能指标失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 操作记录文件名（含 .json）对应的指标文件名
+     */
+    private static String metricsFileName(String recordFileName) {
+        String base = recordFileName.endsWith(".json")
+                ? recordFileName.substring(0, recordFileName.length() - ".json".length())
+                : recordFileName;
+        return base + METRICS_FILE_SUFFIX;
+    }
+
     /**
      * 增量追加一条会话操作记录（每次操作后调用，P3 优化）
      * 写入临时文件 session-current.json（JSON Lines 格式：一行一条 OperationRecord），
@@ -340,7 +559,7 @@ public class BackupFileLoader {
             return false;
         }
         try {
-            Path backupPath = ConfigLoader.getBackupPath();
+            Path backupPath = getBackupRoot();
             if (backupPath == null) {
                 return false;
             }
@@ -350,8 +569,14 @@ public class BackupFileLoader {
             }
             Path sessionFile = recordPath.resolve(SESSION_RECORD_FILE).normalize();
             String line = SESSION_MAPPER.writeValueAsString(record) + System.lineSeparator();
-            Files.writeString(sessionFile, line, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            synchronized (BackupGc.REFERENCE_LOCK) {
+                // 引用落盘后解除在途登记（回收补标记时读到的会话记录不会是写了一半的行）
+                Files.writeString(sessionFile, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                Set<String> signs = new HashSet<>();
+                collectSigns(record, signs);
+                BackupGc.clearInFlight(signs);
+            }
             return true;
         } catch (Exception e) {
             LoggerUtil.logErrorMsg("实时保存操作记录失败: " + e.getMessage());
@@ -380,31 +605,78 @@ public class BackupFileLoader {
         }
         Path sessionFile = getSessionRecordPath();
         try {
-            String content = Files.readString(sessionFile, StandardCharsets.UTF_8);
-            if (content == null || content.isBlank()) {
-                return null;
-            }
-            // 旧格式探测：整文件是 ProcessingResult（含 operationRecords 数组字段）
-            if (content.contains("\"operationRecords\"")) {
-                return SESSION_MAPPER.readValue(content, ProcessingResult.class);
+            return parseSessionContent(Files.readString(sessionFile, StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            LoggerUtil.logException("加载会话记录失败: " + sessionFile, e);
+            return null;
+        }
+    }
+
+    // 解析会话记录内容（空内容返回 null）
+    private static ProcessingResult parseSessionContent(String content) throws IOException {
+        if (content == null || content.isBlank()) {
+            return null;
+        }
+        // 旧格式探测：整文件是 ProcessingResult（含 operationRecords 数组字段）
+        if (content.contains("\"operationRecords\"")) {
+            return SESSION_MAPPER.readValue(content, ProcessingResult.class);
+        }
+        // 新格式：逐行解析 OperationRecord
+        ProcessingResult result = new ProcessingResult();
+        String[] lines = content.split("\r?\n");
+        for (String line : lines) {
+            if (line == null || line.isBlank()) {
+                continue;
             }
-            // 新格式：逐行解析 OperationRecord
-            ProcessingResult result = new ProcessingResult();
-            String[] lines = content.split("\r?\n");
-            for (String line : lines) {
-                if (line == null || line.isBlank()) {
-                    continue;
-                }
-                OperationRecord record = SESSION_MAPPER.readValue(line, OperationRecord.class);
-                result.addOperationRecord(record);
+            OperationRecord record = SESSION_MAPPER.readValue(line, OperationRecord.class);
+            result.addOperationRecord(record);
+        }
+        return result;
+    }
+
+    /**
+     * 读取记录目录下的单个文件（备份回收标记用）：会话记录按会话格式解析，其余按操作记录解析
+     * @param file 记录文件
+     * @return 解析结果（空会话记录为空结果），失败返回 null
+     */
+    static ProcessingResult readRecordFile(Path file) {
+        try {
+            if (file.getFileName().toString().equals(SESSION_RECORD_FILE)) {
+                ProcessingResult session = parseSessionContent(Files.readString(file, StandardCharsets.UTF_8));
+                return session != null ? session : new ProcessingResult();
             }
-            return result;
+            return BACKUP_MAPPER.readValue(file.toFile(), ProcessingResult.class);
         } catch (Exception e) {
-            LoggerUtil.logException("加载会话记录失败: " + sessionFile, e);
+            LoggerUtil.logErrorMsg("读取操作记录失败: " + file + " - " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * 操作记录引用的备份文件特征码（sourceFileSign / targetFileSign）
+     */
+    static Set<String> referencedMd5(Collection<ProcessingResult> results) {
+        Set<String> used = new HashSet<>();
+        for (ProcessingResult result : results) {
+            if (result == null || result.getOperationRecords() == null) {
+                continue;
+            }
+            for (OperationRecord record : result.getOperationRecords()) {
+                collectSigns(record, used);
+            }
+        }
+        return used;
+    }
+
+    private static void collectSigns(OperationRecord record, Set<String> used) {
+        if (record.getSourceFileSign() != null && !record.getSourceFileSign().isEmpty()) {
+            used.add(record.getSourceFileSign());
+        }
+        if (record.getTargetFileSign() != null && !record.getTargetFileSign().isEmpty()) {
+            used.add(record.getTargetFileSign());
+        }
+    }
+
     /**
      * 清除会话记录（操作正常完成并正式保存记录后调用）
      */
@@ -423,7 +695,7 @@ public class BackupFileLoader {
      * 获取会话记录文件路径
      */
     private static Path getSessionRecordPath() {
-        Path backupPath = ConfigLoader.getBackupPath();
+        Path backupPath = getBackupRoot();
         if (backupPath == null) {
             return null;
         }
@@ -441,6 +713,17 @@ public class BackupFileLoader {
         return "backup-" + timestamp;
     }
 
+    /**
+     * 记录文件名去重：backup-20260131-143045 已存在时依次尝试 -1、-2 ...
+     */
+    private static String uniqueRecordFileName(Path recordDir, String baseName) {
+        String fileName = baseName;
+        for (int i = 1; Files.exists(recordDir.resolve(fileName + ".json")); i++) {
+            fileName = baseName + "-" + i;
+        }
+        return fileName;
+    }
+
     /**
      * 从文件加载操作记录
      * @param fileName 文件名（不含扩展名）
@@ -455,7 +738,7 @@ public class BackupFileLoader {
             }
 
             // 2. 检查备份路径是否可用
-            Path backupRecordPath = ConfigLoader.getBackupPath().resolve("record").normalize();
+            Path backupRecordPath = getBackupRoot().resolve("record").normalize();
             if (backupRecordPath == null) {
                 LoggerUtil.logErrorMsg("加载操作记录失败: 备份路径为空");
                 return null;
@@ -504,7 +787,7 @@ public class BackupFileLoader {
 
         try {
             // 1. 检查备份路径是否可用
-            Path backupPath = ConfigLoader.getBackupPath();
+            Path backupPath = getBackupRoot();
             if (backupPath == null) {
                 LoggerUtil.logErrorMsg("加载操作记录集失败: 备份路径为空");
                 return results;
@@ -532,6 +815,7 @@ public class BackupFileLoader {
                         .filter(path -> path.toString().endsWith(".json"))
                         .filter(path -> !path.toString().endsWith(".json.tmp")) // 排除临时文件
                         .filter(path -> !path.getFileName().toString().equals(SESSION_RECORD_FILE)) // 排除会话临时文件
+                        .filter(path -> !path.toString().endsWith(METRICS_FILE_SUFFIX)) // 排除性能指标文件
                         .toList();
 
                 // 6. 加载每个文件
@@ -559,8 +843,10 @@ public class BackupFileLoader {
                             (oldValue, newValue) -> oldValue, LinkedHashMap::new));
 
 
-            // 7. 更新静态变量
-            operationRecordFiles = results;
+            // 7. 更新静态变量（仅默认作用域；命名空间内加载不覆盖默认记录缓存）
+            if (NAMESPACE_ROOT.get() == null) {
+                operationRecordFiles = results;
+            }
 
             return results;
 
@@ -578,7 +864,9 @@ public class BackupFileLoader {
      * 完成一次操作会话（服务层共用流程，消除 FileUpdateServiceNew/FileDeleteService 的重复代码）：
      * 1. 正式保存操作记录到 backup/record/
      * 2. 保存成功后清除实时会话记录（session-current.json）
-     * 3. 若本次操作存在失败项，询问用户是否执行恢复操作
+     * 3. 若本次操作存在失败项，询问用户是否执行恢复操作；中途取消时（ProcessingResult.isInterrupted）
+     *    无论有无失败项都询问是否立即回滚已完成的操作
+     * 4. 配置了备份保留策略时，在后台按策略清理旧会话（见 BackupRetention，不阻塞本次操作）
      *
      * @param processingResult 处理结果
      * @param scanner          用户输入
@@ -589,7 +877,14 @@ public class BackupFileLoader {
     }
 
     public static boolean finishOperationSession(ProcessingResult processingResult, UserPrompter prompter) {
-        if (processingResult == null || processingResult.getSuccessCount() <= 0) {
+        if (processingResult == null) {
+            return false;
+        }
+        if (processingResult.getSuccessCount() <= 0) {
+            if (processingResult.isInterrupted()) {
+                // 中途取消且没有已完成的操作（或事务已放弃）：会话记录中的登记都未生效，无需保留
+                clearSessionRecord();
+            }
             return false;
         }
         LoggerUtil.logInfo("[执行] 正在备份操作文件...");
@@ -599,37 +894,48 @@ public class BackupFileLoader {
             clearSessionRecord();
             LoggerUtil.logInfo("[成功] 备份操作文件成功！");
 
-            if (processingResult.getErrorCount() > 0) {
+            if (processingResult.isInterrupted()) {
+                // 中途取消：已完成的操作与未处理的文件混在一起，立即提供回滚
+                LoggerUtil.logWarn("[取消] 操作已中途取消：已完成 " + processingResult.getSuccessCount()
+                        + " 个操作，其余文件保持原状");
+                System.out.println("是否立即回滚已完成的操作，将系统恢复到操作前的状态？(y/n)");
+                offerRestore(processingResult, prompter);
+            } else if (processingResult.getErrorCount() > 0) {
                 LoggerUtil.logWarn("[警告] 检测到 " + processingResult.getErrorCount() + " 个文件处理失败");
                 System.out.println("是否要执行恢复操作，将系统恢复到操作前的状态？(y/n)");
-
-                String choice = prompter.readLine().toLowerCase();
-                if (choice.equals("y") || choice.equals("yes")) {
-                    LoggerUtil.logInfo("[执行] 开始执行恢复操作...");
-                    RestoreResult restoreResult = restoreFromResult(processingResult, prompter);
-
-                    // 打印恢复结果
-                    LoggerUtil.logInfo("[STATS] 恢复结果统计: 成功 " + restoreResult.getSuccessCount()
-                            + ", 失败 " + restoreResult.getFailureCount()
-                            + ", 回滚 " + restoreResult.getRollbackCount());
-
-                    if (restoreResult.isFullSuccess()) {
-                        LoggerUtil.logInfo("[成功] 系统已成功恢复到操作前的状态");
-                    } else if (restoreResult.getRollbackCount() > 0) {
-                        LoggerUtil.logWarn("[警告] 系统已回滚，但可能处于部分恢复状态");
-                    } else {
-                        LoggerUtil.logError("[失败] 系统恢复失败，可能处于不一致状态");
-                    }
-                } else {
-                    LoggerUtil.logInfo("[信息] 用户取消恢复操作");
-                }
+                offerRestore(processingResult, prompter);
             }
+            BackupRetention.enforceInBackground(ConfigLoader.getConfig(), ConfigLoader.getBackupPath());
         } else {
             LoggerUtil.logError("[失败] 备份操作文件失败！");
         }
         return backupSuccess;
     }
 
+    // 读取是否恢复的回答，确认后按本次会话记录恢复并打印结果
+    private static void offerRestore(ProcessingResult processingResult, UserPrompter prompter) {
+        String choice = prompter.readLine().toLowerCase();
+        if (choice.equals("y") || choice.equals("yes")) {
+            LoggerUtil.logInfo("[执行] 开始执行恢复操作...");
+            RestoreResult restoreResult = restoreFromResult(processingResult, prompter);
+
+            // 打印恢复结果
+            LoggerUtil.logInfo("[STATS] 恢复结果统计: 成功 " + restoreResult.getSuccessCount()
+                    + ", 失败 " + restoreResult.getFailureCount()
+                    + ", 回滚 " + restoreResult.getRollbackCount());
+
+            if (restoreResult.isFullSuccess()) {
+                LoggerUtil.logInfo("[成功] 系统已成功恢复到操作前的状态");
+            } else if (restoreResult.getRollbackCount() > 0) {
+                LoggerUtil.logWarn("[警告] 系统已回滚，但可能处于部分恢复状态");
+            } else {
+                LoggerUtil.logError("[失败] 系统恢复失败，可能处于不一致状态");
+            }
+        } else {
+            LoggerUtil.logInfo("[信息] 用户取消恢复操作");
+        }
+    }
+
     /**
      * 根据 ProcessingResult 对象，进行文件恢复操作
      * @param result 处理结果对象
@@ -957,7 +1263,7 @@ public class BackupFileLoader {
 
 
     /**
-     * 查找孤立备份文件：备份索引中存在、但没有任何操作记录引用（sourceFileSign/targetFileSign）的文件。
+     * 查找孤立备份文件：备份目录中存在、但没有任何操作记录引用（sourceFileSign/targetFileSign）的文件。
      * 来源：记录被删但备份残留、手工放入 backup/ 的文件、异常中断残留。
      *
      * 注意：本方法只"查找"不删除；删除前请用 cleanupOrphanBackupFiles 的"无记录保护"
@@ -966,46 +1272,47 @@ public class BackupFileLoader {
      * @return 孤立备份文件列表（按路径排序），无则空列表
      */
     public static List<Path> findOrphanBackupFiles() {
-        return findOrphanBackupFiles(getOperationRecordFiles());
+        return findOrphanBackupFiles(null);
+    }
+
+    /**
+     * 在备份索引所在目录上同步跑一轮完整回收（清理前的列表与"无记录保护"共用这一轮）
+     * @return 完成的一轮回收；备份目录不存在时返回 null
+     */
+    public static BackupGc.Cycle collectBackupGarbage() {
+        Path backupPath = orphanScanRoot();
+        if (backupPath == null || !Files.isDirectory(backupPath)) {
+            return null;
+        }
+        return BackupGc.collect(backupPath, Set.of());
     }
 
     /**
      * 查找孤立备份文件（可注入操作记录集合，便于测试）
+     * 在备份索引所在目录上同步跑一轮完整回收（见 BackupGc）：磁盘上全部记录（含各目标命名空间、
+     * 未完成会话）的引用与注入记录的引用都算作被引用；记录 / 备份文件指纹未变时复用持久化索引，不再逐个解析与哈希
      * @param operationRecords 操作记录集合（key 不限）
      * @return 孤立备份文件列表
      */
     public static List<Path> findOrphanBackupFiles(Map<String, ProcessingResult> operationRecords) {
-        Map<String, Path> files = getBackupFiles();
-        if (files == null || files.isEmpty()) {
+        Path backupPath = orphanScanRoot();
+        if (backupPath == null || !Files.isDirectory(backupPath)) {
             return new ArrayList<>();
         }
-        // 收集所有操作记录引用的 MD5
-        Set<String> usedMd5 = new HashSet<>();
-        if (operationRecords != null) {
-            for (ProcessingResult result : operationRecords.values()) {
-                if (result == null || result.getOperationRecords() == null) {
-                    continue;
-                }
-                for (OperationRecord record : result.getOperationRecords()) {
-                    if (record.getSourceFileSign() != null && !record.getSourceFileSign().isEmpty()) {
-                        usedMd5.add(record.getSourceFileSign());
-                    }
-                    if (record.getTargetFileSign() != null && !record.getTargetFileSign().isEmpty()) {
-                        usedMd5.add(record.getTargetFileSign());
-                    }
-                }
-            }
-        }
+        Set<String> injected = operationRecords == null ? Set.of() : referencedMd5(operationRecords.values());
         List<Path> orphans = new ArrayList<>();
-        for (Map.Entry<String, Path> entry : files.entrySet()) {
-            if (!usedMd5.contains(entry.getKey())) {
-                orphans.add(entry.getValue());
-            }
+        for (BackupGc.Orphan orphan : BackupGc.collect(backupPath, injected).getOrphans()) {
+            orphans.add(orphan.path());
         }
-        orphans.sort(Comparator.comparing(Path::toString));
         return orphans;
     }
 
+    // 孤立文件查找所在的备份根目录：优先备份索引的加载目录
+    private static Path orphanScanRoot() {
+        Path indexed = indexedBackupPath;
+        return indexed != null ? indexed : ConfigLoader.getBackupPath();
+    }
+
     /**
      * 清理孤立备份文件（交互版）：列出孤儿列表，用户确认后逐个删除
      * @param scanner 用户输入
@@ -1016,54 +1323,70 @@ public class BackupFileLoader {
     }
 
     /**
-     * 残留备份提醒：检测到较多残留备份文件时打印提示（程序启动后调用）
+     * 残留备份提醒：上一轮回收记下的残留备份较多时打印提示（程序启动后调用）
+     * 只读计数文件（O(1)，不遍历备份目录），随后在后台按时间预算跑一轮回收刷新计数，供下次提醒使用。
      * 阈值：>= 5 个时提醒；任何异常静默（不影响启动）
      */
     public static void warnOrphanBackupsIfNeeded() {
         try {
-            List<Path> orphans = findOrphanBackupFiles();
-            if (orphans.size() >= 5) {
-                LoggerUtil.logWarn("[提示] 检测到 " + orphans.size() + " 个残留备份文件（未被任何记录引用），"
-                        + "可在「清理残留备份」中清除，避免备份目录膨胀");
+            Path backupPath = ConfigLoader.getBackupPath();
+            BackupGc.Status status = BackupGc.readStatus(backupPath);
+            if (status != null && status.orphanCount >= 5) {
+                LoggerUtil.logWarn("[提示] 检测到 " + BackupGc.describe(status.orphanCount, status.orphanBytes)
+                        + " 残留备份文件（未被任何记录引用），可在「清理残留备份」中清除，避免备份目录膨胀");
             }
+            BackupGc.collectInBackground(backupPath);
         } catch (Exception e) {
             // 提醒失败不影响启动
         }
     }
 
     public static int cleanupOrphanBackupFiles(UserPrompter prompter) {
+        return sweepOrphanBackupFiles(prompter).deleted();
+    }
+
+    /**
+     * 清理孤立备份文件：同步跑一轮完整标记，列出孤儿列表，确认后并行删除
+     * @param prompter 用户输入
+     * @return 清除结果（删除数 / 失败数 / 回收字节数）
+     */
+    public static BackupGc.SweepResult sweepOrphanBackupFiles(UserPrompter prompter) {
+        // 记录引用由这一轮回收从持久化索引标记（指纹未变的记录不再反序列化）
+        BackupGc.Cycle cycle = collectBackupGarbage();
         // 安全保护：没有任何操作记录可参照时，所有备份都会被视为"孤立"，直接删除会误删恢复所需文件
-        Map<String, ProcessingResult> operationRecords = getOperationRecordFiles();
-        if (operationRecords == null || operationRecords.isEmpty()) {
+        if (cycle == null || (cycle.getRecordCount() == 0 && cycle.getUnreadableRecords() == 0)) {
             LoggerUtil.logWarn("[警告] 没有可参照的备份记录，为防止误删备份文件，已跳过清理");
             LoggerUtil.logWarn("[提示] 请先执行一次更新/删除操作产生备份记录，或手动处理 backup/ 目录");
-            return 0;
+            return BackupGc.SweepResult.NONE;
+        }
+        if (cycle.getUnreadableRecords() > 0) {
+            // 引用集合不完整：无法解析的记录引用的备份会被误判为孤立
+            LoggerUtil.logWarn("[警告] 有 " + cycle.getUnreadableRecords() + " 个操作记录无法解析，为防止误删备份文件，已跳过清理");
+            return BackupGc.SweepResult.NONE;
         }
-        List<Path> orphans = findOrphanBackupFiles(operationRecords);
+        List<BackupGc.Orphan> orphans = cycle.getOrphans();
         if (orphans.isEmpty()) {
             LoggerUtil.logInfo("[信息] 没有发现残留备份文件");
-            return 0;
+            return BackupGc.SweepResult.NONE;
         }
-        System.out.println("\n[列表] 残留备份文件（未被任何备份记录引用）共 " + orphans.size() + " 个:");
+        long totalBytes = orphans.stream().mapToLong(BackupGc.Orphan::size).sum();
+        System.out.println("\n[列表] 残留备份文件（未被任何备份记录引用）共 " + BackupGc.describe(orphans.size(), totalBytes) + ":");
         System.out.println("-----------------------------------------");
         for (int i = 0; i < orphans.size(); i++) {
-            System.out.printf("%d. %s%n", i + 1, orphans.get(i));
+            System.out.printf("%d. %s%n", i + 1, orphans.get(i).path());
         }
         System.out.println("-----------------------------------------");
         System.out.print("确认删除这些残留备份文件吗？此操作不可逆！(y/n): ");
         String choice = prompter.readLine().toLowerCase();
         if (!choice.equals("y") && !choice.equals("yes")) {
             LoggerUtil.logInfo("[信息] 已取消清理");
-            return 0;
+            return BackupGc.SweepResult.NONE;
         }
-        int deleted = 0;
-        for (Path orphan : orphans) {
-            if (deleteBackupFile(orphan)) {
-                deleted++;
-            }
-        }
-        LoggerUtil.logInfo("[成功] 已删除残留备份文件 " + deleted + "/" + orphans.size() + " 个");
-        return deleted;
+        BackupGc.SweepResult result = BackupGc.deleteOrphans(cycle, orphans);
+        LoggerUtil.logInfo("[成功] 已删除残留备份文件 " + result.deleted() + "/" + orphans.size()
+                + " 个，回收 " + MetricsRegistry.formatBytes(result.bytesReclaimed())
+                + (result.skipped() > 0 ? "（" + result.skipped() + " 个已重新被引用或正在使用，保留）" : ""));
+        return result;
     }
 
     /**
@@ -1107,11 +1430,13 @@ public class BackupFileLoader {
             // 5. 从 operationRecordFiles 中移除该记录
             operationRecordFiles.remove(fileName);
 
-            // 6. 检查每个MD5是否还被其他备份记录引用
+            // 6. 检查每个MD5是否还被其他备份记录引用（含各目标命名空间的记录）
             getBackupFiles();
+            List<ProcessingResult> otherResults = new ArrayList<>(operationRecordFiles.values());
+            otherResults.addAll(loadNamespaceRecords().values());
             for (String md5 : usedMd5List) {
                 boolean isUsed = false;
-                for (ProcessingResult otherResult : operationRecordFiles.values()) {
+                for (ProcessingResult otherResult : otherResults) {
                     List<OperationRecord> otherRecords = otherResult.getOperationRecords();
                     if (otherRecords != null) {
                         for (OperationRecord record : otherRecords) {
@@ -1139,11 +1464,12 @@ public class BackupFileLoader {
             }
 
             // 7. 删除备份记录文件
-            Path backupPath = ConfigLoader.getBackupPath();
+            Path backupPath = getBackupRoot();
             if (backupPath != null) {
                 Path recordPath = backupPath.resolve("record").resolve(fileName).normalize();
                 if (Files.exists(recordPath)) {
                     Files.delete(recordPath);
+                    Files.deleteIfExists(recordPath.resolveSibling(metricsFileName(fileName)));
                     LoggerUtil.logInfo("[成功] 已删除备份记录文件: " + fileName);
                     return true;
                 }
@@ -0,0 +1,765 @@
+package com.awei.frt.core.builder;
+
+import com.awei.frt.core.metrics.MetricsRegistry;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.core.uitls.FileSignUtil;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.util.LoggerUtil;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 备份垃圾回收：对孤立备份文件（没有任何操作记录引用）做标记-清除
+ * 持久化引用索引 backup/.frt-state/gc-index.json：
+ *   - records：每个记录文件（含各目标命名空间、含未完成会话记录）的 size:mtime 指纹与其引用的备份 MD5
+ *   - blobs：每个备份文件的 size:mtime 指纹、大小与内容 MD5
+ * 指纹未变的记录不再反序列化、备份文件不再读盘哈希，一轮回收的主要开销只剩一次目录遍历。
+ * <p>
+ * 一轮回收（Cycle）分步推进：遍历 → 标记（汇总记录引用）→ 扫描（备份文件 MD5）→ 清除判定；
+ * step(预算) 只推进到时间预算用完，后台线程按预算分多次推进，不阻塞前台操作。
+ * 每轮结束把孤立文件数 / 字节数写入 backup/.frt-state/gc-status.json，启动提醒只读这个小文件（O(1)）。
+ * 删除前总是同步重跑一轮完整标记（计数可以滞后，删除判定不会），删除并行执行并统计回收字节数。
+ * <p>
+ * 与进行中的操作并发时的保护（写屏障）：addBackupFile 复用或新写入的备份在会话记录落盘前登记为"在途"，
+ * 删除前在 REFERENCE_LOCK 内补标记本轮之后新增 / 变化的记录并跳过在途备份，
+ * 选中的文件先改名移出原路径、移出备份索引，再在锁外并行删除。
+ */
+public final class BackupGc {
+
+    private static final String INDEX_FILE = "gc-index.json";
+    private static final String STATUS_FILE = "gc-status.json";
+    private static final String RECORD_DIR = "record";
+    private static final int FORMAT_VERSION = 1;
+    // 后台每次推进的时间预算与两次推进之间的间隔（让出磁盘给前台操作）
+    static final long BACKGROUND_PASS_BUDGET_MS = 50;
+    static final long BACKGROUND_PASS_INTERVAL_MS = 100;
+    // 并行删除的最大线程数
+    private static final int MAX_DELETE_THREADS = 4;
+    // 待删除文件改名后缀（中途退出残留的文件在下一轮回收中按孤立文件处理；
+    // 用 FRT 专用后缀，不会覆盖被备份的同名 *.gc 文件）
+    private static final String TRASH_SUFFIX = ".frt-gc";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // 同一时间只推进一轮回收（后台与前台互斥，索引文件读写不交错）
+    private static final Object CYCLE_LOCK = new Object();
+    // 引用变化与删除判定互斥：备份复用 / 会话记录追加 / 删除前补标记都在此锁内
+    static final Object REFERENCE_LOCK = new Object();
+    // 在途备份（MD5 -> 登记次数）：已复用或新写入、尚未出现在会话记录里的备份
+    private static final Map<String, Integer> IN_FLIGHT = new HashMap<>();
+    private static ScheduledExecutorService backgroundExecutor;
+    // 进行中的后台任务名（同名任务不重复启动）
+    private static final Set<String> BACKGROUND_TASKS = new HashSet<>();
+    // 收尾模式：进程即将退出、前台已无操作，后台任务不再按预算让出磁盘，一次推进到底
+    private static volatile boolean finishing;
+
+    private BackupGc() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 孤立备份文件
+     * @param path 备份文件路径
+     * @param md5  内容特征码
+     * @param size 文件大小（字节）
+     */
+    public record Orphan(Path path, String md5, long size) {
+    }
+
+    /**
+     * 清除结果
+     * @param deleted        删除成功数
+     * @param failed         删除失败数（含已不存在的文件）
+     * @param skipped        跳过数（判定后又被新记录引用、正在被操作使用或内容已变化）
+     * @param bytesReclaimed 回收字节数
+     */
+    public record SweepResult(int deleted, int failed, int skipped, long bytesReclaimed) {
+        public static final SweepResult NONE = new SweepResult(0, 0, 0, 0);
+    }
+
+    /**
+     * 开始一轮新的回收（尚未推进，由调用方 step）
+     * @param backupPath 备份根目录
+     */
+    public static Cycle newCycle(Path backupPath) {
+        return new Cycle(backupPath, Set.of(), true);
+    }
+
+    /**
+     * 同步跑完一轮回收并返回孤立文件
+     * @param backupPath 备份根目录
+     * @param extraRefs  额外视为被引用的 MD5（注入的操作记录；非空时本轮不更新计数文件）
+     */
+    public static Cycle collect(Path backupPath, Set<String> extraRefs) {
+        Cycle cycle = new Cycle(backupPath, extraRefs == null ? Set.of() : extraRefs, true);
+        cycle.step(Long.MAX_VALUE);
+        return cycle;
+    }
+
+    /**
+     * 同步跑完一轮只读回收：复用持久化索引，但不写出索引与计数文件（只需要备份索引的加载流程使用）
+     * @param backupPath 备份根目录
+     */
+    static Cycle scan(Path backupPath) {
+        Cycle cycle = new Cycle(backupPath, Set.of(), false);
+        cycle.step(Long.MAX_VALUE);
+        return cycle;
+    }
+
+    /**
+     * 后台按时间预算分多次推进一轮回收，完成后刷新计数文件；已有后台回收在进行时不重复启动
+     * @param backupPath 备份根目录
+     * @return 是否启动了新的后台回收
+     */
+    public static boolean collectInBackground(Path backupPath) {
+        if (backupPath == null || !Files.isDirectory(backupPath)) {
+            return false;
+        }
+        return runInBackground("gc", newCycle(backupPath), null);
+    }
+
+    /**
+     * 在后台线程按时间预算分多次推进一轮回收，完成后执行 onDone（同在后台线程）
+     * @param task   任务名（同名任务进行中时不重复启动）
+     * @param cycle  要推进的回收
+     * @param onDone 完成后的处理（可为 null）
+     * @return 是否启动
+     */
+    static boolean runInBackground(String task, Cycle cycle, Consumer<Cycle> onDone) {
+        synchronized (BACKGROUND_TASKS) {
+            if (!BACKGROUND_TASKS.add(task)) {
+                return false;
+            }
+        }
+        backgroundExecutor().execute(() -> backgroundPass(task, cycle, onDone));
+        return true;
+    }
+
+    private static void backgroundPass(String task, Cycle cycle, Consumer<Cycle> onDone) {
+        try {
+            long budgetNanos = finishing ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(BACKGROUND_PASS_BUDGET_MS);
+            if (!cycle.step(budgetNanos)) {
+                backgroundExecutor().schedule(() -> backgroundPass(task, cycle, onDone),
+                        BACKGROUND_PASS_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                return;
+            }
+            if (onDone != null) {
+                onDone.accept(cycle);
+            }
+        } catch (Exception e) {
+            LoggerUtil.logException("后台备份回收失败", e);
+        }
+        synchronized (BACKGROUND_TASKS) {
+            BACKGROUND_TASKS.remove(task);
+        }
+    }
+
+    /**
+     * 等待后台回收 / 保留任务结束（程序退出前、测试用）
+     * @param timeoutMillis 最长等待时间
+     * @return 是否已全部结束
+     */
+    public static boolean awaitBackground(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            synchronized (BACKGROUND_TASKS) {
+                if (BACKGROUND_TASKS.isEmpty()) {
+                    return true;
+                }
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 进程退出前收尾：后台回收 / 保留任务不再按时间预算分步，尽快跑完并等待结束
+     * （无头命令行在 System.exit 前调用，否则守护线程上的保留清理可能永远跑不完，或在删完记录、删备份前被结束）
+     * @param timeoutMillis 最长等待时间
+     * @return 是否已全部结束
+     */
+    public static boolean finishBackground(long timeoutMillis) {
+        finishing = true;
+        return awaitBackground(timeoutMillis);
+    }
+
+    private static synchronized ScheduledExecutorService backgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "frt-backup-gc");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    /**
+     * 登记在途备份（调用方已持有 REFERENCE_LOCK）
+     */
+    static void markInFlight(String md5) {
+        IN_FLIGHT.merge(md5, 1, Integer::sum);
+    }
+
+    /**
+     * 清空在途登记（测试隔离用，见 BackupFileLoader.resetBackupIndexForTesting）
+     */
+    static void resetInFlight() {
+        synchronized (REFERENCE_LOCK) {
+            IN_FLIGHT.clear();
+        }
+    }
+
+    /**
+     * 会话记录已写入引用后解除在途登记（调用方已持有 REFERENCE_LOCK）
+     */
+    static void clearInFlight(Collection<String> md5s) {
+        for (String md5 : md5s) {
+            IN_FLIGHT.computeIfPresent(md5, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    /**
+     * 并行删除孤立文件，同步更新备份索引与计数文件
+     * 删除前在 REFERENCE_LOCK 内补标记本轮之后新增 / 变化的记录，跳过重新被引用、在途或内容已变化的文件
+     * @param cycle   已完成的一轮回收（候选文件应来自这一轮）
+     * @param orphans 要删除的文件
+     */
+    public static SweepResult deleteOrphans(Cycle cycle, List<Orphan> orphans) {
+        if (orphans == null || orphans.isEmpty() || !cycle.isDone()) {
+            return SweepResult.NONE;
+        }
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong reclaimed = new AtomicLong();
+        List<Orphan> claimed = new ArrayList<>();
+        int skipped = 0;
+        synchronized (REFERENCE_LOCK) {
+            Set<String> late = cycle.lateReferences();
+            if (late == null) {
+                LoggerUtil.logWarn("[警告] 有操作记录无法解析，为防止误删备份文件，本次不删除");
+                return new SweepResult(0, 0, orphans.size(), 0);
+            }
+            for (Orphan orphan : orphans) {
+                if (IN_FLIGHT.containsKey(orphan.md5()) || late.contains(orphan.md5()) || !cycle.isUnchanged(orphan.path())) {
+                    skipped++;
+                    continue;
+                }
+                Path trash = orphan.path().resolveSibling(orphan.path().getFileName() + TRASH_SUFFIX);
+                try {
+                    Files.move(orphan.path(), trash, StandardCopyOption.REPLACE_EXISTING);
+                    BackupFileLoader.forgetBackupFile(orphan.md5(), orphan.path());
+                    claimed.add(new Orphan(trash, orphan.md5(), orphan.size()));
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    LoggerUtil.logErrorMsg("删除残留备份文件失败: " + orphan.path() + " - " + e.getMessage());
+                }
+            }
+        }
+        if (!claimed.isEmpty()) {
+            AtomicInteger threadNo = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_DELETE_THREADS, claimed.size()), r -> {
+                Thread t = new Thread(r, "frt-backup-sweep-" + threadNo.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (Orphan orphan : claimed) {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            Files.delete(orphan.path());
+                            deleted.incrementAndGet();
+                            reclaimed.addAndGet(orphan.size());
+                        } catch (IOException e) {
+                            failed.incrementAndGet();
+                            LoggerUtil.logException("删除残留备份文件失败: " + orphan.path(), e);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (Exception e) {
+                        LoggerUtil.logException("删除残留备份文件失败", e);
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        SweepResult result = new SweepResult(deleted.get(), failed.get(), skipped, reclaimed.get());
+        Status status = readStatus(cycle.root);
+        if (status != null) {
+            status.orphanCount = Math.max(0, status.orphanCount - result.deleted());
+            status.orphanBytes = Math.max(0, status.orphanBytes - result.bytesReclaimed());
+            writeJson(statusPath(cycle.root), status);
+        }
+        return result;
+    }
+
+    /**
+     * 读取上一轮回收的计数（只读一个小文件，供启动提醒使用）
+     * @return 计数，从未回收过或读取失败返回 null
+     */
+    public static Status readStatus(Path backupPath) {
+        Path file = statusPath(backupPath);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(Files.readString(file, StandardCharsets.UTF_8), Status.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 一轮标记-清除（推进状态由 CYCLE_LOCK 保护）
+     */
+    public static final class Cycle {
+        private final Path root;
+        private final Set<String> extraRefs;
+        private final boolean persist;
+        private final Set<String> live = new HashSet<>();
+        private final Index next = new Index();
+        private final Map<String, Path> blobIndex = new HashMap<>();
+        private Index previous;
+        private List<Item> records;
+        private List<Item> blobs;
+        private int recordCursor;
+        private int blobCursor;
+        private int unreadableRecords;
+        private List<Orphan> orphans;
+
+        private Cycle(Path root, Set<String> extraRefs, boolean persist) {
+            this.root = root.toAbsolutePath().normalize();
+            this.extraRefs = extraRefs;
+            this.persist = persist;
+        }
+
+        /**
+         * 推进本轮回收：每处理完一项（一次遍历 / 一个记录 / 一个备份文件）检查预算，
+         * 用完即返回（预算再小也至少推进一项）
+         * @param budgetNanos 本次时间预算（纳秒）
+         * @return 本轮是否已完成
+         */
+        public boolean step(long budgetNanos) {
+            synchronized (CYCLE_LOCK) {
+                if (orphans != null) {
+                    return true;
+                }
+                long start = System.nanoTime();
+                if (records == null) {
+                    list();
+                    if (overBudget(start, budgetNanos)) {
+                        return false;
+                    }
+                }
+                while (recordCursor < records.size()) {
+                    mark(records.get(recordCursor++));
+                    if (overBudget(start, budgetNanos)) {
+                        return false;
+                    }
+                }
+                while (blobCursor < blobs.size()) {
+                    scan(blobs.get(blobCursor++));
+                    if (overBudget(start, budgetNanos)) {
+                        return false;
+                    }
+                }
+                sweep();
+                return true;
+            }
+        }
+
+        public boolean isDone() {
+            return orphans != null;
+        }
+
+        /**
+         * 孤立文件（按路径排序；本轮未完成时为空列表）
+         */
+        public List<Orphan> getOrphans() {
+            return orphans == null ? List.of() : orphans;
+        }
+
+        /**
+         * 已标记的记录文件数（含各目标命名空间与未完成会话；为 0 时没有可参照的记录，不应据此删除）
+         */
+        public int getRecordCount() {
+            return next.records.size();
+        }
+
+        /**
+         * 无法解析的记录文件数（不为 0 时引用集合不完整，不应据此删除）
+         */
+        public int getUnreadableRecords() {
+            return unreadableRecords;
+        }
+
+        /**
+         * 本轮扫描到的全部备份文件（MD5 -> 路径）
+         */
+        public Map<String, Path> getBlobIndex() {
+            return blobIndex;
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        /**
+         * 已解析记录文件的引用（key 为相对备份根目录的路径，如 record/backup-20260131-143045.json；含会话记录）
+         */
+        public Map<String, List<String>> getRecordRefs() {
+            Map<String, List<String>> refs = new TreeMap<>();
+            next.records.forEach((key, entry) -> refs.put(key, entry.refs));
+            return refs;
+        }
+
+        /**
+         * 各 MD5 对应备份文件的总字节数
+         */
+        public Map<String, Long> getBlobBytes() {
+            Map<String, Long> bytes = new HashMap<>();
+            for (BlobEntry entry : next.blobs.values()) {
+                bytes.merge(entry.m, entry.s, Long::sum);
+            }
+            return bytes;
+        }
+
+        /**
+         * 移除指定记录后不再被任何记录引用的备份文件（只含被这些记录引用过的，不含原本就孤立的）
+         * @param recordKeys 要移除的记录（getRecordRefs 的 key）
+         */
+        public List<Orphan> releasedBy(Set<String> recordKeys) {
+            Set<String> remaining = new HashSet<>(extraRefs);
+            Set<String> released = new HashSet<>();
+            next.records.forEach((key, entry) -> (recordKeys.contains(key) ? released : remaining).addAll(entry.refs));
+            released.removeAll(remaining);
+            List<Orphan> result = new ArrayList<>();
+            for (Item blob : blobs) {
+                BlobEntry entry = next.blobs.get(blob.key);
+                if (entry != null && released.contains(entry.m)) {
+                    result.add(new Orphan(blob.path, entry.m, entry.s));
+                }
+            }
+            result.sort(Comparator.comparing(o -> o.path().toString()));
+            return result;
+        }
+
+        // 文件的 size:mtime 指纹与本轮扫描时一致（不一致说明被新内容覆盖，不能按本轮判定删除）
+        private boolean isUnchanged(Path file) {
+            BlobEntry entry = next.blobs.get(keyOf(file));
+            return entry != null && entry.f.equals(fingerprint(file));
+        }
+
+        /**
+         * 本轮标记之后新增或变化的记录文件所引用的 MD5（删除前补标记；含会话记录）
+         * @return 引用集合，有记录无法解析时返回 null
+         */
+        private Set<String> lateReferences() {
+            Set<String> refs = new HashSet<>();
+            List<Path> recordDirs = new ArrayList<>();
+            recordDirs.add(root.resolve(RECORD_DIR));
+            Path namespaces = root.resolve(BackupFileLoader.NAMESPACES_DIR);
+            if (Files.isDirectory(namespaces)) {
+                try (DirectoryStream<Path> dirs = Files.newDirectoryStream(namespaces, Files::isDirectory)) {
+                    dirs.forEach(dir -> recordDirs.add(dir.resolve(RECORD_DIR)));
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+            for (Path recordDir : recordDirs) {
+                if (!Files.isDirectory(recordDir)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(recordDir)) {
+                    for (Path file : files) {
+                        String key = keyOf(file);
+                        if (!isRecordFile(root.relativize(file))) {
+                            continue;
+                        }
+                        RecordEntry entry = next.records.get(key);
+                        if (entry != null && entry.f.equals(fingerprint(file))) {
+                            continue;
+                        }
+                        ProcessingResult result = BackupFileLoader.readRecordFile(file);
+                        if (result == null) {
+                            return null;
+                        }
+                        refs.addAll(BackupFileLoader.referencedMd5(List.of(result)));
+                    }
+                } catch (IOException e) {
+                    return null;
+                }
+            }
+            return refs;
+        }
+
+        private String keyOf(Path file) {
+            return root.relativize(file.toAbsolutePath().normalize()).toString().replace('\\', '/');
+        }
+
+        private static boolean overBudget(long start, long budgetNanos) {
+            return System.nanoTime() - start >= budgetNanos;
+        }
+
+        // 一次遍历分出记录文件与备份文件（属性随遍历取得，不再逐个 stat）
+        private void list() {
+            previous = loadIndex(root);
+            records = new ArrayList<>();
+            blobs = new ArrayList<>();
+            if (!Files.isDirectory(root)) {
+                return;
+            }
+            try {
+                Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (!attrs.isRegularFile()) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                        Path relative = root.relativize(file);
+                        String fileName = file.getFileName().toString();
+                        if (fileName.endsWith(BackupFileLoader.TEMP_SUFFIX)) {
+                            return FileVisitResult.CONTINUE; // 正在写入的备份（被备份的 *.tmp 文件照常计入）
+                        }
+                        Item item = new Item(file, relative.toString().replace('\\', '/'),
+                                attrs.size(), fingerprint(attrs));
+                        if (isRecordFile(relative)) {
+                            records.add(item);
+                        } else if (BackupFileLoader.isBackupContent(root, file)) {
+                            blobs.add(item);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException e) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                LoggerUtil.logException("遍历备份目录失败", e);
+            }
+        }
+
+        private void mark(Item item) {
+            RecordEntry cached = previous.records.get(item.key);
+            List<String> refs;
+            if (cached != null && item.fingerprint.equals(cached.f) && cached.refs != null) {
+                refs = cached.refs;
+            } else {
+                ProcessingResult result = BackupFileLoader.readRecordFile(item.path);
+                if (result == null) {
+                    unreadableRecords++;
+                    return;
+                }
+                refs = new ArrayList<>(BackupFileLoader.referencedMd5(List.of(result)));
+            }
+            RecordEntry entry = new RecordEntry();
+            entry.f = item.fingerprint;
+            entry.refs = refs;
+            next.records.put(item.key, entry);
+            live.addAll(refs);
+        }
+
+        private void scan(Item item) {
+            BlobEntry cached = previous.blobs.get(item.key);
+            String md5;
+            if (cached != null && item.fingerprint.equals(cached.f) && cached.m != null) {
+                md5 = cached.m;
+            } else {
+                md5 = FileSignUtil.getFileMd5(item.path);
+                if (md5 == null) {
+                    return;
+                }
+            }
+            BlobEntry entry = new BlobEntry();
+            entry.f = item.fingerprint;
+            entry.m = md5;
+            entry.s = item.size;
+            next.blobs.put(item.key, entry);
+            blobIndex.put(md5, item.path);
+        }
+
+        private void sweep() {
+            List<Orphan> found = new ArrayList<>();
+            long bytes = 0;
+            for (Item blob : blobs) {
+                BlobEntry entry = next.blobs.get(blob.key);
+                if (entry != null && !live.contains(entry.m) && !extraRefs.contains(entry.m)) {
+                    found.add(new Orphan(blob.path, entry.m, entry.s));
+                    bytes += entry.s;
+                }
+            }
+            found.sort(Comparator.comparing(o -> o.path().toString()));
+            orphans = found;
+            if (!persist) {
+                return;
+            }
+            next.version = FORMAT_VERSION;
+            writeJson(indexPath(root), next);
+            if (extraRefs.isEmpty()) {
+                Status status = new Status();
+                status.orphanCount = found.size();
+                status.orphanBytes = bytes;
+                status.blobCount = next.blobs.size();
+                status.checkedAt = LocalDateTime.now().toString();
+                writeJson(statusPath(root), status);
+            }
+        }
+    }
+
+    // 记录目录下的记录文件：record/*.json 或 targets/{ns}/record/*.json（含会话记录，排除性能指标）
+    private static boolean isRecordFile(Path relative) {
+        int count = relative.getNameCount();
+        boolean inRecordDir = (count == 2 && relative.getName(0).toString().equals(RECORD_DIR))
+                || (count == 4 && relative.getName(0).toString().equals(BackupFileLoader.NAMESPACES_DIR)
+                && relative.getName(2).toString().equals(RECORD_DIR));
+        String fileName = relative.getFileName().toString();
+        return inRecordDir && fileName.endsWith(".json") && !fileName.endsWith(BackupFileLoader.METRICS_FILE_SUFFIX);
+    }
+
+    private static String fingerprint(BasicFileAttributes attrs) {
+        return attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+    }
+
+    private static String fingerprint(Path file) {
+        try {
+            return fingerprint(Files.readAttributes(file, BasicFileAttributes.class));
+        } catch (IOException e) {
+            return "-";
+        }
+    }
+
+    private static Index loadIndex(Path backupPath) {
+        Path file = indexPath(backupPath);
+        if (file != null && Files.isRegularFile(file)) {
+            try {
+                Index index = MAPPER.readValue(Files.readString(file, StandardCharsets.UTF_8), Index.class);
+                if (index.version == FORMAT_VERSION && index.blobs != null && index.records != null) {
+                    return index;
+                }
+            } catch (Exception e) {
+                LoggerUtil.logWarn("[警告] 读取备份引用索引失败，本轮全量重建: " + e.getMessage());
+            }
+        }
+        return new Index();
+    }
+
+    private static Path indexPath(Path backupPath) {
+        return backupPath == null ? null : backupPath.resolve(SyncState.STATE_DIR).resolve(INDEX_FILE);
+    }
+
+    private static Path statusPath(Path backupPath) {
+        return backupPath == null ? null : backupPath.resolve(SyncState.STATE_DIR).resolve(STATUS_FILE);
+    }
+
+    // 原子替换写出（写失败只记日志：索引与计数都可由下一轮回收重建）
+    private static void writeJson(Path file, Object value) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(tmp, MAPPER.writeValueAsString(value), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LoggerUtil.logException("写出备份回收状态失败: " + file, e);
+        }
+    }
+
+    /**
+     * 格式化计数（日志 / 提示用）
+     */
+    static String describe(int count, long bytes) {
+        return count + " 个（" + MetricsRegistry.formatBytes(bytes) + "）";
+    }
+
+    // 遍历得到的文件：key 为相对备份根目录的路径（/ 分隔）
+    private record Item(Path path, String key, long size, String fingerprint) {
+    }
+
+    /**
+     * 上一轮回收的计数（gc-status.json）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Status {
+        public int orphanCount;
+        public long orphanBytes;
+        public int blobCount;
+        public String checkedAt;
+    }
+
+    /**
+     * 引用索引文件结构（gc-index.json；短键名减小索引体积）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Index {
+        public int version;
+        public Map<String, BlobEntry> blobs = new TreeMap<>();
+        public Map<String, RecordEntry> records = new TreeMap<>();
+    }
+
+    /**
+     * 备份文件条目：f=size:mtime 指纹 m=内容 MD5 s=大小
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BlobEntry {
+        public String f;
+        public String m;
+        public long s;
+    }
+
+    /**
+     * 记录文件条目：f=size:mtime 指纹 refs=引用的备份 MD5
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class RecordEntry {
+        public String f;
+        public List<String> refs;
+    }
+}
@@ -0,0 +1,266 @@
+package com.awei.frt.core.builder;
+
+import com.awei.frt.core.metrics.MetricsRegistry;
+import com.awei.frt.model.Config;
+import com.awei.frt.util.LoggerUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 备份保留策略（分层清理）
+ * 按 Config 中的三项设置决定保留哪些会话（一个操作记录文件即一次会话，默认作用域与各目标命名空间分别计算）：
+ *   - retainSessions：保留最近 N 次会话
+ *   - retainDailyDays：最近 D 天每天保留当天最后一次会话
+ *   - maxBackupMegabytes：备份目录总大小上限，超出时从最旧的会话起继续清理
+ * 每个作用域最新的一次会话总是保留；前两项都为 0 时不按次数 / 天数清理，只按大小上限。
+ * <p>
+ * 清理以整个会话为单位：先删除记录文件（及并列的性能指标文件），再删除因此不再被任何记录引用的备份文件
+ * （原本就孤立的文件不动，留给「清理残留备份」）。引用关系与文件大小来自 BackupGc 的一轮回收，
+ * 删除走 BackupGc.deleteOrphans 的写屏障，不会删掉进行中的操作刚复用的备份。
+ * 操作会话结束后由 finishOperationSession 触发，在后台线程按时间预算执行，不阻塞更新。
+ */
+public final class BackupRetention {
+
+    // 记录文件名中的会话时间：backup-20260131-143045.json / backup-20260131-143045-1.json
+    private static final Pattern RECORD_NAME = Pattern.compile("backup-(\\d{8}-\\d{6})(?:-\\d+)?\\.json");
+    private static final DateTimeFormatter NAME_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String SESSION_RECORD_FILE = "session-current.json";
+    private static final long MEGABYTE = 1024L * 1024L;
+
+    private BackupRetention() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 保留计划
+     * @param pruned      要清理的会话（记录文件相对备份根目录的路径，最旧的在前）
+     * @param released    清理后不再被引用的备份文件
+     * @param bytesBefore 清理前备份总字节数（备份文件 + 记录文件）
+     * @param bytesAfter  清理后预计总字节数
+     */
+    public record Plan(List<String> pruned, List<BackupGc.Orphan> released, long bytesBefore, long bytesAfter) {
+        public boolean isEmpty() {
+            return pruned.isEmpty();
+        }
+    }
+
+    /**
+     * 执行结果
+     * @param plan   执行的计划
+     * @param sweep  备份文件删除结果
+     * @param removedRecords 实际删除的记录文件数
+     */
+    public record Result(Plan plan, BackupGc.SweepResult sweep, int removedRecords) {
+    }
+
+    /**
+     * 操作会话结束后在后台执行保留策略（未配置保留策略时不做任何事；已有保留任务在进行时不重复启动）
+     * @param config     配置（读取保留设置）
+     * @param backupPath 备份根目录（覆盖全部目标命名空间）
+     * @return 是否启动了后台任务
+     */
+    public static boolean enforceInBackground(Config config, Path backupPath) {
+        if (config == null || !config.isRetentionEnabled() || backupPath == null || !Files.isDirectory(backupPath)) {
+            return false;
+        }
+        Config policy = config.copy();
+        return BackupGc.runInBackground("retention", BackupGc.newCycle(backupPath),
+                cycle -> enforce(cycle, policy, LocalDate.now()));
+    }
+
+    /**
+     * 同步执行保留策略
+     * @param config     配置（读取保留设置）
+     * @param backupPath 备份根目录
+     * @param today      计算"最近 D 天"的基准日期
+     */
+    public static Result enforce(Config config, Path backupPath, LocalDate today) {
+        return enforce(BackupGc.collect(backupPath, Set.of()), config, today);
+    }
+
+    private static Result enforce(BackupGc.Cycle cycle, Config config, LocalDate today) {
+        if (cycle.getUnreadableRecords() > 0) {
+            // 无法解析的记录引用了哪些备份未知，按引用关系删除可能误删
+            LoggerUtil.logWarn("[保留策略] 有 " + cycle.getUnreadableRecords() + " 个操作记录无法解析，本次跳过清理");
+            Plan empty = new Plan(List.of(), List.of(), 0, 0);
+            return new Result(empty, BackupGc.SweepResult.NONE, 0);
+        }
+        Plan plan = plan(cycle, config, today);
+        if (plan.isEmpty()) {
+            return new Result(plan, BackupGc.SweepResult.NONE, 0);
+        }
+        // 先删记录再删备份：中途退出只会留下孤立备份，不会留下指向已删备份的记录
+        int removed = 0;
+        for (String key : plan.pruned()) {
+            Path record = cycle.getRoot().resolve(key);
+            try {
+                Files.deleteIfExists(record);
+                String fileName = record.getFileName().toString();
+                Files.deleteIfExists(record.resolveSibling(
+                        fileName.substring(0, fileName.length() - ".json".length()) + BackupFileLoader.METRICS_FILE_SUFFIX));
+                removed++;
+            } catch (IOException e) {
+                LoggerUtil.logException("[保留策略] 删除操作记录失败: " + key, e);
+            }
+        }
+        BackupGc.SweepResult sweep = removed == plan.pruned().size()
+                ? BackupGc.deleteOrphans(cycle, plan.released())
+                : BackupGc.SweepResult.NONE; // 有记录没删掉时保守不删备份，留给下一轮
+        LoggerUtil.logInfo("[保留策略] 已清理 " + removed + " 次旧会话，删除备份文件 " + sweep.deleted()
+                + " 个，回收 " + MetricsRegistry.formatBytes(sweep.bytesReclaimed())
+                + "；备份目录约 " + MetricsRegistry.formatBytes(plan.bytesAfter()));
+        if (config.getMaxBackupMegabytes() > 0 && plan.bytesAfter() > config.getMaxBackupMegabytes() * MEGABYTE) {
+            LoggerUtil.logWarn("[保留策略] 只保留最新会话后仍超出大小上限，可在「清理残留备份」中清除未被引用的文件");
+        }
+        return new Result(plan, sweep, removed);
+    }
+
+    /**
+     * 计算保留计划（不删除任何文件）
+     * @param cycle  已完成的一轮回收（提供记录引用与备份文件大小）
+     * @param config 配置（读取保留设置）
+     * @param today  计算"最近 D 天"的基准日期
+     */
+    public static Plan plan(BackupGc.Cycle cycle, Config config, LocalDate today) {
+        Map<String, List<String>> recordRefs = cycle.getRecordRefs();
+        Map<String, List<Session>> scopes = new LinkedHashMap<>();
+        for (String key : recordRefs.keySet()) {
+            if (isSessionRecord(key)) {
+                continue; // 进行中的会话不参与清理，其引用始终计入
+            }
+            Path record = cycle.getRoot().resolve(key);
+            Session session = new Session(key, sessionTime(record), recordSize(record));
+            scopes.computeIfAbsent(scopeOf(key), s -> new ArrayList<>()).add(session);
+        }
+
+        // 1. 按次数 / 天数决定保留的会话；每个作用域最新的会话总是保留
+        boolean tiered = config.getRetainSessions() > 0 || config.getRetainDailyDays() > 0;
+        LocalDate firstDay = today.minusDays(Math.max(0, config.getRetainDailyDays() - 1L));
+        Set<String> kept = new HashSet<>();
+        List<Session> yieldable = new ArrayList<>(); // 已保留、但可以为大小上限让路的会话
+        List<Session> all = new ArrayList<>();
+        for (List<Session> sessions : scopes.values()) {
+            sessions.sort(Comparator.comparing(Session::time).thenComparing(Session::key).reversed());
+            Set<LocalDate> coveredDays = new HashSet<>();
+            for (int i = 0; i < sessions.size(); i++) {
+                Session session = sessions.get(i);
+                LocalDate day = session.time().toLocalDate();
+                boolean daily = config.getRetainDailyDays() > 0
+                        && !day.isBefore(firstDay) && !day.isAfter(today) && !coveredDays.contains(day);
+                if (i == 0 || !tiered || i < config.getRetainSessions() || daily) {
+                    kept.add(session.key());
+                    if (i > 0) {
+                        yieldable.add(session);
+                    }
+                }
+                coveredDays.add(day); // 同一天只保留最后一次会话
+                all.add(session);
+            }
+        }
+
+        // 2. 引用计数只统计保留下来的记录（含进行中的会话）；原本就孤立的备份不归本策略清理，始终计入占用
+        Map<String, Long> blobBytes = cycle.getBlobBytes();
+        Map<String, Integer> refCounts = new HashMap<>();
+        Set<String> referenced = new HashSet<>();
+        for (Map.Entry<String, List<String>> entry : recordRefs.entrySet()) {
+            Set<String> refs = new HashSet<>(entry.getValue());
+            referenced.addAll(refs);
+            if (kept.contains(entry.getKey()) || isSessionRecord(entry.getKey())) {
+                refs.forEach(md5 -> refCounts.merge(md5, 1, Integer::sum));
+            }
+        }
+        long bytesBefore = 0;
+        long bytesAfter = 0;
+        for (Session session : all) {
+            bytesBefore += session.size();
+            bytesAfter += kept.contains(session.key()) ? session.size() : 0;
+        }
+        for (Map.Entry<String, Long> entry : blobBytes.entrySet()) {
+            bytesBefore += entry.getValue();
+            if (refCounts.containsKey(entry.getKey()) || !referenced.contains(entry.getKey())) {
+                bytesAfter += entry.getValue();
+            }
+        }
+
+        // 3. 大小上限：从最旧的可让路会话起逐个移除，直到不超过上限
+        if (config.getMaxBackupMegabytes() > 0) {
+            long limit = config.getMaxBackupMegabytes() * MEGABYTE;
+            yieldable.sort(Comparator.comparing(Session::time).thenComparing(Session::key));
+            for (Session session : yieldable) {
+                if (bytesAfter <= limit) {
+                    break;
+                }
+                kept.remove(session.key());
+                bytesAfter -= session.size();
+                for (String md5 : new HashSet<>(recordRefs.get(session.key()))) {
+                    if (refCounts.merge(md5, -1, Integer::sum) <= 0) {
+                        refCounts.remove(md5);
+                        bytesAfter -= blobBytes.getOrDefault(md5, 0L);
+                    }
+                }
+            }
+        }
+
+        List<String> pruned = all.stream()
+                .filter(session -> !kept.contains(session.key()))
+                .sorted(Comparator.comparing(Session::time).thenComparing(Session::key))
+                .map(Session::key)
+                .toList();
+        return new Plan(pruned, cycle.releasedBy(new HashSet<>(pruned)), bytesBefore, bytesAfter);
+    }
+
+    private static boolean isSessionRecord(String key) {
+        return key.endsWith("/" + SESSION_RECORD_FILE);
+    }
+
+    // 作用域：记录文件所在的 record 目录之前的部分（"" 为默认根目录，"targets/{ns}/" 为目标命名空间）
+    private static String scopeOf(String key) {
+        int index = key.lastIndexOf("record/");
+        return index < 0 ? "" : key.substring(0, index);
+    }
+
+    // 会话时间：优先取记录文件名中的时间（不反序列化记录），否则取文件修改时间
+    private static LocalDateTime sessionTime(Path record) {
+        Matcher matcher = RECORD_NAME.matcher(record.getFileName().toString());
+        if (matcher.matches()) {
+            try {
+                return LocalDateTime.parse(matcher.group(1), NAME_TIME);
+            } catch (DateTimeParseException e) {
+                // 落到文件修改时间
+            }
+        }
+        try {
+            return LocalDateTime.ofInstant(Files.getLastModifiedTime(record).toInstant(), ZoneId.systemDefault());
+        } catch (IOException e) {
+            return LocalDateTime.MIN;
+        }
+    }
+
+    private static long recordSize(Path record) {
+        try {
+            return Files.size(record);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private record Session(String key, LocalDateTime time, long size) {
+    }
+}
@@ -1,15 +1,20 @@
 package com.awei.frt.core.builder;
 
+import com.awei.frt.core.context.RuleInheritanceContext;
 import com.awei.frt.core.node.FileNode;
 import com.awei.frt.core.node.FileLeaf;
 import com.awei.frt.core.node.FolderNode;
+import com.awei.frt.core.strategy.RulePruning;
+import com.awei.frt.model.MatchRule;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * 文件树构建器
@@ -32,6 +37,49 @@ public class FileTreeBuilder {
         }
     }
 
+    /**
+     * 构建延迟文件树：只创建根节点，各目录的子节点在处理器进入该目录（有有效规则）时才列出一层；
+     * 无规则被跳过的子树（截图、存档等无关大目录）不会被列出
+     * @param rootPath 根路径
+     * @return 延迟构建的根节点（文件时与 buildTree 相同）
+     */
+    public static FileNode buildLazyTree(Path rootPath) {
+        if (Files.isDirectory(rootPath)) {
+            return FolderNode.lazy(rootPath);
+        }
+        return new FileLeaf(rootPath, rootPath.getFileName().toString());
+    }
+
+    /**
+     * 复制文件树结构（只在内存中复制节点，不访问文件系统；栈迭代）
+     * 节点上的处理状态（handled）属于单次运行：多目标分发时共享一次扫描结果，
+     * 每个目标在自己的副本上运行，互不干扰。
+     * @param root 已构建的根节点
+     * @return 结构相同、状态全新的副本
+     */
+    public static FileNode copyTree(FileNode root) {
+        if (!(root instanceof FolderNode rootFolder)) {
+            return new FileLeaf(root.getPath(), root.getRelativePath());
+        }
+        FolderNode copyRoot = new FolderNode(rootFolder.getPath(), rootFolder.getRelativePath());
+        Deque<FolderNode[]> stack = new ArrayDeque<>();
+        stack.push(new FolderNode[]{rootFolder, copyRoot});
+        while (!stack.isEmpty()) {
+            FolderNode[] pair = stack.pop();
+            for (FileNode child : pair[0].getChildren()) {
+                // 副本沿用原节点的共享名称，路径由副本的父链推导
+                if (child instanceof FolderNode folder) {
+                    FolderNode copy = new FolderNode(pair[1], folder.getName());
+                    pair[1].addChild(copy);
+                    stack.push(new FolderNode[]{folder, copy});
+                } else {
+                    pair[1].addChild(new FileLeaf(pair[1], child.getName()));
+                }
+            }
+        }
+        return copyRoot;
+    }
+
     /**
      * 统计文件树中的文件（叶子）数量（栈迭代，避免深目录递归栈溢出）
      * @param root 根节点
@@ -59,6 +107,70 @@ public class FileTreeBuilder {
         return count;
     }
 
+    /**
+     * 统计处理时会被处理的文件数量（进度总数用）：与 FolderNode.process 相同地逐层推导规则，
+     * 只进入有有效策略的目录，因此延迟树上只列出处理时本来就要列出的目录
+     * @param root 根节点
+     * @return 会被处理（上报进度）的文件数量
+     */
+    public static int countProcessableFiles(FileNode root) {
+        return measureProcessableFiles(root, false).files();
+    }
+
+    /**
+     * 统计会被处理的文件数量与总字节数（按字节计算进度与剩余时间用）
+     * @param root      根节点
+     * @param withBytes 是否统计字节数（每个文件多一次 stat；删除等不复制内容的操作不需要）
+     * @return 文件数量与字节数
+     */
+    public static ProcessableFiles measureProcessableFiles(FileNode root, boolean withBytes) {
+        if (!(root instanceof FolderNode rootFolder)) {
+            return new ProcessableFiles(0, 0);
+        }
+        int count = 0;
+        long bytes = 0;
+        Deque<FolderNode> folders = new ArrayDeque<>();
+        Deque<RuleInheritanceContext> contexts = new ArrayDeque<>();
+        folders.push(rootFolder);
+        contexts.push(new RuleInheritanceContext());
+        while (!folders.isEmpty()) {
+            FolderNode folder = folders.pop();
+            RuleInheritanceContext ruleContext = new RuleInheritanceContext(contexts.pop());
+            MatchRule rule = ruleContext.resolveEffectiveRule(folder);
+            if (rule == null || rule.getEffectiveStrategies().isEmpty()) {
+                continue;
+            }
+            // 与处理器相同的剪枝：名称不可能命中的文件不处理、不上报进度
+            Predicate<String> fileFilter = RulePruning.compileFileFilter(rule);
+            for (FileNode child : folder.getChildren()) {
+                if (child instanceof FolderNode childFolder) {
+                    folders.push(childFolder);
+                    contexts.push(ruleContext);
+                } else if (fileFilter == null || fileFilter.test(child.getName())) {
+                    count++;
+                    if (withBytes) {
+                        bytes += sizeOf(child.getPath());
+                    }
+                }
+            }
+        }
+        return new ProcessableFiles(count, bytes);
+    }
+
+    /**
+     * 会被处理的文件数量与总字节数
+     */
+    public record ProcessableFiles(int files, long bytes) {
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
     /**
      * 打印文件树结构（用于调试）
      * 使用栈实现的迭代方式，避免递归栈溢出
@@ -144,6 +256,10 @@ public class FileTreeBuilder {
         String connector = isLast ? "└── " : "├── ";
         String icon = node.isDirectory() ? "[+] " : "[-] "; // ASCII 兼容图标（emoji 在 GBK 控制台乱码）
         String suffix = node.isDirectory() ? "/" : "";
+        // 延迟树中尚未列出的目录（无规则被跳过，或尚未处理到）不展开
+        if (node instanceof FolderNode folder && !folder.isListed()) {
+            suffix += " (未展开)";
+        }
 
         System.out.println(prefix + connector + icon + node.getName() + suffix);
     }
@@ -158,6 +274,10 @@ public class FileTreeBuilder {
         }
 
         FolderNode folderNode = (FolderNode) node;
+        // 打印不触发延迟列出
+        if (!folderNode.isListed()) {
+            return;
+        }
         List<FileNode> children = folderNode.getChildren();
 
         if (children.isEmpty()) {
@@ -1,12 +1,18 @@
 package com.awei.frt.core.builder;
 
+import com.awei.frt.core.strategy.ParamSchema;
 import com.awei.frt.factory.StrategyFactory;
 import com.awei.frt.model.MatchRule;
+import com.awei.frt.model.RuleParams;
 import com.awei.frt.model.StrategyStep;
 import com.awei.frt.util.LoggerUtil;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * @Author: mou_ren
  * @Date: 2026/1/18 10:02
@@ -45,6 +51,16 @@ public class MatchRuleLoader {
                 }
             }
 
+            // 策略扩展参数：按各策略声明的类型校验一次并编译（执行期直接读取解析好的值）
+            if (rule.getStrategyType() != null && !rule.getStrategyType().isBlank()) {
+                rule.setParams(compileParams(rule.getStrategyType(), rule.getReplacements()));
+            }
+            if (rule.getStrategyChain() != null) {
+                for (StrategyStep step : rule.getStrategyChain()) {
+                    step.setParams(compileParams(step.getStrategyType(), step.getReplacements()));
+                }
+            }
+
             return rule;
         } catch (IllegalArgumentException e) {
             // 策略类型验证失败
@@ -57,5 +73,52 @@ public class MatchRuleLoader {
         }
     }
 
+    /**
+     * 校验规则（主策略与策略链各步骤）的扩展参数，供向导在写入前提示
+     * @param rule 规则
+     * @return 错误信息列表（为空表示通过；策略类型未注册的步骤不在此校验）
+     */
+    public static List<String> validateParams(MatchRule rule) {
+        List<String> errors = new ArrayList<>();
+        if (rule == null) {
+            return errors;
+        }
+        collectErrors(rule.getStrategyType(), rule.getReplacements(), errors);
+        if (rule.getStrategyChain() != null) {
+            for (StrategyStep step : rule.getStrategyChain()) {
+                if (step != null) {
+                    collectErrors(step.getStrategyType(), step.getReplacements(), errors);
+                }
+            }
+        }
+        return errors;
+    }
+
+    private static void collectErrors(String type, Map<String, String> replacements, List<String> errors) {
+        if (type == null || !StrategyFactory.isSupported(type)) {
+            return;
+        }
+        for (String error : StrategyFactory.getParamSchema(type).validate(replacements)) {
+            errors.add(type + ": " + error);
+        }
+    }
+
+    /**
+     * 按策略参数声明编译扩展参数；未声明的参数名只告警
+     * @throws IllegalArgumentException 参数不合法
+     */
+    private static RuleParams compileParams(String type, Map<String, String> replacements) {
+        ParamSchema schema = StrategyFactory.getParamSchema(type);
+        List<String> unknown = schema.unknownKeys(replacements);
+        if (!unknown.isEmpty()) {
+            LoggerUtil.logWarn("[规则] 策略 " + type + " 未声明参数 " + unknown + "（已保留，策略可能不会读取）");
+        }
+        try {
+            return schema.compile(replacements);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("策略 " + type + " 参数不合法: " + e.getMessage(), e);
+        }
+    }
+
     // 注：文件名匹配统一由 GlobMatcher 提供（策略内使用），不再保留本类中的重复实现
 }
@@ -0,0 +1,37 @@
+package com.awei.frt.core.context;
+
+import java.io.InterruptedIOException;
+
+/**
+ * 协作式取消标记（界面停止按钮 / 控制台 Ctrl+C → 处理线程）
+ * 处理线程只在安全检查点查看标记：目录与文件之间（FolderNode.process）、目录级策略逐个 mod 之间、
+ * 复制原语逐块之间（FileTransferUtil）。已完成的文件保持完成，正在复制的文件由调用方清理半成品，
+ * 因此取消后目标目录总是"部分文件已更新、其余保持原状"的一致状态，可按会话记录立即回滚。
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * 请求取消（任意线程；可重复调用）
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 是否已请求取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * IO 检查点：已请求取消时抛出 InterruptedIOException（复制等 IO 原语逐块调用）
+     */
+    public void checkpoint() throws InterruptedIOException {
+        if (cancelled) {
+            throw new InterruptedIOException("操作已取消");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.awei.frt.core.context;
+
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.model.RuleParams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 同一文件夹下、同一规则步骤的一批兄弟文件（批量策略 SPI 的输入，见 BatchOperationStrategy）
+ * 携带规则步骤预解析的参数（RuleParams），并提供整批共享的目标目录信息：
+ * 文件数达到阈值时只列一次目标目录，逐文件的"目标是否存在"判断改为查表。
+ * <p>
+ * 策略按顺序处理 nodes，每处理完一个节点调用 done(node)：处理器据此在文件完成时记录增量指纹与上报进度，
+ * 取消检查点与异常兜底也以此为界（done 之前的节点视为已完成）。
+ */
+public final class FileBatch {
+
+    // 文件数达到该值才列目标目录（文件少时逐个 exists 更省）
+    static final int LIST_TARGET_THRESHOLD = 16;
+
+    private final List<? extends FileNode> nodes;
+    private final RuleParams params;
+    private final Path targetDir;
+    private final Consumer<FileNode> onDone;
+    private final FileBatch root;    // 派生批共享根批的目标目录列表
+    private int doneCount;
+    private Set<String> targetNames; // 目标目录文件名（懒加载，仅根批持有；列目录失败时为空集合）
+
+    /**
+     * @param nodes     本批文件（同一父目录，顺序即处理顺序）
+     * @param params    规则步骤参数
+     * @param targetDir 本批文件在目标层的父目录（可为 null：不使用目录列表）
+     * @param onDone    节点处理完成回调（可为 null）
+     */
+    public FileBatch(List<? extends FileNode> nodes, RuleParams params, Path targetDir, Consumer<FileNode> onDone) {
+        this.nodes = nodes == null ? List.of() : nodes;
+        this.params = params == null ? RuleParams.EMPTY : params;
+        this.targetDir = targetDir;
+        this.onDone = onDone;
+        this.root = this;
+    }
+
+    private FileBatch(FileBatch parent, Consumer<FileNode> listener) {
+        this.nodes = parent.pending();
+        this.params = parent.params;
+        this.targetDir = parent.targetDir;
+        this.root = parent.root;
+        this.onDone = node -> {
+            if (listener != null) {
+                listener.accept(node);
+            }
+            parent.done(node);
+        };
+    }
+
+    /**
+     * 由尚未完成的节点组成的派生批（装饰器用）：节点完成时先通知 listener 再转发给本批，
+     * 参数与目标目录列表与本批共享
+     * @param listener 节点完成监听（可为 null）
+     */
+    public FileBatch remaining(Consumer<FileNode> listener) {
+        return new FileBatch(this, listener);
+    }
+
+    /**
+     * 本批全部文件（处理顺序）
+     */
+    public List<? extends FileNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * 规则步骤参数（预解析，整批共享）
+     */
+    public RuleParams getParams() {
+        return params;
+    }
+
+    /**
+     * 节点处理完成（按 nodes 顺序逐个调用）
+     */
+    public void done(FileNode node) {
+        doneCount++;
+        if (onDone != null) {
+            onDone.accept(node);
+        }
+    }
+
+    /**
+     * 尚未完成的节点（异常兜底后从这里继续）
+     */
+    public List<? extends FileNode> pending() {
+        return nodes.subList(Math.min(doneCount, nodes.size()), nodes.size());
+    }
+
+    /**
+     * 目标层对应文件是否存在
+     * 批量较大时先查一次性列出的目标目录：命中即存在；未命中再回退 Files.exists
+     * （本批处理中新增的文件、大小写不敏感的文件系统都由回退兜住）。
+     * @param target 节点在目标层的路径
+     */
+    public boolean targetExists(Path target) {
+        if (targetDir != null && root.nodes.size() >= LIST_TARGET_THRESHOLD && targetDir.equals(target.getParent())) {
+            Path name = target.getFileName();
+            if (name != null && root.targetNames().contains(name.toString())) {
+                return true;
+            }
+        }
+        return Files.exists(target);
+    }
+
+    private Set<String> targetNames() {
+        if (targetNames == null) {
+            Set<String> names = new HashSet<>();
+            if (Files.isDirectory(targetDir)) {
+                try (Stream<Path> list = Files.list(targetDir)) {
+                    list.forEach(p -> names.add(p.getFileName().toString()));
+                } catch (IOException e) {
+                    // 列目录失败：全部回退逐个判断
+                    names.clear();
+                }
+            }
+            targetNames = names;
+        }
+        return targetNames;
+    }
+}
@@ -1,13 +1,20 @@
 package com.awei.frt.core.context;
 
 import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.metrics.MetricsRegistry;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.core.transaction.StagedTransaction;
+import com.awei.frt.core.uitls.FileSignUtil;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.OperationRecord;
 import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.model.RuleParams;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
 
+import com.awei.frt.util.FileLogBatch;
 import com.awei.frt.util.LoggerUtil;
 
 /**
@@ -20,11 +27,22 @@ public class OperationContext {
     private final Path targetBasePath;        // 目标基准路径，文件操作的目标目录
 
     private RuleInheritanceContext ruleInheritanceContext; // 规则继承上下文，管理规则继承关系
+    private FileBatch fileBatch;                            // 当前正在执行的同目录文件批（批量执行期间有效）
     private final ProcessingResult processingResult;       // 处理结果对象，汇总处理结果
+    private final MetricsRegistry metrics;                 // 性能指标（策略/操作耗时、复制/哈希字节数）
+    private final FileLogBatch fileLog = new FileLogBatch(); // 逐文件日志汇总（明细 DEBUG，INFO 按批汇总）
     private boolean dryRun = false;                        // 预览模式：只收集操作计划，不执行文件 IO、不落盘会话记录
     private ProgressCallback progressCallback;             // 进度回调（null = 不上报）
+    private ProgressTracker progressTracker;               // 阶段/字节进度跟踪（null = 不上报）
+    private CancellationToken cancellation;                // 取消标记（null = 不可取消）
     private int progressTotal = 0;                         // 总文件数
     private int progressDone = 0;                          // 已处理文件数
+    private SyncState syncState;                           // 增量更新同步状态（null = 全量处理）
+    private SourceIndex sourceIndex;                       // 源侧共享索引（多目标分发时共享；null = 不共享）
+    private StagedTransaction transaction;                 // 暂存事务（事务化更新；null = 直接改动目标）
+    private PlanSink planSink;                             // 流式计划接收器（预览阶段逐条输出；null = 不输出）
+    private PlanTotals planTotals = new PlanTotals();      // 计划累计统计
+    private boolean retainRecords = true;                  // 是否在结果中保留完整记录列表
 
     // 操作类型（用于 ProcessingResult-->OperationRecord-->operationType）
     public static final String OPERATION_RENAME = "operation_rename";
@@ -42,6 +60,8 @@ public class OperationContext {
         this.targetBasePath = basePath.resolve(config.getTargetPath());
         this.ruleInheritanceContext = new RuleInheritanceContext(); // 初始化默认规则继承上下文
         this.processingResult = new ProcessingResult();
+        this.metrics = new MetricsRegistry();
+        this.processingResult.setMetrics(metrics);
     }
 
     /**
@@ -72,13 +92,161 @@ public class OperationContext {
      * 打印处理统计信息
      */
     public void printStatistics() {
+        fileLog.flush();
         System.out.println("-----------------------------------------");
         LoggerUtil.logInfo("[STATS] 处理统计: 成功 " + getSuccessCount() + " 个文件"
                 + (getSkipCount() > 0 ? ", 跳过 " + getSkipCount() + " 个文件" : "")
                 + (getErrorCount() > 0 ? ", 失败 " + getErrorCount() + " 个文件" : ""));
+        if (syncState != null && (syncState.getUnchangedFiles() > 0 || syncState.getUnchangedFolders() > 0)) {
+            LoggerUtil.logInfo("[增量] 未变化跳过: " + syncState.getUnchangedFiles() + " 个文件, "
+                    + syncState.getUnchangedFolders() + " 个目录");
+        }
+        metrics.printSummary();
         System.out.println("-----------------------------------------");
     }
 
+    /**
+     * 获取本次会话的逐文件日志汇总（策略逐文件结果经此输出）
+     */
+    public FileLogBatch getFileLog() {
+        return fileLog;
+    }
+
+    /**
+     * 获取本次会话的性能指标
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+
+    /**
+     * 获取增量更新同步状态（null 表示未启用增量，全量处理）
+     */
+    public SyncState getSyncState() {
+        return syncState;
+    }
+
+    /**
+     * 设置增量更新同步状态
+     */
+    public void setSyncState(SyncState syncState) {
+        this.syncState = syncState;
+    }
+
+    /**
+     * 获取源侧共享索引（null 表示单目标运行，不共享）
+     */
+    public SourceIndex getSourceIndex() {
+        return sourceIndex;
+    }
+
+    /**
+     * 设置源侧共享索引（多目标分发时各目标上下文共用同一实例）
+     */
+    public void setSourceIndex(SourceIndex sourceIndex) {
+        this.sourceIndex = sourceIndex;
+    }
+
+    /**
+     * 获取暂存事务（null 表示直接模式，文件操作立即改动目标）
+     */
+    public StagedTransaction getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * 设置暂存事务（事务化更新时由服务层开启，处理完成后提交）
+     */
+    public void setTransaction(StagedTransaction transaction) {
+        this.transaction = transaction;
+    }
+
+    /**
+     * 开启暂存事务（事务化更新）：之后的新增/替换/删除先暂存，commitTransaction() 时统一落盘
+     * @throws IllegalStateException 暂存目录或事务标记无法创建
+     */
+    public void beginTransaction() {
+        try {
+            this.transaction = StagedTransaction.begin(targetBasePath, Runtime.getRuntime().availableProcessors());
+        } catch (IOException e) {
+            throw new IllegalStateException("开启暂存事务失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 提交暂存事务（未开启时无操作）：失败项改记为错误；增量清单的目标指纹按提交后的目标刷新
+     */
+    public void commitTransaction() {
+        if (transaction == null) {
+            return;
+        }
+        StagedTransaction txn = transaction;
+        transaction = null;
+        txn.commit(processingResult);
+        if (syncState != null) {
+            syncState.refreshTargets();
+        }
+    }
+
+    /**
+     * 放弃暂存事务（未开启时无操作）：目标目录保持不变
+     */
+    public void abortTransaction() {
+        if (transaction != null) {
+            transaction.abort();
+            transaction = null;
+        }
+    }
+
+    /**
+     * 设置取消标记（服务层在开始处理前绑定；null 表示不可取消）
+     */
+    public void setCancellation(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * 获取取消标记（null 表示不可取消）
+     */
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    /**
+     * 是否已请求取消（检查点调用：只读一次 volatile）
+     */
+    public boolean isCancelled() {
+        return cancellation != null && cancellation.isCancelled();
+    }
+
+    /**
+     * 取消收尾：处理在检查点停下后调用，结果标记为中途取消
+     * 事务化更新放弃暂存（目标保持不变），已登记的操作全部改记为未执行；
+     * 直接模式下已完成的操作保留在结果中，由 BackupFileLoader.finishOperationSession 询问是否立即回滚。
+     * @return 是否已取消（未取消时无操作）
+     */
+    public boolean finishIfCancelled() {
+        if (!isCancelled()) {
+            return false;
+        }
+        if (transaction != null) {
+            StagedTransaction txn = transaction;
+            transaction = null;
+            txn.cancel(processingResult);
+        }
+        processingResult.setInterrupted(true);
+        LoggerUtil.logWarn("[取消] 操作已在检查点停止：已完成 " + getSuccessCount() + " 个，其余文件未处理");
+        return true;
+    }
+
+    /**
+     * 源文件 MD5：有共享索引时取索引（多目标只算一次），否则走 FileSignUtil 缓存
+     * @param sourcePath 源文件（update 侧）
+     */
+    public String sourceMd5(Path sourcePath) {
+        return sourceIndex != null ? sourceIndex.md5(sourcePath) : FileSignUtil.getFileMd5(sourcePath);
+    }
 
     /**
      * 获取规则继承上下文
@@ -125,7 +293,15 @@ public class OperationContext {
      * @param record 操作记录
      */
     public void recordOperation(OperationRecord record) {
-        processingResult.addOperationRecord(record);
+        if (retainRecords) {
+            processingResult.addOperationRecord(record);
+        } else {
+            processingResult.countOperationRecord(record);
+        }
+        planTotals.record(record);
+        if (planSink != null) {
+            planSink.onRecord(record, planTotals);
+        }
         // 每次操作后增量追加会话记录（JSON Lines 一行一条，防止异常中断导致记录丢失）
         // 预览模式（dryRun）不落盘，避免把"计划"当成"已执行"写入恢复记录
         if (!dryRun) {
@@ -133,6 +309,49 @@ public class OperationContext {
         }
     }
 
+    /**
+     * 绑定流式计划接收器：之后每条操作记录产生时即回调
+     * @param sink          接收器（null 表示不输出）
+     * @param retainRecords 是否仍在结果中保留完整记录列表（调用方后续要用到记录时为 true；
+     *                      只需展示 / 写文件时为 false，结果只保留计数，内存不随文件数增长）
+     */
+    public void setPlanSink(PlanSink sink, boolean retainRecords) {
+        this.planSink = sink;
+        this.retainRecords = retainRecords;
+        this.planTotals = new PlanTotals();
+    }
+
+    /**
+     * 记录一个剪枝跳过的目录（无有效规则，整棵子树不处理）
+     */
+    public void recordPrunedFolder() {
+        planTotals.recordPrunedFolder();
+    }
+
+    /**
+     * 记录一个剪枝跳过的文件（名称不可能命中有效规则）
+     */
+    public void recordPrunedFile() {
+        planTotals.recordPrunedFile();
+    }
+
+    /**
+     * 通知计划接收器预览结束（未绑定时无操作）
+     */
+    public void completePlan() {
+        fileLog.flush();
+        if (planSink != null) {
+            planSink.onComplete(planTotals);
+        }
+    }
+
+    /**
+     * 本次会话的计划累计统计
+     */
+    public PlanTotals getPlanTotals() {
+        return planTotals;
+    }
+
     /**
      * 是否预览模式（只收集操作计划，不真正改动文件）
      */
@@ -153,9 +372,70 @@ public class OperationContext {
      * @param total    总文件数
      */
     public void setProgressCallback(ProgressCallback callback, int total) {
+        setProgressCallback(callback, total, 0);
+    }
+
+    /**
+     * 绑定进度回调并设定总量（逐文件回调 + 阶段/字节进度事件）
+     * @param callback 回调，null 表示不上报
+     * @param total    总文件数
+     * @param bytes    待复制总字节数（0 表示未知）
+     */
+    public void setProgressCallback(ProgressCallback callback, int total, long bytes) {
         this.progressCallback = callback;
         this.progressTotal = Math.max(0, total);
         this.progressDone = 0;
+        trackProgress(callback);
+        if (progressTracker != null) {
+            progressTracker.setTotals(total, bytes);
+        }
+    }
+
+    /**
+     * 只跟踪阶段/字节进度，不逐文件回调（预览阶段、扫描阶段使用；已跟踪时沿用原跟踪器）
+     * @param callback 回调，null 表示不上报
+     */
+    public void trackProgress(ProgressCallback callback) {
+        if (callback == null) {
+            progressTracker = null;
+        } else if (progressTracker == null) {
+            progressTracker = new ProgressTracker(callback);
+        }
+    }
+
+    /**
+     * 进入进度阶段（未跟踪进度时无操作）
+     */
+    public void beginPhase(ProgressPhase phase) {
+        if (progressTracker != null) {
+            progressTracker.beginPhase(phase);
+        }
+    }
+
+    /**
+     * 累计某阶段处理的字节数（未跟踪进度时无操作）
+     * @param nanos IO 耗时；0 表示未计时
+     */
+    public void trackBytes(ProgressPhase phase, long bytes, long nanos) {
+        if (progressTracker != null) {
+            progressTracker.addBytes(phase, bytes, nanos);
+        }
+    }
+
+    /**
+     * 进度结束（产生结束事件；未跟踪进度时无操作）
+     */
+    public void finishProgress() {
+        if (progressTracker != null) {
+            progressTracker.finish();
+        }
+    }
+
+    /**
+     * 是否在跟踪进度（未跟踪时调用方可省去统计字节数的额外开销）
+     */
+    public boolean isTrackingProgress() {
+        return progressTracker != null;
     }
 
     /**
@@ -163,10 +443,30 @@ public class OperationContext {
      * @param current 当前处理的文件相对路径
      */
     public void reportProgress(String current) {
+        reportProgress(current, null);
+    }
+
+    /**
+     * 上报一次进度（带源文件：按字节估算剩余时间时，被跳过的文件按其大小从剩余量中扣除）
+     * @param current 当前处理的文件相对路径
+     * @param source  该文件的源路径（null 不参与剩余字节计算）
+     */
+    public void reportProgress(String current, Path source) {
         progressDone++;
         if (progressCallback != null) {
             progressCallback.onProgress(progressDone, progressTotal, current == null ? "" : current);
         }
+        if (progressTracker != null) {
+            long bytes = 0;
+            if (source != null && progressTracker.isTrackingBytes()) {
+                try {
+                    bytes = Files.size(source);
+                } catch (IOException ignored) {
+                    // 源文件已不存在：不参与剩余字节计算
+                }
+            }
+            progressTracker.fileDone(current, bytes);
+        }
     }
 
     /**
@@ -175,12 +475,45 @@ public class OperationContext {
      * @return 参数值，未配置返回 null
      */
     public String getRuleParam(String key) {
+        return getRuleParams().getString(key);
+    }
+
+    /**
+     * 获取当前生效规则步骤的策略扩展参数（批量执行期间取批上预解析的参数，否则取规则步骤缓存的快照）
+     * @return 参数（无规则时为 RuleParams.EMPTY）
+     */
+    public RuleParams getRuleParams() {
+        if (fileBatch != null) {
+            return fileBatch.getParams();
+        }
         RuleInheritanceContext ric = getRuleInheritanceContext();
         if (ric == null || ric.getRuleChain() == null) {
-            return null;
+            return RuleParams.EMPTY;
         }
-        Map<String, String> replacements = ric.getRuleChain().getReplacements();
-        return replacements == null ? null : replacements.get(key);
+        return ric.getRuleChain().getParams();
+    }
+
+    /**
+     * 当前正在执行的同目录文件批
+     * @return 文件批，非批量执行期间返回 null
+     */
+    public FileBatch getFileBatch() {
+        return fileBatch;
+    }
+
+    /**
+     * 设置当前文件批（由文件处理器在每个规则步骤前后设置 / 清除）
+     */
+    public void setFileBatch(FileBatch fileBatch) {
+        this.fileBatch = fileBatch;
+    }
+
+    /**
+     * 目标层文件是否存在（批量执行期间复用整批共享的目标目录列表）
+     * @param target 目标路径
+     */
+    public boolean targetExists(Path target) {
+        return fileBatch != null ? fileBatch.targetExists(target) : Files.exists(target);
     }
 
     /**
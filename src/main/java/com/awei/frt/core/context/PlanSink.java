@@ -0,0 +1,28 @@
+package com.awei.frt.core.context;
+
+import com.awei.frt.model.OperationRecord;
+
+/**
+ * 操作计划接收器（预览阶段流式输出）
+ * dryRun 期间策略每产生一条操作记录即回调一次（附带累计统计），不必等整棵树处理完才看到计划；
+ * 实现：控制台逐行打印（PreviewUtil.consoleSink，图形界面经控制台捕获显示在日志区）、
+ * JSON Lines 文件（JsonLinesPlanSink）。
+ * 回调在处理线程中同步执行，实现应尽快返回。
+ */
+@FunctionalInterface
+public interface PlanSink {
+
+    /**
+     * 收到一条计划记录
+     * @param record 操作记录（失败记录表示该项无法执行）
+     * @param totals 含本条在内的累计统计（同一实例持续更新，不要跨回调持有）
+     */
+    void onRecord(OperationRecord record, PlanTotals totals);
+
+    /**
+     * 预览结束（整棵树处理完）
+     * @param totals 最终统计
+     */
+    default void onComplete(PlanTotals totals) {
+    }
+}
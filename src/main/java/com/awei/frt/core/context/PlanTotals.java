@@ -0,0 +1,113 @@
+package com.awei.frt.core.context;
+
+import com.awei.frt.model.OperationRecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 操作计划累计统计（按操作类型计数，流式预览时随记录逐条更新）
+ */
+public class PlanTotals {
+
+    private int added;
+    private int replaced;
+    private int deleted;
+    private int other;
+    private int failed;
+    private int prunedFolders;   // 无有效规则、整棵跳过的目录数
+    private int prunedFiles;     // 名称不可能命中规则、未执行策略的文件数
+
+    /**
+     * 计入一条记录
+     */
+    public void record(OperationRecord record) {
+        if (!record.isSuccess()) {
+            failed++;
+            return;
+        }
+        String type = record.getOperationType();
+        if (OperationContext.OPERATION_ADD.equals(type)) {
+            added++;
+        } else if (OperationContext.OPERATION_REPLACE.equals(type)) {
+            replaced++;
+        } else if (OperationContext.OPERATION_DELETE.equals(type)) {
+            deleted++;
+        } else {
+            other++;
+        }
+    }
+
+    public int getAdded() {
+        return added;
+    }
+
+    public int getReplaced() {
+        return replaced;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * 计入一个剪枝跳过的目录（整棵子树）
+     */
+    public void recordPrunedFolder() {
+        prunedFolders++;
+    }
+
+    /**
+     * 计入一个剪枝跳过的文件
+     */
+    public void recordPrunedFile() {
+        prunedFiles++;
+    }
+
+    public int getPrunedFolders() {
+        return prunedFolders;
+    }
+
+    public int getPrunedFiles() {
+        return prunedFiles;
+    }
+
+    /**
+     * 可执行的操作数（成功记录数）
+     */
+    public int getPlanned() {
+        return added + replaced + deleted + other;
+    }
+
+    /**
+     * 记录总数（含无法执行的）
+     */
+    public int getTotal() {
+        return getPlanned() + failed;
+    }
+
+    /**
+     * 输出结构（命令行 JSON 报告用）
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("planned", getPlanned());
+        map.put("added", added);
+        map.put("replaced", replaced);
+        map.put("deleted", deleted);
+        map.put("failed", failed);
+        map.put("prunedFolders", prunedFolders);
+        map.put("prunedFiles", prunedFiles);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "新增 " + added + ", 替换 " + replaced + ", 删除 " + deleted
+                + (other > 0 ? ", 其他 " + other : "") + ", 无法执行 " + failed;
+    }
+}
@@ -1,8 +1,12 @@
 package com.awei.frt.core.context;
 
 /**
- * 处理进度回调（服务层 → UI 进度条）
- * 由服务在真实执行阶段逐文件上报，UI 侧（SwingWorker）用于刷新进度条与状态栏。
+ * 处理进度回调（服务层 → UI 进度条 / 控制台）
+ * <ul>
+ *   <li>onProgress：真实执行阶段逐文件上报（已处理数/总数/当前文件），保持原有语义</li>
+ *   <li>onEvent：按阶段（扫描/预览/备份/复制/记录）合并的进度事件，含字节数、吞吐量与剩余时间，
+ *       按 eventIntervalMillis 限频（见 ProgressTracker），预览阶段也会上报</li>
+ * </ul>
  */
 @FunctionalInterface
 public interface ProgressCallback {
@@ -14,4 +18,18 @@ public interface ProgressCallback {
      * @param current   当前处理的文件相对路径（可为空字符串）
      */
     void onProgress(int processed, int total, String current);
+
+    /**
+     * 合并后的进度事件（默认忽略）
+     * @param event 进度快照
+     */
+    default void onEvent(ProgressEvent event) {
+    }
+
+    /**
+     * 进度事件最短间隔（毫秒）；阶段切换与结束不受限
+     */
+    default long eventIntervalMillis() {
+        return 100;
+    }
 }
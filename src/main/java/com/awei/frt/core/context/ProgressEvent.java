@@ -0,0 +1,165 @@
+package com.awei.frt.core.context;
+
+import com.awei.frt.core.metrics.MetricsRegistry;
+
+/**
+ * 进度事件（不可变快照，由 ProgressTracker 按固定频率合并产生）
+ * 文件数与字节数同时给出：字节总数已知时按字节计算完成比例与剩余时间（一个 400MB 的 jar 与 1KB 的配置不再等价），
+ * 否则按文件数；各阶段吞吐量按该阶段实际 IO 耗时计算（备份与复制逐文件交替，按墙钟时间会互相稀释）。
+ */
+public final class ProgressEvent {
+
+    private final ProgressPhase phase;
+    private final int filesDone;
+    private final int filesTotal;
+    private final long bytesDone;
+    private final long bytesTotal;
+    private final long[] phaseBytes;
+    private final long[] phaseBytesPerSecond;
+    private final long elapsedMillis;
+    private final long etaMillis;
+    private final String current;
+    private final boolean finished;
+
+    ProgressEvent(ProgressPhase phase, int filesDone, int filesTotal, long bytesDone, long bytesTotal,
+                  long[] phaseBytes, long[] phaseBytesPerSecond, long elapsedMillis, long etaMillis,
+                  String current, boolean finished) {
+        this.phase = phase;
+        this.filesDone = filesDone;
+        this.filesTotal = filesTotal;
+        this.bytesDone = bytesDone;
+        this.bytesTotal = bytesTotal;
+        this.phaseBytes = phaseBytes;
+        this.phaseBytesPerSecond = phaseBytesPerSecond;
+        this.elapsedMillis = elapsedMillis;
+        this.etaMillis = etaMillis;
+        this.current = current == null ? "" : current;
+        this.finished = finished;
+    }
+
+    /**
+     * 当前阶段
+     */
+    public ProgressPhase getPhase() {
+        return phase;
+    }
+
+    public int getFilesDone() {
+        return filesDone;
+    }
+
+    /**
+     * 总文件数（0 表示未知）
+     */
+    public int getFilesTotal() {
+        return filesTotal;
+    }
+
+    /**
+     * 已复制字节数
+     */
+    public long getBytesDone() {
+        return bytesDone;
+    }
+
+    /**
+     * 待复制总字节数（0 表示未知）
+     */
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    /**
+     * 某阶段累计处理的字节数
+     */
+    public long getPhaseBytes(ProgressPhase phase) {
+        return phaseBytes[phase.ordinal()];
+    }
+
+    /**
+     * 某阶段吞吐量（字节/秒，按该阶段 IO 耗时计算；0 表示尚无数据）
+     */
+    public long getBytesPerSecond(ProgressPhase phase) {
+        return phaseBytesPerSecond[phase.ordinal()];
+    }
+
+    /**
+     * 自设定总量以来的耗时（毫秒）
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 预计剩余时间（毫秒；-1 表示未知）
+     */
+    public long getEtaMillis() {
+        return etaMillis;
+    }
+
+    /**
+     * 当前处理的文件相对路径（可为空字符串）
+     */
+    public String getCurrent() {
+        return current;
+    }
+
+    /**
+     * 是否为结束事件
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * 完成比例（0~1；字节总数已知时按字节，否则按文件数；都未知返回 -1）
+     */
+    public double getFraction() {
+        if (finished) {
+            return 1;
+        }
+        if (bytesTotal > 0) {
+            return Math.min(1, (double) bytesDone / bytesTotal);
+        }
+        if (filesTotal > 0) {
+            return Math.min(1, (double) filesDone / filesTotal);
+        }
+        return -1;
+    }
+
+    /**
+     * 单行描述，如"复制 12/30 个文件 · 35.2 MB / 400.0 MB · 45.1 MB/s · 剩余约 8 秒"
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder(phase.getLabel()).append(' ').append(filesDone);
+        if (filesTotal > 0) {
+            sb.append('/').append(filesTotal);
+        }
+        sb.append(" 个文件");
+        if (bytesTotal > 0) {
+            sb.append(" · ").append(MetricsRegistry.formatBytes(bytesDone))
+                    .append(" / ").append(MetricsRegistry.formatBytes(bytesTotal));
+        }
+        long rate = getBytesPerSecond(phase);
+        if (rate > 0) {
+            sb.append(" · ").append(MetricsRegistry.formatBytes(rate)).append("/s");
+        }
+        if (finished) {
+            sb.append(" · 已完成");
+        } else if (etaMillis >= 0) {
+            sb.append(" · 剩余约 ").append(formatDuration(etaMillis));
+        }
+        return sb.toString();
+    }
+
+    private static String formatDuration(long millis) {
+        long seconds = (millis + 999) / 1000;
+        if (seconds < 60) {
+            return seconds + " 秒";
+        }
+        if (seconds < 3600) {
+            return seconds / 60 + " 分 " + seconds % 60 + " 秒";
+        }
+        return seconds / 3600 + " 小时 " + seconds % 3600 / 60 + " 分";
+    }
+}
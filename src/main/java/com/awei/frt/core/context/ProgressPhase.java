@@ -0,0 +1,26 @@
+package com.awei.frt.core.context;
+
+/**
+ * 处理进度阶段
+ * 扫描（统计待处理文件与字节数）→ 预览（收集计划）→ 备份 / 复制（真实执行，逐文件交替）→ 记录（保存操作记录与同步清单）
+ */
+public enum ProgressPhase {
+    SCAN("扫描"),
+    PLAN("预览"),
+    BACKUP("备份"),
+    COPY("复制"),
+    RECORD("记录");
+
+    private final String label;
+
+    ProgressPhase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * 阶段显示名
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,162 @@
+package com.awei.frt.core.context;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 进度跟踪器（随 OperationContext 绑定回调时创建）
+ * <p>
+ * 热路径（逐文件 / 逐次复制）只做原子累加和一次时间比较；是否产生事件按固定频率合并：
+ * 距上次事件不足 ProgressCallback.eventIntervalMillis 时直接返回，到点时由一个线程（CAS 抢占）
+ * 生成快照交给 ProgressCallback.onEvent。阶段切换与结束强制产生事件。
+ * </p>
+ */
+public class ProgressTracker {
+
+    private static final int PHASES = ProgressPhase.values().length;
+
+    private final ProgressCallback callback;
+    private final long intervalNanos;
+    private final AtomicLong lastEmitNanos;
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private final AtomicLong bytesDone = new AtomicLong();                        // 复制阶段字节数
+    private final AtomicLong fileBytesDone = new AtomicLong();                    // 已完成文件的源大小之和（含未复制而跳过的文件）
+    private final AtomicLongArray phaseBytes = new AtomicLongArray(PHASES);        // 各阶段字节数
+    private final AtomicLongArray phaseTimedBytes = new AtomicLongArray(PHASES);   // 各阶段有耗时的字节数（计算吞吐量）
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES);        // 各阶段 IO 耗时
+    private volatile ProgressPhase phase = ProgressPhase.SCAN;
+    private volatile String current = "";
+    private volatile int filesTotal;
+    private volatile long bytesTotal;
+    private volatile long startNanos = System.nanoTime();
+
+    public ProgressTracker(ProgressCallback callback) {
+        this.callback = callback;
+        this.intervalNanos = Math.max(0, callback.eventIntervalMillis()) * 1_000_000L;
+        this.lastEmitNanos = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 设定总量（扫描完成后调用；耗时与剩余时间从此刻起计算）
+     * @param files 总文件数（0 表示未知）
+     * @param bytes 待复制总字节数（0 表示未知）
+     */
+    public void setTotals(int files, long bytes) {
+        this.filesTotal = Math.max(0, files);
+        this.bytesTotal = Math.max(0, bytes);
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 进入阶段（强制产生一次事件）
+     */
+    public void beginPhase(ProgressPhase phase) {
+        this.phase = phase;
+        emit(System.nanoTime(), false);
+    }
+
+    /**
+     * 一个文件处理完毕
+     * @param current 文件相对路径
+     */
+    public void fileDone(String current) {
+        fileDone(current, 0);
+    }
+
+    /**
+     * 一个文件处理完毕（带源文件大小：被跳过、没有产生复制的文件从剩余工作量中扣除）
+     * @param current 文件相对路径
+     * @param bytes   源文件大小（0 表示不参与剩余字节计算）
+     */
+    public void fileDone(String current, long bytes) {
+        if (bytes > 0) {
+            fileBytesDone.addAndGet(bytes);
+        }
+        filesDone.incrementAndGet();
+        this.current = current == null ? "" : current;
+        maybeEmit();
+    }
+
+    /**
+     * 累计某阶段处理的字节数（同时把当前阶段切换为该阶段，不强制产生事件）
+     * @param phase 阶段（备份 / 复制）
+     * @param bytes 字节数
+     * @param nanos 这些字节的 IO 耗时；0 表示未计时（如暂存事务的异步复制），不参与吞吐量计算
+     */
+    public void addBytes(ProgressPhase phase, long bytes, long nanos) {
+        int i = phase.ordinal();
+        phaseBytes.addAndGet(i, bytes);
+        if (nanos > 0) {
+            phaseTimedBytes.addAndGet(i, bytes);
+            phaseNanos.addAndGet(i, nanos);
+        }
+        if (phase == ProgressPhase.COPY) {
+            bytesDone.addAndGet(bytes);
+        }
+        this.phase = phase;
+        maybeEmit();
+    }
+
+    /**
+     * 是否按字节计算进度（设定了待复制总字节数；否则逐文件上报时不必统计文件大小）
+     */
+    public boolean isTrackingBytes() {
+        return bytesTotal > 0;
+    }
+
+    /**
+     * 结束（强制产生结束事件）
+     */
+    public void finish() {
+        emit(System.nanoTime(), true);
+    }
+
+    /**
+     * 当前快照（不产生事件）
+     */
+    public ProgressEvent snapshot() {
+        return snapshot(System.nanoTime(), false);
+    }
+
+    private void maybeEmit() {
+        long now = System.nanoTime();
+        long last = lastEmitNanos.get();
+        if (now - last < intervalNanos || !lastEmitNanos.compareAndSet(last, now)) {
+            return;
+        }
+        callback.onEvent(snapshot(now, false));
+    }
+
+    private void emit(long now, boolean finished) {
+        lastEmitNanos.set(now);
+        callback.onEvent(snapshot(now, finished));
+    }
+
+    private ProgressEvent snapshot(long now, boolean finished) {
+        long[] bytes = new long[PHASES];
+        long[] rates = new long[PHASES];
+        for (int i = 0; i < PHASES; i++) {
+            bytes[i] = phaseBytes.get(i);
+            long nanos = phaseNanos.get(i);
+            rates[i] = nanos > 0 ? (long) (phaseTimedBytes.get(i) * 1e9 / nanos) : 0;
+        }
+        int files = filesDone.get();
+        long copied = bytesDone.get();
+        long elapsedNanos = Math.max(0, now - startNanos);
+        // 剩余时间：按已完成比例外推（含备份、哈希等全部开销）；字节总数已知时按字节，否则按文件数。
+        // 按字节时分母只算真正要复制的量：已完成的复制字节 + 尚未处理的文件字节，
+        // 增量/内容相同而跳过的文件不产生复制，完成后即从剩余量中扣除，不会让估计偏悲观
+        double fraction;
+        if (bytesTotal > 0) {
+            long work = copied + Math.max(0, bytesTotal - fileBytesDone.get());
+            fraction = work > 0 ? (double) copied / work : 1;
+        } else {
+            fraction = filesTotal > 0 ? (double) files / filesTotal : 0;
+        }
+        long eta = fraction >= 1 ? 0
+                : fraction > 0 ? (long) (elapsedNanos / 1_000_000L * (1 - fraction) / fraction) : -1;
+        return new ProgressEvent(phase, files, filesTotal, copied, bytesTotal, bytes, rates,
+                elapsedNanos / 1_000_000L, eta, current, finished);
+    }
+}
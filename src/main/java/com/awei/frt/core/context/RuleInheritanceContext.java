@@ -3,6 +3,7 @@ package com.awei.frt.core.context;
 import com.awei.frt.constants.RulesConstants;
 import com.awei.frt.core.builder.MatchRuleLoader;
 import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.node.FolderNode;
 import com.awei.frt.model.MatchRule;
 
 import com.awei.frt.util.LoggerUtil;
@@ -46,9 +47,9 @@ public class RuleInheritanceContext {
     /**
      * 加载当前节点的本地规则
      * 按优先级顺序查找：replace.json -> add.json -> delete.json
-     * 使用 Jackson 解析为 MatchRule 对象
+     * 使用 Jackson 解析为 MatchRule 对象（文件夹节点经 FolderNode.getLocalRule 缓存，每个目录只解析一次）
      */
-    private MatchRule loadLocalRule(Path nodePath) {
+    public static MatchRule loadLocalRule(Path nodePath) {
         // 按优先级顺序查找规则文件
         String[] ruleTypes = RulesConstants.FileNames.ALL_RULE_FILES;
 
@@ -75,6 +76,17 @@ public class RuleInheritanceContext {
      * 优先级：本地规则 > 父节点规则 > null
      */
     public MatchRule getEffectiveRule(FileNode currentNode) {
+        return resolveEffectiveRule(currentNode, true);
+    }
+
+    /**
+     * 获取当前节点的有效规则（不输出控制台日志；用于处理前的预扫描，如统计待处理文件数）
+     */
+    public MatchRule resolveEffectiveRule(FileNode currentNode) {
+        return resolveEffectiveRule(currentNode, false);
+    }
+
+    private MatchRule resolveEffectiveRule(FileNode currentNode, boolean verbose) {
         // 如果是文件，直接返回当前文件夹规则
         if(!currentNode.isDirectory()){
             return ruleChain;
@@ -83,22 +95,29 @@ public class RuleInheritanceContext {
         // 处理根节点相对路径
         String relativePath = currentNode.getRelativePath().isEmpty() ? "/" : currentNode.getRelativePath();
         // 优先使用当前节点的规则
-        MatchRule localRule = loadLocalRule(currentNode.getPath());
+        MatchRule localRule = currentNode instanceof FolderNode folder
+                ? folder.getLocalRule() : loadLocalRule(currentNode.getPath());
         if (localRule != null) {
             setRuleChain(localRule);
-            System.out.println("[→] 节点 " + relativePath + " (使用本地规则: "+ localRule.getStrategyType() + ")");
+            if (verbose) {
+                System.out.println("[→] 节点 " + relativePath + " (使用本地规则: "+ localRule.getStrategyType() + ")");
+            }
             return localRule;
         }
 
         // 继承最近的父节点规则
         if (ruleChain != null && ruleChain.isInheritToSubfolders()) {
             MatchRule inheritedRule = ruleChain;
-            System.out.println("[→] 节点 " + relativePath + " (继承规则: "+ inheritedRule.getStrategyType() + ")");
+            if (verbose) {
+                System.out.println("[→] 节点 " + relativePath + " (继承规则: "+ inheritedRule.getStrategyType() + ")");
+            }
             return inheritedRule;
         }
 
         // 没有规则
-        System.out.println("[○] 节点 " + relativePath + " (无规则: 跳过)");
+        if (verbose) {
+            System.out.println("[○] 节点 " + relativePath + " (无规则: 跳过)");
+        }
         return null;
     }
 
@@ -0,0 +1,63 @@
+package com.awei.frt.core.context;
+
+import com.awei.frt.core.mod.ModInfo;
+import com.awei.frt.core.uitls.FileSignUtil;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 源侧共享索引（多目标分发用）
+ * 同一份 update 目录分发到多个目标时，源文件的 MD5 与源目录的 mod 元数据对每个目标都一样：
+ * 由各目标的 OperationContext 共享同一个索引，每个源文件只哈希一次、每个源目录只解析一次 jar，
+ * 不受 FileSignUtil / McModStrategy 全局 LRU 容量的淘汰影响。
+ * <p>
+ * 线程安全（ConcurrentHashMap.computeIfAbsent），生命周期为一次分发会话；
+ * 源目录在会话期间视为不变，不做 mtime 校验。
+ */
+public class SourceIndex {
+
+    private final Map<Path, String> md5 = new ConcurrentHashMap<>();
+    private final Map<Path, Map<String, ModInfo>> modIndex = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * 获取源文件 MD5（首次计算后缓存；文件不存在 / 计算失败返回 null 且不缓存）
+     */
+    public String md5(Path file) {
+        if (file == null) {
+            return null;
+        }
+        String cached = md5.get(file);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        return md5.computeIfAbsent(file, FileSignUtil::getFileMd5);
+    }
+
+    /**
+     * 获取源目录的 mod 索引（modId -> ModInfo，只读；首次由 loader 解析后缓存）
+     * @param dir    源目录
+     * @param loader 解析函数（McModStrategy 的目录扫描）
+     */
+    public Map<String, ModInfo> modIndex(Path dir, Function<Path, Map<String, ModInfo>> loader) {
+        Map<String, ModInfo> cached = modIndex.get(dir);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        return modIndex.computeIfAbsent(dir, d -> Collections.unmodifiableMap(loader.apply(d)));
+    }
+
+    /**
+     * 共享命中次数（其他目标复用已计算结果的次数）
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+}
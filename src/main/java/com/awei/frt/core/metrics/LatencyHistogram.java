@@ -0,0 +1,141 @@
+package com.awei.frt.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图（HdrHistogram 思路的对数-线性分桶，精简实现）
+ * <p>
+ * 按 2 的幂划分量级，每个量级再线性细分 16 个子桶，相对误差约 6%；
+ * 桶数组在构造时一次性分配，record 只做位运算 + 原子自增，记录路径无分配、无锁。
+ * 覆盖范围 0 ~ 2^40 纳秒（约 18 分钟），超出部分计入最后一个桶。
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;                         // 每个量级细分 2^4 = 16 个子桶
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;                          // 最大量级（2^40 ns）
+    private static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();      // 样本数
+    private final AtomicLong totalNanos = new AtomicLong(); // 累计耗时
+    private final AtomicLong maxNanos = new AtomicLong();   // 最大耗时
+
+    /**
+     * 记录一个样本
+     * @param nanos 耗时（纳秒，负数按 0 计）
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        totalNanos.addAndGet(value);
+        long max;
+        while (value > (max = maxNanos.get())) {
+            if (maxNanos.compareAndSet(max, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 样本数
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * 累计耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * 最大耗时（纳秒）
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * 平均耗时（纳秒），无样本返回 0
+     */
+    public long getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / n;
+    }
+
+    /**
+     * 分位数估计（返回所在桶的上界，不超过实际最大值）
+     * @param percentile 分位（0~100，如 95 表示 p95）
+     * @return 耗时（纳秒），无样本返回 0
+     */
+    public long getPercentileNanos(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * n);
+        rank = Math.max(1, rank);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * 导出摘要（毫秒，保留 3 位小数；供 JSON 落盘）
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", getCount());
+        summary.put("meanMs", toMillis(getMeanNanos()));
+        summary.put("p50Ms", toMillis(getPercentileNanos(50)));
+        summary.put("p95Ms", toMillis(getPercentileNanos(95)));
+        summary.put("p99Ms", toMillis(getPercentileNanos(99)));
+        summary.put("maxMs", toMillis(getMaxNanos()));
+        summary.put("totalMs", toMillis(getTotalNanos()));
+        return summary;
+    }
+
+    /**
+     * 纳秒转毫秒（保留 3 位小数）
+     */
+    static double toMillis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 1000.0) / 1000.0;
+    }
+
+    // 桶下标：小于 16 的值直接落在第 0 量级；否则按最高位量级 + 紧随其后的 4 位定位子桶
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) ((value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + sub;
+    }
+
+    // 桶上界（含）：bucketIndex 的逆运算
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int magnitude = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKET_COUNT;
+        long lower = (1L << magnitude) | ((long) sub << (magnitude - SUB_BUCKET_BITS));
+        return lower + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+}
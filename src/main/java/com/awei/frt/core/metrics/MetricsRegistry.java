@@ -0,0 +1,187 @@
+package com.awei.frt.core.metrics;
+
+import com.awei.frt.core.uitls.FileSignUtil;
+import com.awei.frt.util.LoggerUtil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单次操作会话的性能指标（随 OperationContext 创建）
+ * <p>
+ * 记录内容：
+ * <ul>
+ *   <li>按策略类型：execute 调用次数 + 延迟直方图（TimingDecorator 上报）</li>
+ *   <li>按操作类型（add/replace/delete）：成功/失败次数 + 延迟直方图（FileUtil 上报）</li>
+ *   <li>按插件 jar：调用次数、延迟、CPU 时间、分配字节、隔离跳过次数（插件宿主的守卫层上报，见 PluginHost）</li>
+ *   <li>复制字节数（写入目标的内容）、哈希字节数（FileSignUtil 全局计数，取本会话期间增量）</li>
+ * </ul>
+ * 会话结束时由 OperationContext.printStatistics 打印摘要，并随操作记录写出
+ * backup/record/backup-*.metrics.json（见 BackupFileLoader.saveOperationRecord）。
+ */
+public class MetricsRegistry {
+
+    private final Map<String, LatencyHistogram> strategyLatency = new ConcurrentHashMap<>(); // 策略类型 -> 延迟
+    private final Map<String, OperationStats> operationStats = new ConcurrentHashMap<>();    // 操作类型 -> 统计
+    private final Map<String, PluginUsage> pluginUsage = new ConcurrentHashMap<>();          // 插件 jar -> 资源记账
+    private final LongAdder bytesCopied = new LongAdder();                                    // 复制字节数
+    private final long hashedBaseline;                                                        // 会话开始时的全局哈希字节数
+    private final long startNanos = System.nanoTime();                                        // 会话开始时间
+
+    public MetricsRegistry() {
+        this.hashedBaseline = FileSignUtil.getBytesHashed();
+    }
+
+    /**
+     * 记录一次策略 execute 耗时
+     * @param strategyType 策略类型
+     * @param nanos        耗时（纳秒）
+     */
+    public void recordStrategy(String strategyType, long nanos) {
+        strategyLatency.computeIfAbsent(strategyType == null ? "unknown" : strategyType,
+                k -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * 记录一次文件操作（增/改/删）
+     * @param operationType 操作类型（OperationContext.OPERATION_*）
+     * @param success       是否成功
+     * @param nanos         耗时（纳秒）
+     * @param bytes         写入目标的字节数（删除/失败为 0）
+     */
+    public void recordOperation(String operationType, boolean success, long nanos, long bytes) {
+        OperationStats stats = operationStats.computeIfAbsent(operationType == null ? "unknown" : operationType,
+                k -> new OperationStats());
+        (success ? stats.success : stats.failed).increment();
+        stats.latency.record(nanos);
+        if (bytes > 0) {
+            bytesCopied.add(bytes);
+        }
+    }
+
+    /**
+     * 获取（必要时创建）插件的会话级资源记账
+     * @param plugin 插件 jar 文件名
+     */
+    public PluginUsage pluginUsage(String plugin) {
+        return pluginUsage.computeIfAbsent(plugin == null ? "unknown" : plugin, k -> new PluginUsage());
+    }
+
+    /**
+     * 获取插件的会话级资源记账
+     * @return 记账，未记录过返回 null
+     */
+    public PluginUsage getPluginUsage(String plugin) {
+        return pluginUsage.get(plugin);
+    }
+
+    /**
+     * 复制字节数
+     */
+    public long getBytesCopied() {
+        return bytesCopied.sum();
+    }
+
+    /**
+     * 本会话期间的哈希字节数（FileSignUtil 全局计数增量；多会话并发时为合计近似值）
+     */
+    public long getBytesHashed() {
+        return Math.max(0, FileSignUtil.getBytesHashed() - hashedBaseline);
+    }
+
+    /**
+     * 获取策略延迟直方图
+     * @return 直方图，未记录过返回 null
+     */
+    public LatencyHistogram getStrategyLatency(String strategyType) {
+        return strategyLatency.get(strategyType);
+    }
+
+    /**
+     * 打印指标摘要（按策略、按操作类型、字节数）
+     */
+    public void printSummary() {
+        if (strategyLatency.isEmpty() && operationStats.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(strategyLatency).entrySet()) {
+            LatencyHistogram h = e.getValue();
+            LoggerUtil.logInfo("[METRICS] 策略 " + e.getKey() + ": 调用 " + h.getCount() + " 次, "
+                    + formatLatency(h));
+        }
+        for (Map.Entry<String, PluginUsage> e : new TreeMap<>(pluginUsage).entrySet()) {
+            LoggerUtil.logInfo("[METRICS] 插件 " + e.getKey() + ": " + e.getValue().describe());
+        }
+        for (Map.Entry<String, OperationStats> e : new TreeMap<>(operationStats).entrySet()) {
+            OperationStats s = e.getValue();
+            LoggerUtil.logInfo("[METRICS] 操作 " + e.getKey() + ": 成功 " + s.success.sum()
+                    + ", 失败 " + s.failed.sum() + ", " + formatLatency(s.latency));
+        }
+        LoggerUtil.logInfo("[METRICS] 复制 " + formatBytes(getBytesCopied())
+                + ", 哈希 " + formatBytes(getBytesHashed())
+                + ", 总耗时 " + LatencyHistogram.toMillis(System.nanoTime() - startNanos) + " ms");
+    }
+
+    /**
+     * 导出为可序列化结构（JSON 落盘用）
+     */
+    public Map<String, Object> toSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("elapsedMs", LatencyHistogram.toMillis(System.nanoTime() - startNanos));
+        snapshot.put("bytesCopied", getBytesCopied());
+        snapshot.put("bytesHashed", getBytesHashed());
+        Map<String, Object> strategies = new TreeMap<>();
+        strategyLatency.forEach((type, h) -> strategies.put(type, h.toSummary()));
+        snapshot.put("strategies", strategies);
+        Map<String, Object> operations = new TreeMap<>();
+        operationStats.forEach((type, s) -> {
+            Map<String, Object> op = new LinkedHashMap<>();
+            op.put("success", s.success.sum());
+            op.put("failed", s.failed.sum());
+            op.put("latency", s.latency.toSummary());
+            operations.put(type, op);
+        });
+        snapshot.put("operations", operations);
+        if (!pluginUsage.isEmpty()) {
+            Map<String, Object> plugins = new TreeMap<>();
+            pluginUsage.forEach((name, usage) -> plugins.put(name, usage.toSummary()));
+            snapshot.put("plugins", plugins);
+        }
+        return snapshot;
+    }
+
+    private static String formatLatency(LatencyHistogram h) {
+        return "平均 " + LatencyHistogram.toMillis(h.getMeanNanos()) + " ms"
+                + ", p95 " + LatencyHistogram.toMillis(h.getPercentileNanos(95)) + " ms"
+                + ", 最大 " + LatencyHistogram.toMillis(h.getMaxNanos()) + " ms";
+    }
+
+    /**
+     * 字节数格式化（B/KB/MB/GB）
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    /**
+     * 单个操作类型的统计
+     */
+    private static final class OperationStats {
+        final LongAdder success = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+}
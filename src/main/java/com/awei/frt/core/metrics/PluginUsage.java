@@ -0,0 +1,84 @@
+package com.awei.frt.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个插件的资源记账：execute 调用次数 + 延迟直方图 + 线程 CPU 时间 + 线程分配字节数 + 隔离后跳过次数
+ * 会话级（MetricsRegistry）与进程级（PluginHost）各持一份；记录路径无锁。
+ * CPU / 分配统计依赖 JVM 线程计量支持，不支持时保持为 0。
+ */
+public final class PluginUsage {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * 记录一次 execute
+     * @param nanos          墙钟耗时（纳秒）
+     * @param cpuNanos       调用线程 CPU 时间增量（纳秒，不可用时传负数）
+     * @param allocatedBytes 调用线程分配字节增量（不可用时传负数）
+     */
+    public void record(long nanos, long cpuNanos, long allocatedBytes) {
+        latency.record(nanos);
+        if (cpuNanos > 0) {
+            this.cpuNanos.add(cpuNanos);
+        }
+        if (allocatedBytes > 0) {
+            this.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    /**
+     * 记录一次因插件已隔离而跳过的调用
+     */
+    public void recordSkip() {
+        skipped.increment();
+    }
+
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * 一行摘要（日志用）
+     */
+    public String describe() {
+        return "调用 " + getCalls() + " 次, 平均 " + LatencyHistogram.toMillis(latency.getMeanNanos()) + " ms"
+                + ", 最大 " + LatencyHistogram.toMillis(latency.getMaxNanos()) + " ms"
+                + ", CPU " + LatencyHistogram.toMillis(getCpuNanos()) + " ms"
+                + ", 分配 " + MetricsRegistry.formatBytes(getAllocatedBytes())
+                + (getSkipped() > 0 ? ", 隔离跳过 " + getSkipped() + " 次" : "");
+    }
+
+    /**
+     * 导出为可序列化结构
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("latency", latency.toSummary());
+        summary.put("cpuMs", LatencyHistogram.toMillis(getCpuNanos()));
+        summary.put("allocatedBytes", getAllocatedBytes());
+        summary.put("skipped", getSkipped());
+        return summary;
+    }
+}
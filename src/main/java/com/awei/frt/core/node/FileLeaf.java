@@ -1,14 +1,21 @@
 package com.awei.frt.core.node;
 
+import com.awei.frt.core.context.FileBatch;
 import com.awei.frt.core.context.OperationContext;
 import com.awei.frt.core.context.RuleInheritanceContext;
-import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.strategy.BatchOperationStrategy;
+import com.awei.frt.core.sync.SyncState;
 import com.awei.frt.factory.StrategyFactory;
 import com.awei.frt.model.MatchRule;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 文件叶子节点（组合模式中的叶子节点）
@@ -19,9 +26,28 @@ public class FileLeaf extends FileNode {
         super(path, relativePath);
     }
 
+    /**
+     * 创建子文件节点（路径由父链推导）
+     */
+    public FileLeaf(FolderNode parent, String name) {
+        super(parent, name);
+    }
+
     @Override
     public void process(RuleInheritanceContext localRuleIC, OperationContext context, String[] operationType) {
-        if (localRuleIC == null || context == null || operationType == null) {
+        processBatch(List.of(this), localRuleIC, context, operationType);
+    }
+
+    /**
+     * 批量处理同一文件夹下的兄弟文件（共用同一规则上下文）
+     * 以规则步骤为外层循环：每个步骤把尚未被处理（handled）的文件作为一批交给策略（BatchOperationStrategy），
+     * 文件在某一步骤被处理、或走完最后一个步骤时即告完成：记录增量指纹并上报进度。
+     * 已取消时未完成的文件不记录指纹、不上报进度。
+     * @param leaves 同一父目录下的文件（顺序即处理顺序）
+     */
+    public static void processBatch(List<FileLeaf> leaves, RuleInheritanceContext localRuleIC,
+            OperationContext context, String[] operationType) {
+        if (leaves == null || leaves.isEmpty() || localRuleIC == null || context == null || operationType == null) {
             return;
         }
         MatchRule rule = localRuleIC.getRuleChain();
@@ -33,20 +59,75 @@ public class FileLeaf extends FileNode {
         if (steps.isEmpty()) {
             return;
         }
+        // 增量更新：源/目标/规则指纹与上次成功会话一致时跳过策略执行（仍上报进度）
+        SyncState syncState = context.getSyncState();
+        String ruleFingerprint = syncState == null ? null : syncState.ruleFingerprint(rule, operationType);
+        List<FileLeaf> work = leaves;
+        if (syncState != null) {
+            work = new ArrayList<>(leaves.size());
+            for (FileLeaf leaf : leaves) {
+                if (context.isCancelled()) {
+                    return;
+                }
+                if (syncState.isFileUnchanged(leaf.getRelativePath(), leaf.getPath(),
+                        context.getTargetPath(leaf.getRelativePath()), ruleFingerprint)) {
+                    context.reportProgress(leaf.getRelativePath(), leaf.getPath());
+                } else {
+                    work.add(leaf);
+                }
+            }
+            if (work.isEmpty()) {
+                return;
+            }
+        }
+
+        // 文件完成：记录增量指纹 + 上报进度（每个文件只一次；预览阶段无回调，空转）
+        Set<FileNode> finished = Collections.newSetFromMap(new IdentityHashMap<>());
+        Consumer<FileNode> finish = node -> {
+            if (!finished.add(node)) {
+                return;
+            }
+            if (syncState != null && !context.isDryRun()) {
+                syncState.recordFile(node.getRelativePath(), node.getPath(),
+                        context.getTargetPath(node.getRelativePath()), ruleFingerprint);
+            }
+            context.reportProgress(node.getRelativePath(), node.getPath());
+        };
+
+        Path targetDir = context.getTargetPath(work.get(0).getRelativePath()).getParent();
         MatchRule savedRule = localRuleIC.getRuleChain();
         try {
-            for (MatchRule step : steps) {
-                if (this.isHandled()) {
+            for (int i = 0; i < steps.size() && !context.isCancelled(); i++) {
+                List<FileLeaf> batchNodes = new ArrayList<>(work.size());
+                for (FileLeaf leaf : work) {
+                    if (!leaf.isHandled()) {
+                        batchNodes.add(leaf);
+                    }
+                }
+                if (batchNodes.isEmpty()) {
                     break;
                 }
+                MatchRule step = steps.get(i);
+                boolean lastStep = i == steps.size() - 1;
                 localRuleIC.setRuleChain(step);
-                StrategyFactory.createStrategy(step.getStrategyType()).execute(this, context, operationType);
+                FileBatch batch = new FileBatch(batchNodes, step.getParams(), targetDir, node -> {
+                    if (lastStep || node.isHandled()) {
+                        finish.accept(node);
+                    }
+                });
+                context.setFileBatch(batch);
+                BatchOperationStrategy.executeEach(StrategyFactory.resolve(step), batch, context, operationType);
             }
         } finally {
+            context.setFileBatch(null);
             localRuleIC.setRuleChain(savedRule);
         }
-        // 进度上报：每个文件叶子节点处理完毕上报一次（UI 进度条用；预览阶段无回调，空转）
-        context.reportProgress(this.getRelativePath());
+        // 开始前已被处理、或所有步骤都未处理的文件
+        if (!context.isCancelled()) {
+            for (FileLeaf leaf : work) {
+                finish.accept(leaf);
+            }
+        }
     }
 
     @Override
@@ -64,9 +145,9 @@ public class FileLeaf extends FileNode {
      */
     public String getContent() {
         try {
-            return Files.readString(path);
+            return Files.readString(getPath());
         } catch (Exception e) {
-            throw new RuntimeException("读取文件失败: " + path, e);
+            throw new RuntimeException("读取文件失败: " + getPath(), e);
         }
     }
 
@@ -75,9 +156,9 @@ public class FileLeaf extends FileNode {
      */
     public void setContent(String content) {
         try {
-            Files.writeString(path, content);
+            Files.writeString(getPath(), content);
         } catch (Exception e) {
-            throw new RuntimeException("写入文件失败: " + path, e);
+            throw new RuntimeException("写入文件失败: " + getPath(), e);
         }
     }
 
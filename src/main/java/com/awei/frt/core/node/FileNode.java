@@ -4,23 +4,44 @@ import com.awei.frt.core.context.OperationContext;
 import com.awei.frt.core.context.RuleInheritanceContext;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * 文件节点抽象基类（组合模式）
  * 定义了文件系统中所有节点的公共接口
  */
 public abstract class FileNode {
-    protected final Path path;              // 节点的完整路径
-    protected final String relativePath;    // 节点的相对路径
+    // 紧凑表示：子节点只保存父节点引用与（共享的）名称，完整路径与相对路径按需沿父链拼出；
+    // 只有无父节点的锚点（树根、按路径单独创建的节点）保存完整路径与相对路径
+    private final FolderNode parent;        // 父节点（锚点节点为 null）
+    private final String name;              // 节点名称（同一次构建内经 NameTable 共享）
+    private final Anchor anchor;            // 锚点：完整路径 + 相对路径（子节点为 null）
     private boolean handled = false;        // 是否已被策略处理（多策略组合链用：已被前序策略处理的节点，后续策略跳过）
 
     // 限制操作类型
     public static final String[] UPDATE_OPERATION = new String[]{OperationContext.OPERATION_ADD, OperationContext.OPERATION_REPLACE}; //更新操作类型
     public static final String[] DELETE_OPERATION = new String[]{OperationContext.OPERATION_DELETE}; //删除操作类型
 
+    /**
+     * 按完整路径创建锚点节点（树根或单独创建的节点）
+     */
     public FileNode(Path path, String relativePath) {
-        this.path = path;
-        this.relativePath = relativePath;
+        Path fileName = path.getFileName();
+        this.parent = null;
+        this.name = fileName == null ? path.toString() : fileName.toString();
+        this.anchor = new Anchor(path, relativePath);
+    }
+
+    /**
+     * 创建子节点：只保存父节点与名称（路径由父链推导）
+     * @param parent 父节点
+     * @param name 节点名称（文件/目录名）
+     */
+    protected FileNode(FolderNode parent, String name) {
+        this.parent = parent;
+        this.name = name;
+        this.anchor = null;
     }
 
     /**
@@ -35,6 +56,20 @@ public abstract class FileNode {
      * 获取节点路径
      */
     public Path getPath() {
+        if (anchor != null) {
+            return anchor.path;
+        }
+        // 沿父链找到锚点，再按名称逐级拼接
+        Deque<String> names = new ArrayDeque<>();
+        FileNode current = this;
+        while (current.anchor == null) {
+            names.push(current.name);
+            current = current.parent;
+        }
+        Path path = current.anchor.path;
+        for (String part : names) {
+            path = path.resolve(part);
+        }
         return path;
     }
 
@@ -42,14 +77,37 @@ public abstract class FileNode {
      * 获取相对路径
      */
     public String getRelativePath() {
-        return relativePath;
+        if (anchor != null) {
+            return anchor.relativePath;
+        }
+        Deque<String> names = new ArrayDeque<>();
+        FileNode current = this;
+        while (current.anchor == null) {
+            names.push(current.name);
+            current = current.parent;
+        }
+        StringBuilder builder = new StringBuilder(current.anchor.relativePath);
+        for (String part : names) {
+            if (builder.length() > 0) {
+                builder.append('/');
+            }
+            builder.append(part);
+        }
+        return builder.toString();
     }
 
     /**
      * 获取节点名称
      */
     public String getName() {
-        return path.getFileName().toString();
+        return name;
+    }
+
+    /**
+     * 获取父节点（锚点节点返回 null）
+     */
+    public FolderNode getParent() {
+        return parent;
     }
 
     /**
@@ -75,4 +133,17 @@ public abstract class FileNode {
     public void setHandled(boolean handled) {
         this.handled = handled;
     }
+
+    /**
+     * 锚点：无父节点时的完整路径与相对路径
+     */
+    private static final class Anchor {
+        final Path path;
+        final String relativePath;
+
+        Anchor(Path path, String relativePath) {
+            this.path = path;
+            this.relativePath = relativePath;
+        }
+    }
 }
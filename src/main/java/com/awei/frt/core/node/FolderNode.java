@@ -4,6 +4,8 @@ import com.awei.frt.constants.RulesConstants;
 import com.awei.frt.core.context.OperationContext;
 import com.awei.frt.core.context.RuleInheritanceContext;
 import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.strategy.RulePruning;
+import com.awei.frt.core.sync.SyncState;
 import com.awei.frt.factory.StrategyFactory;
 import com.awei.frt.model.MatchRule;
 
@@ -12,8 +14,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -22,11 +29,53 @@ import java.util.stream.Stream;
  * 包含子节点（文件和子文件夹）
  */
 public class FolderNode extends FileNode {
-    private final List<FileNode> children;
+    private static final FileNode[] NO_CHILDREN = new FileNode[0];
+    // 子节点数超过该值时按名称建索引（小目录线性查找更省内存）
+    private static final int INDEX_THRESHOLD = 8;
+
+    private FileNode[] children = NO_CHILDREN;  // 子节点数组（构建完成后收缩到实际大小）
+    private int childCount;                     // 子节点数量
+    private Map<String, FileNode> childIndex;   // 名称 → 子节点（按需建立）
+    private boolean pendingListing;             // 延迟构建：子节点尚未列出（首次访问时列出一层）
+    private NameTable names;                    // 延迟构建树的共享名称表（只有根节点持有）
+    private MatchRule localRule;                // 本目录规则文件解析结果（首次推导规则时加载）
+    private boolean localRuleLoaded;            // 本目录规则文件是否已加载（无规则文件时 localRule 为 null）
 
     public FolderNode(Path path, String relativePath) {
         super(path, relativePath);
-        this.children = new ArrayList<>();
+    }
+
+    /**
+     * 创建子文件夹节点（路径由父链推导）
+     */
+    public FolderNode(FolderNode parent, String name) {
+        super(parent, name);
+    }
+
+    /**
+     * 创建延迟构建的文件夹根节点：子节点在首次访问（处理器进入该目录、查询子节点）时才列出一层，
+     * 没有有效规则而被跳过的子树不会被列出
+     * @param path 目录路径
+     * @return 尚未列出子节点的根节点
+     */
+    public static FolderNode lazy(Path path) {
+        FolderNode root = new FolderNode(path, "");
+        root.pendingListing = true;
+        root.names = new NameTable();
+        return root;
+    }
+
+    /**
+     * 本目录的本地规则（首次访问时读取并解析规则文件后缓存在节点上：
+     * 统计待处理文件与正式处理两遍遍历共用，同一目录的规则文件只读取解析一次）
+     * @return 本地规则；目录下没有规则文件时返回 null
+     */
+    public MatchRule getLocalRule() {
+        if (!localRuleLoaded) {
+            localRule = RuleInheritanceContext.loadLocalRule(getPath());
+            localRuleLoaded = true;
+        }
+        return localRule;
     }
 
     /**
@@ -50,8 +99,8 @@ public class FolderNode extends FileNode {
         // 将根节点任务压入栈（初始状态：非后处理）
         stack.push(new ProcessTask(this, localRuleIC, false));
 
-        // 主循环：只要栈不为空，就继续处理
-        while (!stack.isEmpty()) {
+        // 主循环：只要栈不为空，就继续处理（已请求取消时在目录检查点停止）
+        while (!stack.isEmpty() && !context.isCancelled()) {
             ProcessTask task = stack.pop();
             FolderNode node = task.node;
             RuleInheritanceContext parentRuleIC = task.ruleContext;
@@ -90,37 +139,71 @@ public class FolderNode extends FileNode {
         context.setRuleInheritanceContext(ruleContext);
 
         // 如果没有有效规则（或规则没有任何可执行的策略步骤），直接返回
-        if (effectiveRule == null || effectiveRule.getEffectiveStrategies().isEmpty()) {
+        List<MatchRule> steps = effectiveRule == null ? List.of() : effectiveRule.getEffectiveStrategies();
+        if (steps.isEmpty()) {
+            // 整棵子树剪枝（延迟树上不会列出）
+            context.recordPrunedFolder();
             return;
         }
 
+        // 增量更新：目录级策略（如 McMod）只在源/目标目录直接子文件或规则变化时执行；子节点照常逐个判断
+        SyncState syncState = context.getSyncState();
+        String ruleFingerprint = syncState == null ? null : syncState.ruleFingerprint(effectiveRule, operationType);
+        Path targetDir = syncState == null ? null : context.getTargetPath(node.getRelativePath());
+        boolean folderUnchanged = syncState != null
+                && syncState.isFolderUnchanged(node.getRelativePath(), node.getPath(), targetDir, ruleFingerprint);
+
         // 多策略组合链：按序执行每个策略步骤，前序已处理的节点（handled）后续步骤跳过
-        RuleInheritanceContext ric = context.getRuleInheritanceContext();
-        MatchRule savedRule = ric.getRuleChain();
-        try {
-            for (MatchRule step : effectiveRule.getEffectiveStrategies()) {
-                if (node.isHandled()) {
-                    break;
+        if (!folderUnchanged) {
+            RuleInheritanceContext ric = context.getRuleInheritanceContext();
+            MatchRule savedRule = ric.getRuleChain();
+            try {
+                for (MatchRule step : steps) {
+                    if (node.isHandled() || context.isCancelled()) {
+                        break;
+                    }
+                    ric.setRuleChain(step);
+                    OperationStrategy strategy = StrategyFactory.resolve(step);
+                    strategy.execute(node, context, operationType);
                 }
-                ric.setRuleChain(step);
-                OperationStrategy strategy = StrategyFactory.createStrategy(step.getStrategyType());
-                strategy.execute(node, context, operationType);
+            } finally {
+                ric.setRuleChain(savedRule);
             }
-        } finally {
-            ric.setRuleChain(savedRule);
         }
+        int unchangedBefore = syncState == null ? 0 : syncState.getUnchangedFiles();
+        // 剪枝：有效规则的所有步骤都只按文件名处理时，名称不可能命中的文件直接跳过
+        Predicate<String> fileFilter = RulePruning.compileFileFilter(effectiveRule);
 
-        // 收集子节点：文件直接处理，文件夹暂存
+        // 收集子节点：文件汇成一批处理，文件夹暂存
         List<FolderNode> folderNodes = new ArrayList<>();
-        for (FileNode child : node.children) {
+        List<FileLeaf> leaves = new ArrayList<>();
+        // 延迟构建：只有确定要处理的目录才列出子节点
+        node.ensureListed();
+        for (int i = 0; i < node.childCount; i++) {
+            FileNode child = node.children[i];
             if (child.isDirectory()) {
                 // 子文件夹：暂存，稍后压入栈
                 folderNodes.add((FolderNode) child);
+            } else if (fileFilter != null && !fileFilter.test(child.getName())) {
+                context.recordPrunedFile();
             } else {
-                // 子文件：直接递归处理（文件节点没有子节点，不会导致栈溢出）
-                child.process(ruleContext, context, operationType);
+                leaves.add((FileLeaf) child);
             }
         }
+        // 子文件：同目录兄弟文件整批交给策略（批量策略 SPI，见 FileLeaf.processBatch）
+        FileLeaf.processBatch(leaves, ruleContext, context, operationType);
+        if (context.isCancelled()) {
+            // 文件检查点：已处理的文件保持完成，其余文件与子目录不再处理（也不记录目录指纹）
+            return;
+        }
+        int leafCount = leaves.size();
+
+        // 目录指纹在直接子文件处理完之后记录（文件级策略也会改动目标目录）；
+        // 目录与全部子文件都未变化时沿用上次指纹，免去重新列目录
+        if (syncState != null && !context.isDryRun()
+                && (!folderUnchanged || syncState.getUnchangedFiles() - unchangedBefore != leafCount)) {
+            syncState.recordFolder(node.getRelativePath(), node.getPath(), targetDir, ruleFingerprint);
+        }
 
         // 将子文件夹节点倒序压入栈
         // 倒序是为了保证正序处理（栈是后进先出）
@@ -161,19 +244,91 @@ public class FolderNode extends FileNode {
 
     @Override
     public int getChildCount() {
-        return children.size();
+        ensureListed();
+        return childCount;
     }
 
     public void addChild(FileNode child) {
-        children.add(child);
+        ensureListed();
+        if (childCount == children.length) {
+            children = Arrays.copyOf(children, Math.max(4, childCount * 2));
+        }
+        children[childCount++] = child;
+        if (childIndex != null) {
+            childIndex.putIfAbsent(child.getName(), child);
+        }
     }
 
+    /**
+     * 子节点只读视图（不复制；遍历期间不应再添加子节点）
+     */
     public List<FileNode> getChildren() {
-        return new ArrayList<>(children);
+        ensureListed();
+        return Collections.unmodifiableList(Arrays.asList(children).subList(0, childCount));
+    }
+
+    /**
+     * 按名称查找直接子节点
+     * @param name 文件/目录名
+     * @return 子节点，不存在时返回 null
+     */
+    public FileNode getChild(String name) {
+        ensureListed();
+        if (childCount <= INDEX_THRESHOLD) {
+            for (int i = 0; i < childCount; i++) {
+                if (children[i].getName().equals(name)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+        if (childIndex == null) {
+            Map<String, FileNode> index = new HashMap<>(childCount * 4 / 3 + 1);
+            for (int i = 0; i < childCount; i++) {
+                index.putIfAbsent(children[i].getName(), children[i]);
+            }
+            childIndex = index;
+        }
+        return childIndex.get(name);
     }
 
     public boolean isDirectoryType() {
-        return Files.isDirectory(path);
+        return Files.isDirectory(getPath());
+    }
+
+    /**
+     * 子节点是否已列出（延迟构建的目录在首次访问前为 false）
+     */
+    public boolean isListed() {
+        return !pendingListing;
+    }
+
+    // 延迟构建：首次访问时列出一层子节点，子文件夹同样延迟
+    private void ensureListed() {
+        if (!pendingListing) {
+            return;
+        }
+        pendingListing = false;
+        listChildren(getPath(), sharedNames(), true);
+    }
+
+    // 延迟构建树的名称表保存在根节点上
+    private NameTable sharedNames() {
+        FolderNode current = this;
+        while (current.names == null && current.getParent() != null) {
+            current = current.getParent();
+        }
+        if (current.names == null) {
+            current.names = new NameTable();
+        }
+        return current.names;
+    }
+
+    // 构建完成后收缩子节点数组到实际大小
+    private void trimChildren() {
+        if (children.length != childCount) {
+            children = childCount == 0 ? NO_CHILDREN : Arrays.copyOf(children, childCount);
+        }
     }
 
     /**
@@ -195,58 +350,68 @@ public class FolderNode extends FileNode {
         if (!isDirectoryType()) {
             return;
         }
+        // 全量构建后不再需要延迟列出
+        pendingListing = false;
 
         // 创建构建任务栈
         Deque<BuildTask> stack = new ArrayDeque<>();
         // 将根节点构建任务压入栈
-        stack.push(new BuildTask(this, this.path, this.relativePath));
+        stack.push(new BuildTask(this, getPath()));
+        // 同一次构建内共享名称实例
+        NameTable names = new NameTable();
 
         // 主循环：只要栈不为空，就继续构建
         while (!stack.isEmpty()) {
             // 弹出栈顶任务（当前要处理的目录）
             BuildTask task = stack.pop();
-            FolderNode parentNode = task.parentNode;      // 父节点（用于添加子节点）
-            Path currentPath = task.currentPath;          // 当前目录路径
-            String currentRelativePath = task.relativePath; // 当前相对路径
-
-            try (Stream<Path> stream = Files.list(currentPath)) {
-                // 获取当前目录下的所有子项
-                List<Path> paths = stream.collect(Collectors.toList());
-                // 暂存子文件夹构建任务
-                List<BuildTask> subFolders = new ArrayList<>();
-
-                // 遍历当前目录下的所有子项
-                for (Path childPath : paths) {
-                    // 计算子项的相对路径
-                    String childRelativePath = currentRelativePath.isEmpty() ?
-                            childPath.getFileName().toString() :
-                            currentRelativePath + "/" + childPath.getFileName();
-
-                    // 跳过规则配置文件
-                    String fileName = childPath.getFileName().toString();
-                    if (isRuleFile(fileName)) {
-                        continue;
-                    }
+            // 列出当前目录一层，子文件夹构建任务倒序压入栈
+            // 倒序是为了保证正序处理（栈是后进先出）
+            List<BuildTask> subFolders = task.parentNode.listChildren(task.currentPath, names, false);
+            for (int i = subFolders.size() - 1; i >= 0; i--) {
+                stack.push(subFolders.get(i));
+            }
+        }
+    }
 
-                    if (Files.isDirectory(childPath)) {
-                        // 子项是文件夹：创建节点，添加到父节点，暂存构建任务
-                        FolderNode folderNode = new FolderNode(childPath, childRelativePath);
-                        parentNode.addChild(folderNode);
-                        subFolders.add(new BuildTask(folderNode, childPath, childRelativePath));
-                    } else {
-                        // 子项是文件：直接创建叶子节点并添加到父节点
-                        parentNode.addChild(new FileLeaf(childPath, childRelativePath));
-                    }
+    /**
+     * 列出目录下一层子项并添加为子节点（跳过规则文件）
+     * @param currentPath 当前目录路径
+     * @param names 共享名称表
+     * @param lazy 子文件夹是否延迟列出
+     * @return 子文件夹的构建任务（按目录顺序）
+     */
+    private List<BuildTask> listChildren(Path currentPath, NameTable names, boolean lazy) {
+        try (Stream<Path> stream = Files.list(currentPath)) {
+            // 获取当前目录下的所有子项
+            List<Path> paths = stream.collect(Collectors.toList());
+            // 暂存子文件夹构建任务
+            List<BuildTask> subFolders = new ArrayList<>();
+
+            // 遍历当前目录下的所有子项
+            for (Path childPath : paths) {
+                // 跳过规则配置文件
+                String fileName = childPath.getFileName().toString();
+                if (isRuleFile(fileName)) {
+                    continue;
                 }
 
-                // 将子文件夹构建任务倒序压入栈
-                // 倒序是为了保证正序处理（栈是后进先出）
-                for (int i = subFolders.size() - 1; i >= 0; i--) {
-                    stack.push(subFolders.get(i));
+                // 子节点只保存父节点与共享名称，路径/相对路径按需推导
+                String name = names.intern(fileName);
+                if (Files.isDirectory(childPath)) {
+                    // 子项是文件夹：创建节点，添加到父节点，暂存构建任务
+                    FolderNode folderNode = new FolderNode(this, name);
+                    folderNode.pendingListing = lazy;
+                    addChild(folderNode);
+                    subFolders.add(new BuildTask(folderNode, childPath));
+                } else {
+                    // 子项是文件：直接创建叶子节点并添加到父节点
+                    addChild(new FileLeaf(this, name));
                 }
-            } catch (IOException e) {
-                throw new RuntimeException("构建文件夹节点失败: " + currentPath, e);
             }
+            trimChildren();
+            return subFolders;
+        } catch (IOException e) {
+            throw new RuntimeException("构建文件夹节点失败: " + currentPath, e);
         }
     }
 
@@ -265,7 +430,7 @@ public class FolderNode extends FileNode {
 
     @Override
     public String toString() {
-        return "FolderNode[" + path + ", children: " + children.size() + "]";
+        return "FolderNode[" + getPath() + ", children: " + childCount + "]";
     }
 
     /**
@@ -275,12 +440,10 @@ public class FolderNode extends FileNode {
     private static class BuildTask {
         final FolderNode parentNode;   // 父节点（用于添加子节点）
         final Path currentPath;        // 当前要遍历的目录路径
-        final String relativePath;     // 当前目录的相对路径
 
-        BuildTask(FolderNode parentNode, Path currentPath, String relativePath) {
+        BuildTask(FolderNode parentNode, Path currentPath) {
             this.parentNode = parentNode;
             this.currentPath = currentPath;
-            this.relativePath = relativePath;
         }
     }
 }
@@ -0,0 +1,21 @@
+package com.awei.frt.core.node;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 节点名称表（单次构建内共享）
+ * 大目录树中同名文件/目录大量重复（config、assets、lang、zh_cn.json 等），
+ * 同一次构建内相同名称只保留一个 String 实例，节点只引用它。
+ */
+final class NameTable {
+    private final Map<String, String> names = new HashMap<>();
+
+    /**
+     * 返回与给定名称相等的共享实例
+     */
+    String intern(String name) {
+        String shared = names.putIfAbsent(name, name);
+        return shared != null ? shared : name;
+    }
+}
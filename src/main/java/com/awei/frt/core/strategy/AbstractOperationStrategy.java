@@ -16,8 +16,11 @@ import com.awei.frt.model.OperationRecord;
  *    - 钩子返回 true 表示"已处理该节点"
  *    - stopOnHandled()=true 的策略（如 FileSameName 单文件策略）处理成功后立即返回，不再执行后续钩子
  *    - stopOnHandled()=false 的策略（如 McMod 目录级策略）会执行所有启用的钩子（各钩子内部按 mod 分派）
+ *
+ * 批量执行（BatchOperationStrategy）：同目录兄弟文件整批进入，逐节点走上述流程；
+ * 钩子中通过 context.getRuleParams() / context.targetExists() 使用整批共享的预解析参数与目标目录列表。
  */
-public abstract class AbstractOperationStrategy implements OperationStrategy {
+public abstract class AbstractOperationStrategy implements BatchOperationStrategy {
 
     @Override
     public final void execute(FileNode node, OperationContext context, String[] operationType) {
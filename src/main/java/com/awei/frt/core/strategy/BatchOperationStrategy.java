@@ -0,0 +1,57 @@
+package com.awei.frt.core.strategy;
+
+import com.awei.frt.core.context.FileBatch;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileNode;
+
+/**
+ * 批量操作策略（可选扩展接口）
+ * 一次接收同一文件夹下、同一规则步骤的全部兄弟文件（FileBatch，含预解析的规则参数），
+ * 策略可以在批内共享开销：规则参数只读一次、目标目录只列一次、批内复用缓冲区等。
+ * <p>
+ * 约定：
+ * <ul>
+ *   <li>按 batch.getNodes() 的顺序处理，每个节点处理完调用 batch.done(node)（包括被跳过 / 不接受的节点）</li>
+ *   <li>每个节点开始前检查 context.isCancelled()，已取消时直接返回（未 done 的节点不算完成）</li>
+ *   <li>已被前序步骤处理（handled）的节点不会出现在批中</li>
+ * </ul>
+ * 默认实现逐节点调用 execute（继承 AbstractOperationStrategy 的策略自动获得）；
+ * 只实现 OperationStrategy 的策略（含外部插件）由 executeEach 以同样方式适配。
+ */
+public interface BatchOperationStrategy extends OperationStrategy {
+
+    /**
+     * 批量执行（增、删、改）
+     * @param batch 同目录兄弟文件批
+     * @param context 操作上下文（规则上下文已指向当前步骤，context.getFileBatch() 即 batch）
+     * @param operationType 操作类型
+     */
+    default void executeBatch(FileBatch batch, OperationContext context, String[] operationType) {
+        forEachNode(this, batch, context, operationType);
+    }
+
+    /**
+     * 以批量方式执行任意策略：支持批量的直接交给 executeBatch，否则逐节点适配
+     */
+    static void executeEach(OperationStrategy strategy, FileBatch batch, OperationContext context, String[] operationType) {
+        if (strategy instanceof BatchOperationStrategy batchStrategy) {
+            batchStrategy.executeBatch(batch, context, operationType);
+        } else {
+            forEachNode(strategy, batch, context, operationType);
+        }
+    }
+
+    /**
+     * 逐节点执行（每个节点前检查取消，执行后标记完成）
+     */
+    private static void forEachNode(OperationStrategy strategy, FileBatch batch, OperationContext context,
+            String[] operationType) {
+        for (FileNode node : batch.getNodes()) {
+            if (context.isCancelled()) {
+                return;
+            }
+            strategy.execute(node, context, operationType);
+            batch.done(node);
+        }
+    }
+}
@@ -4,13 +4,12 @@ import com.awei.frt.core.context.OperationContext;
 import com.awei.frt.core.node.FileNode;
 import com.awei.frt.core.uitls.FileSignUtil;
 import com.awei.frt.core.uitls.FileUtil;
-import com.awei.frt.core.uitls.GlobMatcher;
+import com.awei.frt.model.MatchRule;
 import com.awei.frt.model.OperationRecord;
-import com.awei.frt.util.LoggerUtil;
+import com.awei.frt.util.FileLogBatch;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * 文件名称相同策略
@@ -19,6 +18,11 @@ import java.util.List;
  */
 public class FileSameNameStrategy extends AbstractOperationStrategy {
 
+    private static final ParamSchema PARAMS = ParamSchema.builder()
+            .bool("caseSensitive", true, "文件名匹配是否区分大小写")
+            .bool("onlyIfContentSame", false, "源与目标内容（MD5）相同时跳过替换")
+            .build();
+
     @Override
     public String getStrategyType() {
         return "FileSameName";
@@ -29,6 +33,11 @@ public class FileSameNameStrategy extends AbstractOperationStrategy {
         return "同名文件处理策略（按文件名匹配，支持通配符）";
     }
 
+    @Override
+    public ParamSchema getParamSchema() {
+        return PARAMS;
+    }
+
     /**
      * 只处理文件；目录节点直接跳过（不产生忽略日志）
      */
@@ -41,47 +50,43 @@ public class FileSameNameStrategy extends AbstractOperationStrategy {
     }
 
     /**
-     * 白名单/黑名单匹配
-     * 空白名单 = 匹配所有；空黑名单 = 不排除任何文件
+     * 白名单/黑名单匹配（规则步骤上预编译的文件名谓词，见 MatchRule.getNameFilter）
+     * 空白名单 = 匹配所有；空黑名单 = 不排除任何文件；caseSensitive=false 时忽略大小写
      */
     private boolean isMatch(FileNode node, OperationContext context) {
         String fileName = node.getName();
-        // 策略扩展参数：caseSensitive=false 时文件名匹配忽略大小写（默认 true 区分大小写）
-        boolean caseSensitive = !"false".equalsIgnoreCase(context.getRuleParam("caseSensitive"));
-
-        List<String> patterns = context.getRuleInheritanceContext().getRuleChain().getPatterns();
-        List<String> excludePatterns = context.getRuleInheritanceContext().getRuleChain().getExcludePatterns();
-
-        if (!GlobMatcher.matchesAny(fileName, patterns, caseSensitive)) {
-            // 白名单未命中：提示跳过原因（INFO，用户需要知道哪些文件被跳过；
+        if (!context.getRuleInheritanceContext().getRuleChain().getNameFilter().test(fileName)) {
+            // 未命中：提示跳过原因（INFO，用户需要知道哪些文件被跳过；
             // 配合已去除的"处理/完成"配对日志，不会像早期那样逐文件刷屏）
-            LoggerUtil.logInfo("忽略文件：" + fileName);
-            return false;
-        }
-        // 黑名单：空列表表示不排除任何文件（matchesAny 空列表返回 true 是"白名单匹配所有"语义）
-        if (excludePatterns != null && !excludePatterns.isEmpty()
-                && GlobMatcher.matchesAny(fileName, excludePatterns, caseSensitive)) {
-            LoggerUtil.logInfo("忽略文件：" + fileName);
+            context.getFileLog().record(FileLogBatch.IGNORED, true, () -> "忽略文件：" + fileName);
             return false;
         }
         return true;
     }
 
+    /**
+     * 只处理名称命中白名单且未命中黑名单的文件（供剪枝分析提前跳过）
+     */
+    @Override
+    public Predicate<String> fileNameFilter(MatchRule step) {
+        return step.getNameFilter();
+    }
+
     /**
      * 新增：目标层没有该文件时才执行（已存在则交给 replace 钩子）
      */
     @Override
     protected boolean doAdd(FileNode node, OperationContext context) {
         Path targetFilePath = context.getTargetPath(node.getRelativePath());
-        if (Files.exists(targetFilePath)) {
+        if (context.targetExists(targetFilePath)) {
             return false;
         }
         OperationRecord record = newRecord(context);
-        boolean ok = FileUtil.addFile(node.getPath(), targetFilePath, record, context.isDryRun());
+        boolean ok = FileUtil.addFile(node.getPath(), targetFilePath, record, context);
         context.recordOperation(record);
         // 预览模式不打"成功/失败"日志（计划已在预览列表展示），避免误以为已执行
         if (!context.isDryRun()) {
-            LoggerUtil.logInfo("+ " + node.getName() + " " + (ok ? "成功" : "失败"));
+            context.getFileLog().record(FileLogBatch.ADDED, ok, () -> "+ " + node.getName() + " " + (ok ? "成功" : "失败"));
         }
         if (ok) {
             node.setHandled(true); // 处理成功：链中后续策略不再处理该节点
@@ -97,22 +102,22 @@ public class FileSameNameStrategy extends AbstractOperationStrategy {
     @Override
     protected boolean doReplace(FileNode node, OperationContext context) {
         Path targetFilePath = context.getTargetPath(node.getRelativePath());
-        if (!Files.exists(targetFilePath)) {
+        if (!context.targetExists(targetFilePath)) {
             return false;
         }
         // 参数 onlyIfContentSame=true：源与目标 MD5 相同则跳过替换（内容一致无需写入）
-        if (Boolean.parseBoolean(context.getRuleParam("onlyIfContentSame"))
-                && isFileContentSame(node.getPath(), targetFilePath)) {
-            LoggerUtil.logInfo("~ " + node.getName() + " 内容相同(MD5)，跳过替换");
+        if (context.getRuleParams().getBoolean("onlyIfContentSame", false)
+                && isFileContentSame(node.getPath(), targetFilePath, context)) {
+            context.getFileLog().record(FileLogBatch.SKIPPED, true, () -> "~ " + node.getName() + " 内容相同(MD5)，跳过替换");
             context.recordSkip();
             node.setHandled(true); // 内容已一致：链中后续策略无需再处理该文件
             return true;
         }
         OperationRecord record = newRecord(context);
-        boolean ok = FileUtil.replaceFile(node.getPath(), targetFilePath, record, context.isDryRun());
+        boolean ok = FileUtil.replaceFile(node.getPath(), targetFilePath, record, context);
         context.recordOperation(record);
         if (!context.isDryRun()) {
-            LoggerUtil.logInfo("= " + node.getName() + " " + (ok ? "成功" : "失败"));
+            context.getFileLog().record(FileLogBatch.REPLACED, ok, () -> "= " + node.getName() + " " + (ok ? "成功" : "失败"));
         }
         if (ok) {
             node.setHandled(true);
@@ -124,8 +129,8 @@ public class FileSameNameStrategy extends AbstractOperationStrategy {
      * 判断源与目标文件内容是否完全相同（MD5 比较）
      * 任一文件不存在或计算失败时返回 false（保守：不确定就执行替换）
      */
-    private boolean isFileContentSame(Path sourcePath, Path targetPath) {
-        String sourceMd5 = FileSignUtil.getFileMd5(sourcePath);
+    private boolean isFileContentSame(Path sourcePath, Path targetPath, OperationContext context) {
+        String sourceMd5 = context.sourceMd5(sourcePath);
         String targetMd5 = FileSignUtil.getFileMd5(targetPath);
         return sourceMd5 != null && sourceMd5.equals(targetMd5);
     }
@@ -137,10 +142,10 @@ public class FileSameNameStrategy extends AbstractOperationStrategy {
     protected boolean doDelete(FileNode node, OperationContext context) {
         Path targetFilePath = context.getTargetPath(node.getRelativePath());
         OperationRecord record = newRecord(context);
-        boolean ok = FileUtil.deleteFile(targetFilePath, record, context.isDryRun());
+        boolean ok = FileUtil.deleteFile(targetFilePath, record, context);
         context.recordOperation(record);
         if (!context.isDryRun()) {
-            LoggerUtil.logInfo("- " + node.getName() + " " + (ok ? "成功" : "失败"));
+            context.getFileLog().record(FileLogBatch.DELETED, ok, () -> "- " + node.getName() + " " + (ok ? "成功" : "失败"));
         }
         if (ok) {
             node.setHandled(true);
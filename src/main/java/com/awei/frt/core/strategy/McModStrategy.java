@@ -1,6 +1,7 @@
 package com.awei.frt.core.strategy;
 
 import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.SourceIndex;
 import com.awei.frt.core.mod.ModInfo;
 import com.awei.frt.core.mod.ModMetadataParser;
 import com.awei.frt.core.node.FileNode;
@@ -8,6 +9,8 @@ import com.awei.frt.core.node.FolderNode;
 import com.awei.frt.core.uitls.FileSignUtil;
 import com.awei.frt.core.uitls.FileUtil;
 import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.RuleParams;
+import com.awei.frt.util.FileLogBatch;
 import com.awei.frt.util.LoggerUtil;
 
 import java.io.IOException;
@@ -28,6 +31,11 @@ import java.util.zip.ZipException;
  */
 public class McModStrategy extends AbstractOperationStrategy {
 
+    private static final ParamSchema PARAMS = ParamSchema.builder()
+            .bool("onlyIfVersionChanged", false, "目标已是相同版本的模组时跳过替换")
+            .bool("onlyIfContentSame", false, "目标模组与源文件内容（MD5）相同时跳过替换")
+            .build();
+
     // 模组元数据解析 LRU 缓存（key=jar路径|mtime|size；大 mods 目录重复解析耗时，文件变化自动失效）
     private static final int MOD_INFO_CACHE_MAX = 512;
     private static final Map<String, List<ModInfo>> MOD_INFO_CACHE = Collections.synchronizedMap(
@@ -48,6 +56,11 @@ public class McModStrategy extends AbstractOperationStrategy {
         return "Minecraft 模组策略（按 modId 匹配 jar）";
     }
 
+    @Override
+    public ParamSchema getParamSchema() {
+        return PARAMS;
+    }
+
     @Override
     protected boolean accepts(FileNode node, OperationContext context) {
         return node.isDirectory();
@@ -64,9 +77,12 @@ public class McModStrategy extends AbstractOperationStrategy {
     @Override
     protected boolean doAdd(FileNode node, OperationContext context) {
         boolean any = false;
-        Map<String, ModInfo> currentModInfoMap = getModInfo(node.getPath());
+        Map<String, ModInfo> currentModInfoMap = getSourceModInfo(node, context);
         Map<String, ModInfo> targetModInfoMap = getModInfo(context.getTargetPath(node.getRelativePath()));
         for (String modId : currentModInfoMap.keySet()) {
+            if (context.isCancelled()) {
+                break; // 逐个 mod 的取消检查点
+            }
             ModInfo currentModInfo = currentModInfoMap.get(modId);
             if (targetModInfoMap.containsKey(modId)) {
                 continue;
@@ -74,10 +90,11 @@ public class McModStrategy extends AbstractOperationStrategy {
             OperationRecord record = newRecord(context);
             Path targetFilePath = context.getTargetPath(node.getRelativePath())
                     .resolve(currentModInfo.getPath().getFileName()).normalize();
-            boolean ok = FileUtil.addFile(currentModInfo.getPath(), targetFilePath, record, context.isDryRun());
+            boolean ok = FileUtil.addFile(currentModInfo.getPath(), targetFilePath, record, context);
             context.recordOperation(record);
             if (!context.isDryRun()) {
-                LoggerUtil.logInfo("+ " + currentModInfo.getPath().getFileName() + " (" + currentModInfo.getVersion() + ") " + (ok ? "成功" : "失败"));
+                context.getFileLog().record(FileLogBatch.ADDED, ok, () -> "+ " + currentModInfo.getPath().getFileName()
+                        + " (" + currentModInfo.getVersion() + ") " + (ok ? "成功" : "失败"));
             }
             if (ok) {
                 // 标记源 jar 文件节点已处理：链中后续文件级策略（如 FileSameName 空 patterns）
@@ -101,14 +118,18 @@ public class McModStrategy extends AbstractOperationStrategy {
     @Override
     protected boolean doReplace(FileNode node, OperationContext context) {
         boolean any = false;
-        boolean onlyIfVersionChanged = Boolean.parseBoolean(context.getRuleParam("onlyIfVersionChanged"));
-        boolean onlyIfContentSame = Boolean.parseBoolean(context.getRuleParam("onlyIfContentSame"));
+        RuleParams params = context.getRuleParams();
+        boolean onlyIfVersionChanged = params.getBoolean("onlyIfVersionChanged", false);
+        boolean onlyIfContentSame = params.getBoolean("onlyIfContentSame", false);
 
-        Map<String, ModInfo> currentModInfoMap = getModInfo(node.getPath());
+        Map<String, ModInfo> currentModInfoMap = getSourceModInfo(node, context);
         Map<String, ModInfo> targetModInfoMap = getModInfo(context.getTargetPath(node.getRelativePath()));
         Path entryTargetPath = context.getTargetPath(node.getRelativePath());
 
         for (String modId : currentModInfoMap.keySet()) {
+            if (context.isCancelled()) {
+                break;
+            }
             ModInfo currentModInfo = currentModInfoMap.get(modId);
             ModInfo targetModInfo = targetModInfoMap.get(modId);
             if (targetModInfo == null) {
@@ -124,25 +145,28 @@ public class McModStrategy extends AbstractOperationStrategy {
             Path targetFilePath = entryTargetPath.resolve(currentModInfo.getPath().getFileName()).normalize();
 
             // 参数 onlyIfContentSame=true：源与目标文件 MD5 相同则跳过替换（内容一致无需更新）
-            if (onlyIfContentSame && isFileContentSame(sourceFilePath, targetFilePath)) {
-                LoggerUtil.logInfo("~ " + currentModInfo.getPath().getFileName() + " (" + currentModInfo.getVersion() + ") 内容相同(MD5)，跳过替换");
+            if (onlyIfContentSame && isFileContentSame(sourceFilePath, targetFilePath, context)) {
+                context.getFileLog().record(FileLogBatch.SKIPPED, true, () -> "~ " + currentModInfo.getPath().getFileName()
+                        + " (" + currentModInfo.getVersion() + ") 内容相同(MD5)，跳过替换");
                 // McMod 已判定该 mod 无需更新（消费），链中后续策略同样不应再按文件名处理
                 markModFilesHandled(node, sourceFilePath);
                 continue;
             }
             // 参数 onlyIfVersionChanged=true：目标已是相同版本则跳过替换
             if (onlyIfVersionChanged && currentModInfo.getVersion().equals(targetModInfo.getVersion())) {
-                LoggerUtil.logInfo("~ " + currentModInfo.getPath().getFileName() + " (" + currentModInfo.getVersion() + ") 版本相同，跳过替换");
+                context.getFileLog().record(FileLogBatch.SKIPPED, true, () -> "~ " + currentModInfo.getPath().getFileName()
+                        + " (" + currentModInfo.getVersion() + ") 版本相同，跳过替换");
                 markModFilesHandled(node, sourceFilePath);
                 continue;
             }
 
             OperationRecord record = newRecord(context);
-            boolean ok = FileUtil.replaceFile(sourceFilePath, targetFilePath, record, context.isDryRun());
+            boolean ok = FileUtil.replaceFile(sourceFilePath, targetFilePath, record, context);
             context.recordOperation(record);
             if (!context.isDryRun()) {
-                LoggerUtil.logInfo("= " + currentModInfo.getPath().getFileName() + " (" + currentModInfo.getVersion() + ") " +
-                        "--> " + targetModInfo.getPath().getFileName() + " (" + targetModInfo.getVersion() + ") " + (ok ? "成功" : "失败"));
+                context.getFileLog().record(FileLogBatch.REPLACED, ok, () -> "= " + currentModInfo.getPath().getFileName()
+                        + " (" + currentModInfo.getVersion() + ") --> " + targetModInfo.getPath().getFileName()
+                        + " (" + targetModInfo.getVersion() + ") " + (ok ? "成功" : "失败"));
             }
             if (ok) {
                 markModFilesHandled(node, sourceFilePath);
@@ -161,25 +185,29 @@ public class McModStrategy extends AbstractOperationStrategy {
     @Override
     protected boolean doDelete(FileNode node, OperationContext context) {
         boolean any = false;
-        Map<String, ModInfo> currentModInfoMap = getModInfo(node.getPath());
+        Map<String, ModInfo> currentModInfoMap = getSourceModInfo(node, context);
         Map<String, ModInfo> targetModInfoMap = getModInfo(context.getTargetPath(node.getRelativePath()));
         for (String modId : currentModInfoMap.keySet()) {
+            if (context.isCancelled()) {
+                break;
+            }
             ModInfo currentModInfo = currentModInfoMap.get(modId);
             ModInfo targetModInfo = targetModInfoMap.get(modId);
             if (targetModInfo == null) {
                 // 目标无对应 mod：无需删除（可能已被删过/从未同步），提示原因避免用户误以为没生效
                 if (!context.isDryRun()) {
-                    LoggerUtil.logInfo("~ " + currentModInfo.getPath().getFileName() + " (" + currentModInfo.getVersion()
-                            + ") 目标无对应 mod，无需删除");
+                    context.getFileLog().record(FileLogBatch.SKIPPED, true, () -> "~ " + currentModInfo.getPath().getFileName()
+                            + " (" + currentModInfo.getVersion() + ") 目标无对应 mod，无需删除");
                 }
                 continue;
             }
             OperationRecord record = newRecord(context);
             Path deleteFilePath = targetModInfo.getPath();
-            boolean ok = FileUtil.deleteFile(deleteFilePath, record, context.isDryRun());
+            boolean ok = FileUtil.deleteFile(deleteFilePath, record, context);
             context.recordOperation(record);
             if (!context.isDryRun()) {
-                LoggerUtil.logInfo("- " + deleteFilePath.getFileName() + " (" + targetModInfo.getVersion() + ") " + (ok ? "成功" : "失败"));
+                context.getFileLog().record(FileLogBatch.DELETED, ok, () -> "- " + deleteFilePath.getFileName()
+                        + " (" + targetModInfo.getVersion() + ") " + (ok ? "成功" : "失败"));
             }
             if (ok) {
                 // 删除目标侧 mod 后，update 侧同名 jar 也不应被文件级策略重新复制回去
@@ -197,8 +225,8 @@ public class McModStrategy extends AbstractOperationStrategy {
      * 判断源与目标文件内容是否完全相同（MD5 比较）
      * 任一文件不存在或计算失败时返回 false（保守：不确定就执行替换）
      */
-    private boolean isFileContentSame(Path sourcePath, Path targetPath) {
-        String sourceMd5 = FileSignUtil.getFileMd5(sourcePath);
+    private boolean isFileContentSame(Path sourcePath, Path targetPath, OperationContext context) {
+        String sourceMd5 = context.sourceMd5(sourcePath);
         String targetMd5 = FileSignUtil.getFileMd5(targetPath);
         return sourceMd5 != null && sourceMd5.equals(targetMd5);
     }
@@ -219,13 +247,8 @@ public class McModStrategy extends AbstractOperationStrategy {
         if (!(node instanceof FolderNode) || modJarPath == null) {
             return false;
         }
-        String fileName = modJarPath.getFileName().toString();
-        for (FileNode child : ((FolderNode) node).getChildren()) {
-            if (!child.isDirectory() && child.getName().equals(fileName)) {
-                return child.isHandled();
-            }
-        }
-        return false;
+        FileNode child = ((FolderNode) node).getChild(modJarPath.getFileName().toString());
+        return child != null && !child.isDirectory() && child.isHandled();
     }
 
     /**
@@ -240,15 +263,20 @@ public class McModStrategy extends AbstractOperationStrategy {
         if (!(node instanceof FolderNode) || modJarPath == null) {
             return;
         }
-        String fileName = modJarPath.getFileName().toString();
-        for (FileNode child : ((FolderNode) node).getChildren()) {
-            if (!child.isDirectory() && child.getName().equals(fileName)) {
-                child.setHandled(true);
-                return;
-            }
+        FileNode child = ((FolderNode) node).getChild(modJarPath.getFileName().toString());
+        if (child != null && !child.isDirectory()) {
+            child.setHandled(true);
         }
     }
 
+    /**
+     * 源目录（update 侧）的 mod 信息：有源侧共享索引时多目标共用一次解析结果（只读）
+     */
+    private Map<String, ModInfo> getSourceModInfo(FileNode node, OperationContext context) {
+        SourceIndex index = context.getSourceIndex();
+        return index != null ? index.modIndex(node.getPath(), this::getModInfo) : getModInfo(node.getPath());
+    }
+
     // 获取文件夹里的所有mod信息
     private Map<String, ModInfo> getModInfo(Path entryPath) {
         Map<String, ModInfo> modInfoMap = new HashMap<>();
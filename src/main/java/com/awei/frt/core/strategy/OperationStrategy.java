@@ -2,6 +2,9 @@ package com.awei.frt.core.strategy;
 
 import com.awei.frt.core.context.OperationContext;
 import com.awei.frt.core.node.FileNode;
+import com.awei.frt.model.MatchRule;
+
+import java.util.function.Predicate;
 
 /**
  * 操作策略接口（策略模式）
@@ -24,6 +27,14 @@ public interface OperationStrategy {
         return "";
     }
 
+    /**
+     * 策略扩展参数（replacements）的类型声明：规则加载时据此校验并编译为 RuleParams，向导据此提示与校验
+     * @return 参数声明，默认 ParamSchema.NONE（不校验，参数按字符串保留）
+     */
+    default ParamSchema getParamSchema() {
+        return ParamSchema.NONE;
+    }
+
     /**
      * 执行操作（增、删、改）
      * @param node 文件节点
@@ -32,4 +43,15 @@ public interface OperationStrategy {
      */
     void execute(FileNode node, OperationContext context, String[] operationType);
 
+    /**
+     * 本策略在给定规则步骤下只会处理的文件名范围（剪枝分析用）
+     * 返回非 null 表示：名称不满足该谓词的文件，本策略一定不会处理（处理器可不再逐个执行策略）；
+     * 返回 null 表示策略可能作用于任意文件或依赖文件名以外的条件（不能剪枝）。目录级策略不受影响。
+     * @param step 规则步骤
+     * @return 文件名谓词，或 null
+     */
+    default Predicate<String> fileNameFilter(MatchRule step) {
+        return null;
+    }
+
 }
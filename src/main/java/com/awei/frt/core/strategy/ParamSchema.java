@@ -0,0 +1,254 @@
+package com.awei.frt.core.strategy;
+
+import com.awei.frt.model.RuleParams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 策略扩展参数（replacements）的类型声明
+ * 每个策略通过 OperationStrategy.getParamSchema() 声明自己认识的参数：名称、类型、是否必填、默认值、说明。
+ * 规则加载时（MatchRuleLoader.fromJson）按声明校验一次并编译为不可变的 RuleParams（值已按类型解析、缺省值已填入），
+ * 执行期逐文件读取参数不再解析字符串；向导按声明提示参数并在写入前校验。
+ * <p>
+ * 未声明的参数名只告警不报错（保留原值，兼容旧规则与插件自定义参数）；NONE 表示策略未声明，全部参数按字符串保留。
+ */
+public final class ParamSchema {
+
+    /** 未声明参数：不校验，全部按字符串保留 */
+    public static final ParamSchema NONE = new ParamSchema(List.of());
+
+    /**
+     * 参数类型
+     */
+    public enum Type {
+        BOOLEAN("Boolean"),
+        INTEGER("Integer"),
+        STRING("String"),
+        LIST("List<String>（英文逗号分隔）");
+
+        private final String label;
+
+        Type(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * 单个参数声明
+     * @param name         参数名（replacements 的 key）
+     * @param type         参数类型
+     * @param required     是否必填
+     * @param defaultValue 默认值（字符串形式，未配置时按类型解析后填入；可为 null）
+     * @param description  中文说明（向导展示）
+     */
+    public record Param(String name, Type type, boolean required, String defaultValue, String description) {
+    }
+
+    private final Map<String, Param> params;
+
+    private ParamSchema(List<Param> params) {
+        Map<String, Param> map = new LinkedHashMap<>();
+        for (Param p : params) {
+            map.put(p.name(), p);
+        }
+        this.params = Collections.unmodifiableMap(map);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 是否声明了参数（NONE 为 false）
+     */
+    public boolean isDeclared() {
+        return !params.isEmpty();
+    }
+
+    /**
+     * 全部参数声明（声明顺序）
+     */
+    public List<Param> getParams() {
+        return List.copyOf(params.values());
+    }
+
+    /**
+     * 校验参数
+     * @param raw replacements 原始键值
+     * @return 错误信息列表（为空表示通过；未声明的参数名不算错误，见 unknownKeys）
+     */
+    public List<String> validate(Map<String, String> raw) {
+        List<String> errors = new ArrayList<>();
+        Map<String, String> values = raw == null ? Map.of() : raw;
+        for (Param p : params.values()) {
+            String value = values.get(p.name());
+            if (value == null || value.isBlank()) {
+                if (p.required()) {
+                    errors.add("缺少必填参数 " + p.name() + "（" + p.description() + "）");
+                }
+                continue;
+            }
+            String error = check(p, value.trim());
+            if (error != null) {
+                errors.add(error);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * 未声明的参数名（策略未声明参数时为空）
+     */
+    public List<String> unknownKeys(Map<String, String> raw) {
+        if (!isDeclared() || raw == null) {
+            return List.of();
+        }
+        List<String> unknown = new ArrayList<>();
+        for (String key : raw.keySet()) {
+            if (!params.containsKey(key)) {
+                unknown.add(key);
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * 校验并编译为不可变参数对象（值按类型解析，缺省值填入）
+     * @param raw replacements 原始键值
+     * @return 编译后的参数
+     * @throws IllegalArgumentException 校验失败（消息含全部错误）
+     */
+    public RuleParams compile(Map<String, String> raw) {
+        List<String> errors = validate(raw);
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(String.join("；", errors));
+        }
+        if (!isDeclared() && (raw == null || raw.isEmpty())) {
+            return RuleParams.EMPTY;
+        }
+        Map<String, Object> typed = new LinkedHashMap<>();
+        for (Param p : params.values()) {
+            String value = raw == null ? null : raw.get(p.name());
+            if (value == null || value.isBlank()) {
+                value = p.defaultValue();
+            }
+            if (value != null) {
+                typed.put(p.name(), parse(p.type(), value.trim()));
+            }
+        }
+        return new RuleParams(raw, typed);
+    }
+
+    /**
+     * 参数说明（向导展示：每个参数一行）
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Param p : params.values()) {
+            lines.add(p.name() + "  类型: " + p.type().getLabel()
+                    + "  必填: " + (p.required() ? "是" : "否")
+                    + (p.defaultValue() == null ? "" : "  默认值: " + p.defaultValue())
+                    + "  说明: " + p.description());
+        }
+        return lines;
+    }
+
+    private static String check(Param p, String value) {
+        switch (p.type()) {
+            case BOOLEAN -> {
+                String v = value.toLowerCase(Locale.ROOT);
+                if (!v.equals("true") && !v.equals("false")) {
+                    return "参数 " + p.name() + " 应为 true/false: " + value;
+                }
+            }
+            case INTEGER -> {
+                try {
+                    Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    return "参数 " + p.name() + " 应为整数: " + value;
+                }
+            }
+            case LIST -> {
+                if (splitList(value).isEmpty()) {
+                    return "参数 " + p.name() + " 至少需要一项（英文逗号分隔）: " + value;
+                }
+            }
+            default -> {
+                // STRING：任意非空字符串
+            }
+        }
+        return null;
+    }
+
+    private static Object parse(Type type, String value) {
+        return switch (type) {
+            case BOOLEAN -> Boolean.parseBoolean(value);
+            case INTEGER -> Integer.parseInt(value);
+            case LIST -> splitList(value);
+            case STRING -> value;
+        };
+    }
+
+    private static List<String> splitList(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+
+    /**
+     * 参数声明构建器
+     */
+    public static final class Builder {
+        private final List<Param> params = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 布尔参数（可选）
+         */
+        public Builder bool(String name, boolean defaultValue, String description) {
+            params.add(new Param(name, Type.BOOLEAN, false, String.valueOf(defaultValue), description));
+            return this;
+        }
+
+        /**
+         * 整数参数（可选）
+         */
+        public Builder integer(String name, int defaultValue, String description) {
+            params.add(new Param(name, Type.INTEGER, false, String.valueOf(defaultValue), description));
+            return this;
+        }
+
+        /**
+         * 字符串参数
+         */
+        public Builder string(String name, boolean required, String description) {
+            params.add(new Param(name, Type.STRING, required, null, description));
+            return this;
+        }
+
+        /**
+         * 列表参数（英文逗号分隔）
+         */
+        public Builder list(String name, boolean required, String description) {
+            params.add(new Param(name, Type.LIST, required, null, description));
+            return this;
+        }
+
+        public ParamSchema build() {
+            return new ParamSchema(params);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.awei.frt.core.strategy;
+
+import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.model.MatchRule;
+
+import java.util.function.Predicate;
+
+/**
+ * 规则剪枝分析
+ * 把目录的有效规则（本地规则或继承而来的规则，含多策略组合链）编译为"哪些文件可能被处理"的谓词，
+ * 处理器据此在执行策略链之前跳过一定不会被处理的文件：不再为它们推导路径、计算增量指纹、逐步执行策略。
+ * 没有有效规则的目录整棵子树跳过（延迟树上不会被列出），见 FolderNode.process。
+ */
+public final class RulePruning {
+
+    private RulePruning() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 编译目录有效规则的文件谓词
+     * @param effectiveRule 目录的有效规则
+     * @return 各步骤文件名范围的并集；无规则时返回"不匹配任何文件"；任一步骤不能剪枝（如 McMod、未注册的策略）时返回 null
+     */
+    public static Predicate<String> compileFileFilter(MatchRule effectiveRule) {
+        if (effectiveRule == null) {
+            return name -> false;
+        }
+        Predicate<String> combined = null;
+        for (MatchRule step : effectiveRule.getEffectiveStrategies()) {
+            Predicate<String> filter;
+            try {
+                filter = StrategyFactory.resolve(step).fileNameFilter(step);
+            } catch (IllegalArgumentException e) {
+                // 未注册的策略类型：不剪枝，交给处理器按原流程报错
+                return null;
+            }
+            if (filter == null) {
+                return null;
+            }
+            combined = combined == null ? filter : combined.or(filter);
+        }
+        return combined == null ? name -> false : combined;
+    }
+}
@@ -3,11 +3,12 @@ package com.awei.frt.core.strategy;
 import com.awei.frt.core.context.OperationContext;
 import com.awei.frt.core.node.FileNode;
 import com.awei.frt.core.uitls.FileUtil;
+import com.awei.frt.model.MatchRule;
 import com.awei.frt.model.OperationRecord;
-import com.awei.frt.util.LoggerUtil;
+import com.awei.frt.util.FileLogBatch;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.function.Predicate;
 
 /**
  * 压缩包策略基类（zip/jar）
@@ -41,20 +42,31 @@ public abstract class ZipEntryBaseStrategy extends AbstractOperationStrategy {
         return matchesZipContent(node.getPath(), context);
     }
 
+    /**
+     * 只可能处理 .zip / .jar 文件（供剪枝分析提前跳过其他文件，不打开压缩包）
+     */
+    @Override
+    public Predicate<String> fileNameFilter(MatchRule step) {
+        return name -> {
+            String lower = name.toLowerCase(java.util.Locale.ROOT);
+            return lower.endsWith(".zip") || lower.endsWith(".jar");
+        };
+    }
+
     /**
      * 新增：目标层没有该文件时才执行（已存在则交给 replace 钩子）
      */
     @Override
     protected boolean doAdd(FileNode node, OperationContext context) {
         Path targetFilePath = context.getTargetPath(node.getRelativePath());
-        if (Files.exists(targetFilePath)) {
+        if (context.targetExists(targetFilePath)) {
             return false;
         }
         OperationRecord record = newRecord(context);
-        boolean ok = FileUtil.addFile(node.getPath(), targetFilePath, record, context.isDryRun());
+        boolean ok = FileUtil.addFile(node.getPath(), targetFilePath, record, context);
         context.recordOperation(record);
         if (!context.isDryRun()) {
-            LoggerUtil.logInfo("+ " + node.getName() + " " + (ok ? "成功" : "失败"));
+            context.getFileLog().record(FileLogBatch.ADDED, ok, () -> "+ " + node.getName() + " " + (ok ? "成功" : "失败"));
         }
         if (ok) {
             node.setHandled(true);
@@ -68,14 +80,14 @@ public abstract class ZipEntryBaseStrategy extends AbstractOperationStrategy {
     @Override
     protected boolean doReplace(FileNode node, OperationContext context) {
         Path targetFilePath = context.getTargetPath(node.getRelativePath());
-        if (!Files.exists(targetFilePath)) {
+        if (!context.targetExists(targetFilePath)) {
             return false;
         }
         OperationRecord record = newRecord(context);
-        boolean ok = FileUtil.replaceFile(node.getPath(), targetFilePath, record, context.isDryRun());
+        boolean ok = FileUtil.replaceFile(node.getPath(), targetFilePath, record, context);
         context.recordOperation(record);
         if (!context.isDryRun()) {
-            LoggerUtil.logInfo("= " + node.getName() + " " + (ok ? "成功" : "失败"));
+            context.getFileLog().record(FileLogBatch.REPLACED, ok, () -> "= " + node.getName() + " " + (ok ? "成功" : "失败"));
         }
         if (ok) {
             node.setHandled(true);
@@ -90,10 +102,10 @@ public abstract class ZipEntryBaseStrategy extends AbstractOperationStrategy {
     protected boolean doDelete(FileNode node, OperationContext context) {
         Path targetFilePath = context.getTargetPath(node.getRelativePath());
         OperationRecord record = newRecord(context);
-        boolean ok = FileUtil.deleteFile(targetFilePath, record, context.isDryRun());
+        boolean ok = FileUtil.deleteFile(targetFilePath, record, context);
         context.recordOperation(record);
         if (!context.isDryRun()) {
-            LoggerUtil.logInfo("- " + node.getName() + " " + (ok ? "成功" : "失败"));
+            context.getFileLog().record(FileLogBatch.DELETED, ok, () -> "- " + node.getName() + " " + (ok ? "成功" : "失败"));
         }
         if (ok) {
             node.setHandled(true);
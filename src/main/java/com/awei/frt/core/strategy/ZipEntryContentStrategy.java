@@ -1,16 +1,16 @@
 package com.awei.frt.core.strategy;
 
 import com.awei.frt.core.context.OperationContext;
-import com.awei.frt.core.uitls.GlobMatcher;
+import com.awei.frt.model.RuleParams;
 import com.awei.frt.util.LoggerUtil;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -26,6 +26,11 @@ public class ZipEntryContentStrategy extends ZipEntryBaseStrategy {
 
     private static final int MAX_ENTRY_TEXT = 1024 * 1024; // 1MB
 
+    private static final ParamSchema PARAMS = ParamSchema.builder()
+            .list("contentContains", true, "条目文本包含的关键词，任一命中即匹配")
+            .bool("caseSensitive", true, "条目名与关键词匹配是否区分大小写")
+            .build();
+
     @Override
     public String getStrategyType() {
         return "ZipEntryContent";
@@ -36,24 +41,22 @@ public class ZipEntryContentStrategy extends ZipEntryBaseStrategy {
         return "压缩包内文件内容匹配策略（读取 zip/jar 条目文本，contentContains 参数）";
     }
 
+    @Override
+    public ParamSchema getParamSchema() {
+        return PARAMS;
+    }
+
     @Override
     protected boolean matchesZipContent(Path zipPath, OperationContext context) {
-        String contains = context.getRuleParam("contentContains");
-        if (contains == null || contains.isBlank()) {
-            LoggerUtil.logWarn("[ZipEntryContent] 未配置 contentContains 参数（replacements），策略不生效: " + zipPath.getFileName());
-            return false;
-        }
-        List<String> keywords = Arrays.stream(contains.split(","))
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .toList();
+        RuleParams params = context.getRuleParams();
+        // 关键词在规则加载时已切分（规则文件中为必填参数；代码构造的规则未配置时不生效）
+        List<String> keywords = params.getList("contentContains");
         if (keywords.isEmpty()) {
-            LoggerUtil.logWarn("[ZipEntryContent] contentContains 参数为空，策略不生效: " + zipPath.getFileName());
+            LoggerUtil.logWarn("[ZipEntryContent] 未配置 contentContains 参数（replacements），策略不生效: " + zipPath.getFileName());
             return false;
         }
-        boolean caseSensitive = !"false".equalsIgnoreCase(context.getRuleParam("caseSensitive"));
-        List<String> patterns = context.getRuleInheritanceContext().getRuleChain().getPatterns();
-        List<String> excludes = context.getRuleInheritanceContext().getRuleChain().getExcludePatterns();
+        boolean caseSensitive = params.getBoolean("caseSensitive", true);
+        Predicate<String> entryFilter = context.getRuleInheritanceContext().getRuleChain().getNameFilter();
 
         try (ZipFile zip = new ZipFile(zipPath.toFile())) {
             java.util.Enumeration<? extends ZipEntry> entries = zip.entries();
@@ -62,12 +65,7 @@ public class ZipEntryContentStrategy extends ZipEntryBaseStrategy {
                 if (entry.isDirectory()) {
                     continue;
                 }
-                String entryName = entry.getName();
-                if (!GlobMatcher.matchesAny(entryName, patterns, caseSensitive)) {
-                    continue;
-                }
-                if (excludes != null && !excludes.isEmpty()
-                        && GlobMatcher.matchesAny(entryName, excludes, caseSensitive)) {
+                if (!entryFilter.test(entry.getName())) {
                     continue;
                 }
                 String text = readEntryText(zip, entry);
@@ -1,13 +1,11 @@
 package com.awei.frt.core.strategy;
 
 import com.awei.frt.core.context.OperationContext;
-import com.awei.frt.core.uitls.GlobMatcher;
 import com.awei.frt.util.LoggerUtil;
 
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.Locale;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -19,6 +17,10 @@ import java.util.zip.ZipFile;
  */
 public class ZipEntryNameStrategy extends ZipEntryBaseStrategy {
 
+    private static final ParamSchema PARAMS = ParamSchema.builder()
+            .bool("caseSensitive", true, "条目名匹配是否区分大小写")
+            .build();
+
     @Override
     public String getStrategyType() {
         return "ZipEntryName";
@@ -29,24 +31,22 @@ public class ZipEntryNameStrategy extends ZipEntryBaseStrategy {
         return "压缩包内文件名匹配策略（zip/jar 内部条目名，支持通配符）";
     }
 
+    @Override
+    public ParamSchema getParamSchema() {
+        return PARAMS;
+    }
+
     @Override
     protected boolean matchesZipContent(Path zipPath, OperationContext context) {
-        boolean caseSensitive = !"false".equalsIgnoreCase(context.getRuleParam("caseSensitive"));
-        List<String> patterns = context.getRuleInheritanceContext().getRuleChain().getPatterns();
-        List<String> excludes = context.getRuleInheritanceContext().getRuleChain().getExcludePatterns();
+        // 条目名谓词按规则步骤预编译并缓存（caseSensitive 参数同样生效），逐条目不再重复编译通配符
+        Predicate<String> entryFilter = context.getRuleInheritanceContext().getRuleChain().getNameFilter();
 
         try (ZipFile zip = new ZipFile(zipPath.toFile())) {
             java.util.Enumeration<? extends ZipEntry> entries = zip.entries();
             while (entries.hasMoreElements()) {
-                String entryName = entries.nextElement().getName();
-                if (!GlobMatcher.matchesAny(entryName, patterns, caseSensitive)) {
-                    continue;
-                }
-                if (excludes != null && !excludes.isEmpty()
-                        && GlobMatcher.matchesAny(entryName, excludes, caseSensitive)) {
-                    continue;
+                if (entryFilter.test(entries.nextElement().getName())) {
+                    return true;
                 }
-                return true;
             }
             return false;
         } catch (IOException e) {
@@ -0,0 +1,67 @@
+package com.awei.frt.core.strategy.decorator;
+
+import com.awei.frt.core.strategy.OperationStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * 装饰器链配置（不可变）
+ * 按"外层 → 内层"顺序列出装饰器构造函数，apply 时从内向外逐层包装原始策略。
+ * 默认链：异常兜底（最外层，连带兜住日志/计时自身的异常）→ 计时 → 日志 → 原始策略。
+ * 可按策略类型单独配置（StrategyFactory.setDecoratorChain），如对高频轻量策略去掉计时层。
+ */
+public final class DecoratorChain {
+
+    /** 空链：不做任何包装（原始策略直接执行，异常会向上抛） */
+    public static final DecoratorChain NONE = new DecoratorChain(Collections.emptyList());
+
+    /** 默认链 */
+    public static final DecoratorChain DEFAULT = DecoratorChain.of(
+            ErrorContainmentDecorator::new,
+            TimingDecorator::new,
+            LoggingDecorator::new);
+
+    private final List<UnaryOperator<OperationStrategy>> layers; // 外层 → 内层
+
+    private DecoratorChain(List<UnaryOperator<OperationStrategy>> layers) {
+        this.layers = layers;
+    }
+
+    /**
+     * 创建装饰器链
+     * @param layers 装饰器构造函数（外层在前）
+     */
+    @SafeVarargs
+    public static DecoratorChain of(UnaryOperator<OperationStrategy>... layers) {
+        List<UnaryOperator<OperationStrategy>> list = new ArrayList<>();
+        for (UnaryOperator<OperationStrategy> layer : layers) {
+            if (layer != null) {
+                list.add(layer);
+            }
+        }
+        return new DecoratorChain(Collections.unmodifiableList(list));
+    }
+
+    /**
+     * 包装原始策略
+     * @param strategy 原始策略
+     * @return 装饰后的策略（空链时原样返回）
+     */
+    public OperationStrategy apply(OperationStrategy strategy) {
+        OperationStrategy result = strategy;
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            result = layers.get(i).apply(result);
+        }
+        return result;
+    }
+
+    /**
+     * 装饰层数
+     */
+    public int size() {
+        return layers.size();
+    }
+}
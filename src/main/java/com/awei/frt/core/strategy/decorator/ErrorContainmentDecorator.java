@@ -0,0 +1,67 @@
+package com.awei.frt.core.strategy.decorator;
+
+import com.awei.frt.core.context.FileBatch;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.BatchOperationStrategy;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.util.LoggerUtil;
+
+import java.util.List;
+
+/**
+ * 异常兜底装饰器：策略执行抛出的任何异常都在此拦截，
+ * 记日志 + 记失败操作记录（计入 errorCount，随备份/恢复体系走），不中断整个更新流程。
+ * 批量执行时异常只归到进行中的那个节点：记失败并标记完成后，从下一个节点继续执行本批。
+ */
+public final class ErrorContainmentDecorator extends StrategyDecorator {
+
+    public ErrorContainmentDecorator(OperationStrategy delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public void execute(FileNode node, OperationContext context, String[] operationType) {
+        try {
+            delegate.execute(node, context, operationType);
+        } catch (Throwable t) {
+            handleError(node, context, t);
+        }
+    }
+
+    @Override
+    public void executeBatch(FileBatch batch, OperationContext context, String[] operationType) {
+        while (true) {
+            try {
+                BatchOperationStrategy.executeEach(delegate, batch.remaining(null), context, operationType);
+                return;
+            } catch (Throwable t) {
+                List<? extends FileNode> pending = batch.pending();
+                if (pending.isEmpty()) {
+                    handleError(null, context, t);
+                    return;
+                }
+                FileNode failed = pending.get(0);
+                handleError(failed, context, t);
+                batch.done(failed);
+            }
+        }
+    }
+
+    /**
+     * 异常兜底：记日志 + 记失败操作记录
+     */
+    private void handleError(FileNode node, OperationContext context, Throwable cause) {
+        String type = delegate.getStrategyType();
+        String rel = node == null ? "null" : node.getRelativePath();
+        LoggerUtil.logException("[策略] " + type + " 执行异常: " + rel, cause);
+        if (context != null) {
+            OperationRecord record = new OperationRecord();
+            record.setStrategyType(type);
+            record.setErrorMessage(cause.toString());
+            record.setSuccess(false);
+            context.recordOperation(record);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.awei.frt.core.strategy.decorator;
+
+import com.awei.frt.core.context.FileBatch;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.BatchOperationStrategy;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.util.LoggerUtil;
+
+/**
+ * 执行日志装饰器：DEBUG 级别记录"策略 × 节点"调用。
+ * 链中每个策略对每个节点都会执行一次（大量 accepts 拒绝的 no-op），INFO 级别会刷屏，
+ * 因此仅在 DEBUG 开启时输出；先判级别再拼接消息，关闭时零字符串分配。
+ * 批量执行时每批只记一行（策略 × 文件夹 × 文件数）。
+ */
+public final class LoggingDecorator extends StrategyDecorator {
+
+    public LoggingDecorator(OperationStrategy delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public void execute(FileNode node, OperationContext context, String[] operationType) {
+        if (LoggerUtil.isDebugEnabled()) {
+            LoggerUtil.logDebug("[策略] " + delegate.getStrategyType() + " 处理: "
+                    + (node == null ? "null" : node.getRelativePath()));
+        }
+        delegate.execute(node, context, operationType);
+    }
+
+    @Override
+    public void executeBatch(FileBatch batch, OperationContext context, String[] operationType) {
+        if (LoggerUtil.isDebugEnabled() && !batch.getNodes().isEmpty()) {
+            FileNode first = batch.getNodes().get(0);
+            LoggerUtil.logDebug("[策略] " + delegate.getStrategyType() + " 批量处理: "
+                    + (first.getParent() == null ? first.getRelativePath() : first.getParent().getRelativePath())
+                    + "（" + batch.getNodes().size() + " 个文件）");
+        }
+        BatchOperationStrategy.executeEach(delegate, batch, context, operationType);
+    }
+}
@@ -0,0 +1,83 @@
+package com.awei.frt.core.strategy.decorator;
+
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.BatchOperationStrategy;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.strategy.ParamSchema;
+import com.awei.frt.model.MatchRule;
+
+import java.util.function.Predicate;
+
+/**
+ * 策略装饰器基类（取代原 StrategyProxy 动态代理）
+ * 显式持有被装饰策略，非 execute 方法直接转发；子类只覆写 execute 织入横切逻辑
+ * （日志 / 计时 / 异常兜底 / 统计），多个装饰器按 DecoratorChain 顺序层层嵌套。
+ * <p>
+ * 调用全程是普通虚方法分派（无 Method.invoke、无参数数组分配），JIT 可直接内联穿透；
+ * 最外层装饰器类型固定，FolderNode/FileLeaf 的调用点保持单态。
+ * <p>
+ * 批量执行：只覆写 execute 的装饰器沿用默认的逐节点 executeBatch（每个节点仍经过本层 execute）；
+ * 需要整批织入的装饰器覆写 executeBatch，并用 BatchOperationStrategy.executeEach 把批交给被装饰策略。
+ */
+public abstract class StrategyDecorator implements BatchOperationStrategy {
+
+    protected final OperationStrategy delegate; // 被装饰的策略（可能仍是装饰器）
+
+    protected StrategyDecorator(OperationStrategy delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("被装饰策略不能为空");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getStrategyType() {
+        return delegate.getStrategyType();
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public ParamSchema getParamSchema() {
+        return delegate.getParamSchema();
+    }
+
+    @Override
+    public Predicate<String> fileNameFilter(MatchRule step) {
+        return delegate.fileNameFilter(step);
+    }
+
+    @Override
+    public void execute(FileNode node, OperationContext context, String[] operationType) {
+        delegate.execute(node, context, operationType);
+    }
+
+    /**
+     * 获取直接被装饰的策略
+     */
+    public OperationStrategy getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 剥去所有装饰层，取最内层的原始策略（测试/插件识别用）
+     * @param strategy 策略（可为装饰器）
+     * @return 原始策略实例
+     */
+    public static OperationStrategy unwrap(OperationStrategy strategy) {
+        OperationStrategy current = strategy;
+        while (current instanceof StrategyDecorator) {
+            current = ((StrategyDecorator) current).delegate;
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + delegate + "]";
+    }
+}
@@ -0,0 +1,87 @@
+package com.awei.frt.core.strategy.decorator;
+
+import com.awei.frt.core.context.FileBatch;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.BatchOperationStrategy;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.util.LoggerUtil;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 计时装饰器：累计调用次数与总耗时，单次调用超过阈值时告警（定位"哪个策略拖慢了更新"）；
+ * 同时把耗时上报到本次会话的 MetricsRegistry（按策略类型的延迟直方图）。
+ * 计数用 LongAdder / 直方图原子桶，记录路径无锁、无分配。
+ * 批量执行时仍按节点计时（以相邻两次 done 之间的耗时为该节点的耗时），直方图与慢调用告警口径不变。
+ */
+public final class TimingDecorator extends StrategyDecorator {
+
+    // 单次执行慢调用告警阈值
+    private static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final LongAdder calls = new LongAdder();      // 调用次数
+    private final LongAdder totalNanos = new LongAdder(); // 累计耗时（纳秒）
+
+    public TimingDecorator(OperationStrategy delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public void execute(FileNode node, OperationContext context, String[] operationType) {
+        long start = System.nanoTime();
+        try {
+            delegate.execute(node, context, operationType);
+        } finally {
+            record(node, context, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void executeBatch(FileBatch batch, OperationContext context, String[] operationType) {
+        long[] start = {System.nanoTime()};
+        FileBatch timed = batch.remaining(node -> {
+            long now = System.nanoTime();
+            record(node, context, now - start[0]);
+            start[0] = now;
+        });
+        boolean completed = false;
+        try {
+            BatchOperationStrategy.executeEach(delegate, timed, context, operationType);
+            completed = true;
+        } finally {
+            // 异常中断：进行中的节点同样计一次
+            if (!completed && !timed.pending().isEmpty()) {
+                record(timed.pending().get(0), context, System.nanoTime() - start[0]);
+            }
+        }
+    }
+
+    private void record(FileNode node, OperationContext context, long elapsed) {
+        calls.increment();
+        totalNanos.add(elapsed);
+        if (context != null) {
+            context.getMetrics().recordStrategy(delegate.getStrategyType(), elapsed);
+        }
+        if (elapsed > SLOW_CALL_NANOS) {
+            LoggerUtil.logWarn("[策略] " + delegate.getStrategyType() + " 执行较慢（"
+                    + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms）: "
+                    + (node == null ? "null" : node.getRelativePath()));
+        }
+    }
+
+    /**
+     * 累计调用次数
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * 累计耗时（纳秒）
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+}
@@ -0,0 +1,358 @@
+package com.awei.frt.core.sync;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.strategy.decorator.StrategyDecorator;
+import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.model.MatchRule;
+import com.awei.frt.util.LoggerUtil;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 增量更新的同步状态清单（backup/.frt-state/sync-state.json）
+ * 每个相对路径记录三项指纹：
+ *   - 源指纹：update 侧文件 size:mtime（目录为直接子文件列表的摘要）
+ *   - 目标指纹：目标侧同路径处理后的 size:mtime（不存在记为 "-"）
+ *   - 规则指纹：生效规则内容 + 策略实现类 + 操作类型的摘要
+ * 三项都与上次成功会话一致的节点直接跳过策略执行（仍上报进度）；
+ * 只在整个会话无失败时保存，失败会话保留上一份清单（下次按上次成功状态比较，保守重做）。
+ *
+ * 使用方式：load() 得到上次清单 → 每个 OperationContext 用 newSession() 各取一份会话状态
+ * （预览与执行互不干扰）→ 执行成功后 save()。
+ */
+public class SyncState {
+
+    /** 状态目录（位于备份目录下，不计入备份文件索引；FRT 保留名，不与镜像存储的 state/ 等用户目录冲突） */
+    public static final String STATE_DIR = ".frt-state";
+    private static final String MANIFEST_FILE = "sync-state.json";
+    private static final String MISSING = "-";
+    private static final String FOLDER_PREFIX = "dir:";
+    private static final int FORMAT_VERSION = 1;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String updateRoot;
+    private final String targetRoot;
+    private final Map<String, Entry> previous;                         // 上次成功会话的清单（只读）
+    private final Map<String, Entry> current = new ConcurrentHashMap<>(); // 本次会话访问过的节点
+    private final Map<MatchRule, String> ruleFingerprints = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
+    private final AtomicInteger unchangedFolders = new AtomicInteger();
+
+    private SyncState(String updateRoot, String targetRoot, Map<String, Entry> previous) {
+        this.updateRoot = updateRoot;
+        this.targetRoot = targetRoot;
+        this.previous = previous;
+    }
+
+    /**
+     * 加载上次成功会话的清单；不存在、损坏或根目录不一致时返回空清单（全量处理）
+     * @param updateRoot 更新目录（绝对路径）
+     * @param targetRoot 目标目录（绝对路径）
+     */
+    public static SyncState load(Path updateRoot, Path targetRoot) {
+        String update = updateRoot.toAbsolutePath().normalize().toString();
+        String target = targetRoot.toAbsolutePath().normalize().toString();
+        Path file = getManifestPath();
+        if (file == null || !Files.isRegularFile(file)) {
+            return new SyncState(update, target, Map.of());
+        }
+        try {
+            Manifest manifest = MAPPER.readValue(Files.readString(file, StandardCharsets.UTF_8), Manifest.class);
+            if (manifest.version != FORMAT_VERSION || !update.equals(manifest.updateRoot)
+                    || !target.equals(manifest.targetRoot) || manifest.entries == null) {
+                LoggerUtil.logInfo("[增量] 同步清单与当前目录不一致，本次全量处理");
+                return new SyncState(update, target, Map.of());
+            }
+            return new SyncState(update, target, manifest.entries);
+        } catch (Exception e) {
+            LoggerUtil.logWarn("[警告] 读取同步清单失败，本次全量处理: " + e.getMessage());
+            return new SyncState(update, target, Map.of());
+        }
+    }
+
+    /**
+     * 基于同一份上次清单开启一个新会话（本次访问记录独立）
+     */
+    public SyncState newSession() {
+        return new SyncState(updateRoot, targetRoot, previous);
+    }
+
+    /**
+     * 文件节点：三项指纹均未变化时记入本次清单并返回 true（调用方跳过策略执行）
+     */
+    public boolean isFileUnchanged(String relativePath, Path source, Path target, String ruleFingerprint) {
+        Entry old = previous.get(relativePath);
+        if (old == null || ruleFingerprint == null || !ruleFingerprint.equals(old.r)) {
+            return false;
+        }
+        Entry now = new Entry(fingerprint(source), fingerprint(target), ruleFingerprint);
+        if (!now.equals(old)) {
+            return false;
+        }
+        current.put(relativePath, now);
+        unchangedFiles.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 文件节点处理完成后记录处理后的指纹
+     */
+    public void recordFile(String relativePath, Path source, Path target, String ruleFingerprint) {
+        if (ruleFingerprint != null) {
+            current.put(relativePath, new Entry(fingerprint(source), fingerprint(target), ruleFingerprint));
+        }
+    }
+
+    /**
+     * 目录节点（目录级策略，如 McMod）：源/目标目录直接子文件列表与规则均未变化时返回 true
+     */
+    public boolean isFolderUnchanged(String relativePath, Path source, Path target, String ruleFingerprint) {
+        String key = FOLDER_PREFIX + relativePath;
+        Entry old = previous.get(key);
+        if (old == null || ruleFingerprint == null || !ruleFingerprint.equals(old.r)) {
+            return false;
+        }
+        Entry now = new Entry(folderFingerprint(source), folderFingerprint(target), ruleFingerprint);
+        if (!now.equals(old)) {
+            return false;
+        }
+        current.put(key, now);
+        unchangedFolders.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 目录节点策略执行完成后记录处理后的指纹
+     */
+    public void recordFolder(String relativePath, Path source, Path target, String ruleFingerprint) {
+        if (ruleFingerprint != null) {
+            current.put(FOLDER_PREFIX + relativePath,
+                    new Entry(folderFingerprint(source), folderFingerprint(target), ruleFingerprint));
+        }
+    }
+
+    /**
+     * 重新计算本次已记录条目的目标指纹（事务化更新：处理时目标尚未改动，提交后按目标目录刷新）
+     */
+    public void refreshTargets() {
+        Path root = Path.of(targetRoot);
+        current.replaceAll((key, entry) -> {
+            boolean folder = key.startsWith(FOLDER_PREFIX);
+            Path target = root.resolve(folder ? key.substring(FOLDER_PREFIX.length()) : key).normalize();
+            return new Entry(entry.s, folder ? folderFingerprint(target) : fingerprint(target), entry.r);
+        });
+    }
+
+    /**
+     * 规则指纹：规则各步骤内容（类型/模式/排除/参数）+ 解析到的策略实现类 + 操作类型
+     * 同一规则对象只计算一次（继承规则在子目录间共享同一实例）
+     */
+    public String ruleFingerprint(MatchRule rule, String[] operationType) {
+        if (rule == null) {
+            return null;
+        }
+        String base = ruleFingerprints.computeIfAbsent(rule, SyncState::computeRuleFingerprint);
+        return base + "|" + Arrays.toString(operationType);
+    }
+
+    private static String computeRuleFingerprint(MatchRule rule) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(rule.isInheritToSubfolders());
+        for (MatchRule step : rule.getEffectiveStrategies()) {
+            sb.append('\n').append(step.getStrategyType())
+                    .append('|').append(step.getPatterns())
+                    .append('|').append(step.getExcludePatterns())
+                    .append('|').append(step.getReplacements() == null ? "{}" : new TreeMap<>(step.getReplacements()));
+            try {
+                sb.append('|').append(StrategyDecorator.unwrap(StrategyFactory.resolve(step)).getClass().getName());
+            } catch (RuntimeException e) {
+                sb.append("|?"); // 策略未注册：执行阶段会报错，指纹照常生成
+            }
+        }
+        return digest(sb.toString());
+    }
+
+    /**
+     * 保存本次会话清单（原子替换，写失败不影响本次操作结果）
+     * @return 是否保存成功
+     */
+    public boolean save() {
+        Path file = getManifestPath();
+        if (file == null) {
+            return false;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Manifest manifest = new Manifest();
+            manifest.version = FORMAT_VERSION;
+            manifest.updateRoot = updateRoot;
+            manifest.targetRoot = targetRoot;
+            manifest.savedAt = LocalDateTime.now().toString();
+            manifest.entries = new TreeMap<>(current);
+            Path tmp = file.resolveSibling(MANIFEST_FILE + ".tmp");
+            Files.writeString(tmp, MAPPER.writeValueAsString(manifest), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            LoggerUtil.logInfo("[增量] 同步清单已保存: " + current.size() + " 项");
+            return true;
+        } catch (IOException e) {
+            LoggerUtil.logException("保存同步清单失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 删除同步清单（下次更新全量处理）
+     */
+    public static boolean clear() {
+        Path file = getManifestPath();
+        try {
+            return file != null && Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LoggerUtil.logException("删除同步清单失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 同步清单路径：{backupPath}/.frt-state/sync-state.json（多目标分发时位于各目标命名空间下）
+     */
+    public static Path getManifestPath() {
+        Path backupPath = BackupFileLoader.getBackupRoot(); // 多目标分发时为目标命名空间目录
+        return backupPath == null ? null : backupPath.resolve(STATE_DIR).resolve(MANIFEST_FILE).normalize();
+    }
+
+    public int getUnchangedFiles() {
+        return unchangedFiles.get();
+    }
+
+    public int getUnchangedFolders() {
+        return unchangedFolders.get();
+    }
+
+    /**
+     * 上次清单是否为空（首次运行/清单失效）
+     */
+    public boolean isEmpty() {
+        return previous.isEmpty();
+    }
+
+    /**
+     * 文件指纹：size:mtime(ms)；不存在返回 "-"
+     */
+    static String fingerprint(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        } catch (IOException e) {
+            return null; // 读不到属性：视为变化（null 与任何旧值都不相等）
+        }
+    }
+
+    /**
+     * 目录指纹：直接子文件（名称 + size:mtime）排序后的摘要；不存在返回 "-"
+     */
+    static String folderFingerprint(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return MISSING;
+        }
+        List<String> items = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path child : stream) {
+                BasicFileAttributes attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    items.add(child.getFileName() + "|" + attrs.size() + ":" + attrs.lastModifiedTime().toMillis());
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        Collections.sort(items);
+        return items.size() + ":" + digest(String.join("\n", items));
+    }
+
+    private static String digest(String text) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            return HexFormat.of().formatHex(md.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+
+    /**
+     * 清单条目：s=源指纹 t=目标指纹 r=规则指纹（短键名减小清单体积）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+        public String s;
+        public String t;
+        public String r;
+
+        public Entry() {
+        }
+
+        Entry(String s, String t, String r) {
+            this.s = s;
+            this.t = t;
+            this.r = r;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry other)) {
+                return false;
+            }
+            return s != null && t != null && s.equals(other.s) && t.equals(other.t) && Objects.equals(r, other.r);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(s, t, r);
+        }
+    }
+
+    /**
+     * 清单文件结构
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Manifest {
+        public int version;
+        public String updateRoot;
+        public String targetRoot;
+        public String savedAt;
+        public Map<String, Entry> entries;
+    }
+}
@@ -0,0 +1,412 @@
+package com.awei.frt.core.transaction;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.core.uitls.FileTransferUtil;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.util.LoggerUtil;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 暂存事务（事务化更新，见 Config.transactionalUpdate）
+ * 直接模式下每个文件操作立即改动目标；事务模式把一次更新会话分为三段：
+ * <ol>
+ *   <li>暂存：策略执行期间，新增/替换的新内容并发复制到目标目录的同级暂存目录
+ *       （.{目标目录名}.frt-staging-{id}），删除只登记；目标目录保持不变（原文件照常先备份）</li>
+ *   <li>准备：等待全部暂存复制完成；任一失败则整体中止（丢弃暂存目录，目标未被改动）</li>
+ *   <li>提交：写入提交标记（COMMITTING + 完整移动清单）后，逐文件 ATOMIC_MOVE 重命名到位，
+ *       完成后删除标记与暂存目录</li>
+ * </ol>
+ * 标记文件位于 {backupPath}/.frt-state/transactions/（多目标分发时在各目标命名空间下）。
+ * 异常中断后由 recoverPending() 处理：STAGING 标记回滚（丢弃暂存），COMMITTING 标记前滚（把剩余暂存文件移动到位）。
+ * 暂存目录与目标同级（通常在同一文件系统，重命名是原子的）；不支持原子移动时退化为普通移动。
+ * <p>
+ * 登记（stageCopy/stageDelete）由策略所在的单个线程调用；暂存复制在内部线程池并发执行。
+ */
+public class StagedTransaction {
+
+    /** 事务标记目录（位于 state 目录下，不计入备份文件索引） */
+    public static final String TRANSACTIONS_DIR = "transactions";
+    static final String STATE_STAGING = "STAGING";
+    static final String STATE_COMMITTING = "COMMITTING";
+    static final String KIND_COPY = "COPY";
+    static final String KIND_DELETE = "DELETE";
+    private static final String MARKER_PREFIX = "txn-";
+    private static final String STAGING_SUFFIX = ".frt-staging-";
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String id;
+    private final Path targetRoot;
+    private final Path stagingDir;
+    private final Path markerFile;
+    private final ExecutorService executor;
+    private final List<Pending> pending = new ArrayList<>();
+    private boolean finished;
+
+    private StagedTransaction(String id, Path targetRoot, Path stagingDir, Path markerFile, int parallelism) {
+        this.id = id;
+        this.targetRoot = targetRoot;
+        this.stagingDir = stagingDir;
+        this.markerFile = markerFile;
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "frt-staging-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 开启事务：创建暂存目录并写入 STAGING 标记
+     * @param targetRoot  目标目录（绝对路径）
+     * @param parallelism 暂存复制并发数
+     */
+    public static StagedTransaction begin(Path targetRoot, int parallelism) throws IOException {
+        Path markerDir = getMarkerDir();
+        if (markerDir == null) {
+            throw new IOException("备份目录未配置，无法开启事务");
+        }
+        Path root = targetRoot.toAbsolutePath().normalize();
+        String id = LocalDateTime.now().format(ID_FORMAT) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        Path fileName = root.getFileName();
+        Path stagingDir = root.getParent() == null
+                ? root.resolve(STAGING_SUFFIX.substring(1) + id)
+                : root.resolveSibling("." + fileName + STAGING_SUFFIX + id);
+        StagedTransaction txn = new StagedTransaction(id, root, stagingDir,
+                markerDir.resolve(MARKER_PREFIX + id + ".json"), parallelism);
+        Files.createDirectories(stagingDir);
+        txn.writeMarker(STATE_STAGING, List.of());
+        LoggerUtil.logInfo("[事务] 开启暂存事务 " + id + "，暂存目录: " + stagingDir);
+        return txn;
+    }
+
+    /**
+     * 登记新增/替换：新内容异步复制到暂存目录，提交时移动到 target
+     */
+    public void stageCopy(Path source, Path target, OperationRecord record) {
+        Path staged = stagingDir.resolve(String.valueOf(pending.size()));
+        Future<?> copy = executor.submit(() -> {
+            FileTransferUtil.copyWithMd5(source, staged);
+            return null;
+        });
+        pending.add(new Pending(new Entry(KIND_COPY, staged.toString(), target.toString()), record, copy));
+    }
+
+    /**
+     * 登记删除：提交时删除 target
+     */
+    public void stageDelete(Path target, OperationRecord record) {
+        pending.add(new Pending(new Entry(KIND_DELETE, null, target.toString()), record, null));
+    }
+
+    /**
+     * 准备并提交：暂存全部完成后写 COMMITTING 标记，再逐文件原子移动到位
+     * 暂存失败 / 标记写入失败时整体中止，所有登记的记录改为失败（目标未改动）；
+     * 提交阶段个别文件移动失败只把该记录改为失败，其余照常提交（与直接模式一致，交由失败恢复询问处理）。
+     * @param result 会话结果（按失败记录修正成功/错误计数）
+     * @return 本次提交失败的记录数
+     */
+    public int commit(ProcessingResult result) {
+        if (finished) {
+            throw new IllegalStateException("事务已结束: " + id);
+        }
+        finished = true;
+        try {
+            String stagingError = awaitStaging();
+            List<Entry> entries = pending.stream().map(p -> p.entry).toList();
+            if (stagingError == null && !entries.isEmpty()) {
+                try {
+                    writeMarker(STATE_COMMITTING, entries);
+                } catch (IOException e) {
+                    stagingError = "写入提交标记失败: " + e.getMessage();
+                }
+            }
+            if (stagingError != null) {
+                LoggerUtil.logError("[事务] 暂存失败，事务 " + id + " 中止，目标目录未改动: " + stagingError);
+                for (Pending p : pending) {
+                    fail(p, "事务中止（目标未改动）: " + stagingError, result);
+                }
+                discard();
+                return pending.size();
+            }
+
+            int failed = 0;
+            long start = System.nanoTime();
+            try {
+                prepareParents(entries);
+            } catch (IOException e) {
+                // 父目录创建失败：对应文件的移动会各自失败并记为错误
+                LoggerUtil.logWarn("[警告] 创建目标父目录失败: " + e.getMessage());
+            }
+            for (Pending p : pending) {
+                try {
+                    apply(p.entry);
+                } catch (IOException e) {
+                    fail(p, "事务提交失败: " + e.getMessage(), result);
+                    failed++;
+                }
+            }
+            discard();
+            LoggerUtil.logInfo("[事务] 已提交 " + (entries.size() - failed) + "/" + entries.size() + " 项，耗时 "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return failed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 放弃事务（处理过程异常时）：丢弃暂存，目标不改动，登记的记录保持原状
+     */
+    public void abort() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        executor.shutdownNow();
+        discard();
+        LoggerUtil.logWarn("[事务] 事务 " + id + " 已放弃，目标目录未改动");
+    }
+
+    /**
+     * 取消事务（执行中途被用户取消时）：丢弃暂存，目标不改动，登记的记录全部改记为未执行
+     * @param result 会话结果（按未执行记录修正成功/错误计数）
+     */
+    public void cancel(ProcessingResult result) {
+        if (finished) {
+            return;
+        }
+        for (Pending p : pending) {
+            fail(p, "已取消（事务已放弃，目标未改动）", result);
+        }
+        abort();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Path getTargetRoot() {
+        return targetRoot;
+    }
+
+    public Path getStagingDir() {
+        return stagingDir;
+    }
+
+    /**
+     * 已登记的操作数
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * 处理当前备份命名空间中异常中断遗留的事务：
+     * STAGING → 回滚（删除暂存目录，目标本就未改动）；COMMITTING → 前滚（剩余暂存文件移动到位 / 执行剩余删除）
+     * 应在恢复未完成会话之前调用（先让目标回到一致状态，再决定是否按会话记录恢复）。
+     * @return 处理的事务数
+     */
+    public static int recoverPending() {
+        Path markerDir = getMarkerDir();
+        if (markerDir == null || !Files.isDirectory(markerDir)) {
+            return 0;
+        }
+        List<Path> markers = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(markerDir, MARKER_PREFIX + "*.json")) {
+            stream.forEach(markers::add);
+        } catch (IOException e) {
+            LoggerUtil.logException("读取事务标记目录失败", e);
+            return 0;
+        }
+        int recovered = 0;
+        for (Path markerFile : markers) {
+            try {
+                Marker marker = MAPPER.readValue(Files.readString(markerFile, StandardCharsets.UTF_8), Marker.class);
+                if (STATE_COMMITTING.equals(marker.state) && marker.entries != null) {
+                    prepareParents(marker.entries);
+                    for (Entry entry : marker.entries) {
+                        apply(entry);
+                    }
+                    LoggerUtil.logWarn("[事务] 已前滚上次中断的提交 " + marker.id + "（" + marker.entries.size() + " 项）");
+                } else {
+                    LoggerUtil.logWarn("[事务] 已回滚上次中断的暂存 " + marker.id + "（目标目录未改动）");
+                }
+                deleteTree(marker.stagingDir == null ? null : Path.of(marker.stagingDir));
+                Files.deleteIfExists(markerFile);
+                recovered++;
+            } catch (IOException e) {
+                LoggerUtil.logException("[事务] 恢复事务失败，标记已保留: " + markerFile, e);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * 事务标记目录：{backupPath}/.frt-state/transactions（多目标分发时位于各目标命名空间下）
+     */
+    public static Path getMarkerDir() {
+        Path backupPath = BackupFileLoader.getBackupRoot();
+        return backupPath == null ? null
+                : backupPath.resolve(SyncState.STATE_DIR).resolve(TRANSACTIONS_DIR).normalize();
+    }
+
+    // ---------------- 内部 ----------------
+
+    // 等待全部暂存复制；返回第一个失败原因（全部成功返回 null）
+    private String awaitStaging() {
+        String error = null;
+        for (Pending p : pending) {
+            if (p.copy == null) {
+                continue;
+            }
+            try {
+                p.copy.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "暂存被中断";
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    error = p.entry.target + ": " + cause.getMessage();
+                }
+            }
+        }
+        return error;
+    }
+
+    // 单项提交（幂等：暂存文件已不在说明已移动过，前滚时跳过）
+    static void apply(Entry entry) throws IOException {
+        Path target = Path.of(entry.target);
+        if (KIND_DELETE.equals(entry.kind)) {
+            Files.deleteIfExists(target);
+            return;
+        }
+        Path staged = Path.of(entry.staged);
+        if (!Files.exists(staged)) {
+            return;
+        }
+        try {
+            Files.move(staged, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(staged, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // 提交前补齐新增文件的父目录，移动循环内只做重命名
+    private static void prepareParents(List<Entry> entries) throws IOException {
+        for (Entry entry : entries) {
+            Path parent = Path.of(entry.target).getParent();
+            if (KIND_COPY.equals(entry.kind) && parent != null && !Files.isDirectory(parent)) {
+                Files.createDirectories(parent);
+            }
+        }
+    }
+
+    private void writeMarker(String state, List<Entry> entries) throws IOException {
+        Marker marker = new Marker();
+        marker.id = id;
+        marker.state = state;
+        marker.targetRoot = targetRoot.toString();
+        marker.stagingDir = stagingDir.toString();
+        marker.entries = entries;
+        Files.createDirectories(markerFile.getParent());
+        Path tmp = markerFile.resolveSibling(markerFile.getFileName() + ".tmp");
+        Files.writeString(tmp, MAPPER.writeValueAsString(marker), StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, markerFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, markerFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // 删除暂存目录与标记（先删标记：暂存目录残留不影响一致性）
+    private void discard() {
+        try {
+            Files.deleteIfExists(markerFile);
+            deleteTree(stagingDir);
+        } catch (IOException e) {
+            LoggerUtil.logWarn("[警告] 清理事务 " + id + " 的暂存文件失败: " + e.getMessage());
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static void fail(Pending p, String message, ProcessingResult result) {
+        OperationRecord record = p.record;
+        if (record == null || !record.isSuccess()) {
+            return;
+        }
+        record.setSuccess(false);
+        record.setErrorMessage(message);
+        result.setSuccessCount(result.getSuccessCount() - 1);
+        result.setErrorCount(result.getErrorCount() + 1);
+        result.setSuccess(false);
+    }
+
+    private record Pending(Entry entry, OperationRecord record, Future<?> copy) {
+    }
+
+    /**
+     * 提交清单条目：kind=COPY（staged → target）/ DELETE（删除 target）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Entry {
+        public String kind;
+        public String staged;
+        public String target;
+
+        public Entry() {
+        }
+
+        Entry(String kind, String staged, String target) {
+            this.kind = kind;
+            this.staged = staged;
+            this.target = target;
+        }
+    }
+
+    /**
+     * 事务标记文件结构
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Marker {
+        public String id;
+        public String state;
+        public String targetRoot;
+        public String stagingDir;
+        public List<Entry> entries;
+    }
+}
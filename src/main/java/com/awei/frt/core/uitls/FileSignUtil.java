@@ -14,6 +14,7 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import com.awei.frt.util.LoggerUtil;
 
@@ -36,6 +37,8 @@ public class FileSignUtil {
                     return size() > CACHE_MAX_SIZE;
                 }
             });
+    // 累计哈希字节数（真实读盘计算的部分，不含缓存命中；供 MetricsRegistry 统计）
+    private static final LongAdder BYTES_HASHED = new LongAdder();
 
     /**
      * 核心方法：获取文件的【MD5唯一特征码】(32位16进制字符串)
@@ -80,6 +83,7 @@ public class FileSignUtil {
             // 流式读取文件，边读边计算，不占内存
             while ((len = in.read(buffer)) != -1) {
                 digest.update(buffer, 0, len);
+                BYTES_HASHED.add(len);
             }
             // 将哈希字节数组转成16进制字符串（核心转换）
             String hash = bytesToHex(digest.digest());
@@ -91,6 +95,33 @@ public class FileSignUtil {
         }
     }
 
+    /**
+     * 只查缓存的 MD5（不读盘；未缓存 / 文件已变化返回 null）
+     * 供复制流程判断能否直接零拷贝（见 FileTransferUtil）
+     */
+    public static String getCachedMd5(Path path) {
+        if (path == null || !Files.isRegularFile(path)) {
+            return null;
+        }
+        return HASH_CACHE.get(ALGORITHM_MD5 + "|" + fileCacheKey(path));
+    }
+
+    /**
+     * 登记已知的 MD5（复制过程中顺带算出的结果，文件写完后按当时的 mtime+size 入缓存）
+     */
+    static void rememberMd5(Path path, String md5) {
+        if (path != null && md5 != null && Files.isRegularFile(path)) {
+            HASH_CACHE.put(ALGORITHM_MD5 + "|" + fileCacheKey(path), md5);
+        }
+    }
+
+    /**
+     * 累加哈希字节数（复制过程中顺带计算的部分）
+     */
+    static void addBytesHashed(long bytes) {
+        BYTES_HASHED.add(bytes);
+    }
+
     /**
      * 缓存 key：路径 + 最后修改时间 + 大小（内容变更但三者不变时视为未变，属可接受的近似）
      */
@@ -102,6 +133,13 @@ public class FileSignUtil {
         }
     }
 
+    /**
+     * 进程启动以来累计哈希的字节数（缓存命中不计）
+     */
+    public static long getBytesHashed() {
+        return BYTES_HASHED.sum();
+    }
+
     /**
      * 清空哈希缓存（测试用 / 文件批量变更后手动失效）
      */
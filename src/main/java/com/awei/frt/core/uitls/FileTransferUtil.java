@@ -0,0 +1,126 @@
+package com.awei.frt.core.uitls;
+
+import com.awei.frt.core.context.CancellationToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 文件传输工具：复制与特征码计算合并为一遍读取
+ * 原流程 Files.copy 之后再由 FileSignUtil 重新打开源文件算 MD5，替换一个文件要把同一份内容读两三遍。
+ * 这里按源文件 MD5 是否已知选择路径：
+ * <ul>
+ *   <li>已知（调用方传入 / FileSignUtil 缓存命中）：FileChannel.transferTo 零拷贝，内核直接搬运，不经用户态缓冲</li>
+ *   <li>未知：1MB 直接缓冲区读一遍，同时写入目标并更新摘要</li>
+ * </ul>
+ * 复制完成后源与目标的 MD5 都登记到 FileSignUtil 缓存（后续比对 / 备份 / 恢复校验不再读盘）。
+ * 传入取消标记时逐块检查（缓冲复制每 1MB、零拷贝每 8MB 一次），已请求取消则抛出 InterruptedIOException，
+ * 慢速磁盘上复制大文件也能在一秒内停下（目标留下的半成品由调用方清理）。
+ */
+public final class FileTransferUtil {
+
+    // 直接缓冲区大小：大 jar / 资源包按 1MB 块读写，系统调用次数约为 8KB 的 1/128
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    // 可取消时零拷贝按块搬运，块间检查取消标记（不可取消时一次交给内核）
+    private static final long TRANSFER_SLICE = 8L * 1024 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private FileTransferUtil() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 复制文件（覆盖已有目标）并返回内容 MD5
+     * @param source 源文件
+     * @param target 目标文件（父目录需已存在）
+     * @return 源文件（即目标文件）内容的 MD5
+     */
+    public static String copyWithMd5(Path source, Path target) throws IOException {
+        return copyWithMd5(source, target, null);
+    }
+
+    /**
+     * 复制文件并返回内容 MD5
+     * @param knownMd5 调用方已知的源文件 MD5（如多目标分发的共享索引）；null 时查 FileSignUtil 缓存，仍未知则边复制边计算
+     */
+    public static String copyWithMd5(Path source, Path target, String knownMd5) throws IOException {
+        return copyWithMd5(source, target, knownMd5, null);
+    }
+
+    /**
+     * 复制文件并返回内容 MD5（可取消）
+     * @param cancel 取消标记（null 不可取消）；复制中途取消时抛出 InterruptedIOException，目标为半成品
+     */
+    public static String copyWithMd5(Path source, Path target, String knownMd5, CancellationToken cancel)
+            throws IOException {
+        String md5 = knownMd5 != null ? knownMd5 : FileSignUtil.getCachedMd5(source);
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (md5 != null) {
+                transfer(in, out, in.size(), cancel);
+            } else {
+                MessageDigest digest = newMd5();
+                long written = copyAndDigest(in, out, digest, cancel);
+                md5 = HexFormat.of().formatHex(digest.digest());
+                FileSignUtil.addBytesHashed(written);
+            }
+        }
+        FileSignUtil.rememberMd5(source, md5);
+        FileSignUtil.rememberMd5(target, md5);
+        return md5;
+    }
+
+    // 零拷贝：transferTo 单次可能只搬运一部分，循环到末尾（返回 0 说明源已变短，按实际长度结束）
+    private static long transfer(FileChannel in, FileChannel out, long size, CancellationToken cancel)
+            throws IOException {
+        long slice = cancel == null ? Long.MAX_VALUE : TRANSFER_SLICE;
+        long position = 0;
+        while (position < size) {
+            if (cancel != null) {
+                cancel.checkpoint();
+            }
+            long n = in.transferTo(position, Math.min(slice, size - position), out);
+            if (n <= 0) {
+                break;
+            }
+            position += n;
+        }
+        return position;
+    }
+
+    // 一遍读取：同一块缓冲先更新摘要再写出
+    private static long copyAndDigest(FileChannel in, FileChannel out, MessageDigest digest,
+                                      CancellationToken cancel) throws IOException {
+        ByteBuffer buffer = BUFFER.get();
+        long total = 0;
+        buffer.clear();
+        while (in.read(buffer) != -1) {
+            if (cancel != null) {
+                cancel.checkpoint();
+            }
+            buffer.flip();
+            digest.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                total += out.write(buffer, total);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+
+    private static MessageDigest newMd5() throws IOException {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("不支持 MD5 算法", e);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.awei.frt.core.uitls;
 
 import com.awei.frt.core.builder.BackupFileLoader;
 import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.ProgressPhase;
 import com.awei.frt.model.OperationRecord;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.*;
 
 /**
@@ -11,6 +13,11 @@ import java.nio.file.*;
  * 提供基础的文件操作功能，包括复制、移动、删除等
  * 所有操作都会生成操作记录，并返回处理结果
  * 三个文件操作方法均支持 dryRun 预览模式：只校验并标记"可执行"，不真正改动文件/备份
+ * 传入 OperationContext 的重载：预览模式取自上下文，真实执行时把耗时/复制字节数记入会话指标；
+ * 新增/替换/备份的复制与特征码计算合并为一遍读取（见 FileTransferUtil）；
+ * 上下文开启了暂存事务（事务化更新）时，校验与备份照常，文件改动登记到事务中，提交时统一落盘；
+ * 上下文跟踪进度时，备份与复制的字节数及 IO 耗时计入对应阶段（见 ProgressTracker）；
+ * 上下文可取消时复制逐块检查取消标记，中途取消则清理半成品（新增删除目标、替换用备份还原）并记为失败
  *
  * @Author: mou_ren
  * @Date: 2026/1/18 21:09
@@ -34,6 +41,11 @@ public class FileUtil {
      * @param dryRun true=只校验并标记可执行，不执行文件 IO
      */
     public static boolean addFile(Path sourcePath, Path targetPath, OperationRecord record, boolean dryRun) {
+        return addFile(sourcePath, targetPath, record, dryRun, null);
+    }
+
+    private static boolean addFile(Path sourcePath, Path targetPath, OperationRecord record, boolean dryRun,
+                                   OperationContext context) {
         try {
             record.setOperationType(OperationContext.OPERATION_ADD);
             record.setSourcePath(sourcePath);
@@ -52,8 +64,12 @@ public class FileUtil {
             }
 
             // 参数校验通过后再计算文件特征码（避免空参数NPE）
-            record.setSourceFileSign(FileSignUtil.getFileMd5(sourcePath));
+            // 真实直接执行时源文件特征码由复制的同一遍读取得出（见下方），不单独读盘
             record.setTargetFileSign(FileSignUtil.getFileMd5(targetPath));
+            boolean direct = !dryRun && !stage(context) && !Files.isRegularFile(targetPath);
+            if (!direct) {
+                record.setSourceFileSign(sourceMd5(sourcePath, context));
+            }
 
             // 判断目标路径文件是否存在，如果存在取消操作（因为不是新增操作）
             if (Files.isRegularFile(targetPath)) {
@@ -66,6 +82,13 @@ public class FileUtil {
                 record.setSuccess(true);
                 return true;
             }
+            if (stage(context)) {
+                // 事务模式：新内容写入暂存目录，提交时原子移动到位（父目录在提交时创建）
+                context.getTransaction().stageCopy(sourcePath, targetPath, record);
+                trackStaged(sourcePath, context);
+                record.setSuccess(true);
+                return true;
+            }
             // 确保目标父目录存在（update 中的子目录结构在目标侧可能不存在）
             Path parentDir = targetPath.getParent();
             if (parentDir != null && !Files.exists(parentDir)) {
@@ -74,7 +97,13 @@ public class FileUtil {
             // 添加备份文件（新增不需要备份）
 //            BackupFileLoader.addBackupFile(targetPath);
 
-            Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            try {
+                record.setSourceFileSign(copy(sourcePath, targetPath, context));
+            } catch (InterruptedIOException e) {
+                // 复制中途取消：新增前目标不存在，删除半成品即回到原状
+                Files.deleteIfExists(targetPath);
+                throw e;
+            }
             record.setSuccess(true);
 
 
@@ -86,6 +115,17 @@ public class FileUtil {
         }
     }
 
+    /**
+     * 增加文件（预览模式取自上下文；真实执行时记录会话指标）
+     * @param context 操作上下文
+     */
+    public static boolean addFile(Path sourcePath, Path targetPath, OperationRecord record, OperationContext context) {
+        long start = System.nanoTime();
+        boolean ok = addFile(sourcePath, targetPath, record, context.isDryRun(), context);
+        recordMetrics(context, record, ok, start, ok ? sizeOf(sourcePath) : 0);
+        return ok;
+    }
+
     /**
      * 替换文件
      *
@@ -103,6 +143,11 @@ public class FileUtil {
      * @param dryRun true=只校验并标记可执行，不执行文件 IO / 备份
      */
     public static boolean replaceFile(Path sourcePath, Path targetPath, OperationRecord record, boolean dryRun) {
+        return replaceFile(sourcePath, targetPath, record, dryRun, null);
+    }
+
+    private static boolean replaceFile(Path sourcePath, Path targetPath, OperationRecord record, boolean dryRun,
+                                       OperationContext context) {
         try {
             record.setOperationType(OperationContext.OPERATION_REPLACE);
             record.setSourcePath(sourcePath);
@@ -120,20 +165,33 @@ public class FileUtil {
                 return false;
             }
 
-            // 参数校验通过后再计算文件特征码（避免空参数NPE）
-            record.setSourceFileSign(FileSignUtil.getFileMd5(sourcePath));
-            record.setTargetFileSign(FileSignUtil.getFileMd5(targetPath));
-
             if (dryRun) {
-                // 预览模式：校验通过即视为可执行，不落盘
+                // 预览模式：校验通过即视为可执行，不落盘（参数校验通过后再计算文件特征码，避免空参数NPE）
+                record.setSourceFileSign(sourceMd5(sourcePath, context));
+                record.setTargetFileSign(FileSignUtil.getFileMd5(targetPath));
                 record.setSuccess(true);
                 return true;
             }
 
-            // 替换备份文件
-            BackupFileLoader.addBackupFile(targetPath);
+            // 替换备份文件（备份复制的同一遍读取得出目标特征码，随后取缓存不再读盘）
+            backup(targetPath, context);
+            record.setTargetFileSign(FileSignUtil.getFileMd5(targetPath));
 
-            Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            if (stage(context)) {
+                record.setSourceFileSign(sourceMd5(sourcePath, context));
+                context.getTransaction().stageCopy(sourcePath, targetPath, record);
+                trackStaged(sourcePath, context);
+                record.setSuccess(true);
+                return true;
+            }
+            // 源文件特征码由复制的同一遍读取得出
+            try {
+                record.setSourceFileSign(copy(sourcePath, targetPath, context));
+            } catch (InterruptedIOException e) {
+                // 复制中途取消：目标已被写了一半，用刚才的备份还原为替换前的内容
+                BackupFileLoader.restoreBackupFile(record.getTargetFileSign(), targetPath);
+                throw e;
+            }
             record.setSuccess(true);
 
             return true;
@@ -144,6 +202,17 @@ public class FileUtil {
         }
     }
 
+    /**
+     * 替换文件（预览模式取自上下文；真实执行时记录会话指标）
+     * @param context 操作上下文
+     */
+    public static boolean replaceFile(Path sourcePath, Path targetPath, OperationRecord record, OperationContext context) {
+        long start = System.nanoTime();
+        boolean ok = replaceFile(sourcePath, targetPath, record, context.isDryRun(), context);
+        recordMetrics(context, record, ok, start, ok ? sizeOf(sourcePath) : 0);
+        return ok;
+    }
+
     /**
      * 删除文件
      *
@@ -160,6 +229,11 @@ public class FileUtil {
      * @param dryRun true=只校验并标记可执行，不执行文件 IO / 备份
      */
     public static boolean deleteFile(Path filePath, OperationRecord record, boolean dryRun) {
+        return deleteFile(filePath, record, dryRun, null);
+    }
+
+    private static boolean deleteFile(Path filePath, OperationRecord record, boolean dryRun,
+                                      OperationContext context) {
         try {
             record.setOperationType(OperationContext.OPERATION_DELETE);
             record.setSourcePath(filePath);
@@ -171,6 +245,11 @@ public class FileUtil {
                 return false;
             }
 
+            if (!dryRun) {
+                // 添加备份文件（备份复制的同一遍读取得出特征码，下方取缓存不再读盘）
+                backup(filePath, context);
+            }
+
             // 参数校验通过后再计算文件特征码（避免空参数NPE）
             record.setSourceFileSign(FileSignUtil.getFileMd5(filePath));
             record.setTargetFileSign(FileSignUtil.getFileMd5(filePath));
@@ -181,9 +260,11 @@ public class FileUtil {
                 return true;
             }
 
-            // 添加备份文件
-            BackupFileLoader.addBackupFile(filePath);
-
+            if (stage(context)) {
+                context.getTransaction().stageDelete(filePath, record);
+                record.setSuccess(true);
+                return true;
+            }
             Files.delete(filePath);
             record.setSuccess(true);
             return true;
@@ -194,4 +275,69 @@ public class FileUtil {
         }
     }
 
+    /**
+     * 删除文件（预览模式取自上下文；真实执行时记录会话指标）
+     * @param context 操作上下文
+     */
+    public static boolean deleteFile(Path filePath, OperationRecord record, OperationContext context) {
+        long start = System.nanoTime();
+        boolean ok = deleteFile(filePath, record, context.isDryRun(), context);
+        recordMetrics(context, record, ok, start, 0);
+        return ok;
+    }
+
+    // 是否登记到暂存事务（真实执行且上下文开启了事务）
+    private static boolean stage(OperationContext context) {
+        return context != null && context.getTransaction() != null;
+    }
+
+    // 复制并返回内容特征码（一遍读取；多目标分发时源特征码取共享索引，复制走零拷贝）
+    private static String copy(Path sourcePath, Path targetPath, OperationContext context) throws IOException {
+        String knownMd5 = context != null && context.getSourceIndex() != null ? context.sourceMd5(sourcePath) : null;
+        long start = System.nanoTime();
+        String md5 = FileTransferUtil.copyWithMd5(sourcePath, targetPath, knownMd5,
+                context == null ? null : context.getCancellation());
+        if (context != null && context.isTrackingProgress()) {
+            context.trackBytes(ProgressPhase.COPY, sizeOf(targetPath), System.nanoTime() - start);
+        }
+        return md5;
+    }
+
+    // 备份目标文件（跟踪进度时计入备份阶段的字节数与耗时）
+    private static void backup(Path path, OperationContext context) {
+        long start = System.nanoTime();
+        BackupFileLoader.addBackupFile(path);
+        if (context != null && context.isTrackingProgress()) {
+            context.trackBytes(ProgressPhase.BACKUP, sizeOf(path), System.nanoTime() - start);
+        }
+    }
+
+    // 暂存事务的复制在后台进行：只计字节数，不计耗时（不参与吞吐量计算）
+    private static void trackStaged(Path sourcePath, OperationContext context) {
+        if (context.isTrackingProgress()) {
+            context.trackBytes(ProgressPhase.COPY, sizeOf(sourcePath), 0);
+        }
+    }
+
+    // 源文件特征码：有上下文时取其源侧共享索引（多目标分发只算一次）
+    private static String sourceMd5(Path sourcePath, OperationContext context) {
+        return context != null ? context.sourceMd5(sourcePath) : FileSignUtil.getFileMd5(sourcePath);
+    }
+
+    // 真实执行时记录操作耗时与复制字节数（预览模式不计）
+    private static void recordMetrics(OperationContext context, OperationRecord record, boolean ok,
+                                      long startNanos, long bytes) {
+        if (context.isDryRun()) {
+            return;
+        }
+        context.getMetrics().recordOperation(record.getOperationType(), ok, System.nanoTime() - startNanos, bytes);
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return path != null && Files.isRegularFile(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package com.awei.frt.core.uitls;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
@@ -52,6 +56,58 @@ public final class GlobMatcher {
         return false;
     }
 
+    /**
+     * 把模式列表预编译为文件名谓词（与 matchesAny 语义一致：空列表匹配所有）。
+     * matchesAny 每次调用都要把每个模式重新转成正则并编译，逐文件调用时开销集中在这里；
+     * 编译后按模式形态分流：字面名走哈希查找、"*.ext" 走后缀比较，其余合并为一个预编译正则。
+     * @param patterns      匹配模式列表
+     * @param caseSensitive 是否区分大小写
+     * @return 文件名谓词（null 文件名不匹配，除非模式列表匹配所有）
+     */
+    public static Predicate<String> compile(List<String> patterns, boolean caseSensitive) {
+        if (patterns == null || patterns.isEmpty()) {
+            return name -> true;
+        }
+        Set<String> literals = new HashSet<>();
+        List<String> suffixes = new ArrayList<>();
+        StringBuilder regex = new StringBuilder();
+        for (String pattern : patterns) {
+            if (pattern == null) {
+                continue;
+            }
+            if (pattern.isEmpty() || pattern.equals("*")) {
+                return name -> true;
+            }
+            String p = caseSensitive ? pattern : pattern.toLowerCase(Locale.ROOT);
+            if (p.indexOf('*') < 0 && p.indexOf('?') < 0) {
+                literals.add(p);
+            } else if (p.charAt(0) == '*' && p.indexOf('*', 1) < 0 && p.indexOf('?') < 0) {
+                suffixes.add(p.substring(1));
+            } else {
+                if (regex.length() > 0) {
+                    regex.append('|');
+                }
+                regex.append("(?:").append(toRegex(p)).append(')');
+            }
+        }
+        Pattern compiled = regex.length() == 0 ? null : Pattern.compile(regex.toString());
+        return name -> {
+            if (name == null) {
+                return false;
+            }
+            String n = caseSensitive ? name : name.toLowerCase(Locale.ROOT);
+            if (literals.contains(n)) {
+                return true;
+            }
+            for (String suffix : suffixes) {
+                if (n.endsWith(suffix)) {
+                    return true;
+                }
+            }
+            return compiled != null && compiled.matcher(n).matches();
+        };
+    }
+
     /**
      * 单个模式匹配
      */
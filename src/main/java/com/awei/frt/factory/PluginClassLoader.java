@@ -0,0 +1,60 @@
+package com.awei.frt.factory;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * 插件类加载器（每个插件 jar 一个，随插件长期存活）
+ * 子优先：插件自带的类与资源优先从插件 jar 加载，与主程序及其他插件的同名依赖互不干扰；
+ * JDK 与宿主 API（com.awei.frt.*）始终委托父加载器，保证策略接口、节点、上下文类型与主程序一致。
+ */
+final class PluginClassLoader extends URLClassLoader {
+
+    // 始终由父加载器提供的包前缀（宿主 API 与 JDK）
+    private static final String[] PARENT_FIRST = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "com.awei.frt."};
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    PluginClassLoader(URL jar, ClassLoader parent) {
+        super(new URL[]{jar}, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isParentFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> cls = findLoadedClass(name);
+            if (cls == null) {
+                try {
+                    cls = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    // 插件未自带：回退到主程序 classpath
+                    cls = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(cls);
+            }
+            return cls;
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL url = findResource(name);
+        return url != null ? url : super.getResource(name);
+    }
+
+    private static boolean isParentFirst(String name) {
+        for (String prefix : PARENT_FIRST) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
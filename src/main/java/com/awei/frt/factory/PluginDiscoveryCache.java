@@ -0,0 +1,202 @@
+package com.awei.frt.factory;
+
+import com.awei.frt.util.LoggerUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件发现缓存（plugins/.plugin-cache.json）
+ * 按 jar 文件名记录：jar 指纹（size:mtime）→ 发现的策略（实现类名 + 类型 + 说明）。
+ * 指纹未变的 jar 直接按缓存注册，不再打开 jar 扫描、不加载类；策略类在规则首次引用该类型时才加载初始化。
+ * 本次目录中已不存在的 jar 不再写回；写失败（如插件目录只读）只告警，不影响加载。
+ */
+final class PluginDiscoveryCache {
+
+    static final String CACHE_FILE = ".plugin-cache.json";
+    private static final int FORMAT_VERSION = 1;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path file;
+    private final Map<String, JarRecord> previous;                          // 上次缓存（只读）
+    private final Map<String, JarRecord> current = new ConcurrentHashMap<>(); // 本次目录中的 jar
+
+    private PluginDiscoveryCache(Path file, Map<String, JarRecord> previous) {
+        this.file = file;
+        this.previous = previous;
+    }
+
+    /**
+     * 加载插件目录的发现缓存；不存在或损坏时返回空缓存（全部扫描）
+     */
+    static PluginDiscoveryCache load(Path pluginsDir) {
+        Path file = pluginsDir.resolve(CACHE_FILE);
+        if (!Files.isRegularFile(file)) {
+            return new PluginDiscoveryCache(file, Map.of());
+        }
+        try {
+            Manifest manifest = MAPPER.readValue(Files.readString(file, StandardCharsets.UTF_8), Manifest.class);
+            if (manifest.version != FORMAT_VERSION || manifest.jars == null) {
+                return new PluginDiscoveryCache(file, Map.of());
+            }
+            return new PluginDiscoveryCache(file, manifest.jars);
+        } catch (Exception e) {
+            LoggerUtil.logWarn("[插件] 读取插件发现缓存失败，本次全部扫描: " + e.getMessage());
+            return new PluginDiscoveryCache(file, Map.of());
+        }
+    }
+
+    /**
+     * 查询缓存：指纹一致时返回缓存的发现结果（并记入本次缓存），否则返回 null（需要扫描）
+     */
+    List<Discovered> lookup(String jarName, String fingerprint) {
+        JarRecord record = previous.get(jarName);
+        if (record == null || fingerprint == null || !fingerprint.equals(record.fingerprint)
+                || record.strategies == null) {
+            return null;
+        }
+        current.put(jarName, record);
+        return record.strategies;
+    }
+
+    /**
+     * 记录扫描得到的发现结果（无策略的 jar 也记录，避免每次启动重复扫描）
+     */
+    void put(String jarName, String fingerprint, List<Discovered> strategies) {
+        if (fingerprint != null) {
+            current.put(jarName, new JarRecord(fingerprint, strategies));
+        }
+    }
+
+    /**
+     * 与上次缓存不同时保存（原子替换）
+     * @return 是否写入了缓存文件
+     */
+    boolean save() {
+        if (current.equals(previous)) {
+            return false;
+        }
+        try {
+            Manifest manifest = new Manifest();
+            manifest.version = FORMAT_VERSION;
+            manifest.jars = new TreeMap<>(current);
+            Path tmp = file.resolveSibling(CACHE_FILE + ".tmp");
+            Files.writeString(tmp, MAPPER.writeValueAsString(manifest), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } catch (IOException e) {
+            LoggerUtil.logWarn("[插件] 保存插件发现缓存失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * jar 指纹：size:mtime(ms)；读不到属性返回 null（不使用也不写入缓存）
+     */
+    static String fingerprint(Path jar) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(jar, BasicFileAttributes.class);
+            return attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 发现的策略：实现类名 + 策略类型 + 说明（扫描时创建的实例不写入缓存，注册时直接复用）
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Discovered {
+        public String className;
+        public String type;
+        public String description;
+        @JsonIgnore
+        transient Object instance;
+
+        public Discovered() {
+        }
+
+        Discovered(String className, String type, String description, Object instance) {
+            this.className = className;
+            this.type = type;
+            this.description = description;
+            this.instance = instance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Discovered other)) {
+                return false;
+            }
+            return Objects.equals(className, other.className) && Objects.equals(type, other.type)
+                    && Objects.equals(description, other.description);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(className, type, description);
+        }
+    }
+
+    /**
+     * 单个 jar 的缓存记录
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class JarRecord {
+        public String fingerprint;
+        public List<Discovered> strategies;
+
+        public JarRecord() {
+        }
+
+        JarRecord(String fingerprint, List<Discovered> strategies) {
+            this.fingerprint = fingerprint;
+            this.strategies = strategies;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof JarRecord other)) {
+                return false;
+            }
+            return Objects.equals(fingerprint, other.fingerprint) && Objects.equals(strategies, other.strategies);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fingerprint, strategies);
+        }
+    }
+
+    /**
+     * 缓存文件结构
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Manifest {
+        public int version;
+        public Map<String, JarRecord> jars;
+    }
+}
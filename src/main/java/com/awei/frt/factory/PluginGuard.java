@@ -0,0 +1,78 @@
+package com.awei.frt.factory;
+
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.metrics.PluginUsage;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.strategy.decorator.StrategyDecorator;
+import com.awei.frt.model.OperationRecord;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 插件守卫装饰器（紧贴插件策略实例，位于装饰器链最内层）：
+ * 已隔离的插件直接跳过并记失败；否则按 Config.pluginCallBudgetMillis 启动看门狗执行，
+ * 结束后把耗时 / CPU / 分配计入插件（进程级）与本次会话（MetricsRegistry），超出预算即隔离插件。
+ * 插件抛出的异常照常向外传递，由外层异常兜底装饰器记失败。
+ */
+final class PluginGuard extends StrategyDecorator {
+
+    private final PluginHost.Plugin plugin;
+
+    PluginGuard(PluginHost.Plugin plugin, OperationStrategy delegate) {
+        super(delegate);
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(FileNode node, OperationContext context, String[] operationType) {
+        String reason = plugin.quarantineReason();
+        if (reason != null) {
+            skip(node, context, reason);
+            return;
+        }
+        long budgetMillis = context == null ? 0 : context.getConfig().getPluginCallBudgetMillis();
+        PluginHost.Watch watch = budgetMillis > 0 ? PluginHost.watch(plugin, describe(node), budgetMillis) : null;
+        long cpuStart = PluginHost.cpuTime();
+        long allocStart = PluginHost.allocatedBytes();
+        long start = System.nanoTime();
+        try {
+            delegate.execute(node, context, operationType);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            boolean expired = watch != null && watch.finish();
+            long cpu = cpuStart < 0 ? -1 : PluginHost.cpuTime() - cpuStart;
+            long alloc = allocStart < 0 ? -1 : PluginHost.allocatedBytes() - allocStart;
+            plugin.usage.record(elapsed, cpu, alloc);
+            if (context != null) {
+                context.getMetrics().pluginUsage(plugin.name).record(elapsed, cpu, alloc);
+            }
+            if (!expired && budgetMillis > 0 && elapsed > TimeUnit.MILLISECONDS.toNanos(budgetMillis)) {
+                plugin.quarantine(describe(node) + " 耗时 " + TimeUnit.NANOSECONDS.toMillis(elapsed)
+                        + " ms，超过时间预算 " + budgetMillis + " ms");
+            }
+        }
+    }
+
+    /**
+     * 隔离后的调用：不执行插件代码，记一条失败操作记录
+     */
+    private void skip(FileNode node, OperationContext context, String reason) {
+        plugin.usage.recordSkip();
+        if (context == null) {
+            return;
+        }
+        PluginUsage session = context.getMetrics().pluginUsage(plugin.name);
+        session.recordSkip();
+        OperationRecord record = new OperationRecord();
+        record.setStrategyType(delegate.getStrategyType());
+        record.setErrorMessage("插件 " + plugin.name + " 已隔离，跳过: " + (node == null ? "null" : node.getRelativePath())
+                + "（" + reason + "）");
+        record.setSuccess(false);
+        context.recordOperation(record);
+    }
+
+    private String describe(FileNode node) {
+        return delegate.getStrategyType() + "(" + (node == null ? "null" : node.getRelativePath()) + ")";
+    }
+}
@@ -0,0 +1,223 @@
+package com.awei.frt.factory;
+
+import com.awei.frt.core.metrics.PluginUsage;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.util.LoggerUtil;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.MalformedURLException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 插件宿主：管理 plugins/ 中每个插件 jar 的运行环境
+ * <ul>
+ *   <li>隔离：每个插件一个长期存活的子优先类加载器（见 PluginClassLoader），策略实例使用期间不关闭</li>
+ *   <li>记账：插件策略的每次 execute 经守卫层（PluginGuard）统计墙钟耗时、线程 CPU 时间与分配字节，
+ *       进程级累计在此，会话级上报到 MetricsRegistry</li>
+ *   <li>预算：单次 execute 超过 Config.pluginCallBudgetMillis 时由看门狗立即隔离该插件（其全部策略后续调用直接跳过并记失败），
+ *       一个慢插件最多拖慢一次调用。仍在运行的调用不中断：插件可能正经 FileUtil / BackupFileLoader 做 FRT 自己的文件 IO，
+ *       中断会让 FileChannel 抛 ClosedByInterruptException，目标写到一半既不清理也不从备份还原</li>
+ * </ul>
+ * 内置策略与 classpath SPI 策略属于主程序，不经宿主管理。
+ */
+public final class PluginHost {
+
+    private static final Map<String, Plugin> PLUGINS = new ConcurrentHashMap<>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static volatile ScheduledThreadPoolExecutor watchdog;
+
+    private PluginHost() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 为插件 jar 创建运行环境（同名插件重新加载时替换登记，旧环境随其已注册策略继续存活）
+     */
+    static Plugin open(Path jar) throws MalformedURLException {
+        Plugin plugin = new Plugin(jar.getFileName().toString(),
+                new PluginClassLoader(jar.toUri().toURL(), PluginHost.class.getClassLoader()));
+        PLUGINS.put(plugin.name, plugin);
+        return plugin;
+    }
+
+    /**
+     * 丢弃未注册任何策略的插件环境（关闭类加载器）
+     */
+    static void discard(Plugin plugin) {
+        PLUGINS.remove(plugin.name, plugin);
+        try {
+            plugin.classLoader.close();
+        } catch (IOException ignored) {
+            // 关闭失败不影响其他插件
+        }
+    }
+
+    /**
+     * 用守卫层包装插件策略（记账 + 预算 + 隔离）
+     */
+    static OperationStrategy guard(Plugin plugin, OperationStrategy strategy) {
+        return new PluginGuard(plugin, strategy);
+    }
+
+    /**
+     * 已加载的插件（jar 文件名，排序）
+     */
+    public static Set<String> getPlugins() {
+        return new TreeSet<>(PLUGINS.keySet());
+    }
+
+    /**
+     * 插件的进程级资源记账
+     * @return 记账，插件不存在返回 null
+     */
+    public static PluginUsage getUsage(String pluginName) {
+        Plugin plugin = PLUGINS.get(pluginName);
+        return plugin == null ? null : plugin.usage;
+    }
+
+    /**
+     * 插件是否已被隔离
+     */
+    public static boolean isQuarantined(String pluginName) {
+        return getQuarantineReason(pluginName) != null;
+    }
+
+    /**
+     * 插件被隔离的原因
+     * @return 原因，未隔离或插件不存在返回 null
+     */
+    public static String getQuarantineReason(String pluginName) {
+        Plugin plugin = PLUGINS.get(pluginName);
+        return plugin == null ? null : plugin.quarantine.get();
+    }
+
+    /**
+     * 解除隔离（确认插件问题已处理后由操作者调用）
+     * @return 是否确实解除了隔离
+     */
+    public static boolean release(String pluginName) {
+        Plugin plugin = PLUGINS.get(pluginName);
+        if (plugin == null || plugin.quarantine.getAndSet(null) == null) {
+            return false;
+        }
+        LoggerUtil.logInfo("[插件] 已解除隔离: " + pluginName);
+        return true;
+    }
+
+    /**
+     * 当前线程 CPU 时间（纳秒；不支持时返回 -1）
+     */
+    static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * 当前线程累计分配字节（不支持时返回 -1）
+     */
+    static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * 为一次调用启动看门狗：超出预算时隔离插件（不中断调用线程）
+     * @param call 调用描述（隔离原因中使用）
+     */
+    static Watch watch(Plugin plugin, String call, long budgetMillis) {
+        Watch watch = new Watch();
+        watch.future = watchdog().schedule(() -> watch.expire(() -> plugin.quarantine(
+                call + " 执行超过时间预算 " + budgetMillis + " ms")), budgetMillis, TimeUnit.MILLISECONDS);
+        return watch;
+    }
+
+    private static ScheduledThreadPoolExecutor watchdog() {
+        ScheduledThreadPoolExecutor result = watchdog;
+        if (result == null) {
+            synchronized (PluginHost.class) {
+                result = watchdog;
+                if (result == null) {
+                    result = new ScheduledThreadPoolExecutor(1, r -> {
+                        Thread t = new Thread(r, "frt-plugin-watchdog");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    result.setRemoveOnCancelPolicy(true);
+                    watchdog = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 插件运行环境：类加载器 + 进程级记账 + 隔离状态
+     */
+    static final class Plugin {
+        final String name;
+        final PluginClassLoader classLoader;
+        final PluginUsage usage = new PluginUsage();
+        private final AtomicReference<String> quarantine = new AtomicReference<>();
+
+        Plugin(String name, PluginClassLoader classLoader) {
+            this.name = name;
+            this.classLoader = classLoader;
+        }
+
+        /**
+         * 隔离原因（未隔离返回 null）
+         */
+        String quarantineReason() {
+            return quarantine.get();
+        }
+
+        /**
+         * 隔离插件（只在首次隔离时告警）
+         */
+        void quarantine(String reason) {
+            if (quarantine.compareAndSet(null, reason)) {
+                LoggerUtil.logWarn("[插件] 已隔离插件 " + name + ": " + reason + "（其策略后续调用直接跳过）");
+            }
+        }
+    }
+
+    /**
+     * 单次调用的看门狗：完成与超时互斥（同一把锁），只有调用仍在进行时才按超时隔离插件
+     */
+    static final class Watch {
+        private ScheduledFuture<?> future;
+        private boolean done;
+        private boolean expired;
+
+        private synchronized void expire(Runnable onExpire) {
+            if (!done) {
+                expired = true;
+                onExpire.run();
+            }
+        }
+
+        /**
+         * 调用结束（在调用线程上执行）
+         * @return 是否已超时
+         */
+        boolean finish() {
+            future.cancel(false);
+            synchronized (this) {
+                done = true;
+                return expired;
+            }
+        }
+    }
+}
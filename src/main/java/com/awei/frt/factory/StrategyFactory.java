@@ -3,12 +3,13 @@ package com.awei.frt.factory;
 import com.awei.frt.core.strategy.FileSameNameStrategy;
 import com.awei.frt.core.strategy.McModStrategy;
 import com.awei.frt.core.strategy.OperationStrategy;
-import com.awei.frt.core.strategy.StrategyProxy;
+import com.awei.frt.core.strategy.ParamSchema;
 import com.awei.frt.core.strategy.ZipEntryContentStrategy;
 import com.awei.frt.core.strategy.ZipEntryNameStrategy;
+import com.awei.frt.core.strategy.decorator.DecoratorChain;
+import com.awei.frt.model.MatchRule;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -18,16 +19,21 @@ import java.util.function.Supplier;
  * 策略工厂（注册表模式）
  * 取代旧版 StrategyType 枚举 + switch：每个策略类自己声明 getStrategyType()，
  * 工厂以 类型 -> 供应商(Supplier) 注册表登记，新增策略无需改动工厂代码
- * （外部策略动态加载也通过 register 接入，见 StrategyLoader）。
+ * （外部策略动态加载也通过 register 接入，见 StrategyLoader；插件按需惰性加载，见 ensureExternalLoaded）。
+ * <p>
+ * 并发模型（写时复制）：注册表是不可变快照，register 时复制出新快照整体替换（volatile 发布），
+ * 读路径（isSupported / createStrategy / resolve）无锁；策略实例按条目惰性创建并缓存。
+ * 热路径（FolderNode / FileLeaf 逐节点执行策略链）用 resolve(step) 直接取规则步骤上缓存的实例，
+ * 只比较一次注册表版本号，不再查表。
+ * <p>
+ * 横切逻辑（日志 / 计时 / 异常兜底）由装饰器链显式包装（见 DecoratorChain），
+ * 默认链作用于所有类型，可按策略类型单独配置（setDecoratorChain）。
  */
 public class StrategyFactory {
 
-    // 策略注册表：类型 -> 供应商（保持注册顺序，便于菜单展示）
-    private static final Map<String, Supplier<OperationStrategy>> REGISTRY = new LinkedHashMap<>();
-    // 策略说明（菜单/向导展示用）
-    private static final Map<String, String> DESCRIPTIONS = new LinkedHashMap<>();
-    // 策略实例缓存（策略为无状态单例）
-    private static final Map<String, OperationStrategy> INSTANCE_CACHE = new HashMap<>();
+    // 当前注册表快照（不可变，register 时整体替换）
+    private static volatile Registry registry =
+            new Registry(Collections.emptyMap(), Collections.emptyMap(), DecoratorChain.DEFAULT, 0);
 
     // 内置策略注册（可被 register 覆盖；外部策略不得覆盖内置类型，见 StrategyLoader）
     static {
@@ -35,16 +41,22 @@ public class StrategyFactory {
         register("McMod", McModStrategy::new, "Minecraft 模组策略（按 modId 匹配 jar）");
         register("ZipEntryName", ZipEntryNameStrategy::new, "压缩包内文件名匹配策略（zip/jar 内部条目名，支持通配符）");
         register("ZipEntryContent", ZipEntryContentStrategy::new, "压缩包内文件内容匹配策略（读取 zip/jar 条目文本，contentContains 参数）");
-        // 动态加载外部策略插件（plugins/ 目录 + classpath SPI，见 StrategyLoader）
-        StrategyLoader.loadExternalStrategies();
     }
 
+    // 外部策略插件（plugins/ 目录 + classpath SPI）是否已加载完成：惰性加载，见 ensureExternalLoaded
+    private static volatile boolean externalLoaded;
+    // 正在执行插件加载的线程（受 StrategyFactory.class 监视器保护；null 表示未在加载）
+    private static Thread loadingThread;
+    // 外部插件加载动作（测试可替换，见 setExternalLoaderForTesting）
+    private static Runnable externalLoader = StrategyLoader::loadExternalStrategies;
+
     private StrategyFactory() {
         throw new UnsupportedOperationException("Utility class");
     }
 
     /**
      * 注册策略类型（供内置注册与外部插件加载调用）
+     * 写操作串行化（仅注册期，次数极少），复制当前快照后替换，读方不受影响。
      * @param type        策略类型标识（规则文件 strategyType 字段）
      * @param supplier    策略实例供应商
      * @param description 中文说明（可空）
@@ -56,33 +68,131 @@ public class StrategyFactory {
         if (supplier == null) {
             throw new IllegalArgumentException("策略供应商不能为空");
         }
-        REGISTRY.put(type, supplier);
-        if (description != null && !description.isBlank()) {
-            DESCRIPTIONS.put(type, description);
+        Registry current = registry;
+        Map<String, Entry> entries = new LinkedHashMap<>(current.entries);
+        String desc = description != null && !description.isBlank() ? description
+                : (entries.containsKey(type) ? entries.get(type).description : "");
+        // 重新注册：新条目替换旧条目，旧缓存实例随旧条目一起失效
+        entries.put(type, new Entry(supplier, desc, current.chainFor(type)));
+        registry = current.with(entries, current.chains, current.defaultChain);
+    }
+
+    /**
+     * 为指定策略类型配置装饰器链（覆盖默认链；传 null 恢复默认链）
+     * 配置变化后该类型的缓存实例失效，下次获取时按新链重新包装。
+     * @param type  策略类型
+     * @param chain 装饰器链（DecoratorChain.NONE 表示不包装）
+     */
+    public static synchronized void setDecoratorChain(String type, DecoratorChain chain) {
+        if (type == null || type.isBlank()) {
+            throw new IllegalArgumentException("策略类型不能为空");
+        }
+        Registry current = registry;
+        Map<String, DecoratorChain> chains = new LinkedHashMap<>(current.chains);
+        if (chain == null) {
+            chains.remove(type);
+        } else {
+            chains.put(type, chain);
         }
-        // 重新注册后失效旧缓存
-        INSTANCE_CACHE.remove(type);
+        Map<String, Entry> entries = new LinkedHashMap<>(current.entries);
+        Entry old = entries.get(type);
+        if (old != null) {
+            entries.put(type, new Entry(old.supplier, old.description,
+                    chain != null ? chain : current.defaultChain));
+        }
+        registry = current.with(entries, chains, current.defaultChain);
+    }
+
+    /**
+     * 配置默认装饰器链（作用于所有未单独配置的策略类型）
+     * @param chain 装饰器链（null 恢复内置默认链）
+     */
+    public static synchronized void setDefaultDecoratorChain(DecoratorChain chain) {
+        DecoratorChain defaultChain = chain != null ? chain : DecoratorChain.DEFAULT;
+        Registry current = registry;
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> e : current.entries.entrySet()) {
+            Entry old = e.getValue();
+            DecoratorChain own = current.chains.get(e.getKey());
+            entries.put(e.getKey(), new Entry(old.supplier, old.description, own != null ? own : defaultChain));
+        }
+        registry = current.with(entries, current.chains, defaultChain);
     }
 
     /**
-     * 策略类型是否已注册
+     * 确保外部策略插件已加载（只加载一次）
+     * 插件扫描（plugins/ 目录 jar + classpath SPI）较慢，启动时不再执行：
+     * 内置类型命中时完全不触发，只有查询到未知类型或需要列出全部类型时才加载。
+     * 加载期间持有监视器，其他线程在此阻塞直到加载完成后再查表，不会漏掉插件类型；
+     * 加载线程自身的重入调用（插件注册时的查询）按 loadingThread 识别后直接返回。
+     * 加载完成（含失败）后才发布 externalLoaded。
+     */
+    public static void ensureExternalLoaded() {
+        if (externalLoaded) {
+            return;
+        }
+        synchronized (StrategyFactory.class) {
+            if (externalLoaded || loadingThread == Thread.currentThread()) {
+                return;
+            }
+            loadingThread = Thread.currentThread();
+            try {
+                externalLoader.run();
+            } finally {
+                loadingThread = null;
+                externalLoaded = true;
+            }
+        }
+    }
+
+    /**
+     * 测试用：替换外部插件加载动作并重置为未加载状态（传 null 恢复默认加载）
+     * 仅测试代码调用；生产流程不要使用
+     */
+    public static synchronized void setExternalLoaderForTesting(Runnable loader) {
+        externalLoader = loader != null ? loader : StrategyLoader::loadExternalStrategies;
+        externalLoaded = false;
+    }
+
+    /**
+     * 策略类型是否已注册（内置未命中时先加载外部插件再判断）
      */
     public static boolean isSupported(String type) {
-        return type != null && REGISTRY.containsKey(type);
+        return type != null && lookup(type) != null;
     }
 
     /**
-     * 获取所有已注册的策略类型（不可修改视图）
+     * 当前注册表中是否已有该类型（不触发插件加载，供 StrategyLoader 冲突检查）
+     */
+    static boolean isRegistered(String type) {
+        return type != null && registry.entries.containsKey(type);
+    }
+
+    /**
+     * 获取所有已注册的策略类型（不可修改视图，注册顺序；含外部插件）
      */
     public static Set<String> getSupportedTypes() {
-        return Collections.unmodifiableSet(REGISTRY.keySet());
+        ensureExternalLoaded();
+        return registry.entries.keySet();
     }
 
     /**
      * 获取策略说明
      */
     public static String getDescription(String type) {
-        return DESCRIPTIONS.getOrDefault(type, "");
+        Entry entry = type == null ? null : lookup(type);
+        return entry != null ? entry.description : "";
+    }
+
+    /**
+     * 获取策略的参数类型声明
+     * @param type 策略类型
+     * @return 参数声明（策略未声明时为 ParamSchema.NONE）
+     * @throws IllegalArgumentException 策略类型未注册
+     */
+    public static ParamSchema getParamSchema(String type) {
+        ParamSchema schema = createStrategy(type).getParamSchema();
+        return schema == null ? ParamSchema.NONE : schema;
     }
 
     /**
@@ -90,12 +200,103 @@ public class StrategyFactory {
      * @param type 策略类型（规则文件中的 strategyType）
      * @return 策略实例（无状态单例）
      */
-    public static synchronized OperationStrategy createStrategy(String type) {
-        Supplier<OperationStrategy> supplier = REGISTRY.get(type);
-        if (supplier == null) {
+    public static OperationStrategy createStrategy(String type) {
+        Entry entry = type == null ? null : lookup(type);
+        if (entry == null) {
             throw new IllegalArgumentException("不支持的匹配策略类型: " + type);
         }
-        // 统一包一层动态代理：日志 / 异常兜底 / 统计（见 StrategyProxy）
-        return INSTANCE_CACHE.computeIfAbsent(type, k -> StrategyProxy.wrap(supplier.get()));
+        return entry.instance();
+    }
+
+    /**
+     * 查找注册条目：当前快照未命中且外部插件尚未加载时，加载后再查一次
+     */
+    private static Entry lookup(String type) {
+        Entry entry = registry.entries.get(type);
+        if (entry == null && !externalLoaded) {
+            ensureExternalLoaded();
+            entry = registry.entries.get(type);
+        }
+        return entry;
+    }
+
+    /**
+     * 解析规则步骤对应的策略实例（执行热路径专用）。
+     * 首次解析后实例缓存在步骤对象上，之后仅校验注册表版本号：
+     * 注册表未变化时直接返回缓存实例，无查表、无锁；重新注册过则重新解析。
+     * @param step 策略步骤（MatchRule.getEffectiveStrategies() 中的元素）
+     * @return 策略实例
+     * @throws IllegalArgumentException 策略类型未注册
+     */
+    public static OperationStrategy resolve(MatchRule step) {
+        Registry current = registry;
+        OperationStrategy cached = step.getCachedStrategy(current.version);
+        if (cached != null) {
+            return cached;
+        }
+        OperationStrategy strategy = createStrategy(step.getStrategyType());
+        step.cacheStrategy(strategy, current.version);
+        return strategy;
+    }
+
+    /**
+     * 注册表快照（不可变）：条目表 + 装饰器链配置 + 版本号（每次变更递增，用于失效步骤上的缓存）
+     */
+    private static final class Registry {
+        final Map<String, Entry> entries;
+        final Map<String, DecoratorChain> chains; // 按类型单独配置的装饰器链
+        final DecoratorChain defaultChain;        // 默认装饰器链
+        final int version;
+
+        Registry(Map<String, Entry> entries, Map<String, DecoratorChain> chains,
+                 DecoratorChain defaultChain, int version) {
+            this.entries = entries;
+            this.chains = chains;
+            this.defaultChain = defaultChain;
+            this.version = version;
+        }
+
+        DecoratorChain chainFor(String type) {
+            DecoratorChain own = chains.get(type);
+            return own != null ? own : defaultChain;
+        }
+
+        Registry with(Map<String, Entry> newEntries, Map<String, DecoratorChain> newChains,
+                      DecoratorChain newDefault) {
+            return new Registry(Collections.unmodifiableMap(newEntries), Collections.unmodifiableMap(newChains),
+                    newDefault, version + 1);
+        }
+    }
+
+    /**
+     * 注册条目：供应商 + 说明 + 装饰器链 + 惰性创建的单例实例
+     */
+    private static final class Entry {
+        final Supplier<OperationStrategy> supplier;
+        final String description;
+        final DecoratorChain chain;
+        private volatile OperationStrategy instance; // 惰性创建，创建后只读
+
+        Entry(Supplier<OperationStrategy> supplier, String description, DecoratorChain chain) {
+            this.supplier = supplier;
+            this.description = description;
+            this.chain = chain;
+        }
+
+        OperationStrategy instance() {
+            OperationStrategy result = instance;
+            if (result == null) {
+                // 仅首次创建时按条目加锁（双重检查），与其他类型互不影响
+                synchronized (this) {
+                    result = instance;
+                    if (result == null) {
+                        // 按装饰器链包装：异常兜底 / 计时 / 日志（见 DecoratorChain）
+                        result = chain.apply(supplier.get());
+                        instance = result;
+                    }
+                }
+            }
+            return result;
+        }
     }
 }
@@ -3,16 +3,24 @@ package com.awei.frt.factory;
 import com.awei.frt.core.strategy.OperationStrategy;
 import com.awei.frt.util.LoggerUtil;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.Modifier;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -23,6 +31,9 @@ import java.util.zip.ZipFile;
  * 1. 插件目录扫描：工作目录下 plugins/ 中每个 .jar 视为一个策略插件
  *    - 优先读取 jar 内 META-INF/services/com.awei.frt.core.strategy.OperationStrategy（标准 SPI）
  *    - 未提供 services 文件时自动扫描 jar 内实现 OperationStrategy 的具体类（有公开无参构造即可）
+ *    - 发现结果按 jar 指纹缓存在插件目录（见 PluginDiscoveryCache）：未变化的 jar 不再打开扫描，
+ *      策略类在规则首次引用该类型时才加载初始化；未命中缓存的 jar 并行扫描，注册按文件名顺序进行
+ *    - 每个插件由 PluginHost 提供隔离的类加载器、资源记账与单次执行时间预算（超预算的插件被隔离）
  * 2. classpath SPI：应用 classpath 上的 META-INF/services 描述符（适合与主程序同 classpath 部署）
  *
  * 加载到的策略通过 StrategyFactory.register 注册；类型与内置/已有策略冲突时跳过并告警。
@@ -31,6 +42,7 @@ import java.util.zip.ZipFile;
 public final class StrategyLoader {
 
     private static final String SERVICE_FILE = "META-INF/services/" + OperationStrategy.class.getName();
+    private static final int MAX_SCAN_THREADS = 4;
 
     private StrategyLoader() {
         throw new UnsupportedOperationException("Utility class");
@@ -38,14 +50,14 @@ public final class StrategyLoader {
 
     /**
      * 加载外部策略（默认插件目录：工作目录下 plugins/）
-     * 由 StrategyFactory 静态初始化时调用一次
+     * 由 StrategyFactory.ensureExternalLoaded 按需调用一次
      */
     public static void loadExternalStrategies() {
         loadExternalStrategies(Path.of("plugins"));
     }
 
     /**
-     * 加载外部策略：classpath SPI + 指定插件目录扫描
+     * 加载外部策略：classpath SPI + 指定插件目录扫描（使用插件目录的发现缓存）
      * @param pluginsDir 插件目录（不存在则跳过）
      */
     public static void loadExternalStrategies(Path pluginsDir) {
@@ -61,9 +73,10 @@ public final class StrategyLoader {
             LoggerUtil.logException("扫描插件目录失败: " + pluginsDir, e);
             return;
         }
-        for (Path jar : jars) {
-            loadPluginJar(jar);
-        }
+        jars.sort(Comparator.comparing(jar -> jar.getFileName().toString()));
+        PluginDiscoveryCache cache = PluginDiscoveryCache.load(pluginsDir);
+        loadPluginJars(jars, cache);
+        cache.save();
     }
 
     /**
@@ -81,85 +94,215 @@ public final class StrategyLoader {
     }
 
     /**
-     * 加载单个插件 jar
+     * 加载单个插件 jar（不使用发现缓存，总是扫描）
      * @param jar 插件 jar 路径
      */
     public static void loadPluginJar(Path jar) {
         if (jar == null || !Files.isRegularFile(jar)) {
             return;
         }
-        try (URLClassLoader cl = new URLClassLoader(
-                new URL[]{jar.toUri().toURL()}, StrategyLoader.class.getClassLoader())) {
-            int loaded = 0;
-            String jarName = jar.getFileName().toString();
-
-            // 方式A：标准 SPI（仅当 jar 自身含 META-INF/services 描述符；
-            // 注意 ServiceLoader 会继承父 classpath 的 provider，必须按"实际注册成功"计数）
-            if (hasEntry(jar, SERVICE_FILE)) {
-                ServiceLoader<OperationStrategy> loader = ServiceLoader.load(OperationStrategy.class, cl);
-                for (OperationStrategy strategy : loader) {
-                    if (registerExternal(strategy, jarName)) {
-                        loaded++;
-                    }
-                }
+        loadPluginJars(List.of(jar), null);
+    }
+
+    /**
+     * 加载一组插件 jar：命中缓存的直接取发现结果，其余并行扫描；全部发现完成后按顺序注册
+     * @param cache 发现缓存（null 不使用缓存）
+     */
+    private static void loadPluginJars(List<Path> jars, PluginDiscoveryCache cache) {
+        List<PluginJar> plugins = new ArrayList<>();
+        List<PluginJar> uncached = new ArrayList<>();
+        for (Path jar : jars) {
+            PluginJar plugin;
+            try {
+                plugin = new PluginJar(jar);
+            } catch (IOException e) {
+                LoggerUtil.logException("加载策略插件失败: " + jar.getFileName(), e);
+                continue;
             }
+            plugins.add(plugin);
+            plugin.discovered = cache == null ? null : cache.lookup(plugin.name, plugin.fingerprint);
+            if (plugin.discovered == null) {
+                uncached.add(plugin);
+            }
+        }
+        scanInParallel(uncached);
+        for (PluginJar plugin : plugins) {
+            if (plugin.discovered == null) {
+                plugin.close(); // 扫描失败（已记录日志）
+                continue;
+            }
+            boolean scanned = uncached.contains(plugin);
+            if (cache != null && scanned) {
+                cache.put(plugin.name, plugin.fingerprint, plugin.discovered);
+            }
+            register(plugin, !scanned);
+        }
+    }
 
-            // 方式B：自动扫描 jar 内实现 OperationStrategy 的具体类（无 services 文件时的兜底方式）
-            if (loaded == 0) {
-                loaded = scanJarForStrategies(jar, cl);
+    /**
+     * 并行扫描未命中缓存的 jar（各 jar 互不依赖；插件类加载器支持并行加载类）
+     */
+    private static void scanInParallel(List<PluginJar> plugins) {
+        if (plugins.size() <= 1) {
+            plugins.forEach(StrategyLoader::scan);
+            return;
+        }
+        int parallelism = Math.min(plugins.size(),
+                Math.min(MAX_SCAN_THREADS, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "frt-plugin-scan-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (PluginJar plugin : plugins) {
+                futures.add(executor.submit(() -> scan(plugin)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LoggerUtil.logException("扫描策略插件失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            if (loaded == 0) {
-                LoggerUtil.logWarn("[插件] 未在插件中找到策略实现: " + jar.getFileName());
-            } else {
-                LoggerUtil.logInfo("[插件] 已加载策略插件: " + jar.getFileName() + "（" + loaded + " 个策略）");
+    /**
+     * 扫描单个 jar（只打开一次）：有 services 描述符时只检查其中声明的类，否则（或声明的类都无效时）
+     * 检查 jar 内全部类。扫描需要创建实例以取得策略类型，实例随发现结果保留供注册复用。
+     */
+    private static void scan(PluginJar plugin) {
+        try (ZipFile zip = new ZipFile(plugin.jar.toFile())) {
+            List<PluginDiscoveryCache.Discovered> found = new ArrayList<>();
+            ZipEntry services = zip.getEntry(SERVICE_FILE);
+            if (services != null) {
+                for (String className : readServiceFile(zip, services)) {
+                    discover(plugin, className, found);
+                }
+            }
+            if (found.isEmpty()) {
+                java.util.Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (!name.endsWith(".class") || name.startsWith("META-INF/") || name.equals("module-info.class")) {
+                        continue;
+                    }
+                    discover(plugin, name.substring(0, name.length() - 6).replace('/', '.'), found);
+                }
             }
+            plugin.discovered = found;
         } catch (Throwable t) {
-            LoggerUtil.logException("加载策略插件失败: " + jar.getFileName(), t);
+            LoggerUtil.logException("加载策略插件失败: " + plugin.name, t);
         }
     }
 
     /**
-     * jar 内是否包含指定条目
+     * services 描述符中声明的实现类名（忽略空行与 # 注释）
      */
-    private static boolean hasEntry(Path jar, String entryName) {
-        try (ZipFile zip = new ZipFile(jar.toFile())) {
-            return zip.getEntry(entryName) != null;
-        } catch (IOException e) {
-            return false;
+    private static List<String> readServiceFile(ZipFile zip, ZipEntry entry) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String name = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
         }
+        return names;
     }
 
     /**
-     * 自动扫描 jar 内的策略实现类（无 services 文件时的兜底方式）
+     * 检查一个类：是 jar 自身实现 OperationStrategy 的具体类时创建实例并记入发现结果
      */
-    private static int scanJarForStrategies(Path jar, URLClassLoader cl) throws IOException {
+    private static void discover(PluginJar plugin, String className, List<PluginDiscoveryCache.Discovered> found) {
+        try {
+            Class<?> cls = Class.forName(className, false, plugin.host.classLoader);
+            if (cls.getClassLoader() != plugin.host.classLoader
+                    || !OperationStrategy.class.isAssignableFrom(cls)
+                    || cls.isInterface()
+                    || cls.isEnum()
+                    || Modifier.isAbstract(cls.getModifiers())) {
+                return;
+            }
+            OperationStrategy instance = (OperationStrategy) cls.getDeclaredConstructor().newInstance();
+            found.add(new PluginDiscoveryCache.Discovered(className, instance.getStrategyType(),
+                    instance.getDescription(), instance));
+        } catch (Throwable ignored) {
+            // 单个类解析失败不影响其他类（可能是不相关的依赖类）
+        }
+    }
+
+    /**
+     * 注册单个 jar 的发现结果：扫描得到的复用已创建实例；缓存得到的只登记供应商，首次使用时才加载类。
+     * 插件策略都经 PluginHost 守卫层包装（记账 + 时间预算 + 隔离）
+     */
+    private static void register(PluginJar plugin, boolean fromCache) {
         int loaded = 0;
-        try (ZipFile zip = new ZipFile(jar.toFile())) {
-            java.util.Enumeration<? extends ZipEntry> entries = zip.entries();
-            while (entries.hasMoreElements()) {
-                ZipEntry entry = entries.nextElement();
-                String name = entry.getName();
-                if (!name.endsWith(".class") || name.startsWith("META-INF/")) {
-                    continue;
-                }
-                String className = name.substring(0, name.length() - 6).replace('/', '.');
-                try {
-                    Class<?> cls = Class.forName(className, false, cl);
-                    if (OperationStrategy.class.isAssignableFrom(cls)
-                            && !cls.isInterface()
-                            && !cls.isEnum()
-                            && !Modifier.isAbstract(cls.getModifiers())) {
-                        Object instance = cls.getDeclaredConstructor().newInstance();
-                        registerExternal((OperationStrategy) instance, jar.getFileName().toString());
-                        loaded++;
-                    }
-                } catch (Throwable ignored) {
-                    // 单个类解析失败不影响其他类（可能是不相关的依赖类）
-                }
+        for (PluginDiscoveryCache.Discovered d : plugin.discovered) {
+            Supplier<OperationStrategy> supplier = d.instance != null
+                    ? singleton(PluginHost.guard(plugin.host, (OperationStrategy) d.instance))
+                    : () -> PluginHost.guard(plugin.host, instantiate(plugin, d.className));
+            if (registerExternal(d.type, supplier, d.description, plugin.name)) {
+                loaded++;
+            }
+        }
+        if (loaded == 0) {
+            plugin.close();
+            if (plugin.discovered.isEmpty()) {
+                LoggerUtil.logWarn("[插件] 未在插件中找到策略实现: " + plugin.name);
             }
+        } else {
+            // 类加载器保持打开：缓存注册的策略类在首次使用时才从 jar 加载
+            LoggerUtil.logInfo("[插件] 已加载策略插件: " + plugin.name + "（" + loaded + " 个策略"
+                    + (fromCache ? "，来自发现缓存" : "") + "）");
+        }
+    }
+
+    private static Supplier<OperationStrategy> singleton(OperationStrategy strategy) {
+        return () -> strategy;
+    }
+
+    /**
+     * 按缓存的类名加载并创建策略实例（规则首次引用该类型时调用）
+     */
+    private static OperationStrategy instantiate(PluginJar plugin, String className) {
+        try {
+            Class<?> cls = Class.forName(className, true, plugin.host.classLoader);
+            return (OperationStrategy) cls.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            throw new IllegalStateException("加载插件策略失败: " + className + "（来自 " + plugin.name + "）", e);
+        }
+    }
+
+    /**
+     * 插件 jar：文件信息 + 宿主运行环境 + 发现结果
+     */
+    private static final class PluginJar {
+        final Path jar;
+        final String name;
+        final String fingerprint;
+        final PluginHost.Plugin host;
+        volatile List<PluginDiscoveryCache.Discovered> discovered;
+
+        PluginJar(Path jar) throws IOException {
+            this.jar = jar;
+            this.name = jar.getFileName().toString();
+            this.fingerprint = PluginDiscoveryCache.fingerprint(jar);
+            this.host = PluginHost.open(jar);
+        }
+
+        void close() {
+            PluginHost.discard(host);
         }
-        return loaded;
     }
 
     /**
@@ -168,21 +311,29 @@ public final class StrategyLoader {
      */
     private static boolean registerExternal(OperationStrategy strategy, String source) {
         try {
-            String type = strategy.getStrategyType();
-            if (type == null || type.isBlank()) {
-                LoggerUtil.logWarn("[插件] 忽略未声明策略类型的实现: " + strategy.getClass().getName() + "（来自 " + source + "）");
-                return false;
-            }
-            if (StrategyFactory.isSupported(type)) {
-                LoggerUtil.logWarn("[插件] 策略类型已存在，跳过外部覆盖: " + type + "（来自 " + source + "）");
-                return false;
-            }
-            StrategyFactory.register(type, () -> strategy, strategy.getDescription());
-            LoggerUtil.logInfo("[插件] 注册外部策略: " + type + "（来自 " + source + "）");
-            return true;
+            return registerExternal(strategy.getStrategyType(), singleton(strategy), strategy.getDescription(), source);
         } catch (Throwable t) {
             LoggerUtil.logException("注册外部策略失败: " + source, t);
             return false;
         }
     }
+
+    /**
+     * 注册外部策略（按类型 + 供应商；类型冲突时跳过）
+     * @return 是否实际注册成功
+     */
+    private static boolean registerExternal(String type, Supplier<OperationStrategy> supplier,
+                                            String description, String source) {
+        if (type == null || type.isBlank()) {
+            LoggerUtil.logWarn("[插件] 忽略未声明策略类型的实现（来自 " + source + "）");
+            return false;
+        }
+        if (StrategyFactory.isRegistered(type)) {
+            LoggerUtil.logWarn("[插件] 策略类型已存在，跳过外部覆盖: " + type + "（来自 " + source + "）");
+            return false;
+        }
+        StrategyFactory.register(type, supplier, description);
+        LoggerUtil.logInfo("[插件] 注册外部策略: " + type + "（来自 " + source + "）");
+        return true;
+    }
 }
@@ -25,6 +25,12 @@ public class Config implements Serializable {
     private Path deletePath;         // 删除文件目录（相对路径，默认：delete）
     private Path backupPath;         // 备份目录（相对路径，默认：backup）
     private String logLevel;         // 日志级别（默认：INFO）
+    private boolean incrementalUpdate; // 增量更新：只处理自上次成功更新以来源/目标/规则有变化的节点（默认：false）
+    private boolean transactionalUpdate; // 事务化更新：新内容先暂存，全部就绪后统一原子移动到位（默认：false）
+    private long pluginCallBudgetMillis; // 插件策略单次执行的时间预算（毫秒，超出即隔离该插件；0 不限，默认：30000）
+    private int retainSessions;      // 备份保留：保留最近 N 次会话（0 不按次数保留，默认：0）
+    private int retainDailyDays;     // 备份保留：最近 D 天每天保留当天最后一次会话（0 不按天保留，默认：0）
+    private long maxBackupMegabytes; // 备份保留：备份目录总大小上限（MB，超出从最旧会话起清理；0 不限，默认：0）
 
     public Config() {
         this.baseDirectory = Path.of(".").normalize().toAbsolutePath();
@@ -33,6 +39,7 @@ public class Config implements Serializable {
         this.deletePath = Path.of("delete");
         this.backupPath = Path.of("backup");
         this.logLevel = "INFO";
+        this.pluginCallBudgetMillis = 30_000;
     }
 
     /**
@@ -191,6 +198,82 @@ public class Config implements Serializable {
         this.logLevel = logLevel;
     }
 
+    public boolean isIncrementalUpdate() {
+        return incrementalUpdate;
+    }
+
+    public void setIncrementalUpdate(boolean incrementalUpdate) {
+        this.incrementalUpdate = incrementalUpdate;
+    }
+
+    public boolean isTransactionalUpdate() {
+        return transactionalUpdate;
+    }
+
+    public void setTransactionalUpdate(boolean transactionalUpdate) {
+        this.transactionalUpdate = transactionalUpdate;
+    }
+
+    public int getRetainSessions() {
+        return retainSessions;
+    }
+
+    public void setRetainSessions(int retainSessions) {
+        this.retainSessions = Math.max(0, retainSessions);
+    }
+
+    public int getRetainDailyDays() {
+        return retainDailyDays;
+    }
+
+    public void setRetainDailyDays(int retainDailyDays) {
+        this.retainDailyDays = Math.max(0, retainDailyDays);
+    }
+
+    public long getMaxBackupMegabytes() {
+        return maxBackupMegabytes;
+    }
+
+    public void setMaxBackupMegabytes(long maxBackupMegabytes) {
+        this.maxBackupMegabytes = Math.max(0, maxBackupMegabytes);
+    }
+
+    /**
+     * 是否配置了任一备份保留策略（全部为 0 时备份永久保留）
+     */
+    @JsonIgnore
+    public boolean isRetentionEnabled() {
+        return retainSessions > 0 || retainDailyDays > 0 || maxBackupMegabytes > 0;
+    }
+
+    public long getPluginCallBudgetMillis() {
+        return pluginCallBudgetMillis;
+    }
+
+    public void setPluginCallBudgetMillis(long pluginCallBudgetMillis) {
+        this.pluginCallBudgetMillis = Math.max(0, pluginCallBudgetMillis);
+    }
+
+    /**
+     * 复制一份配置（命令行覆盖项 / 多目标分发按目标改写目录时使用，不修改全局配置单例）
+     */
+    public Config copy() {
+        Config copy = new Config();
+        copy.baseDirectory = baseDirectory;
+        copy.updatePath = updatePath;
+        copy.targetPath = targetPath;
+        copy.deletePath = deletePath;
+        copy.backupPath = backupPath;
+        copy.logLevel = logLevel;
+        copy.incrementalUpdate = incrementalUpdate;
+        copy.transactionalUpdate = transactionalUpdate;
+        copy.pluginCallBudgetMillis = pluginCallBudgetMillis;
+        copy.retainSessions = retainSessions;
+        copy.retainDailyDays = retainDailyDays;
+        copy.maxBackupMegabytes = maxBackupMegabytes;
+        return copy;
+    }
+
     @Override
     public String toString() {
         return "Config{" +
@@ -199,6 +282,12 @@ public class Config implements Serializable {
                 ", targetPath=" + targetPath +
                 ", backupPath=" + backupPath +
                 ", logLevel='" + logLevel + '\'' +
+                ", incrementalUpdate=" + incrementalUpdate +
+                ", transactionalUpdate=" + transactionalUpdate +
+                ", pluginCallBudgetMillis=" + pluginCallBudgetMillis +
+                ", retainSessions=" + retainSessions +
+                ", retainDailyDays=" + retainDailyDays +
+                ", maxBackupMegabytes=" + maxBackupMegabytes +
                 '}';
     }
 
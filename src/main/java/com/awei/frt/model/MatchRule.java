@@ -3,11 +3,16 @@ package com.awei.frt.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.uitls.GlobMatcher;
+
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 /**
@@ -25,6 +30,22 @@ public class MatchRule {
     private boolean inheritToSubfolders;        // 是否应用到子文件夹（子文件夹无规则才会生效，默认false）
     private transient Path path;                         // 文件位置
 
+    // ---- 运行时缓存（transient，不参与序列化/拷贝；规则对象在单次处理内线程封闭） ----
+    private transient List<MatchRule> effectiveStrategies;   // getEffectiveStrategies() 结果缓存
+    private transient String effectiveForType;                // 缓存计算时的主策略类型（变化即失效）
+    private transient List<StrategyStep> effectiveForChain;   // 缓存计算时的策略链引用
+    private transient int effectiveForChainSize;              // 缓存计算时的策略链长度
+    private transient OperationStrategy resolvedStrategy;     // 已解析的策略实例（见 StrategyFactory.resolve）
+    private transient int resolvedVersion = -1;               // 解析时的策略注册表版本号
+    private transient Predicate<String> nameFilter;           // getNameFilter() 编译结果缓存
+    private transient List<String> nameFilterForPatterns;     // 缓存计算时的匹配列表引用
+    private transient List<String> nameFilterForExcludes;     // 缓存计算时的排除列表引用
+    private transient int nameFilterForSize = -1;             // 缓存计算时两个列表的总长度
+    private transient boolean nameFilterCaseSensitive;        // 缓存计算时是否区分大小写
+    private transient RuleParams params;                      // getParams() 结果缓存
+    private transient Map<String, String> paramsFor;          // 缓存计算时的参数表引用
+    private transient int paramsForSize = -1;                 // 缓存计算时的参数个数
+
     public MatchRule() {
         this.replacements = new LinkedHashMap<>();
         this.patterns = new ArrayList<>();
@@ -54,6 +75,9 @@ public class MatchRule {
         copy.patterns = this.patterns != null ? new ArrayList<>(this.patterns) : new ArrayList<>();
         copy.excludePatterns = this.excludePatterns != null ? new ArrayList<>(this.excludePatterns) : new ArrayList<>();
         copy.inheritToSubfolders = this.inheritToSubfolders;
+        if (this.params != null && this.paramsFor == this.replacements) {
+            copy.setParams(this.params); // 参数内容相同：沿用已编译的参数
+        }
         if (this.strategyChain != null) {
             copy.strategyChain = new ArrayList<>();
             for (StrategyStep step : this.strategyChain) {
@@ -70,6 +94,7 @@ public class MatchRule {
 
     public void setStrategyType(String strategyType) {
         this.strategyType = strategyType;
+        this.resolvedVersion = -1; // 类型变化：已解析的策略实例失效
     }
 
     public Map<String, String> getReplacements() {
@@ -115,6 +140,12 @@ public class MatchRule {
      */
     @JsonIgnore
     public List<MatchRule> getEffectiveStrategies() {
+        // 热路径（每个文件节点都会调用）：结果缓存复用，主策略类型/策略链变化时重新计算
+        List<MatchRule> cached = effectiveStrategies;
+        if (cached != null && effectiveForType == strategyType && effectiveForChain == strategyChain
+                && (strategyChain == null || effectiveForChainSize == strategyChain.size())) {
+            return cached;
+        }
         List<MatchRule> steps = new ArrayList<>();
         if (strategyType != null && !strategyType.isBlank()) {
             steps.add(this);
@@ -127,7 +158,28 @@ public class MatchRule {
                 steps.add(step.toMatchRule());
             }
         }
-        return steps;
+        effectiveStrategies = Collections.unmodifiableList(steps);
+        effectiveForType = strategyType;
+        effectiveForChain = strategyChain;
+        effectiveForChainSize = strategyChain != null ? strategyChain.size() : 0;
+        return effectiveStrategies;
+    }
+
+    /**
+     * 取步骤上缓存的策略实例（StrategyFactory.resolve 专用）
+     * @param registryVersion 当前策略注册表版本号
+     * @return 版本一致时返回缓存实例，否则 null（需重新解析）
+     */
+    public OperationStrategy getCachedStrategy(int registryVersion) {
+        return resolvedVersion == registryVersion ? resolvedStrategy : null;
+    }
+
+    /**
+     * 缓存已解析的策略实例（StrategyFactory.resolve 专用）
+     */
+    public void cacheStrategy(OperationStrategy strategy, int registryVersion) {
+        this.resolvedStrategy = strategy;
+        this.resolvedVersion = registryVersion;
     }
 
     public boolean isInheritToSubfolders() {
@@ -138,6 +190,61 @@ public class MatchRule {
         this.inheritToSubfolders = inheritToSubfolders;
     }
 
+    /**
+     * 文件名过滤谓词：命中匹配列表且未命中排除列表（预编译并缓存，列表或大小写参数变化时重新编译）
+     * 大小写由扩展参数 caseSensitive 决定（"false" 时忽略大小写，默认区分）
+     * @return 文件名谓词
+     */
+    @JsonIgnore
+    public Predicate<String> getNameFilter() {
+        boolean caseSensitive = getParams().getBoolean("caseSensitive", true);
+        int size = (patterns == null ? 0 : patterns.size()) + (excludePatterns == null ? 0 : excludePatterns.size());
+        Predicate<String> cached = nameFilter;
+        if (cached != null && nameFilterForPatterns == patterns && nameFilterForExcludes == excludePatterns
+                && nameFilterForSize == size && nameFilterCaseSensitive == caseSensitive) {
+            return cached;
+        }
+        Predicate<String> include = GlobMatcher.compile(patterns, caseSensitive);
+        // 排除列表为空表示不排除任何文件（compile 空列表是"匹配所有"语义，这里需先判空）
+        Predicate<String> filter = excludePatterns == null || excludePatterns.isEmpty() ? include
+                : include.and(GlobMatcher.compile(excludePatterns, caseSensitive).negate());
+        nameFilter = filter;
+        nameFilterForPatterns = patterns;
+        nameFilterForExcludes = excludePatterns;
+        nameFilterForSize = size;
+        nameFilterCaseSensitive = caseSensitive;
+        return filter;
+    }
+
+    /**
+     * 策略扩展参数（不可变，按步骤缓存；批量执行时随 FileBatch 交给策略）
+     * 规则加载时已按策略参数声明编译的（见 setParams）直接返回；参数表变化或未经编译时退化为原始字符串快照
+     * @return 参数（无参数时为 RuleParams.EMPTY）
+     */
+    @JsonIgnore
+    public RuleParams getParams() {
+        int size = replacements == null ? 0 : replacements.size();
+        RuleParams cached = params;
+        if (cached != null && paramsFor == replacements && paramsForSize == size) {
+            return cached;
+        }
+        RuleParams built = size == 0 ? RuleParams.EMPTY : new RuleParams(replacements);
+        params = built;
+        paramsFor = replacements;
+        paramsForSize = size;
+        return built;
+    }
+
+    /**
+     * 设置按参数声明编译好的参数（MatchRuleLoader 加载时调用；对应当前 replacements，参数表变化后失效）
+     */
+    @JsonIgnore
+    public void setParams(RuleParams compiled) {
+        params = compiled;
+        paramsFor = replacements;
+        paramsForSize = replacements == null ? 0 : replacements.size();
+    }
+
     public Path getPath() {
         return path;
     }
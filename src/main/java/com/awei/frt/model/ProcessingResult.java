@@ -1,5 +1,6 @@
 package com.awei.frt.model;
 
+import com.awei.frt.core.metrics.MetricsRegistry;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.nio.file.Path;
@@ -21,6 +22,10 @@ public class ProcessingResult {
     private Path resultPath;           // 结果文件路径
     @JsonIgnore
     private transient boolean cancelled; // 操作被用户取消（预览确认时选否，未真正执行）
+    @JsonIgnore
+    private transient boolean interrupted; // 执行中途被取消（已完成部分操作，其余未处理）
+    @JsonIgnore
+    private transient MetricsRegistry metrics; // 本次会话性能指标（保存记录时另写 *.metrics.json）
 
     public ProcessingResult() {
         this.resultTime = LocalDateTime.now();
@@ -100,12 +105,41 @@ public class ProcessingResult {
         this.cancelled = cancelled;
     }
 
+    /**
+     * 是否在执行中途被取消（已完成的操作保留在记录中，可立即回滚）
+     */
+    public boolean isInterrupted() {
+        return interrupted;
+    }
+
+    public void setInterrupted(boolean interrupted) {
+        this.interrupted = interrupted;
+    }
+
+    /**
+     * 本次会话性能指标（未绑定时为 null）
+     */
+    @JsonIgnore
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * 添加操作记录
      */
     public void addOperationRecord(OperationRecord record) {
         operationRecords.add(record);
+        countOperationRecord(record);
+    }
 
+    /**
+     * 只按记录更新计数、不保留记录本身（流式预览不需要完整列表时使用，见 OperationContext.setPlanSink）
+     */
+    public void countOperationRecord(OperationRecord record) {
         // 根据记录更新计数
         if (record.isSuccess()) {
             successCount++;
@@ -0,0 +1,115 @@
+package com.awei.frt.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 规则步骤的策略扩展参数（不可变，随规则步骤缓存，见 MatchRule.getParams）
+ * 规则加载时按策略声明的 ParamSchema 编译：已声明参数的值按类型解析、缺省值已填入，读取即查表；
+ * 未经编译的规则（代码构造、策略未声明参数）退化为原始字符串快照，读取时按默认值语义解析。
+ * 批量执行时随 FileBatch 一并交给策略，逐文件读取参数不再经规则上下文查表。
+ */
+public final class RuleParams {
+
+    /** 无参数 */
+    public static final RuleParams EMPTY = new RuleParams(null);
+
+    private final Map<String, String> values;
+    private final Map<String, Object> typed;   // 按 ParamSchema 解析后的值（Boolean / Integer / String / List<String>）
+    private final Map<String, List<String>> lists = new ConcurrentHashMap<>(); // 未声明列表参数的切分结果缓存
+
+    /**
+     * 原始字符串快照（未经类型声明编译）
+     */
+    public RuleParams(Map<String, String> values) {
+        this(values, null);
+    }
+
+    /**
+     * @param values 原始键值
+     * @param typed  已按类型解析的值（可为 null）
+     */
+    public RuleParams(Map<String, String> values, Map<String, Object> typed) {
+        this.values = values == null || values.isEmpty() ? Map.of()
+                : Collections.unmodifiableMap(new HashMap<>(values));
+        this.typed = typed == null || typed.isEmpty() ? Map.of()
+                : Collections.unmodifiableMap(new HashMap<>(typed));
+    }
+
+    /**
+     * 字符串参数
+     * @return 参数值，未配置返回 null
+     */
+    public String getString(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * 布尔参数：已声明的参数直接取解析值（未配置时为声明的默认值）；
+     * 未声明时只有与 defaultValue 相反的字面量（忽略大小写）才改变结果
+     * （默认 true 时仅 "false" 为 false，默认 false 时仅 "true" 为 true）
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        if (typed.get(key) instanceof Boolean b) {
+            return b;
+        }
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        String v = value.trim();
+        return defaultValue ? !"false".equalsIgnoreCase(v) : "true".equalsIgnoreCase(v);
+    }
+
+    /**
+     * 整数参数：已声明取解析值；未声明时尝试解析，失败取默认值
+     */
+    public int getInt(String key, int defaultValue) {
+        if (typed.get(key) instanceof Integer i) {
+            return i;
+        }
+        String value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 列表参数：按英文逗号切分，去除首尾空白与空项（不可修改；未配置返回空列表）
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getList(String key) {
+        if (typed.get(key) instanceof List<?> list) {
+            return (List<String>) list;
+        }
+        String value = values.get(key);
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        return lists.computeIfAbsent(key, k -> Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList());
+    }
+
+    /**
+     * 全部原始参数（不可修改）
+     */
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleParams" + values;
+    }
+}
@@ -1,5 +1,7 @@
 package com.awei.frt.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -21,6 +23,7 @@ public class StrategyStep {
     private Map<String, String> replacements;   // 策略扩展参数（键值对）
     private List<String> patterns;              // 匹配白名单（支持通配符）
     private List<String> excludePatterns;       // 排除黑名单（支持通配符）
+    private transient RuleParams params;        // 加载时按参数声明编译好的参数（见 MatchRuleLoader）
 
     public StrategyStep() {
         this.replacements = new LinkedHashMap<>();
@@ -37,6 +40,7 @@ public class StrategyStep {
         copy.replacements = this.replacements != null ? new LinkedHashMap<>(this.replacements) : new LinkedHashMap<>();
         copy.patterns = this.patterns != null ? new ArrayList<>(this.patterns) : new ArrayList<>();
         copy.excludePatterns = this.excludePatterns != null ? new ArrayList<>(this.excludePatterns) : new ArrayList<>();
+        copy.params = this.params;
         return copy;
     }
 
@@ -50,6 +54,9 @@ public class StrategyStep {
         rule.setPatterns(patterns);
         rule.setExcludePatterns(excludePatterns);
         rule.setReplacements(replacements);
+        if (params != null) {
+            rule.setParams(params);
+        }
         return rule;
     }
 
@@ -67,6 +74,20 @@ public class StrategyStep {
 
     public void setReplacements(Map<String, String> replacements) {
         this.replacements = replacements != null ? replacements : new LinkedHashMap<>();
+        this.params = null;
+    }
+
+    @JsonIgnore
+    public RuleParams getParams() {
+        return params;
+    }
+
+    /**
+     * 设置按参数声明编译好的参数（MatchRuleLoader 加载时调用）
+     */
+    @JsonIgnore
+    public void setParams(RuleParams params) {
+        this.params = params;
     }
 
     public List<String> getPatterns() {
@@ -0,0 +1,197 @@
+package com.awei.frt.service;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.SourceIndex;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.core.transaction.StagedTransaction;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.ui.UserPrompter;
+import com.awei.frt.util.LoggerUtil;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多目标分发更新服务
+ * 同一个 update 目录同时更新多个目标目录（如多个服务器实例）：
+ * <ul>
+ *   <li>源目录只扫描一次，各目标在内存副本上运行（节点处理状态互不干扰，见 FileTreeBuilder.copyTree）</li>
+ *   <li>源文件 MD5 与源目录 mod 元数据由所有目标共享（见 SourceIndex），每个源文件只哈希 / 解析一次</li>
+ *   <li>每个目标独立的 ProcessingResult、备份命名空间（backup/targets/{namespace}/）与操作记录文件</li>
+ *   <li>目标之间并发执行（线程数默认取目标数与 CPU 核数的较小值）</li>
+ *   <li>开启事务化更新时每个目标各自暂存、各自提交（一个目标中止不影响其他目标）</li>
+ * </ul>
+ * 不做预览确认（由调用方先 planUpdate 再 applyUpdate，见 FrtCli）；
+ * 失败后的恢复询问按目标串行转发给 prompter，避免多个目标同时读同一个输入。
+ */
+public class FanOutUpdateService {
+
+    private final Config config;
+    private final List<Path> targets;
+    private final UserPrompter prompter;
+    private final int parallelism;
+    private final Object promptLock = new Object();
+    private SourceIndex lastSourceIndex;
+
+    public FanOutUpdateService(Config config, List<Path> targets, UserPrompter prompter) {
+        this(config, targets, prompter, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param config      基础配置（update 目录等；目标目录取自 targets）
+     * @param targets     目标目录列表（绝对路径或相对基准目录）
+     * @param prompter    失败恢复询问的回答来源
+     * @param parallelism 最大并发目标数（&lt;= 0 按 1 处理）
+     */
+    public FanOutUpdateService(Config config, List<Path> targets, UserPrompter prompter, int parallelism) {
+        if (targets == null || targets.isEmpty()) {
+            throw new IllegalArgumentException("目标目录列表不能为空");
+        }
+        this.config = config;
+        this.targets = List.copyOf(targets);
+        this.prompter = prompter;
+        this.parallelism = Math.max(1, Math.min(parallelism, this.targets.size()));
+    }
+
+    /**
+     * 预览所有目标（dryRun，不改动文件）
+     * @return 目标目录 -> 预览结果（按传入顺序）
+     */
+    public Map<Path, ProcessingResult> planUpdate() {
+        return run(true);
+    }
+
+    /**
+     * 真实执行所有目标：各目标完成后在自己的命名空间保存操作记录与同步清单
+     * @return 目标目录 -> 处理结果（按传入顺序）
+     */
+    public Map<Path, ProcessingResult> applyUpdate() {
+        return run(false);
+    }
+
+    /**
+     * 最近一次运行的源侧共享索引（统计共享命中用）
+     */
+    public SourceIndex getLastSourceIndex() {
+        return lastSourceIndex;
+    }
+
+    /**
+     * 目标目录对应的备份命名空间名：目录名 + 绝对路径哈希（同名目录不冲突，且跨运行稳定）
+     */
+    public static String namespaceOf(Path target) {
+        Path absolute = target.toAbsolutePath().normalize();
+        Path fileName = absolute.getFileName();
+        String name = fileName == null ? "root" : fileName.toString().replaceAll("[^A-Za-z0-9._-]", "_");
+        return name + "-" + String.format("%08x", absolute.toString().hashCode());
+    }
+
+    private Map<Path, ProcessingResult> run(boolean dryRun) {
+        Path updatePath = config.getBaseDirectory().resolve(config.getUpdatePath()).normalize();
+        LoggerUtil.logInfo("[分发] 扫描更新目录: " + updatePath + "，目标 " + targets.size() + " 个，并发 " + parallelism);
+        FileNode sharedTree = FileTreeBuilder.buildTree(updatePath);
+        SourceIndex sourceIndex = new SourceIndex();
+        lastSourceIndex = sourceIndex;
+
+        AtomicInteger threadNo = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "frt-fanout-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<ProcessingResult>> futures = new ArrayList<>();
+            for (Path target : targets) {
+                futures.add(executor.submit(() -> runTarget(target, updatePath, sharedTree, sourceIndex, dryRun)));
+            }
+            Map<Path, ProcessingResult> results = new LinkedHashMap<>();
+            for (int i = 0; i < targets.size(); i++) {
+                results.put(targets.get(i), await(targets.get(i), futures.get(i)));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 单个目标的运行（在工作线程中，整个过程处于该目标的备份命名空间内）
+     */
+    private ProcessingResult runTarget(Path target, Path updatePath, FileNode sharedTree,
+                                       SourceIndex sourceIndex, boolean dryRun) {
+        Config targetConfig = config.copy();
+        targetConfig.setTargetPath(target);
+        Path targetPath = targetConfig.getBaseDirectory().resolve(target).normalize();
+        return BackupFileLoader.runInNamespace(namespaceOf(targetPath), () -> {
+            OperationContext context = new OperationContext(targetConfig);
+            context.setDryRun(dryRun);
+            context.setSourceIndex(sourceIndex);
+            if (targetConfig.isIncrementalUpdate()) {
+                context.setSyncState(SyncState.load(updatePath, targetPath).newSession());
+            }
+            if (!dryRun) {
+                StagedTransaction.recoverPending();
+                if (targetConfig.isTransactionalUpdate()) {
+                    context.beginTransaction();
+                }
+            }
+            FileNode tree = FileTreeBuilder.copyTree(sharedTree);
+            try {
+                tree.process(null, context, FileNode.UPDATE_OPERATION);
+            } catch (RuntimeException e) {
+                context.abortTransaction();
+                throw e;
+            }
+            ProcessingResult result = context.getProcessingResult();
+            if (dryRun) {
+                return result;
+            }
+            context.commitTransaction();
+            LoggerUtil.logInfo("[分发] 目标完成: " + targetPath);
+            context.printStatistics();
+            SyncState session = context.getSyncState();
+            if (session != null && context.getErrorCount() == 0) {
+                session.save();
+            }
+            BackupFileLoader.finishOperationSession(result, this::promptSerially);
+            return result;
+        });
+    }
+
+    private String promptSerially() {
+        synchronized (promptLock) {
+            return prompter.readLine();
+        }
+    }
+
+    private ProcessingResult await(Path target, Future<ProcessingResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed(target, e);
+        } catch (ExecutionException e) {
+            return failed(target, e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private static ProcessingResult failed(Path target, Throwable e) {
+        LoggerUtil.logException("[分发] 目标处理失败: " + target, e);
+        ProcessingResult result = new ProcessingResult();
+        result.setErrorCount(1);
+        result.setSuccess(false);
+        return result;
+    }
+}
@@ -2,8 +2,11 @@ package com.awei.frt.service;
 
 import com.awei.frt.core.builder.BackupFileLoader;
 import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.context.CancellationToken;
 import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.PlanSink;
 import com.awei.frt.core.context.ProgressCallback;
+import com.awei.frt.core.context.ProgressPhase;
 import com.awei.frt.core.node.FileNode;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.ProcessingResult;
@@ -47,21 +50,27 @@ public class FileDeleteService {
      * @return 处理结果
      */
     public ProcessingResult deleteExecute(ProgressCallback progress) {
+        return deleteExecute(progress, null);
+    }
+
+    /**
+     * 执行文件删除操作（带进度回调与取消标记）
+     * @param cancel 取消标记（null 不可取消）：预览中取消则不执行；执行中取消则在文件检查点停下并询问是否立即回滚
+     * @return 处理结果
+     */
+    public ProcessingResult deleteExecute(ProgressCallback progress, CancellationToken cancel) {
         try {
             LoggerUtil.logInfo("[执行] 开始执行文件删除操作...");
 
-            // 构建操作上下文
-            Path basePath = config.getBaseDirectory();
-            Path deletePath = basePath.resolve(config.getDeletePath()).normalize();
-            LoggerUtil.logInfo("[FOLDER] 扫描删除目录: " + deletePath);
-
             // ===== 预览阶段（dryRun）：列出将被删除的文件 =====
-            OperationContext previewContext = new OperationContext(config);
-            previewContext.setDryRun(true);
-            FileNode previewTree = FileTreeBuilder.buildTree(deletePath);
-            previewTree.process(null, previewContext, FileNode.DELETE_OPERATION);
-            ProcessingResult preview = previewContext.getProcessingResult();
-            int planCount = PreviewUtil.printPreview(preview, "删除");
+            // 计划逐条流式打印；执行阶段会重新遍历，不需要保留完整的预览记录列表
+            ProcessingResult preview = planDelete(PreviewUtil.consoleSink("删除"), false, progress, cancel);
+            if (cancel != null && cancel.isCancelled()) {
+                LoggerUtil.logInfo("[取消] 预览已取消（未执行任何操作）");
+                preview.setCancelled(true);
+                return preview;
+            }
+            int planCount = preview.getSuccessCount();
             if (planCount == 0) {
                 LoggerUtil.logInfo("[信息] 删除目录中没有文件需要处理");
                 return preview;
@@ -77,36 +86,7 @@ public class FileDeleteService {
             }
 
             // ===== 真实执行阶段 =====
-            OperationContext context = new OperationContext(config);
-            FileNode deleteTree = FileTreeBuilder.buildTree(deletePath);
-            // 打印文件树结构（仅控制台）
-            System.out.println("[FILE] 文件树结构:");
-            FileTreeBuilder.printTree(deleteTree, 0);
-            System.out.println();
-            int totalFiles = FileTreeBuilder.countFiles(deleteTree);
-            LoggerUtil.logInfo("[FILE] 文件数量: " + totalFiles);
-            if (progress != null) {
-                context.setProgressCallback(progress, totalFiles);
-            }
-
-            // 执行删除处理
-            LoggerUtil.logInfo("[执行] 正在处理delete文件夹...");
-            System.out.println("-----------------------------------------");
-            deleteTree.process(null, context, FileNode.DELETE_OPERATION);
-            System.out.println("-----------------------------------------");
-
-            // 打印统计信息
-            context.printStatistics();
-            ProcessingResult processingResult = context.getProcessingResult();
-            if(processingResult.getSuccessCount() > 0){
-                LoggerUtil.logInfo("[成功] 文件删除操作完成！");
-                // 备份操作记录 + 失败恢复询问（公共流程，见 BackupFileLoader.finishOperationSession）
-                BackupFileLoader.finishOperationSession(processingResult, prompter);
-            }else{
-                LoggerUtil.logError("[失败] 文件删除操作失败！");
-            }
-
-            return context.getProcessingResult();
+            return applyDelete(progress, cancel);
         } catch (Exception e) {
             LoggerUtil.logException("文件删除操作失败", e);
 
@@ -117,4 +97,107 @@ public class FileDeleteService {
         }
     }
 
+    /**
+     * 预览删除（dryRun）：只列出将被删除的文件，不改动任何文件，不询问
+     * 供交互流程与无头命令行（见 FrtCli）共用；异常直接抛出由调用方处理。
+     * @return 预览结果（操作记录即计划）
+     */
+    public ProcessingResult planDelete() {
+        return planDelete(null, true);
+    }
+
+    /**
+     * 预览删除（流式）：策略每产生一条计划即交给 sink，结束时回调合计
+     * @param sink          计划接收器（null 不输出）
+     * @param retainRecords 是否在返回结果中保留完整记录列表（false 时只有计数）
+     * @return 预览结果
+     */
+    public ProcessingResult planDelete(PlanSink sink, boolean retainRecords) {
+        return planDelete(sink, retainRecords, null, null);
+    }
+
+    /**
+     * 预览删除（流式，带预览阶段进度事件；不逐文件回调 onProgress）
+     * @param progress 进度回调（null 不上报）
+     * @param cancel   取消标记（null 不可取消；取消后预览在检查点停下，结果不完整）
+     */
+    public ProcessingResult planDelete(PlanSink sink, boolean retainRecords, ProgressCallback progress,
+                                       CancellationToken cancel) {
+        Path deletePath = resolveDeletePath();
+        LoggerUtil.logInfo("[FOLDER] 扫描删除目录: " + deletePath);
+        OperationContext previewContext = new OperationContext(config);
+        previewContext.setDryRun(true);
+        previewContext.setPlanSink(sink, retainRecords);
+        previewContext.trackProgress(progress);
+        previewContext.setCancellation(cancel);
+        previewContext.beginPhase(ProgressPhase.PLAN);
+        // 延迟树：只有处理时进入的（有有效规则的）目录才会被列出
+        FileNode previewTree = FileTreeBuilder.buildLazyTree(deletePath);
+        previewTree.process(null, previewContext, FileNode.DELETE_OPERATION);
+        previewContext.completePlan();
+        return previewContext.getProcessingResult();
+    }
+
+    /**
+     * 真实执行删除（不再预览确认）：有成功项时备份操作记录，
+     * 有失败项时按 prompter 的回答决定是否恢复（见 BackupFileLoader.finishOperationSession）
+     * @param progress 进度回调（逐文件上报；null 不上报）
+     * @return 处理结果
+     */
+    public ProcessingResult applyDelete(ProgressCallback progress) {
+        return applyDelete(progress, null);
+    }
+
+    /**
+     * 真实执行删除（可取消）：取消后在文件检查点停下，已删除的文件保留记录并询问是否立即回滚
+     * @param cancel 取消标记（null 不可取消）
+     */
+    public ProcessingResult applyDelete(ProgressCallback progress, CancellationToken cancel) {
+        OperationContext context = new OperationContext(config);
+        context.setCancellation(cancel);
+        context.trackProgress(progress);
+        context.beginPhase(ProgressPhase.SCAN);
+        FileNode deleteTree = FileTreeBuilder.buildLazyTree(resolveDeletePath());
+        // 统计待处理文件（只列出有有效规则的目录），再打印已列出的部分（仅控制台）
+        int totalFiles = FileTreeBuilder.countProcessableFiles(deleteTree);
+        System.out.println("[FILE] 文件树结构:");
+        FileTreeBuilder.printTree(deleteTree, 0);
+        System.out.println();
+        LoggerUtil.logInfo("[FILE] 文件数量: " + totalFiles);
+        if (progress != null) {
+            // 删除不复制内容：按文件数计算进度，备份字节数计入备份阶段
+            context.setProgressCallback(progress, totalFiles);
+            context.beginPhase(ProgressPhase.BACKUP);
+        }
+
+        // 执行删除处理
+        LoggerUtil.logInfo("[执行] 正在处理delete文件夹...");
+        System.out.println("-----------------------------------------");
+        deleteTree.process(null, context, FileNode.DELETE_OPERATION);
+        context.finishIfCancelled();
+        System.out.println("-----------------------------------------");
+
+        // 打印统计信息
+        context.printStatistics();
+        ProcessingResult processingResult = context.getProcessingResult();
+        if (processingResult.isInterrupted()) {
+            context.beginPhase(ProgressPhase.RECORD);
+            BackupFileLoader.finishOperationSession(processingResult, prompter);
+        } else if(processingResult.getSuccessCount() > 0){
+            LoggerUtil.logInfo("[成功] 文件删除操作完成！");
+            // 备份操作记录 + 失败恢复询问（公共流程，见 BackupFileLoader.finishOperationSession）
+            context.beginPhase(ProgressPhase.RECORD);
+            BackupFileLoader.finishOperationSession(processingResult, prompter);
+        }else{
+            LoggerUtil.logError("[失败] 文件删除操作失败！");
+        }
+        context.finishProgress();
+
+        return context.getProcessingResult();
+    }
+
+    private Path resolveDeletePath() {
+        return config.getBaseDirectory().resolve(config.getDeletePath()).normalize();
+    }
+
 }
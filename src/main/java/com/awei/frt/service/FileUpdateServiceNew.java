@@ -2,9 +2,14 @@ package com.awei.frt.service;
 
 import com.awei.frt.core.builder.BackupFileLoader;
 import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.context.CancellationToken;
 import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.PlanSink;
 import com.awei.frt.core.context.ProgressCallback;
+import com.awei.frt.core.context.ProgressPhase;
 import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.core.transaction.StagedTransaction;
 import com.awei.frt.core.uitls.FileUtil;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.ProcessingResult;
@@ -48,23 +53,31 @@ public class FileUpdateServiceNew {
      * @return 处理结果
      */
     public ProcessingResult updateExecute(ProgressCallback progress) {
+        return updateExecute(progress, null);
+    }
+
+    /**
+     * 执行文件更新操作（服务层，带进度回调与取消标记）
+     * @param cancel 取消标记（null 不可取消）：预览中取消则不执行；执行中取消则在文件检查点停下并询问是否立即回滚
+     * @return 处理结果
+     */
+    public ProcessingResult updateExecute(ProgressCallback progress, CancellationToken cancel) {
         try {
             LoggerUtil.logInfo("[执行] 开始执行文件更新操作...");
 
-            // 构建操作上下文
-            Path basePath = config.getBaseDirectory();
-            Path updatePath = basePath.resolve(config.getUpdatePath()).normalize();
-
             // ===== 预览阶段（dryRun）：只收集操作计划，不真正改动文件 =====
-            LoggerUtil.logInfo("[FOLDER] 扫描更新目录: " + updatePath);
-            OperationContext previewContext = new OperationContext(config);
-            previewContext.setDryRun(true);
-            FileNode previewTree = FileTreeBuilder.buildTree(updatePath);
-            previewTree.process(null, previewContext, FileNode.UPDATE_OPERATION);
-            ProcessingResult preview = previewContext.getProcessingResult();
-            int planCount = PreviewUtil.printPreview(preview, "更新");
+            // 计划逐条流式打印；执行阶段会重新遍历，不需要保留完整的预览记录列表
+            ProcessingResult preview = planUpdate(PreviewUtil.consoleSink("更新"), false, progress, cancel);
+            if (cancel != null && cancel.isCancelled()) {
+                LoggerUtil.logInfo("[取消] 预览已取消（未执行任何操作）");
+                preview.setCancelled(true);
+                return preview;
+            }
+            int planCount = preview.getSuccessCount();
             if (planCount == 0) {
-                LoggerUtil.logInfo("[信息] 没有需要更新的文件");
+                LoggerUtil.logInfo(config.isIncrementalUpdate()
+                        ? "[信息] 自上次成功更新以来没有变化，没有需要更新的文件"
+                        : "[信息] 没有需要更新的文件");
                 return preview;
             }
             System.out.print("是否执行以上 " + planCount + " 个更新操作？(y/n): ");
@@ -76,29 +89,7 @@ public class FileUpdateServiceNew {
             }
 
             // ===== 真实执行阶段 =====
-            OperationContext context = new OperationContext(config);
-            FileNode updateTree = FileTreeBuilder.buildTree(updatePath);
-            if (progress != null) {
-                context.setProgressCallback(progress, FileTreeBuilder.countFiles(updateTree));
-            }
-            // 打印文件树结构（调试用，仅控制台）
-            System.out.println("[FILE] 文件树结构:");
-            FileTreeBuilder.printTree(updateTree, 0);
-            System.out.println();
-
-            // 执行处理
-            LoggerUtil.logInfo("[执行] 正在处理update文件夹...");
-            System.out.println("-----------------------------------------");
-            updateTree.process(null, context, updateTree.UPDATE_OPERATION);
-            System.out.println("-----------------------------------------");
-            // 打印统计信息
-            context.printStatistics();
-            // 判断有处理失败的文件时，是否执行恢复操作（备份+恢复询问已提炼为公共方法）
-            ProcessingResult processingResult = context.getProcessingResult();
-            LoggerUtil.logInfo("[成功] 文件替换操作完成！");
-            BackupFileLoader.finishOperationSession(processingResult, prompter);
-
-            return context.getProcessingResult();
+            return applyUpdate(progress, cancel);
         } catch (Exception e) {
             LoggerUtil.logException("文件替换操作失败", e);
 
@@ -109,4 +100,149 @@ public class FileUpdateServiceNew {
         }
     }
 
+    /**
+     * 预览更新（dryRun）：只收集操作计划，不改动任何文件，不询问
+     * 供交互流程与无头命令行（见 FrtCli）共用；异常直接抛出由调用方处理。
+     * @return 预览结果（操作记录即计划）
+     */
+    public ProcessingResult planUpdate() {
+        return planUpdate(null, true);
+    }
+
+    /**
+     * 预览更新（流式）：策略每产生一条计划即交给 sink，结束时回调合计
+     * @param sink          计划接收器（null 不输出）
+     * @param retainRecords 是否在返回结果中保留完整记录列表（false 时只有计数）
+     * @return 预览结果
+     */
+    public ProcessingResult planUpdate(PlanSink sink, boolean retainRecords) {
+        return planUpdate(sink, retainRecords, null, null);
+    }
+
+    /**
+     * 预览更新（流式，带预览阶段进度事件；不逐文件回调 onProgress）
+     * @param progress 进度回调（null 不上报）
+     * @param cancel   取消标记（null 不可取消；取消后预览在检查点停下，结果不完整）
+     */
+    public ProcessingResult planUpdate(PlanSink sink, boolean retainRecords, ProgressCallback progress,
+                                       CancellationToken cancel) {
+        Path updatePath = resolveUpdatePath();
+        LoggerUtil.logInfo("[FOLDER] 扫描更新目录: " + updatePath);
+        OperationContext previewContext = new OperationContext(config);
+        previewContext.setDryRun(true);
+        previewContext.setPlanSink(sink, retainRecords);
+        previewContext.trackProgress(progress);
+        previewContext.setCancellation(cancel);
+        previewContext.beginPhase(ProgressPhase.PLAN);
+        // 增量更新：加载上次成功会话的同步清单（预览与执行各开一个会话，互不干扰）
+        SyncState syncState = loadSyncState();
+        previewContext.setSyncState(syncState == null ? null : syncState.newSession());
+        // 延迟树：只有处理时进入的（有有效规则的）目录才会被列出
+        FileNode previewTree = FileTreeBuilder.buildLazyTree(updatePath);
+        previewTree.process(null, previewContext, FileNode.UPDATE_OPERATION);
+        previewContext.completePlan();
+        return previewContext.getProcessingResult();
+    }
+
+    /**
+     * 真实执行更新（不再预览确认）：处理完成后保存同步清单、备份操作记录，
+     * 有失败项时按 prompter 的回答决定是否恢复（见 BackupFileLoader.finishOperationSession）
+     * @param progress 进度回调（逐文件上报；null 不上报）
+     * @return 处理结果
+     */
+    public ProcessingResult applyUpdate(ProgressCallback progress) {
+        return applyUpdate(progress, null);
+    }
+
+    /**
+     * 真实执行更新（可取消）：取消后在文件检查点停下，事务化更新放弃暂存（目标不变），
+     * 直接模式保留已完成的操作并询问是否立即回滚
+     * @param cancel 取消标记（null 不可取消）
+     */
+    public ProcessingResult applyUpdate(ProgressCallback progress, CancellationToken cancel) {
+        // 上次事务化更新异常中断遗留的暂存 / 提交先收尾（回滚或前滚），目标回到一致状态
+        StagedTransaction.recoverPending();
+        Path updatePath = resolveUpdatePath();
+        SyncState syncState = loadSyncState();
+        OperationContext context = new OperationContext(config);
+        context.setSyncState(syncState == null ? null : syncState.newSession());
+        context.setCancellation(cancel);
+        if (config.isTransactionalUpdate()) {
+            context.beginTransaction();
+        }
+        FileNode updateTree = FileTreeBuilder.buildLazyTree(updatePath);
+        if (progress != null) {
+            // 扫描阶段：统计待处理文件数与待复制字节数（进度按字节计算，大文件不再与小文件等价）
+            context.trackProgress(progress);
+            context.beginPhase(ProgressPhase.SCAN);
+            FileTreeBuilder.ProcessableFiles totals = FileTreeBuilder.measureProcessableFiles(updateTree, true);
+            context.setProgressCallback(progress, totals.files(), totals.bytes());
+            context.beginPhase(ProgressPhase.COPY);
+        }
+        // 打印文件树结构（调试用，仅控制台）
+        System.out.println("[FILE] 文件树结构:");
+        FileTreeBuilder.printTree(updateTree, 0);
+        System.out.println();
+
+        // 执行处理
+        LoggerUtil.logInfo("[执行] 正在处理update文件夹...");
+        System.out.println("-----------------------------------------");
+        try {
+            updateTree.process(null, context, FileNode.UPDATE_OPERATION);
+        } catch (RuntimeException e) {
+            context.abortTransaction();
+            throw e;
+        }
+        // 事务化更新：全部暂存就绪后统一原子提交（未开启事务时无操作）；中途取消时放弃暂存
+        if (!context.finishIfCancelled()) {
+            context.commitTransaction();
+        }
+        System.out.println("-----------------------------------------");
+        // 打印统计信息
+        context.printStatistics();
+        // 判断有处理失败的文件时，是否执行恢复操作（备份+恢复询问已提炼为公共方法）
+        ProcessingResult processingResult = context.getProcessingResult();
+        context.beginPhase(ProgressPhase.RECORD);
+        saveSyncState(context);
+        if (!processingResult.isInterrupted()) {
+            LoggerUtil.logInfo("[成功] 文件替换操作完成！");
+        }
+        BackupFileLoader.finishOperationSession(processingResult, prompter);
+        context.finishProgress();
+
+        return context.getProcessingResult();
+    }
+
+    private Path resolveUpdatePath() {
+        return config.getBaseDirectory().resolve(config.getUpdatePath()).normalize();
+    }
+
+    /**
+     * 加载同步清单（未开启增量更新时返回 null）
+     */
+    private SyncState loadSyncState() {
+        if (!config.isIncrementalUpdate()) {
+            return null;
+        }
+        Path basePath = config.getBaseDirectory();
+        return SyncState.load(resolveUpdatePath(), basePath.resolve(config.getTargetPath()).normalize());
+    }
+
+    /**
+     * 增量更新：整个会话无失败才保存同步清单；有失败时保留上次清单，下次重新处理变化项
+     */
+    private void saveSyncState(OperationContext context) {
+        SyncState session = context.getSyncState();
+        if (session == null) {
+            return;
+        }
+        if (context.getProcessingResult().isInterrupted()) {
+            LoggerUtil.logWarn("[增量] 本次中途取消，保留上次同步清单");
+        } else if (context.getErrorCount() == 0) {
+            session.save();
+        } else {
+            LoggerUtil.logWarn("[增量] 本次有 " + context.getErrorCount() + " 个失败项，保留上次同步清单");
+        }
+    }
+
 }
@@ -0,0 +1,353 @@
+package com.awei.frt.service;
+
+import com.awei.frt.constants.RulesConstants;
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.RuleInheritanceContext;
+import com.awei.frt.core.node.FileLeaf;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.node.FolderNode;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.ui.UserPrompter;
+import com.awei.frt.util.LoggerUtil;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 目录监听服务（常驻模式，--watch）：
+ * 基于 WatchService 监听 update / delete 目录，事件按"静默期"防抖并合并为批次，
+ * 每批只重建受影响的子树并自动执行（不预览、不确认），每批写一个独立的操作记录。
+ *
+ * 受影响子树的划分：
+ * - 普通文件新增/修改：所在目录建一个只含这些文件的浅层 FolderNode（目录级策略如 McMod 仍按整个目录判定）
+ * - 新建目录、规则文件变化、事件溢出：该目录整棵子树重建
+ * - update 侧的删除事件忽略（更新语义不删除目标）；规则文件被删除时按其目录整棵子树重跑
+ * 每个子树的规则上下文从根目录沿祖先链逐级推导，与全量遍历时的继承结果一致。
+ */
+public class FileWatchService {
+
+    /** 默认静默期：最后一个事件后等待这么久没有新事件才执行批次 */
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 1500;
+    /** 持续有事件时，一个批次最长等待时间（避免一直拷贝中永不执行） */
+    private static final long MAX_BATCH_WAIT_FACTOR = 10;
+    private static final List<String> RULE_FILES = Arrays.asList(RulesConstants.FileNames.ALL_RULE_FILES);
+    // 常驻模式无人值守：批次有失败项时不自动恢复（记录已保存，可稍后在恢复菜单处理）
+    private static final UserPrompter NO_RESTORE = () -> "n";
+
+    private final Config config;
+    private final long debounceMillis;
+    private final Path updateRoot;
+    private final Path deleteRoot;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private WatchService watchService;
+    private volatile boolean running;
+    // 监听循环退出信号：run() 返回前计数归零，stop(timeout) 据此等待进行中的批次收尾
+    private volatile CountDownLatch loopExited = new CountDownLatch(0);
+    private int batchCount;
+
+    public FileWatchService(Config config) {
+        this(config, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    public FileWatchService(Config config, long debounceMillis) {
+        this.config = config;
+        this.debounceMillis = Math.max(50, debounceMillis);
+        Path basePath = config.getBaseDirectory();
+        this.updateRoot = basePath.resolve(config.getUpdatePath()).normalize();
+        this.deleteRoot = basePath.resolve(config.getDeletePath()).normalize();
+    }
+
+    /**
+     * 开始监听（阻塞当前线程，直到 stop() 被调用）
+     */
+    public void run() throws IOException {
+        watchService = updateRoot.getFileSystem().newWatchService();
+        CountDownLatch exited = new CountDownLatch(1);
+        loopExited = exited;
+        running = true;
+        try {
+            Files.createDirectories(updateRoot);
+            Files.createDirectories(deleteRoot);
+            registerTree(updateRoot);
+            registerTree(deleteRoot);
+            LoggerUtil.logInfo("[监听] 已开始监听更新目录: " + updateRoot);
+            LoggerUtil.logInfo("[监听] 已开始监听删除目录: " + deleteRoot);
+            LoggerUtil.logInfo("[监听] 静默期 " + debounceMillis + " ms，Ctrl+C 退出");
+
+            while (running) {
+                Batch batch = new Batch();
+                // 阻塞等待第一个事件
+                WatchKey key = watchService.take();
+                handleKey(key, batch);
+                // 防抖：持续收集直到静默期内无新事件（或达到最长等待）
+                long deadline = System.currentTimeMillis() + debounceMillis * MAX_BATCH_WAIT_FACTOR;
+                while (running && System.currentTimeMillis() < deadline) {
+                    WatchKey next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    handleKey(next, batch);
+                }
+                if (!batch.isEmpty()) {
+                    applyBatch(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stop() 关闭了监听服务，正常退出
+        } finally {
+            running = false;
+            closeQuietly();
+            LoggerUtil.logInfo("[监听] 已停止，共执行 " + batchCount + " 个批次");
+            exited.countDown();
+        }
+    }
+
+    /**
+     * 停止监听（可从其他线程调用，只发出停止信号，不等待）
+     */
+    public void stop() {
+        running = false;
+        closeQuietly();
+    }
+
+    /**
+     * 停止监听并等待监听循环退出（关闭钩子使用：进行中的批次执行完、记录保存后再让 JVM 退出）
+     * @param timeoutMillis 最长等待时间
+     * @return 监听循环是否已在超时前退出
+     */
+    public boolean stop(long timeoutMillis) {
+        stop();
+        try {
+            return loopExited.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 已执行的批次数
+     */
+    public int getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * 直接执行一个批次（监听循环与测试共用）
+     * @param updateChanges update 目录下变化的路径（文件或目录）
+     * @param deleteChanges delete 目录下变化的路径
+     * @return 本批次处理结果（无可处理节点时返回空结果）
+     */
+    public ProcessingResult applyBatch(Set<Path> updateChanges, Set<Path> deleteChanges) {
+        Batch batch = new Batch();
+        for (Path path : updateChanges) {
+            batch.add(updateRoot, path, Files.isDirectory(path));
+        }
+        for (Path path : deleteChanges) {
+            batch.add(deleteRoot, path, Files.isDirectory(path));
+        }
+        return applyBatch(batch);
+    }
+
+    private ProcessingResult applyBatch(Batch batch) {
+        List<FolderNode> updateTrees = planSubtrees(updateRoot, batch.files(updateRoot), batch.deepDirs(updateRoot));
+        List<FolderNode> deleteTrees = planSubtrees(deleteRoot, batch.files(deleteRoot), batch.deepDirs(deleteRoot));
+        OperationContext context = new OperationContext(config);
+        if (updateTrees.isEmpty() && deleteTrees.isEmpty()) {
+            return context.getProcessingResult();
+        }
+        batchCount++;
+        LoggerUtil.logInfo("[监听] 批次 #" + batchCount + "：更新子树 " + updateTrees.size()
+                + " 个，删除子树 " + deleteTrees.size() + " 个");
+        try {
+            for (FolderNode subtree : updateTrees) {
+                subtree.process(ancestorRuleContext(updateRoot, subtree), context, FileNode.UPDATE_OPERATION);
+            }
+            for (FolderNode subtree : deleteTrees) {
+                subtree.process(ancestorRuleContext(deleteRoot, subtree), context, FileNode.DELETE_OPERATION);
+            }
+        } catch (Exception e) {
+            LoggerUtil.logException("[监听] 批次执行异常", e);
+        }
+        context.printStatistics();
+        ProcessingResult result = context.getProcessingResult();
+        // 每个批次独立保存为一个操作记录（可单独恢复）
+        BackupFileLoader.finishOperationSession(result, NO_RESTORE);
+        return result;
+    }
+
+    /**
+     * 把变化路径合并为最少的子树：深层目录之间去嵌套，落在深层目录内的文件并入该目录；
+     * 其余文件按所在目录分组为浅层节点（只含变化文件）
+     */
+    static List<FolderNode> planSubtrees(Path root, Set<Path> files, Set<Path> deepDirs) {
+        List<Path> deep = new ArrayList<>();
+        for (Path dir : new TreeSet<>(deepDirs)) {
+            if (Files.isDirectory(dir) && deep.stream().noneMatch(dir::startsWith)) {
+                deep.add(dir);
+            }
+        }
+        Map<Path, List<Path>> shallow = new TreeMap<>();
+        for (Path file : files) {
+            if (deep.stream().anyMatch(file::startsWith)) {
+                continue;
+            }
+            if (!Files.isRegularFile(file) || RULE_FILES.contains(file.getFileName().toString())) {
+                continue;
+            }
+            shallow.computeIfAbsent(file.getParent(), k -> new ArrayList<>()).add(file);
+        }
+
+        List<FolderNode> subtrees = new ArrayList<>();
+        for (Path dir : deep) {
+            FolderNode node = new FolderNode(dir, relativize(root, dir));
+            node.buildChildren();
+            subtrees.add(node);
+        }
+        for (Map.Entry<Path, List<Path>> entry : shallow.entrySet()) {
+            FolderNode node = new FolderNode(entry.getKey(), relativize(root, entry.getKey()));
+            entry.getValue().stream().sorted()
+                    .forEach(file -> node.addChild(new FileLeaf(file, relativize(root, file))));
+            subtrees.add(node);
+        }
+        return subtrees;
+    }
+
+    /**
+     * 从根目录沿祖先链推导子树的规则上下文（与全量遍历逐层继承的结果一致）；子树即根目录时返回 null
+     */
+    private static RuleInheritanceContext ancestorRuleContext(Path root, FolderNode subtree) {
+        if (subtree.getRelativePath().isEmpty()) {
+            return null;
+        }
+        // 根目录 → 子树父目录，逐层做一次"进入该目录"的规则推导
+        RuleInheritanceContext ric = new RuleInheritanceContext();
+        ric.getEffectiveRule(new FolderNode(root, ""));
+        Path parent = root.relativize(subtree.getPath()).getParent();
+        if (parent != null) {
+            Path current = root;
+            for (Path part : parent) {
+                current = current.resolve(part);
+                ric = new RuleInheritanceContext(ric);
+                ric.getEffectiveRule(new FolderNode(current, relativize(root, current)));
+            }
+        }
+        return ric;
+    }
+
+    private static String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    private void handleKey(WatchKey key, Batch batch) throws IOException {
+        Path dir = watchedDirs.get(key);
+        if (dir == null) {
+            key.cancel();
+            return;
+        }
+        Path root = dir.startsWith(updateRoot) ? updateRoot : deleteRoot;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            WatchEvent.Kind<?> kind = event.kind();
+            if (kind == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失：该目录整棵子树重跑
+                batch.add(root, dir, true);
+                continue;
+            }
+            Path changed = dir.resolve((Path) event.context());
+            boolean isRuleFile = RULE_FILES.contains(changed.getFileName().toString());
+            if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+                // 更新语义不删除目标：update/delete 侧删除事件只在规则文件被删时触发重跑
+                if (isRuleFile) {
+                    batch.add(root, dir, true);
+                }
+                continue;
+            }
+            if (isRuleFile) {
+                batch.add(root, dir, true);
+            } else if (Files.isDirectory(changed)) {
+                if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                    registerTree(changed);
+                    batch.add(root, changed, true);
+                }
+            } else {
+                batch.add(root, changed, false);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    private void registerTree(Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void closeQuietly() {
+        WatchService ws = watchService;
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 一个批次内合并后的变化集合（按根目录分别记录文件与需整棵重建的目录）
+     */
+    private static final class Batch {
+        private final Map<Path, Set<Path>> files = new HashMap<>();
+        private final Map<Path, Set<Path>> deepDirs = new HashMap<>();
+
+        void add(Path root, Path path, boolean deep) {
+            (deep ? deepDirs : files).computeIfAbsent(root, k -> new TreeSet<>()).add(path.normalize());
+        }
+
+        Set<Path> files(Path root) {
+            return files.getOrDefault(root, Set.of());
+        }
+
+        Set<Path> deepDirs(Path root) {
+            return deepDirs.getOrDefault(root, Set.of());
+        }
+
+        boolean isEmpty() {
+            return files.isEmpty() && deepDirs.isEmpty();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.awei.frt.core.builder.FileTreeBuilder;
 import com.awei.frt.core.builder.MatchRuleLoader;
 import com.awei.frt.core.node.FileNode;
 import com.awei.frt.core.node.FolderNode;
+import com.awei.frt.core.strategy.ParamSchema;
 import com.awei.frt.factory.StrategyFactory;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.MatchRule;
@@ -34,6 +35,8 @@ import java.util.Scanner;
  */
 public class RuleConfigWizard {
 
+    private static final int MAX_PARAM_ATTEMPTS = 3; // 扩展参数校验失败时的最多输入次数
+
     private final Config config;
     private final UserPrompter prompter;
     private int folderCounter = 0; // 文件夹编号计数器
@@ -296,9 +299,7 @@ public class RuleConfigWizard {
         System.out.println("\n[参数 5/6] replacements — 策略扩展参数 (键值对)");
         System.out.println("  类型: Map<String,String>    必填: 否    默认值: 空");
         System.out.println("  说明: 给策略传自定义配置; 格式 key=value, 多个用英文逗号分隔");
-        System.out.println("        示例: McMod: onlyIfVersionChanged=true | FileSameName: caseSensitive=false");
-        System.out.print("  请输入 (回车=空): ");
-        Map<String, String> replacements = parseMap(readLine());
+        Map<String, String> replacements = inputReplacements(strategyType, "  ");
         System.out.println("  >> replacements = " + replacements);
 
         // 组装规则对象
@@ -334,8 +335,7 @@ public class RuleConfigWizard {
                 List<String> stepPatterns = parseList(readLine());
                 System.out.print("        excludePatterns (逗号分隔, 回车=空): ");
                 List<String> stepExcludes = parseList(readLine());
-                System.out.print("        replacements (key=value, 逗号分隔, 回车=空): ");
-                Map<String, String> stepReplacements = parseMap(readLine());
+                Map<String, String> stepReplacements = inputReplacements(stepType, "        ");
                 StrategyStep step = new StrategyStep();
                 step.setStrategyType(stepType);
                 step.setPatterns(stepPatterns);
@@ -354,6 +354,40 @@ public class RuleConfigWizard {
         return rule;
     }
 
+    /**
+     * 输入策略扩展参数：先列出策略声明的参数（类型/必填/默认值），输入后按声明校验，不通过时提示并重新输入
+     * （最多 3 次，之后按输入保留，由生成后的自校验提示）
+     * @param strategyType 策略类型
+     * @param indent 提示缩进
+     */
+    private Map<String, String> inputReplacements(String strategyType, String indent) {
+        ParamSchema schema = StrategyFactory.getParamSchema(strategyType);
+        if (schema.isDeclared()) {
+            System.out.println(indent + "可用参数 (" + strategyType + "):");
+            for (String line : schema.describe()) {
+                System.out.println(indent + "  - " + line);
+            }
+        }
+        for (int attempt = 1; ; attempt++) {
+            System.out.print(indent + "replacements (key=value, 逗号分隔, 回车=空): ");
+            Map<String, String> replacements = parseMap(readLine());
+            List<String> errors = schema.validate(replacements);
+            if (errors.isEmpty()) {
+                for (String key : schema.unknownKeys(replacements)) {
+                    System.out.println(indent + "[警告] 策略 " + strategyType + " 未声明参数: " + key);
+                }
+                return replacements;
+            }
+            for (String error : errors) {
+                System.out.println(indent + "[失败] " + error);
+            }
+            if (attempt >= MAX_PARAM_ATTEMPTS) {
+                System.out.println(indent + "[警告] 参数仍不合法，已按输入保留（生成后的解析校验会失败）");
+                return replacements;
+            }
+        }
+    }
+
     /**
      * 生成规则文件并写入（预览 + 确认 + 自校验）
      * 供控制台向导（inputRule 组装规则后调用）与 UI 表单（RuleWizardForm 一次填完参数后调用）共用
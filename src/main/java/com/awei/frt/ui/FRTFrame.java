@@ -2,7 +2,9 @@ package com.awei.frt.ui;
 
 import com.awei.frt.core.builder.BackupFileLoader;
 import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.context.CancellationToken;
 import com.awei.frt.core.context.ProgressCallback;
+import com.awei.frt.core.context.ProgressEvent;
 import com.awei.frt.model.Config;
 import com.awei.frt.model.ProcessingResult;
 import com.awei.frt.service.CoreConfigWizard;
@@ -19,9 +21,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
 import javax.swing.JTextField;
-import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
@@ -33,6 +33,7 @@ import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * FRT Swing 主窗口（固定输入区版）
@@ -43,9 +44,12 @@ import java.util.List;
  */
 public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, SwingPrompter.InputPanel {
 
-    private final JTextArea logArea;
+    private final LogConsole logConsole;
     private final JLabel statusLabel;
     private final JProgressBar progressBar;
+    private final JPanel progressRow;        // 进度条 + 停止按钮（更新/删除执行中显示）
+    private final JButton stopButton;
+    private CancellationToken runningCancel; // 当前可取消任务的取消标记（EDT 访问）
     private final QuickButtonPanel quickPanel;
     private final JScrollPane quickScroll;   // 快捷按钮滚动区（最多显示约 3 行，超出滚动）
     private final JPanel inputArea;          // 快捷按钮 + 输入行（等待输入时显示）
@@ -58,6 +62,7 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
     private static final int PROMPT_BUFFER_MAX = 20000;
     private static final int QUICK_MAX_VISIBLE_HEIGHT = 96; // 快捷按钮区最多显示约 3 行，超出滚动查看
     private static final int QUICK_MIN_HEIGHT = 30;
+    private static final int PROGRESS_SCALE = 1000;          // 进度条刻度（千分比，按字节进度时更平滑）
     private Config config;
     private SwingPrompter prompter;
 
@@ -68,17 +73,9 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
         setSize(860, 600);
         setLocationRelativeTo(null);
 
-        logArea = new JTextArea();
-        logArea.setEditable(false);
-        logArea.setFont(UITheme.MONO_FONT);
-        logArea.setBackground(UITheme.PANEL_BG);
-        logArea.setForeground(UITheme.TEXT);
-        logArea.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
-        // 加大滚轮步长：Swing 默认 unitIncrement 偏小，鼠标滚轮滚动日志区很慢
-        JScrollPane logScroll = new JScrollPane(logArea);
-        logScroll.getVerticalScrollBar().setUnitIncrement(24);
-        logScroll.getHorizontalScrollBar().setUnitIncrement(24);
-        add(logScroll, BorderLayout.CENTER);
+        // 日志区：有界行缓冲 + 定时批量刷新 + 虚拟化列表（大量输出不再淹没 EDT）
+        logConsole = new LogConsole();
+        add(logConsole, BorderLayout.CENTER);
 
         // 顶部功能按钮
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 8));
@@ -91,7 +88,7 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
         top.add(topButton("核心配置", this::runConfig));
         JButton clearLogButton = new JButton("清空日志");
         UITheme.styleButton(clearLogButton);
-        clearLogButton.addActionListener(e -> logArea.setText(""));
+        clearLogButton.addActionListener(e -> logConsole.clear());
         top.add(clearLogButton);
         add(top, BorderLayout.NORTH);
 
@@ -139,10 +136,18 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
         progressBar = new JProgressBar(0, 100);
         progressBar.setStringPainted(true);
         progressBar.setFont(UITheme.SMALL_FONT);
-        progressBar.setVisible(false);
+        // 停止按钮：请求取消，处理在当前文件完成后（大文件在当前复制块后）停下，随后询问是否立即回滚
+        stopButton = new JButton("停止");
+        UITheme.styleButton(stopButton);
+        stopButton.addActionListener(e -> requestStop());
+        progressRow = new JPanel(new BorderLayout(6, 0));
+        progressRow.setBorder(BorderFactory.createEmptyBorder(2, 10, 2, 10));
+        progressRow.add(progressBar, BorderLayout.CENTER);
+        progressRow.add(stopButton, BorderLayout.EAST);
+        progressRow.setVisible(false);
 
         JPanel bottomArea = new JPanel(new BorderLayout());
-        bottomArea.add(progressBar, BorderLayout.NORTH);
+        bottomArea.add(progressRow, BorderLayout.NORTH);
         bottomArea.add(inputArea, BorderLayout.CENTER);
         bottomArea.add(statusBar, BorderLayout.SOUTH);
         add(bottomArea, BorderLayout.SOUTH);
@@ -173,11 +178,14 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
     // ---------------- 功能入口（后台线程执行，避免卡住 UI） ----------------
 
     private void runUpdate() {
-        runServiceWithProgress("更新文件", progress -> {
-            ProcessingResult r = new FileUpdateServiceNew(config, prompter).updateExecute(progress);
+        runServiceWithProgress("更新文件", (progress, cancel) -> {
+            ProcessingResult r = new FileUpdateServiceNew(config, prompter).updateExecute(progress, cancel);
             if (r.isCancelled()) {
                 return "已取消更新操作（未执行任何操作）";
             }
+            if (r.isInterrupted()) {
+                return "更新已中途停止: 已完成 " + r.getSuccessCount() + "，失败 " + r.getErrorCount();
+            }
             if (r.getSuccessCount() == 0 && r.getErrorCount() == 0) {
                 return "没有需要更新的文件";
             }
@@ -186,11 +194,14 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
     }
 
     private void runDelete() {
-        runServiceWithProgress("删除文件", progress -> {
-            ProcessingResult r = new FileDeleteService(config, prompter).deleteExecute(progress);
+        runServiceWithProgress("删除文件", (progress, cancel) -> {
+            ProcessingResult r = new FileDeleteService(config, prompter).deleteExecute(progress, cancel);
             if (r.isCancelled()) {
                 return "已取消删除操作（未执行任何操作）";
             }
+            if (r.isInterrupted()) {
+                return "删除已中途停止: 已完成 " + r.getSuccessCount() + "，失败 " + r.getErrorCount();
+            }
             if (r.getSuccessCount() == 0 && r.getErrorCount() == 0) {
                 return "没有需要删除的文件";
             }
@@ -294,10 +305,12 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
 
     /**
      * 带进度条的异步服务执行（更新/删除用）：
-     * 服务通过 ProgressCallback 上报（已处理数/总数/当前文件），
-     * SwingWorker 批量刷新进度条与状态栏，不阻塞 EDT。
+     * 服务通过 ProgressCallback.onEvent 上报按阶段合并的进度（文件数/字节数/吞吐量/剩余时间，约每 100ms 一次），
+     * SwingWorker 批量刷新进度条与状态栏，不阻塞 EDT；总量未知时（预览、扫描阶段）进度条为不确定模式。
+     * 执行期间显示停止按钮，点击后通过取消标记在安全检查点停下（见 CancellationToken）。
      */
-    private void runServiceWithProgress(String name, java.util.function.Function<ProgressCallback, String> task) {
+    private void runServiceWithProgress(String name,
+                                        BiFunction<ProgressCallback, CancellationToken, String> task) {
         if (config == null) {
             appendText("[失败] 配置未加载，无法执行\n");
             return;
@@ -305,20 +318,29 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
         setTopButtonsEnabled(false);
         setInputEnabled(false);
         statusLabel.setText(name + " 执行中...");
+        progressBar.setIndeterminate(false);
         progressBar.setValue(0);
-        progressBar.setMaximum(100);
+        progressBar.setMaximum(PROGRESS_SCALE);
         progressBar.setString("准备中...");
-        progressBar.setVisible(true);
-        new SwingWorker<String, int[]>() {
-            private volatile String currentFile = "";
-
+        CancellationToken cancel = new CancellationToken();
+        runningCancel = cancel;
+        stopButton.setEnabled(true);
+        progressRow.setVisible(true);
+        new SwingWorker<String, ProgressEvent>() {
             @Override
             protected String doInBackground() {
                 try {
-                    return task.apply((processed, total, current) -> {
-                        currentFile = current == null ? "" : current;
-                        publish(new int[]{processed, Math.max(total, 0)});
-                    });
+                    return task.apply(new ProgressCallback() {
+                        @Override
+                        public void onProgress(int processed, int total, String current) {
+                            // 逐文件回调不直接驱动界面，由合并后的进度事件刷新
+                        }
+
+                        @Override
+                        public void onEvent(ProgressEvent event) {
+                            publish(event);
+                        }
+                    }, cancel);
                 } catch (Exception e) {
                     LoggerUtil.logException("[" + name + "] 执行失败", e);
                     return "[" + name + "] 执行失败，详见日志";
@@ -326,18 +348,26 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
             }
 
             @Override
-            protected void process(List<int[]> chunks) {
-                int[] last = chunks.get(chunks.size() - 1);
-                progressBar.setMaximum(Math.max(1, last[1]));
-                progressBar.setValue(last[0]);
-                progressBar.setString(last[0] + " / " + last[1]);
-                String cur = currentFile;
+            protected void process(List<ProgressEvent> chunks) {
+                ProgressEvent last = chunks.get(chunks.size() - 1);
+                double fraction = last.getFraction();
+                progressBar.setIndeterminate(fraction < 0);
+                if (fraction >= 0) {
+                    progressBar.setValue((int) (fraction * PROGRESS_SCALE));
+                }
+                progressBar.setString(last.describe());
+                if (cancel.isCancelled()) {
+                    return; // 已请求停止：保留"正在停止"提示
+                }
+                String cur = last.getCurrent();
                 statusLabel.setText(name + " 执行中" + (cur.isEmpty() ? "" : ": " + cur));
             }
 
             @Override
             protected void done() {
-                progressBar.setVisible(false);
+                progressBar.setIndeterminate(false);
+                progressRow.setVisible(false);
+                runningCancel = null;
                 try {
                     String summary = get();
                     appendText("\n===== " + summary + " =====\n");
@@ -381,6 +411,17 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
         cancelButton.setEnabled(enabled);
     }
 
+    // 停止按钮：请求取消当前任务（EDT）
+    private void requestStop() {
+        if (runningCancel == null || runningCancel.isCancelled()) {
+            return;
+        }
+        runningCancel.cancel();
+        stopButton.setEnabled(false);
+        statusLabel.setText("正在停止：当前文件处理完后停下...");
+        appendText("[取消] 已请求停止，当前文件处理完后停下\n");
+    }
+
     private void setTopButtonsEnabled(boolean enabled) {
         for (JButton b : topButtons) {
             b.setEnabled(enabled);
@@ -407,17 +448,8 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
     private void redirectOutput() {
         PrintStream originalOut = System.out;
         PrintStream originalErr = System.err;
-        OutputStream logStream = new OutputStream() {
-            @Override
-            public void write(int b) {
-                appendText(String.valueOf((char) b));
-            }
-
-            @Override
-            public void write(byte[] b, int off, int len) {
-                appendText(new String(b, off, len, StandardCharsets.UTF_8));
-            }
-        };
+        // 按完整 UTF-8 字符增量解码（不再逐字节转字符导致中文乱码）
+        OutputStream logStream = LogLineBuffer.textStream(this::appendText);
         System.setOut(new PrintStream(new TeeOutputStream(originalOut, logStream), true, StandardCharsets.UTF_8));
         System.setErr(new PrintStream(new TeeOutputStream(originalErr, logStream), true, StandardCharsets.UTF_8));
     }
@@ -426,14 +458,11 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
         if (text == null || text.isEmpty()) {
             return;
         }
-        SwingUtilities.invokeLater(() -> {
-            logArea.append(text);
-            logArea.setCaretPosition(logArea.getDocument().getLength());
-        });
+        logConsole.append(text);
         feedPrompt(text);
     }
 
-    private void feedPrompt(String text) {
+    private synchronized void feedPrompt(String text) {
         if (promptBuffer.length() + text.length() > PROMPT_BUFFER_MAX) {
             // 限长保护：超长时截断头部，保留最近内容
             promptBuffer.delete(0, Math.min(promptBuffer.length(), text.length()));
@@ -445,7 +474,7 @@ public class FRTFrame extends JFrame implements SwingPrompter.PromptSource, Swin
      * 取走提示缓冲（消费式）：返回自上次输入以来的完整提示文本并清空
      */
     @Override
-    public String takePrompt() {
+    public synchronized String takePrompt() {
         String prompt = promptBuffer.toString();
         promptBuffer.setLength(0);
         return prompt;
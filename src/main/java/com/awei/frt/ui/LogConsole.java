@@ -0,0 +1,131 @@
+package com.awei.frt.ui;
+
+import javax.swing.AbstractListModel;
+import javax.swing.BorderFactory;
+import javax.swing.JList;
+import javax.swing.JScrollPane;
+import javax.swing.JScrollBar;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import java.awt.FontMetrics;
+
+/**
+ * 日志区（虚拟化列表版）
+ * 原实现每次 write（甚至单个字符）都 invokeLater 一次 JTextArea.append + 移动光标，
+ * 上万文件的更新会把 EDT 淹没、文档无限增长。这里改为：
+ * <ul>
+ *   <li>任意线程 append 只写入 LogLineBuffer 的待处理缓冲，不触碰 Swing</li>
+ *   <li>EDT 定时器（100ms）一次取走全部待处理文本，合并成一次列表模型变更</li>
+ *   <li>只保留最近 MAX_LINES 行；JList 固定行高/行宽，只绘制可见行</li>
+ * </ul>
+ * 视图原本停在底部时自动滚动到最新行；用户向上翻看时不打断。
+ */
+public class LogConsole extends JScrollPane {
+
+    static final int MAX_LINES = 20000;
+    private static final int FLUSH_INTERVAL_MS = 100;
+
+    private final LogLineBuffer buffer = new LogLineBuffer(MAX_LINES);
+    private final LineModel model = new LineModel();
+    private final JList<String> list = new JList<>(model);
+    private final int charWidth;
+    private int cellWidth;
+
+    public LogConsole() {
+        list.setFont(UITheme.MONO_FONT);
+        list.setBackground(UITheme.PANEL_BG);
+        list.setForeground(UITheme.TEXT);
+        list.setBorder(BorderFactory.createEmptyBorder(6, 6, 6, 6));
+        list.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        FontMetrics metrics = list.getFontMetrics(UITheme.MONO_FONT);
+        charWidth = Math.max(1, metrics.charWidth('m'));
+        // 固定行高/行宽：JList 不再逐行测量，只渲染可见区域
+        list.setFixedCellHeight(metrics.getHeight());
+        list.setFixedCellWidth(cellWidth = charWidth * 80);
+        setViewportView(list);
+        // 加大滚轮步长：Swing 默认 unitIncrement 偏小，鼠标滚轮滚动日志区很慢
+        getVerticalScrollBar().setUnitIncrement(24);
+        getHorizontalScrollBar().setUnitIncrement(24);
+
+        Timer timer = new Timer(FLUSH_INTERVAL_MS, e -> flush());
+        timer.setCoalesce(true);
+        timer.start();
+    }
+
+    /**
+     * 追加文本（任意线程；只入缓冲，由定时器统一刷新）
+     */
+    public void append(String text) {
+        buffer.append(text);
+    }
+
+    /**
+     * 清空日志（EDT）
+     */
+    public void clear() {
+        int size = model.size;
+        buffer.clear();
+        if (size > 0) {
+            model.removed(0, size - 1);
+        }
+    }
+
+    // EDT：一次 drain → 一次模型变更
+    private void flush() {
+        JScrollBar bar = getVerticalScrollBar();
+        boolean atBottom = bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - list.getFixedCellHeight();
+        int before = model.size;
+        LogLineBuffer.Update update = buffer.drain();
+        if (update == null) {
+            return;
+        }
+        // 模型里原本没有行（如刚清空）时裁掉的都是本批新增的行，不发移除事件
+        int removed = Math.min(update.removed, before);
+        if (removed > 0) {
+            model.removed(0, removed - 1);
+            before -= removed;
+        }
+        model.size = update.size;
+        if (update.firstChanged < before) {
+            model.changed(update.firstChanged, before - 1);
+        }
+        if (update.size > before) {
+            model.added(before, update.size - 1);
+        }
+        int width = (buffer.getMaxWidth() + 2) * charWidth;
+        if (width > cellWidth) {
+            list.setFixedCellWidth(cellWidth = width);
+        }
+        if (atBottom && update.size > 0) {
+            list.ensureIndexIsVisible(update.size - 1);
+        }
+    }
+
+    // 列表模型：直接读 LogLineBuffer 的环形行表，size 仅在 EDT 刷新时更新
+    private class LineModel extends AbstractListModel<String> {
+        private int size;
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return index < buffer.size() ? buffer.get(index) : "";
+        }
+
+        void removed(int from, int to) {
+            size = Math.max(0, size - (to - from + 1));
+            fireIntervalRemoved(this, from, to);
+        }
+
+        void changed(int from, int to) {
+            fireContentsChanged(this, from, to);
+        }
+
+        void added(int from, int to) {
+            fireIntervalAdded(this, from, to);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.awei.frt.ui;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 日志区行缓冲（与 Swing 无关，便于单独测试）
+ * <ul>
+ *   <li>生产端（任意线程）：append 只把文本追加到待处理缓冲（有上限，超出丢弃最旧的整行）</li>
+ *   <li>消费端（EDT 定时器）：drain 一次把待处理文本切成行并入环形行表，超出保留行数时丢弃最旧的行</li>
+ * </ul>
+ * 最后一行可以是"未结束行"（如不带换行的输入提示），后续文本接在它后面。
+ */
+public final class LogLineBuffer {
+
+    private static final int MAX_PENDING_CHARS = 1 << 20;   // 待处理文本上限（约 1M 字符）
+
+    private final String[] lines;   // 环形行表
+    private int head;               // 最旧一行的位置
+    private int size;               // 当前行数
+    private boolean lastOpen;       // 最后一行是否未结束（尚未遇到换行）
+    private int maxWidth;           // 已见过的最长行显示宽度（中日韩等宽字符按 2 计）
+    private long droppedLines;      // 因超出上限被丢弃的行数
+    private int overflow;           // 本次 drain 中因环形表已满被覆盖的行数
+
+    private final Object pendingLock = new Object();
+    private StringBuilder pending = new StringBuilder();
+
+    /**
+     * @param maxLines 最多保留的行数
+     */
+    public LogLineBuffer(int maxLines) {
+        this.lines = new String[Math.max(1, maxLines)];
+    }
+
+    // ---------------- 生产端（任意线程） ----------------
+
+    /**
+     * 追加文本（不触碰行表，由 drain 统一处理）
+     */
+    public void append(String text) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        synchronized (pendingLock) {
+            pending.append(text);
+            if (pending.length() > MAX_PENDING_CHARS) {
+                // 消费端跟不上：丢弃最旧的整行，只保留最近的内容
+                int cut = pending.indexOf("\n", pending.length() - MAX_PENDING_CHARS);
+                cut = cut < 0 ? pending.length() - MAX_PENDING_CHARS : cut + 1;
+                droppedLines += countLines(pending, cut);
+                pending.delete(0, cut);
+            }
+        }
+    }
+
+    // ---------------- 消费端（EDT） ----------------
+
+    /**
+     * 把待处理文本并入行表
+     * @return 本次变化；没有新文本时返回 null
+     */
+    public Update drain() {
+        StringBuilder text;
+        synchronized (pendingLock) {
+            if (pending.length() == 0) {
+                return null;
+            }
+            text = pending;
+            pending = new StringBuilder();
+        }
+        int firstChanged = lastOpen && size > 0 ? size - 1 : size;
+        int start = 0;
+        int length = text.length();
+        while (start <= length) {
+            int end = text.indexOf("\n", start);
+            boolean terminated = end >= 0;
+            if (!terminated) {
+                end = length;
+                if (start == end) {
+                    break;  // 文本以换行结束：没有新的未结束行
+                }
+            }
+            int segmentEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            String segment = text.substring(start, segmentEnd);
+            if (lastOpen && size > 0) {
+                setLast(get(size - 1) + segment);
+            } else {
+                add(segment);
+            }
+            lastOpen = !terminated;
+            start = end + 1;
+        }
+        int removed = overflow;
+        overflow = 0;
+        return new Update(removed, Math.max(0, firstChanged - removed), size);
+    }
+
+    private void add(String line) {
+        if (size == lines.length) {
+            lines[head] = line;
+            head = (head + 1) % lines.length;
+            overflow++;
+            droppedLines++;
+        } else {
+            lines[(head + size) % lines.length] = line;
+            size++;
+        }
+        maxWidth = Math.max(maxWidth, displayWidth(line));
+    }
+
+    private void setLast(String line) {
+        lines[(head + size - 1) % lines.length] = line;
+        maxWidth = Math.max(maxWidth, displayWidth(line));
+    }
+
+    /**
+     * 第 index 行（0 为最旧的保留行）
+     */
+    public String get(int index) {
+        return lines[(head + index) % lines.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 最长行的显示宽度（字符单位，宽字符按 2 计；用于固定单元格宽度，避免逐行测量）
+     */
+    public int getMaxWidth() {
+        return maxWidth;
+    }
+
+    public long getDroppedLines() {
+        return droppedLines;
+    }
+
+    /**
+     * 清空行表与待处理文本
+     */
+    public void clear() {
+        synchronized (pendingLock) {
+            pending.setLength(0);
+        }
+        Arrays.fill(lines, null);
+        head = 0;
+        size = 0;
+        lastOpen = false;
+        maxWidth = 0;
+    }
+
+    /**
+     * 一次 drain 的变化：先从头部移除 removed 行，再从 firstChanged 起到末尾的行有变化（含新增）
+     */
+    public static final class Update {
+        public final int removed;
+        public final int firstChanged;
+        public final int size;
+
+        Update(int removed, int firstChanged, int size) {
+            this.removed = removed;
+            this.firstChanged = firstChanged;
+            this.size = size;
+        }
+    }
+
+    // ---------------- 字节流适配 ----------------
+
+    /**
+     * UTF-8 字节流 → 文本：按完整字符边界增量解码（多字节字符跨两次 write 也不会乱码），
+     * 每次 write 只解码一次交给 sink（不再逐字节转字符）
+     * @param sink 文本接收方
+     * @return 输出流
+     */
+    public static OutputStream textStream(Consumer<String> sink) {
+        return new Utf8TextStream(sink);
+    }
+
+    private static final class Utf8TextStream extends OutputStream {
+        private final Consumer<String> sink;
+        private byte[] buffer = new byte[256];
+        private int count;
+
+        Utf8TextStream(Consumer<String> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            ensureCapacity(1);
+            buffer[count++] = (byte) b;
+            emit();
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+            emit();
+        }
+
+        private void ensureCapacity(int extra) {
+            if (count + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + extra));
+            }
+        }
+
+        // 解码到最后一个完整字符为止，不完整的尾部字节留待下次
+        private void emit() {
+            int complete = completeLength(buffer, count);
+            if (complete == 0) {
+                return;
+            }
+            String text = new String(buffer, 0, complete, StandardCharsets.UTF_8);
+            System.arraycopy(buffer, complete, buffer, 0, count - complete);
+            count -= complete;
+            sink.accept(text);
+        }
+    }
+
+    /**
+     * UTF-8 字节序列中完整字符的长度（末尾不完整的多字节序列不计入）
+     */
+    static int completeLength(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0 && i >= length - 4; i--) {
+            int c = bytes[i] & 0xFF;
+            if (c < 0x80) {
+                return length;
+            }
+            if (c >= 0xC0) {
+                int need = c >= 0xF0 ? 4 : c >= 0xE0 ? 3 : 2;
+                return length - i >= need ? length : i;
+            }
+        }
+        return length;
+    }
+
+    private static int displayWidth(String line) {
+        int width = 0;
+        for (int i = 0; i < line.length(); i++) {
+            width += line.charAt(i) >= 0x1100 ? 2 : 1;
+        }
+        return width;
+    }
+
+    private static int countLines(CharSequence text, int end) {
+        int n = 0;
+        for (int i = 0; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                n++;
+            }
+        }
+        return n;
+    }
+}
@@ -512,6 +512,13 @@ public class RuleWizardForm extends JDialog {
             rule.setStrategyChain(chain);
         }
 
+        // 扩展参数按各策略声明校验（与规则加载时的校验一致，避免生成后解析失败）
+        List<String> paramErrors = MatchRuleLoader.validateParams(rule);
+        if (!paramErrors.isEmpty()) {
+            showError("策略参数不合法：\n" + String.join("\n", paramErrors));
+            return;
+        }
+
         result = new Result(targetDir, rule);
         dispose();
     }
@@ -0,0 +1,73 @@
+package com.awei.frt.util;
+
+import com.awei.frt.core.context.CancellationToken;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 控制台取消（控制台模式的更新/删除用）
+ * 执行期间注册关闭钩子：Ctrl+C 触发 JVM 关闭时，钩子先请求取消，再等待处理在安全检查点停下
+ * （会话记录写完、回滚询问答完，即本句柄 close）后才放行退出，不会在复制半途结束进程；
+ * 等待超过时限则直接退出，未完成的会话记录留待下次启动时提示恢复。
+ * 执行结束（close）后注销钩子。只用标准关闭钩子，不依赖 JDK 内部信号 API。
+ */
+public final class ConsoleCancel implements AutoCloseable {
+
+    // Ctrl+C 后等待处理停在检查点（含回滚询问）的最长时间
+    private static final long SHUTDOWN_WAIT_SECONDS = 60;
+
+    private final CancellationToken token = new CancellationToken();
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final Thread hook = new Thread(this::onShutdown, "frt-console-cancel");
+    private boolean hookInstalled;
+
+    private ConsoleCancel() {
+    }
+
+    /**
+     * 接管 Ctrl+C 并返回取消句柄（try-with-resources 使用）
+     */
+    public static ConsoleCancel install() {
+        ConsoleCancel cancel = new ConsoleCancel();
+        try {
+            Runtime.getRuntime().addShutdownHook(cancel.hook);
+            cancel.hookInstalled = true;
+        } catch (IllegalStateException | SecurityException e) {
+            LoggerUtil.logDebug("[取消] 当前环境无法注册关闭钩子，操作不可中途取消: " + e.getMessage());
+        }
+        return cancel;
+    }
+
+    /**
+     * 本次操作的取消标记
+     */
+    public CancellationToken token() {
+        return token;
+    }
+
+    private void onShutdown() {
+        token.cancel();
+        LoggerUtil.logWarn("[取消] 已请求停止，当前文件处理完后停下并保存会话记录");
+        try {
+            if (!closed.await(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                LoggerUtil.logWarn("[取消] 等待检查点超时，强制退出（下次启动时可按会话记录恢复）");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed.countDown();
+        if (hookInstalled) {
+            hookInstalled = false;
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // 已在关闭过程中（钩子正在等待本句柄关闭），无需注销
+            }
+        }
+    }
+}
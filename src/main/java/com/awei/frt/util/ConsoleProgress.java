@@ -0,0 +1,44 @@
+package com.awei.frt.util;
+
+import com.awei.frt.core.context.ProgressCallback;
+import com.awei.frt.core.context.ProgressEvent;
+
+/**
+ * 控制台进度输出（控制台模式的更新/删除用）
+ * 逐文件回调不打印（每个文件已有日志）；阶段进度事件按较低频率打印一行
+ * "阶段 已处理/总数 · 已复制/总字节 · 吞吐量 · 剩余时间"，
+ * 运行不足一个间隔的短任务不打印，避免小批量操作时刷屏。
+ */
+public final class ConsoleProgress {
+
+    // 控制台打印间隔：日志与进度行交错，间隔过短会淹没逐文件日志
+    private static final long INTERVAL_MILLIS = 2000;
+
+    private ConsoleProgress() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * 控制台进度回调
+     */
+    public static ProgressCallback callback() {
+        return new ProgressCallback() {
+            @Override
+            public void onProgress(int processed, int total, String current) {
+                // 逐文件进度已体现在逐文件日志中，不重复打印
+            }
+
+            @Override
+            public void onEvent(ProgressEvent event) {
+                if (event.getElapsedMillis() >= INTERVAL_MILLIS) {
+                    LoggerUtil.logInfo("[进度] " + event.describe());
+                }
+            }
+
+            @Override
+            public long eventIntervalMillis() {
+                return INTERVAL_MILLIS;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.awei.frt.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 逐文件日志批量汇总
+ * 策略逐文件输出的 "+ x 成功" / "忽略文件：x" 在大批量运行时刷屏，日志开销甚至超过文件 I/O。
+ * 这里按类别计数：成功 / 跳过 / 忽略的逐文件明细降为 DEBUG（先判级别，未开启时不拼接消息），
+ * INFO 只每 {@value #SUMMARY_INTERVAL} 条与结束时各输出一行累计汇总；失败仍逐条 WARN 输出（需要用户关注）。
+ */
+public class FileLogBatch {
+
+    public static final String ADDED = "新增";
+    public static final String REPLACED = "替换";
+    public static final String DELETED = "删除";
+    public static final String SKIPPED = "跳过";
+    public static final String IGNORED = "忽略";
+
+    static final int SUMMARY_INTERVAL = 1000;
+
+    private final Map<String, int[]> counts = new LinkedHashMap<>();
+    private int failed;
+    private int pending;     // 上次汇总后新增的条数
+
+    /**
+     * 记录一个文件的处理结果
+     * @param category 类别（ADDED / REPLACED / DELETED / SKIPPED / IGNORED）
+     * @param ok       是否成功（失败逐条 WARN 输出）
+     * @param detail   明细消息（仅在需要输出时构建）
+     */
+    public synchronized void record(String category, boolean ok, Supplier<String> detail) {
+        if (ok) {
+            counts.computeIfAbsent(category, k -> new int[1])[0]++;
+            if (LoggerUtil.isDebugEnabled()) {
+                LoggerUtil.logDebug(detail.get());
+            }
+        } else {
+            failed++;
+            LoggerUtil.logWarn(detail.get());
+        }
+        if (++pending >= SUMMARY_INTERVAL) {
+            flush();
+        }
+    }
+
+    /**
+     * 输出累计汇总（自上次汇总以来没有新记录时不输出）
+     */
+    public synchronized void flush() {
+        if (pending == 0) {
+            return;
+        }
+        pending = 0;
+        LoggerUtil.logInfo("[汇总] " + summary());
+    }
+
+    /**
+     * 某类别的成功计数
+     */
+    public synchronized int getCount(String category) {
+        int[] count = counts.get(category);
+        return count == null ? 0 : count[0];
+    }
+
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    /**
+     * 累计汇总文本，如 "新增 12, 忽略 500, 失败 1"
+     */
+    public synchronized String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, int[]> entry : counts.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey()).append(' ').append(entry.getValue()[0]);
+        }
+        if (failed > 0) {
+            sb.append(sb.length() > 0 ? ", " : "").append("失败 ").append(failed);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.awei.frt.util;
+
+import com.awei.frt.core.context.PlanSink;
+import com.awei.frt.core.context.PlanTotals;
+import com.awei.frt.model.OperationRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON Lines 计划文件接收器：每条计划记录写一行 JSON，结束时追加一行合计（{"totals":{...}}）
+ * 供脚本 / 流水线边预览边消费（如 tail -f、jq），计划规模不受内存限制（见 FrtCli --plan-file）。
+ */
+public class JsonLinesPlanSink implements PlanSink, Closeable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final BufferedWriter writer;
+    private PlanTotals totals;
+
+    /**
+     * @param file 输出文件（已存在则覆盖；父目录不存在时创建）
+     */
+    public JsonLinesPlanSink(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void onRecord(OperationRecord record, PlanTotals totals) {
+        writeLine(toMap(record));
+    }
+
+    @Override
+    public void onComplete(PlanTotals totals) {
+        this.totals = totals;
+        writeLine(Map.of("totals", totals.toMap()));
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入计划文件失败", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * 最终合计（预览结束前为 null）
+     */
+    public PlanTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * 操作记录转为输出结构（计划文件与命令行 JSON 报告共用）
+     */
+    public static Map<String, Object> toMap(OperationRecord r) {
+        Map<String, Object> op = new LinkedHashMap<>();
+        op.put("operation", r.getOperationType());
+        op.put("strategy", r.getStrategyType());
+        op.put("source", r.getSourcePath() != null ? r.getSourcePath().toString() : null);
+        op.put("target", r.getTargetPath() != null ? r.getTargetPath().toString() : null);
+        op.put("success", r.isSuccess());
+        if (!r.isSuccess()) {
+            op.put("error", r.getErrorMessage());
+        }
+        return op;
+    }
+
+    private void writeLine(Object value) {
+        try {
+            writer.write(MAPPER.writeValueAsString(value));
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入计划文件失败", e);
+        }
+    }
+}
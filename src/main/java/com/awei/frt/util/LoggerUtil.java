@@ -3,17 +3,19 @@ package com.awei.frt.util;
 import com.awei.frt.model.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.regex.Pattern;
 
 /**
  * 日志工具类
  * 使用SLF4J和Logback实现日志功能
+ * 文件日志经 logback AsyncAppender（有界队列 + 后台写线程）异步落盘，调用线程不等待磁盘 I/O；
+ * 控制台保持同步，与交互式 System.out 输出的先后顺序一致。
  */
 public class LoggerUtil {
 
@@ -30,7 +32,9 @@ public class LoggerUtil {
 
     private volatile boolean captureSystemOutput = true;
 
-    private static final Pattern LOG_PATTERN = Pattern.compile("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2} \\[.*\\] (INFO|WARN|ERROR|DEBUG|TRACE)");
+    // 本类正在输出日志的线程：控制台 appender 写回 System.out 的内容是自己的日志行，不再回捕为 System.out 日志
+    // （取代原先对每行做一次正则匹配来识别日志行）
+    private static final ThreadLocal<int[]> EMITTING = ThreadLocal.withInitial(() -> new int[1]);
 
     private LoggerUtil(Config config) {
         this.config = config;
@@ -62,10 +66,10 @@ public class LoggerUtil {
 
     private void initializeLogger() {
         Charset charset = StandardCharsets.UTF_8;
-        System.setOut(new PrintStream(new LoggingOutputStream(stdoutLogger, LoggingOutputStream.Level.INFO, originalOut, charset), true, charset));
-        System.setErr(new PrintStream(new LoggingOutputStream(stderrLogger, LoggingOutputStream.Level.ERROR, originalErr, charset), true, charset));
+        System.setOut(new PrintStream(new LoggingOutputStream(stdoutLogger, LoggingOutputStream.Capture.INFO, originalOut, charset), true, charset));
+        System.setErr(new PrintStream(new LoggingOutputStream(stderrLogger, LoggingOutputStream.Capture.ERROR, originalErr, charset), true, charset));
 
-        logger.info("日志系统初始化完成");
+        emit(logger, Level.INFO, "日志系统初始化完成", null);
     }
 
     /**
@@ -123,7 +127,7 @@ public class LoggerUtil {
      * 记录错误级别日志（带异常，控制台+文件）
      */
     public void logError(String message, Throwable throwable) {
-        logger.error(message, throwable);
+        emit(logger, Level.ERROR, message, throwable);
     }
 
     /**
@@ -160,7 +164,7 @@ public class LoggerUtil {
                 ? message
                 : throwable.getClass().getSimpleName()
                         + (throwable.getMessage() != null ? ": " + throwable.getMessage() : "");
-        util.logger.error(brief, throwable);
+        emit(util.logger, Level.ERROR, brief, throwable);
     }
 
     /**
@@ -180,7 +184,7 @@ public class LoggerUtil {
         if (message == null || message.isBlank()) {
             return;
         }
-        getInstance(null).logger.error(message);
+        emit(getInstance(null).logger, Level.ERROR, message, null);
     }
 
     /**
@@ -191,7 +195,7 @@ public class LoggerUtil {
         if (message == null || message.isBlank()) {
             return;
         }
-        getInstance(null).logger.info(message);
+        emit(getInstance(null).logger, Level.INFO, message, null);
     }
 
     /**
@@ -203,7 +207,14 @@ public class LoggerUtil {
         if (message == null || message.isBlank()) {
             return;
         }
-        getInstance(null).logger.debug(message);
+        emit(getInstance(null).logger, Level.DEBUG, message, null);
+    }
+
+    /**
+     * DEBUG 级别是否开启（高频路径先判级别再拼接消息，避免无谓的字符串构建）
+     */
+    public static boolean isDebugEnabled() {
+        return getInstance(null).logger.isDebugEnabled();
     }
 
     /**
@@ -213,7 +224,7 @@ public class LoggerUtil {
         if (message == null || message.isBlank()) {
             return;
         }
-        getInstance(null).logger.warn(message);
+        emit(getInstance(null).logger, Level.WARN, message, null);
     }
 
     /**
@@ -223,37 +234,75 @@ public class LoggerUtil {
         if (message == null || message.isBlank()) {
             return;
         }
-        getInstance(null).logger.error(message);
+        emit(getInstance(null).logger, Level.ERROR, message, null);
+    }
+
+    // 统一出口：先判级别（未开启时不进入 logback），并标记本线程正在输出日志
+    private static void emit(Logger target, Level level, String message, Throwable throwable) {
+        int[] depth = EMITTING.get();
+        depth[0]++;
+        try {
+            switch (level) {
+                case DEBUG -> {
+                    if (target.isDebugEnabled()) {
+                        target.debug(message, throwable);
+                    }
+                }
+                case INFO -> {
+                    if (target.isInfoEnabled()) {
+                        target.info(message, throwable);
+                    }
+                }
+                case WARN -> target.warn(message, throwable);
+                default -> target.error(message, throwable);
+            }
+        } finally {
+            depth[0]--;
+        }
     }
 
     public void close() {
         System.setOut(originalOut);
         System.setErr(originalErr);
-        logger.info("日志系统已关闭");
+        emit(logger, Level.INFO, "日志系统已关闭", null);
         initialized = false;
     }
 
     private static class LoggingOutputStream extends OutputStream {
         private final Logger logger;
-        private final Level level;
+        private final Capture level;
         private final PrintStream originalStream;
         private final Charset charset;
         private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 
-        enum Level {
+        enum Capture {
             INFO, ERROR
         }
 
-        LoggingOutputStream(Logger logger, Level level, PrintStream originalStream, Charset charset) {
+        LoggingOutputStream(Logger logger, Capture level, PrintStream originalStream, Charset charset) {
             this.logger = logger;
             this.level = level;
             this.originalStream = originalStream;
             this.charset = charset;
         }
 
+        /**
+         * 是否需要把输出记录为日志：捕获开关打开、对应 logger 级别开启、且不是本类自己输出的日志行。
+         * 不需要时只透传原始流，不缓冲、不解码（默认 System.out logger 为 OFF，控制台输出零额外开销）
+         */
+        private boolean capturing() {
+            if (instance == null || !instance.captureSystemOutput || EMITTING.get()[0] > 0) {
+                return false;
+            }
+            return level == Capture.INFO ? logger.isInfoEnabled() : logger.isErrorEnabled();
+        }
+
         @Override
         public void write(int b) {
             originalStream.write(b);
+            if (!capturing()) {
+                return;
+            }
             buffer.write(b);
             if (b == '\n') {
                 flushBuffer();
@@ -263,6 +312,9 @@ public class LoggerUtil {
         @Override
         public void write(byte[] b, int off, int len) {
             originalStream.write(b, off, len);
+            if (!capturing()) {
+                return;
+            }
             buffer.write(b, off, len);
             for (int i = off; i < off + len; i++) {
                 if (b[i] == '\n') {
@@ -283,13 +335,11 @@ public class LoggerUtil {
         private void flushBuffer() {
             if (buffer.size() > 0) {
                 String message = buffer.toString(charset).trim();
-                if (!message.isEmpty() && !LOG_PATTERN.matcher(message).find()) {
-                    if (instance != null && instance.captureSystemOutput) {
-                        if (level == Level.INFO) {
-                            logger.info(message);
-                        } else {
-                            logger.error(message);
-                        }
+                if (!message.isEmpty()) {
+                    if (level == Capture.INFO) {
+                        logger.info(message);
+                    } else {
+                        logger.error(message);
                     }
                 }
                 buffer.reset();
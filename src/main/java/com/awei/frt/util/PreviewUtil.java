@@ -1,6 +1,8 @@
 package com.awei.frt.util;
 
 import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.PlanSink;
+import com.awei.frt.core.context.PlanTotals;
 import com.awei.frt.model.OperationRecord;
 import com.awei.frt.model.ProcessingResult;
 
@@ -9,17 +11,55 @@ import java.util.List;
 
 /**
  * 操作预览打印工具（更新/删除共用）
- * 把 dryRun 阶段收集的操作计划以 "[+] 新增 / [=] 替换 / [-] 删除" 形式列出，
+ * 把 dryRun 阶段的操作计划以 "[+] 新增 / [=] 替换 / [-] 删除" 形式列出，
  * 供用户在真正执行前二次确认。
+ * consoleSink 在策略产生记录时逐行打印（流式，不必等预览结束）；printPreview 打印已收集的完整结果。
  */
 public final class PreviewUtil {
 
+    // 流式打印时每隔多少条输出一次累计统计（大批量计划时让用户看到进展）
+    private static final int RUNNING_TOTAL_INTERVAL = 1000;
+
     private PreviewUtil() {
         throw new UnsupportedOperationException("Utility class");
     }
 
     /**
-     * 打印操作预览
+     * 控制台流式计划接收器：首条记录时打印表头，逐条打印，结束时打印合计
+     * @param actionName 动作名（如 "更新" / "删除"）
+     */
+    public static PlanSink consoleSink(String actionName) {
+        return new PlanSink() {
+            @Override
+            public void onRecord(OperationRecord record, PlanTotals totals) {
+                if (totals.getTotal() == 1) {
+                    System.out.println("\n[预览] 将执行以下" + actionName + "操作（预览模式：尚未执行任何操作，确认后才真正执行）:");
+                    System.out.println("-----------------------------------------");
+                }
+                System.out.println(formatRecord(record));
+                if (totals.getTotal() % RUNNING_TOTAL_INTERVAL == 0) {
+                    System.out.println("  ... 已列出 " + totals.getTotal() + " 项（" + totals + "）");
+                }
+            }
+
+            @Override
+            public void onComplete(PlanTotals totals) {
+                if (totals.getPrunedFolders() > 0 || totals.getPrunedFiles() > 0) {
+                    LoggerUtil.logInfo("[预览] 剪枝跳过 " + totals.getPrunedFolders() + " 个无规则目录、"
+                            + totals.getPrunedFiles() + " 个不可能命中规则的文件");
+                }
+                if (totals.getTotal() == 0) {
+                    LoggerUtil.logInfo("[预览] 没有需要" + actionName + "的文件");
+                    return;
+                }
+                System.out.println("-----------------------------------------");
+                System.out.println("[预览] 合计 " + totals.getPlanned() + " 个" + actionName + "操作（" + totals + "）");
+            }
+        };
+    }
+
+    /**
+     * 打印操作预览（已收集完整记录的结果）
      * @param preview dryRun 阶段的结果
      * @param actionName 动作名（如 "更新" / "删除"）
      * @return 可执行的操作数（成功记录数）
@@ -29,30 +69,31 @@ public final class PreviewUtil {
             return 0;
         }
         List<OperationRecord> records = preview.getOperationRecords();
-        if (records == null || records.isEmpty()) {
-            LoggerUtil.logInfo("[预览] 没有需要" + actionName + "的文件");
-            return 0;
-        }
-        int planCount = 0;
-        System.out.println("\n[预览] 将执行以下 " + records.size() + " 个" + actionName + "操作（预览模式：尚未执行任何操作，确认后才真正执行）:");
-        System.out.println("-----------------------------------------");
-        for (OperationRecord r : records) {
-            if (!r.isSuccess()) {
-                System.out.println("  [!] " + r.getErrorMessage());
-                continue;
-            }
-            String op;
-            switch (r.getOperationType()) {
-                case OperationContext.OPERATION_ADD -> op = "[+] 新增";
-                case OperationContext.OPERATION_REPLACE -> op = "[=] 替换";
-                case OperationContext.OPERATION_DELETE -> op = "[-] 删除";
-                default -> op = "[?] " + r.getOperationType();
+        PlanSink sink = consoleSink(actionName);
+        PlanTotals totals = new PlanTotals();
+        if (records != null) {
+            for (OperationRecord r : records) {
+                totals.record(r);
+                sink.onRecord(r, totals);
             }
-            Path target = r.getTargetPath();
-            System.out.println("  " + op + ": " + (target != null ? target : r.getSourcePath()));
-            planCount++;
         }
-        System.out.println("-----------------------------------------");
-        return planCount;
+        sink.onComplete(totals);
+        return totals.getPlanned();
+    }
+
+    // 单条计划的显示行
+    private static String formatRecord(OperationRecord r) {
+        if (!r.isSuccess()) {
+            return "  [!] " + r.getErrorMessage();
+        }
+        String op;
+        switch (r.getOperationType()) {
+            case OperationContext.OPERATION_ADD -> op = "[+] 新增";
+            case OperationContext.OPERATION_REPLACE -> op = "[=] 替换";
+            case OperationContext.OPERATION_DELETE -> op = "[-] 删除";
+            default -> op = "[?] " + r.getOperationType();
+        }
+        Path target = r.getTargetPath();
+        return "  " + op + ": " + (target != null ? target : r.getSourcePath());
     }
 }
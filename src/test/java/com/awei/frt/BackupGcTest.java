@@ -0,0 +1,258 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.BackupGc;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.core.uitls.FileSignUtil;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 备份垃圾回收测试：
+ * - 按时间预算分多次推进的一轮回收与一次跑完结果一致，结束后写出孤立计数（启动提醒只读计数）
+ * - 指纹未变的备份文件复用持久化索引中的 MD5，不再重新哈希
+ * - 清理并行删除孤立文件并统计回收字节数；未完成会话引用的备份不算孤立
+ * - 判定之后被进行中的操作复用、或被新记录引用的备份不会被删除
+ * - 加载备份索引只读，不写出回收状态
+ * - 新进程首次备份前加载已有备份索引，跨运行的同内容备份不重复存储
+ * - 被备份的 *.tmp 文件与 state/ 下的文件不与 FRT 临时文件 / 状态目录混淆，重启后仍可还原
+ */
+class BackupGcTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path backup;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        backup = Files.createDirectories(tempDir.resolve("backup"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 恢复真实备份路径，清空静态备份索引与在途登记（不在真实备份目录上跑回收，避免写入 testDic/backup/state）
+        TestSupport.restoreBackupPath();
+        BackupFileLoader.resetBackupIndexForTesting();
+    }
+
+    @Test
+    void incrementalCycleMatchesFullCollection() throws IOException {
+        Path referenced = blob("a/kept.txt", "kept");
+        Path orphanOne = blob("a/orphan1.txt", "orphan-1");
+        Path orphanTwo = blob("b/orphan2.txt", "orphan-22");
+        saveRecord(referenced);
+
+        BackupGc.Cycle cycle = BackupGc.newCycle(backup);
+        int passes = 1;
+        while (!cycle.step(0)) {
+            passes++;
+        }
+
+        assertTrue(passes > 3, "零预算时每次只推进一项，应分多次完成: " + passes);
+        assertEquals(List.of(orphanOne, orphanTwo), cycle.getOrphans().stream().map(BackupGc.Orphan::path).toList());
+        assertEquals(List.of(orphanOne, orphanTwo),
+                BackupGc.collect(backup, Set.of()).getOrphans().stream().map(BackupGc.Orphan::path).toList(),
+                "分步推进与一次跑完结果一致");
+
+        BackupGc.Status status = BackupGc.readStatus(backup);
+        assertNotNull(status, "一轮结束后写出孤立计数");
+        assertEquals(2, status.orphanCount);
+        assertEquals(Files.size(orphanOne) + Files.size(orphanTwo), status.orphanBytes);
+        assertEquals(3, status.blobCount);
+    }
+
+    @Test
+    void unchangedBlobsReuseIndexedMd5() throws IOException {
+        Path file = blob("same.txt", "content-one");
+        String originalMd5 = FileSignUtil.getFileMd5(file);
+        FileTime mtime = Files.getLastModifiedTime(file);
+        BackupGc.collect(backup, Set.of());
+
+        // 同长度内容、恢复原修改时间：指纹不变，沿用索引里的 MD5（证明未重新读盘哈希）
+        Files.writeString(file, "content-two");
+        Files.setLastModifiedTime(file, mtime);
+        BackupGc.Cycle cycle = BackupGc.collect(backup, Set.of());
+        assertEquals(originalMd5, cycle.getOrphans().get(0).md5());
+
+        // 指纹变化后重新哈希
+        Files.writeString(file, "content-three");
+        cycle = BackupGc.collect(backup, Set.of());
+        assertEquals(FileSignUtil.getFileMd5(file), cycle.getOrphans().get(0).md5());
+    }
+
+    @Test
+    void sweepDeletesOrphansAndReportsBytes() throws IOException {
+        Path referenced = blob("kept.txt", "kept");
+        Path pending = blob("pending.txt", "in-flight-session");
+        saveRecord(referenced);
+        OperationRecord sessionOp = new OperationRecord();
+        sessionOp.setSourceFileSign(FileSignUtil.getFileMd5(pending));
+        assertTrue(BackupFileLoader.appendSessionRecord(sessionOp));
+        long orphanBytes = 0;
+        for (int i = 0; i < 12; i++) {
+            orphanBytes += Files.size(blob("orphans/o" + i + ".txt", "orphan-" + i));
+        }
+        BackupFileLoader.loadBackupFiles(backup);
+        BackupGc.collect(backup, Set.of());
+        assertEquals(12, BackupGc.readStatus(backup).orphanCount);
+
+        BackupGc.SweepResult result = BackupFileLoader.sweepOrphanBackupFiles(() -> "y");
+
+        assertEquals(12, result.deleted());
+        assertEquals(0, result.failed());
+        assertEquals(orphanBytes, result.bytesReclaimed(), "统计回收字节数");
+        assertTrue(Files.exists(referenced), "被记录引用的备份保留");
+        assertTrue(Files.exists(pending), "未完成会话引用的备份保留");
+        assertFalse(BackupFileLoader.getBackupFiles().containsValue(backup.resolve("orphans/o0.txt")),
+                "已删除的文件移出备份索引");
+        assertEquals(0, BackupGc.readStatus(backup).orphanCount, "删除后计数同步减少");
+    }
+
+    @Test
+    void reusedBackupIsNotDeletedByConcurrentSweep() throws IOException {
+        Path orphan = blob("reused.txt", "reused-content");
+        BackupFileLoader.loadBackupFiles(backup);
+        BackupGc.Cycle cycle = BackupGc.collect(backup, Set.of());
+        assertEquals(1, cycle.getOrphans().size());
+
+        // 回收判定之后，进行中的操作复用了这份备份（会话记录尚未写入）
+        Path source = Files.writeString(tempDir.resolve("source.txt"), "reused-content");
+        assertTrue(BackupFileLoader.addBackupFile(source));
+        BackupGc.SweepResult result = BackupGc.deleteOrphans(cycle, cycle.getOrphans());
+        assertEquals(1, result.skipped(), "在途备份跳过删除");
+        assertTrue(Files.exists(orphan));
+
+        // 会话记录写入后解除在途登记，但补标记读到会话记录中的引用，仍不删除
+        OperationRecord op = new OperationRecord();
+        op.setSourceFileSign(FileSignUtil.getFileMd5(orphan));
+        assertTrue(BackupFileLoader.appendSessionRecord(op));
+        result = BackupGc.deleteOrphans(cycle, cycle.getOrphans());
+        assertEquals(1, result.skipped(), "判定之后新增的引用跳过删除");
+        assertTrue(Files.exists(orphan));
+    }
+
+    @Test
+    void rewrittenBackupAtSamePathSurvivesSweep() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("config.txt"), "old-content");
+        assertTrue(BackupFileLoader.addBackupFile(source));
+        Path mirrored = BackupFileLoader.getBackupFiles().get(FileSignUtil.getFileMd5(source));
+        Files.setLastModifiedTime(mirrored, FileTime.fromMillis(1_000_000_000L));
+        BackupFileLoader.resetBackupIndexForTesting();
+        BackupFileLoader.loadBackupFiles(backup);
+        BackupGc.Cycle cycle = BackupGc.collect(backup, Set.of());
+        assertEquals(1, cycle.getOrphans().size(), "旧会话已清理，旧备份是孤立文件");
+
+        // 判定之后，修改过的同一文件再次备份到同一镜像路径
+        Files.writeString(source, "new-content");
+        FileSignUtil.clearCache();
+        assertTrue(BackupFileLoader.addBackupFile(source));
+        BackupGc.SweepResult result = BackupGc.deleteOrphans(cycle, cycle.getOrphans());
+
+        assertEquals(1, result.skipped(), "被新内容覆盖的路径不应按旧判定删除");
+        assertEquals("new-content", Files.readString(mirrored));
+        assertEquals(mirrored, BackupFileLoader.getBackupFiles().get(FileSignUtil.getFileMd5(source)));
+    }
+
+    @Test
+    void loadingBackupIndexDoesNotPersistGcState() throws IOException {
+        Path file = blob("a/kept.txt", "kept");
+
+        BackupFileLoader.loadBackupFiles(backup);
+
+        assertEquals(file, BackupFileLoader.getBackupFiles().get(FileSignUtil.getFileMd5(file)));
+        assertFalse(Files.exists(backup.resolve(SyncState.STATE_DIR)), "加载备份索引不应写出回收索引与计数文件");
+    }
+
+    @Test
+    void backedUpTmpAndStateFilesSurviveIndexReload() throws IOException {
+        Path base = Files.createDirectories(tempDir.resolve("src"));
+        Path tmpFile = Files.writeString(base.resolve("foo.tmp"), "tmp-content");
+        Path stateFile = base.resolve("state").resolve("x.txt");
+        Files.createDirectories(stateFile.getParent());
+        Files.writeString(stateFile, "state-content");
+        Path originalBase = ConfigLoader.getConfig().getBaseDirectory();
+        ConfigLoader.getConfig().setBaseDirectory(base);
+        try {
+            assertTrue(BackupFileLoader.addBackupFile(tmpFile));
+            assertTrue(BackupFileLoader.addBackupFile(stateFile));
+        } finally {
+            ConfigLoader.getConfig().setBaseDirectory(originalBase);
+        }
+        assertTrue(Files.exists(backup.resolve("foo.tmp")));
+        assertTrue(Files.exists(backup.resolve("state").resolve("x.txt")));
+
+        // 模拟重启：内存索引清空后按备份目录重新加载
+        BackupFileLoader.resetBackupIndexForTesting();
+        BackupFileLoader.loadBackupFiles(backup);
+
+        Path restoredTmp = tempDir.resolve("restored.tmp");
+        Path restoredState = tempDir.resolve("restored.txt");
+        assertTrue(BackupFileLoader.restoreBackupFile(FileSignUtil.getFileMd5(tmpFile), restoredTmp));
+        assertTrue(BackupFileLoader.restoreBackupFile(FileSignUtil.getFileMd5(stateFile), restoredState));
+        assertEquals("tmp-content", Files.readString(restoredTmp));
+        assertEquals("state-content", Files.readString(restoredState));
+    }
+
+    @Test
+    void sameContentBackedUpAcrossRunsIsStoredOnce() throws IOException {
+        Path first = Files.writeString(tempDir.resolve("first.txt"), "shared-content");
+        assertTrue(BackupFileLoader.addBackupFile(first));
+
+        // 模拟新进程：内存索引清空，不主动加载索引就直接备份
+        BackupFileLoader.resetBackupIndexForTesting();
+        FileSignUtil.clearCache();
+        Path second = Files.writeString(tempDir.resolve("second.txt"), "shared-content");
+        assertTrue(BackupFileLoader.addBackupFile(second));
+
+        long copies;
+        try (Stream<Path> files = Files.walk(backup)) {
+            copies = files.filter(Files::isRegularFile)
+                    .filter(file -> "shared-content".equals(readQuietly(file)))
+                    .count();
+        }
+        assertEquals(1, copies, "以往运行已备份的同内容应直接复用，不再重复存储");
+    }
+
+    private static String readQuietly(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Path blob(String relative, String content) throws IOException {
+        Path file = backup.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private void saveRecord(Path referenced) {
+        OperationRecord op = new OperationRecord();
+        op.setSourceFileSign(FileSignUtil.getFileMd5(referenced));
+        ProcessingResult result = new ProcessingResult();
+        result.setOperationRecords(List.of(op));
+        assertTrue(BackupFileLoader.saveOperationRecord(result));
+    }
+}
@@ -0,0 +1,169 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.BackupGc;
+import com.awei.frt.core.builder.BackupRetention;
+import com.awei.frt.core.uitls.FileSignUtil;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 备份保留策略测试：
+ * - 保留最近 N 次会话 + 最近 D 天每天最后一次会话，其余会话连同只被它们引用的备份一起清理，共享备份保留
+ * - 超出大小上限时从最旧的会话起清理，最新会话总是保留
+ * - 后台执行：未配置保留策略时不启动；配置后清理完成；进程退出前收尾时一次跑完
+ */
+class BackupRetentionTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+    @TempDir
+    Path tempDir;
+
+    private Path backup;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        backup = Files.createDirectories(tempDir.resolve("backup"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        BackupGc.awaitBackground(5_000);
+        // 恢复真实备份路径，清空静态备份索引与在途登记（不在真实备份目录上跑回收，避免写入 testDic/backup/state）
+        TestSupport.restoreBackupPath();
+        BackupFileLoader.resetBackupIndexForTesting();
+    }
+
+    @Test
+    void keepsRecentAndDailySessions() throws IOException {
+        Path shared = blob("shared.txt", "shared");
+        List<Path> own = new ArrayList<>();
+        LocalDateTime[] times = {
+                LocalDateTime.of(2026, 10, 10, 10, 0),
+                LocalDateTime.of(2026, 10, 17, 9, 0),
+                LocalDateTime.of(2026, 10, 17, 18, 0),
+                LocalDateTime.of(2026, 10, 18, 12, 0),
+                LocalDateTime.of(2026, 10, 19, 8, 0),
+                LocalDateTime.of(2026, 10, 19, 20, 0)};
+        for (int i = 0; i < times.length; i++) {
+            own.add(blob("s" + i + ".txt", "session-" + i));
+            saveSession(times[i], own.get(i), i >= 2 ? shared : null);
+        }
+        Config config = new Config();
+        config.setRetainSessions(2);
+        config.setRetainDailyDays(3);
+
+        BackupRetention.Result result = BackupRetention.enforce(config, backup, TODAY);
+
+        assertEquals(List.of("record/backup-20261010-100000.json", "record/backup-20261017-090000.json"),
+                result.plan().pruned(), "10 日超出天数范围，17 日只保留当天最后一次");
+        assertEquals(2, result.sweep().deleted());
+        assertEquals("session-0".length() + "session-1".length(), result.sweep().bytesReclaimed());
+        assertFalse(Files.exists(own.get(0)));
+        assertFalse(Files.exists(own.get(1)));
+        for (int i = 2; i < own.size(); i++) {
+            assertTrue(Files.exists(own.get(i)), "保留会话引用的备份不动: " + i);
+        }
+        assertTrue(Files.exists(shared));
+        assertFalse(Files.exists(backup.resolve("record/backup-20261010-100000.json")));
+        assertTrue(Files.exists(backup.resolve("record/backup-20261017-180000.json")));
+    }
+
+    @Test
+    void sizeCapPrunesOldestFirstButKeepsNewest() throws IOException {
+        List<Path> own = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            own.add(blob("big" + i + ".bin", String.valueOf((char) ('a' + i)).repeat(400 * 1024)));
+            saveSession(LocalDateTime.of(2026, 10, 15 + i, 12, 0), own.get(i), null);
+        }
+        Config config = new Config();
+        config.setMaxBackupMegabytes(1);
+
+        BackupRetention.Result result = BackupRetention.enforce(config, backup, TODAY);
+
+        assertEquals(2, result.plan().pruned().size(), "清理到 1MB 以下即停止");
+        assertTrue(result.plan().bytesAfter() <= 1024 * 1024);
+        assertFalse(Files.exists(own.get(0)));
+        assertFalse(Files.exists(own.get(1)));
+        assertTrue(Files.exists(own.get(2)));
+        assertTrue(Files.exists(own.get(3)));
+
+        // 原本就孤立的大文件不归保留策略清理：超出上限时最新会话仍保留
+        blob("huge.bin", "x".repeat(2 * 1024 * 1024));
+        config.setRetainSessions(1);
+        BackupRetention.enforce(config, backup, TODAY);
+        assertFalse(Files.exists(own.get(2)));
+        assertTrue(Files.exists(own.get(3)), "超出上限时最新会话仍保留");
+        assertTrue(Files.exists(backup.resolve("huge.bin")));
+    }
+
+    @Test
+    void runsInBackgroundOnlyWhenConfigured() throws IOException {
+        Path old = blob("old.txt", "old");
+        saveSession(LocalDateTime.of(2026, 10, 1, 12, 0), old, null);
+        saveSession(LocalDateTime.now(), blob("new.txt", "new"), null);
+
+        assertFalse(BackupRetention.enforceInBackground(new Config(), backup), "未配置保留策略时不启动");
+
+        Config config = new Config();
+        config.setRetainSessions(1);
+        assertTrue(BackupRetention.enforceInBackground(config, backup));
+        assertTrue(BackupGc.awaitBackground(5_000));
+        assertFalse(Files.exists(old), "后台清理完成");
+        assertFalse(Files.exists(backup.resolve("record/backup-20261001-120000.json")));
+    }
+
+    @Test
+    void finishBackgroundCompletesPendingRetentionBeforeExit() throws IOException {
+        Path old = blob("old.txt", "old");
+        saveSession(LocalDateTime.of(2026, 10, 1, 12, 0), old, null);
+        saveSession(LocalDateTime.now(), blob("new.txt", "new"), null);
+        Config config = new Config();
+        config.setRetainSessions(1);
+
+        assertTrue(BackupRetention.enforceInBackground(config, backup));
+        // 无头命令行退出前调用：不再按预算分步，跑完记录与备份的清理
+        assertTrue(BackupGc.finishBackground(5_000));
+        assertFalse(Files.exists(backup.resolve("record/backup-20261001-120000.json")));
+        assertFalse(Files.exists(old), "记录与只被它引用的备份都应在退出前清理完");
+    }
+
+    private Path blob(String relative, String content) throws IOException {
+        Path file = backup.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private void saveSession(LocalDateTime time, Path blob, Path sharedBlob) {
+        ProcessingResult result = new ProcessingResult();
+        List<OperationRecord> ops = new ArrayList<>();
+        for (Path file : sharedBlob == null ? List.of(blob) : List.of(blob, sharedBlob)) {
+            OperationRecord op = new OperationRecord();
+            op.setSourceFileSign(FileSignUtil.getFileMd5(file));
+            ops.add(op);
+        }
+        result.setOperationRecords(ops);
+        result.setResultTime(time);
+        assertTrue(BackupFileLoader.saveOperationRecord(result));
+    }
+}
@@ -0,0 +1,187 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.context.FileBatch;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.PlanTotals;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.BatchOperationStrategy;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.model.Config;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量策略 SPI 测试：
+ * - 批量策略一次收到同目录全部兄弟文件与预解析的规则参数，进度仍按文件上报
+ * - 只实现单节点 execute 的策略自动逐节点适配
+ * - 批中某个节点抛异常：只记该节点失败，其余节点继续处理
+ * - 同名策略批量判断目标存在（目录列表）与逐文件判断结果一致
+ */
+class BatchStrategyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void batchStrategyReceivesSiblingsWithParams() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        StrategyFactory.register("TestBatchRecorder", () -> new RecordingBatchStrategy(batchSizes, tags, -1), "测试策略");
+        Path updateDir = prepareUpdate("TestBatchRecorder", 20, ",\"replacements\":{\"tag\":\"x\"}");
+        AtomicInteger progress = new AtomicInteger();
+
+        OperationContext context = process(updateDir, progress);
+
+        assertEquals(List.of(20), batchSizes, "同目录 20 个兄弟文件应整批交给策略");
+        assertEquals(List.of("x"), tags, "批上携带预解析的规则参数");
+        assertEquals(20, progress.get(), "进度仍按文件逐个上报");
+        assertEquals(0, context.getProcessingResult().getErrorCount());
+    }
+
+    @Test
+    void singleNodeStrategyIsAdapted() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        StrategyFactory.register("TestSingleNode", () -> new OperationStrategy() {
+            @Override
+            public String getStrategyType() {
+                return "TestSingleNode";
+            }
+
+            @Override
+            public void execute(FileNode node, OperationContext context, String[] operationType) {
+                if (!node.isDirectory()) {
+                    calls.incrementAndGet();
+                }
+            }
+        }, "测试策略");
+        Path updateDir = prepareUpdate("TestSingleNode", 5, "");
+        AtomicInteger progress = new AtomicInteger();
+
+        process(updateDir, progress);
+
+        assertEquals(5, calls.get(), "单节点策略逐个执行");
+        assertEquals(5, progress.get());
+    }
+
+    @Test
+    void failureInBatchIsContainedToOneNode() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        List<String> tags = new ArrayList<>();
+        StrategyFactory.register("TestBatchFailing", () -> new RecordingBatchStrategy(batchSizes, tags, 2), "测试策略");
+        Path updateDir = prepareUpdate("TestBatchFailing", 5, "");
+        AtomicInteger progress = new AtomicInteger();
+
+        OperationContext context = process(updateDir, progress);
+
+        assertEquals(1, context.getProcessingResult().getErrorCount(), "只有抛异常的节点记失败");
+        assertEquals(List.of(5, 2), batchSizes, "异常节点之后的节点作为剩余批继续处理");
+        assertEquals(5, progress.get(), "失败节点同样计为完成");
+    }
+
+    @Test
+    void batchedTargetLookupMatchesPerFileCheck() throws IOException {
+        Path updateDir = prepareUpdate("FileSameName", 40, "");
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        for (int i = 0; i < 40; i += 2) {
+            Files.writeString(targetDir.resolve("f" + i + ".txt"), "old-" + i);
+        }
+
+        OperationContext context = process(updateDir, new AtomicInteger());
+
+        PlanTotals totals = context.getPlanTotals();
+        assertEquals(20, totals.getAdded(), "目标不存在的文件计划新增");
+        assertEquals(20, totals.getReplaced(), "目标已存在的文件计划替换");
+    }
+
+    private Path prepareUpdate(String strategyType, int files, String extraRuleFields) throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        for (int i = 0; i < files; i++) {
+            Files.writeString(updateDir.resolve("f" + i + ".txt"), "new-" + i);
+        }
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"" + strategyType + "\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false"
+                        + extraRuleFields + "}",
+                StandardCharsets.UTF_8);
+        return updateDir;
+    }
+
+    private OperationContext process(Path updateDir, AtomicInteger progress) throws IOException {
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(Files.createDirectories(tempDir.resolve("target")).toAbsolutePath());
+        OperationContext context = new OperationContext(config);
+        context.setDryRun(true);
+        FileNode tree = FileTreeBuilder.buildLazyTree(updateDir);
+        context.setProgressCallback((done, total, current) -> progress.incrementAndGet(),
+                FileTreeBuilder.countProcessableFiles(tree));
+        tree.process(null, context, FileNode.UPDATE_OPERATION);
+        return context;
+    }
+
+    /**
+     * 记录每批大小与参数；failAt 指定的批内序号抛异常（-1 不抛）
+     */
+    private static final class RecordingBatchStrategy implements BatchOperationStrategy {
+        private final List<Integer> batchSizes;
+        private final List<String> tags;
+        private final int failAt;
+
+        RecordingBatchStrategy(List<Integer> batchSizes, List<String> tags, int failAt) {
+            this.batchSizes = batchSizes;
+            this.tags = tags;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public String getStrategyType() {
+            return "TestBatch";
+        }
+
+        @Override
+        public void execute(FileNode node, OperationContext context, String[] operationType) {
+            // 目录节点仍逐个执行；文件只应经 executeBatch 进入
+            if (!node.isDirectory()) {
+                throw new AssertionError("批量策略的文件节点不应逐个调用");
+            }
+        }
+
+        @Override
+        public void executeBatch(FileBatch batch, OperationContext context, String[] operationType) {
+            batchSizes.add(batch.getNodes().size());
+            String tag = batch.getParams().getString("tag");
+            if (tag != null) {
+                tags.add(tag);
+            }
+            boolean first = batchSizes.size() == 1;
+            List<? extends FileNode> nodes = batch.getNodes();
+            for (int i = 0; i < nodes.size(); i++) {
+                assertTrue(context.getFileBatch() != null, "批量执行期间上下文持有当前批");
+                if (first && i == failAt) {
+                    throw new IllegalStateException("批内第 " + i + " 个节点失败");
+                }
+                batch.done(nodes.get(i));
+            }
+        }
+    }
+}
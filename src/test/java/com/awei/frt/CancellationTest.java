@@ -0,0 +1,148 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.context.CancellationToken;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.ProgressCallback;
+import com.awei.frt.core.uitls.FileUtil;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.service.FileUpdateServiceNew;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 协作式取消测试：
+ * - 执行中取消：在文件检查点停下，已完成的保留、其余不动，结果标记为中途取消并询问是否回滚
+ * - 取消后确认回滚：目标回到操作前状态
+ * - 事务化更新取消：放弃暂存，目标不改动
+ * - 复制中途取消：新增删除半成品，替换用备份还原
+ */
+class CancellationTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CancellationToken token = new CancellationToken();
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void cancelStopsAtFileCheckpointAndOffersRollback() throws IOException {
+        Config config = prepare(false);
+        Deque<String> answers = new ArrayDeque<>(List.of("y", "n"));
+
+        ProcessingResult result = new FileUpdateServiceNew(config, answers::poll)
+                .updateExecute(cancelAfter(2), token);
+
+        assertTrue(result.isInterrupted());
+        assertEquals(2, result.getSuccessCount(), "取消前完成的文件保留");
+        assertEquals(0, result.getErrorCount());
+        assertEquals(2, countUpdated(), "取消后其余文件不再处理");
+        assertTrue(answers.isEmpty(), "中途取消应询问是否立即回滚");
+    }
+
+    @Test
+    void rollbackAfterCancelRestoresTarget() throws IOException {
+        Config config = prepare(false);
+        Deque<String> answers = new ArrayDeque<>(List.of("y", "y"));
+
+        ProcessingResult result = new FileUpdateServiceNew(config, answers::poll)
+                .updateExecute(cancelAfter(3), token);
+
+        assertTrue(result.isInterrupted());
+        assertEquals(0, countUpdated(), "确认回滚后目标回到操作前状态");
+        assertEquals("old-0", Files.readString(tempDir.resolve("target").resolve("f0.txt")));
+    }
+
+    @Test
+    void transactionalCancelLeavesTargetUntouched() throws IOException {
+        Config config = prepare(true);
+
+        ProcessingResult result = new FileUpdateServiceNew(config, () -> "y")
+                .updateExecute(cancelAfter(2), token);
+
+        assertTrue(result.isInterrupted());
+        assertEquals(0, result.getSuccessCount(), "事务放弃后没有已执行的操作");
+        assertEquals(0, countUpdated(), "事务化更新取消后目标不改动");
+    }
+
+    @Test
+    void cancelledCopyCleansUpPartialTarget() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path source = Files.write(tempDir.resolve("new.bin"), new byte[3 * 1024 * 1024]);
+        Path replaced = Files.writeString(tempDir.resolve("old.bin"), "old-content");
+        Path added = tempDir.resolve("added.bin");
+        Config config = ConfigLoader.getConfig().copy();
+        config.setTargetPath(tempDir.toAbsolutePath());
+        OperationContext context = new OperationContext(config);
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        context.setCancellation(cancelled);
+
+        OperationRecord replaceRecord = new OperationRecord();
+        assertFalse(FileUtil.replaceFile(source, replaced, replaceRecord, context));
+        assertEquals("old-content", Files.readString(replaced), "替换中途取消应还原为替换前内容");
+        assertTrue(replaceRecord.getErrorMessage().contains("取消"));
+
+        assertFalse(FileUtil.addFile(source, added, new OperationRecord(), context));
+        assertFalse(Files.exists(added), "新增中途取消不应留下半成品");
+    }
+
+    // 第 n 个文件完成后请求取消（模拟操作者点击停止）
+    private ProgressCallback cancelAfter(int n) {
+        return (processed, total, current) -> {
+            if (processed >= n) {
+                token.cancel();
+            }
+        };
+    }
+
+    private Config prepare(boolean transactional) throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        for (int i = 0; i < 6; i++) {
+            Files.writeString(updateDir.resolve("f" + i + ".txt"), "new-" + i);
+            Files.writeString(targetDir.resolve("f" + i + ".txt"), "old-" + i);
+        }
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false}",
+                StandardCharsets.UTF_8);
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(targetDir.toAbsolutePath());
+        config.setTransactionalUpdate(transactional);
+        return config;
+    }
+
+    private long countUpdated() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir.resolve("target"))) {
+            return files.filter(f -> {
+                try {
+                    return Files.readString(f).startsWith("new-");
+                } catch (IOException e) {
+                    return false;
+                }
+            }).count();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.model.RestoreResult;
+import com.awei.frt.service.FanOutUpdateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多目标分发测试：
+ * - 一次扫描并发更新多个目标，各目标独立结果与备份命名空间
+ * - 各目标原文件内容相同（备份按内容复用）时，每个命名空间的记录都能恢复
+ * - 预览不改动任何目标
+ */
+class FanOutUpdateTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void appliesToAllTargetsWithSeparateNamespaces() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        List<Path> targets = prepareTargets(3);
+
+        FanOutUpdateService service = new FanOutUpdateService(configFor(updateDir), targets, () -> "n", 3);
+        Map<Path, ProcessingResult> results = service.applyUpdate();
+
+        assertEquals(3, results.size());
+        for (Path target : targets) {
+            ProcessingResult result = results.get(target);
+            assertEquals(2, result.getSuccessCount(), "每个目标都应新增 1 个、替换 1 个文件: " + target);
+            assertEquals("new-a", Files.readString(target.resolve("a.txt")));
+            assertEquals("new-b", Files.readString(target.resolve("sub").resolve("b.txt")));
+            Path recordDir = tempDir.resolve("backup").resolve(BackupFileLoader.NAMESPACES_DIR)
+                    .resolve(FanOutUpdateService.namespaceOf(target)).resolve("record");
+            try (var files = Files.list(recordDir)) {
+                assertEquals(1, files.filter(f -> f.getFileName().toString().matches("backup-.*\\d\\.json")).count(),
+                        "每个目标在自己的命名空间保存一个操作记录");
+            }
+        }
+        assertTrue(service.getLastSourceIndex().getHits() > 0, "源文件哈希应在目标间共享");
+        assertNotEquals(FanOutUpdateService.namespaceOf(targets.get(0)), FanOutUpdateService.namespaceOf(targets.get(1)));
+    }
+
+    @Test
+    void eachNamespaceRestoresIdenticalOriginals() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        List<Path> targets = prepareTargets(2);
+        new FanOutUpdateService(configFor(updateDir), targets, () -> "n", 2).applyUpdate();
+
+        for (Path target : targets) {
+            RestoreResult restore = BackupFileLoader.runInNamespace(FanOutUpdateService.namespaceOf(target), () -> {
+                Map<String, ProcessingResult> records = BackupFileLoader.getOperationRecordFiles();
+                assertEquals(1, records.size());
+                return BackupFileLoader.restoreFromResult(records.values().iterator().next(), () -> "n");
+            });
+            assertTrue(restore.isFullSuccess(), "命名空间内记录应完整恢复: " + restore.getFailureMessages());
+            assertEquals("old-a", Files.readString(target.resolve("a.txt")));
+            assertFalse(Files.exists(target.resolve("sub").resolve("b.txt")));
+        }
+    }
+
+    @Test
+    void planDoesNotTouchTargets() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        List<Path> targets = prepareTargets(2);
+
+        Map<Path, ProcessingResult> plans =
+                new FanOutUpdateService(configFor(updateDir), targets, () -> "n", 2).planUpdate();
+
+        for (Path target : targets) {
+            assertEquals(2, plans.get(target).getOperationRecords().size());
+            assertEquals("old-a", Files.readString(target.resolve("a.txt")));
+            assertFalse(Files.exists(target.resolve("sub")));
+        }
+        assertFalse(Files.exists(tempDir.resolve("backup").resolve(BackupFileLoader.NAMESPACES_DIR)),
+                "预览不应写入任何备份命名空间");
+    }
+
+    // ---------------- 辅助 ----------------
+
+    private Path prepareUpdateDir() throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "new-a");
+        Files.createDirectories(updateDir.resolve("sub"));
+        Files.writeString(updateDir.resolve("sub").resolve("b.txt"), "new-b");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":true}",
+                StandardCharsets.UTF_8);
+        return updateDir;
+    }
+
+    // 各目标的 a.txt 原内容相同（备份按 MD5 复用同一份文件）
+    private List<Path> prepareTargets(int count) throws IOException {
+        List<Path> targets = new java.util.ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path target = Files.createDirectories(tempDir.resolve("server" + i));
+            Files.writeString(target.resolve("a.txt"), "old-a");
+            targets.add(target.toAbsolutePath());
+        }
+        return targets;
+    }
+
+    private Config configFor(Path updateDir) {
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setIncrementalUpdate(false);
+        return config;
+    }
+}
@@ -0,0 +1,49 @@
+package com.awei.frt;
+
+import com.awei.frt.util.FileLogBatch;
+import com.awei.frt.util.LoggerUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 逐文件日志汇总测试：
+ * - 按类别计数，汇总文本包含各类别与失败数
+ * - DEBUG 未开启时成功明细不构建消息；失败明细始终输出
+ */
+class FileLogBatchTest {
+
+    @Test
+    void countsByCategoryAndSummarizes() {
+        FileLogBatch log = new FileLogBatch();
+        for (int i = 0; i < 3; i++) {
+            log.record(FileLogBatch.ADDED, true, () -> "+ a 成功");
+        }
+        log.record(FileLogBatch.IGNORED, true, () -> "忽略文件：b");
+        log.record(FileLogBatch.REPLACED, false, () -> "= c 失败");
+
+        assertEquals(3, log.getCount(FileLogBatch.ADDED));
+        assertEquals(1, log.getCount(FileLogBatch.IGNORED));
+        assertEquals(0, log.getCount(FileLogBatch.REPLACED), "失败不计入成功类别");
+        assertEquals(1, log.getFailed());
+        assertEquals("新增 3, 忽略 1, 失败 1", log.summary());
+        log.flush();
+    }
+
+    @Test
+    void successDetailIsNotBuiltWhenDebugDisabled() {
+        assertFalse(LoggerUtil.isDebugEnabled(), "默认配置下 DEBUG 关闭");
+        FileLogBatch log = new FileLogBatch();
+        AtomicInteger built = new AtomicInteger();
+        for (int i = 0; i < 2500; i++) {
+            log.record(FileLogBatch.ADDED, true, () -> "+ x 成功" + built.incrementAndGet());
+        }
+        log.record(FileLogBatch.DELETED, false, () -> "- y 失败" + built.incrementAndGet());
+
+        assertEquals(1, built.get(), "只有失败明细被构建");
+        assertEquals(2500, log.getCount(FileLogBatch.ADDED));
+    }
+}
@@ -0,0 +1,98 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.uitls.FileSignUtil;
+import com.awei.frt.core.uitls.FileTransferUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 复制 + 特征码一遍读取测试：
+ * - 未知特征码：边复制边计算，结果与单独计算一致，源/目标特征码登记到缓存
+ * - 已知特征码：零拷贝，不再读盘哈希
+ * - 覆盖更长的旧目标：内容精确一致（尾部截断）
+ * - 同内容备份只保留一份，不残留临时文件
+ */
+class FileTransferUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        FileSignUtil.clearCache();
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void copyComputesMd5InSamePass() throws IOException {
+        Path source = writeRandom(tempDir.resolve("big.jar"), 3 * 1024 * 1024 + 17);
+        Path target = tempDir.resolve("copy.jar");
+        FileSignUtil.clearCache();
+
+        long hashedBefore = FileSignUtil.getBytesHashed();
+        String md5 = FileTransferUtil.copyWithMd5(source, target);
+
+        assertEquals(Files.size(source), FileSignUtil.getBytesHashed() - hashedBefore, "源文件只应读一遍");
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+        assertEquals(md5, FileSignUtil.getCachedMd5(source), "源特征码应登记到缓存");
+        assertEquals(md5, FileSignUtil.getCachedMd5(target), "目标特征码应登记到缓存");
+        FileSignUtil.clearCache();
+        assertEquals(FileSignUtil.getFileMd5(source), md5, "与单独计算的结果一致");
+    }
+
+    @Test
+    void knownMd5UsesZeroCopy() throws IOException {
+        Path source = writeRandom(tempDir.resolve("pack.zip"), 256 * 1024);
+        String md5 = FileSignUtil.getFileMd5(source);
+
+        long hashedBefore = FileSignUtil.getBytesHashed();
+        assertEquals(md5, FileTransferUtil.copyWithMd5(source, tempDir.resolve("out.zip")));
+        assertEquals(hashedBefore, FileSignUtil.getBytesHashed(), "特征码已知时不应再哈希");
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(tempDir.resolve("out.zip")));
+    }
+
+    @Test
+    void copyOverLongerTargetIsExact() throws IOException {
+        Path source = writeRandom(tempDir.resolve("small.bin"), 1000);
+        Path target = writeRandom(tempDir.resolve("old.bin"), 5000);
+
+        FileTransferUtil.copyWithMd5(source, target);
+
+        assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+    }
+
+    @Test
+    void identicalContentIsBackedUpOnce() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path first = Files.createDirectories(tempDir.resolve("a")).resolve("same.txt");
+        Path second = Files.createDirectories(tempDir.resolve("b")).resolve("same.txt");
+        Files.writeString(first, "same-content");
+        Files.writeString(second, "same-content");
+        FileSignUtil.clearCache();
+
+        assertTrue(BackupFileLoader.addBackupFile(first));
+        assertTrue(BackupFileLoader.addBackupFile(second));
+
+        try (Stream<Path> files = Files.walk(tempDir.resolve("backup"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count(), "同内容只保留一份备份，且不残留临时文件");
+        }
+    }
+
+    private static Path writeRandom(Path file, int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return Files.write(file, data);
+    }
+}
@@ -0,0 +1,139 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.service.FileWatchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 监听模式测试：
+ * - 批次只处理变化文件，子目录规则按祖先链继承
+ * - 每个批次独立保存操作记录（同一秒内不互相覆盖）
+ * - 真实监听：放入 update 目录的文件在静默期后自动同步到目标目录
+ */
+class FileWatchServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void restoreBackupPath() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void batchProcessesOnlyChangedFilesWithInheritedRule() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Path nested = Files.createDirectories(updateDir.resolve("config").resolve("deep"));
+        Files.writeString(nested.resolve("changed.txt"), "v2");
+        Files.writeString(nested.resolve("untouched.txt"), "same");
+        Config config = configFor(updateDir);
+
+        ProcessingResult result = new FileWatchService(config)
+                .applyBatch(Set.of(nested.resolve("changed.txt")), Set.of());
+
+        Path targetDir = tempDir.resolve("target");
+        assertEquals(1, result.getSuccessCount(), "只应处理变化的文件");
+        assertTrue(Files.exists(targetDir.resolve("config/deep/changed.txt")), "根目录规则应继承到深层目录");
+        assertFalse(Files.exists(targetDir.resolve("config/deep/untouched.txt")));
+    }
+
+    @Test
+    void eachBatchWritesOwnRecord() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Files.writeString(updateDir.resolve("a.txt"), "a");
+        Files.writeString(updateDir.resolve("b.txt"), "b");
+        FileWatchService service = new FileWatchService(configFor(updateDir));
+
+        service.applyBatch(Set.of(updateDir.resolve("a.txt")), Set.of());
+        service.applyBatch(Set.of(updateDir.resolve("b.txt")), Set.of());
+
+        assertEquals(2, service.getBatchCount());
+        assertEquals(2, BackupFileLoader.loadOperationRecordsFiles().size(), "同一秒内的两个批次应各有一个记录");
+    }
+
+    @Test
+    void watchLoopPropagatesDroppedFile() throws Exception {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        FileWatchService service = new FileWatchService(configFor(updateDir), 200);
+        Thread watcher = new Thread(() -> {
+            try {
+                service.run();
+            } catch (IOException ignored) {
+            }
+        }, "watch-test");
+        watcher.start();
+        try {
+            Thread.sleep(500); // 等待注册完成
+            Files.createDirectories(updateDir.resolve("sub"));
+            Files.writeString(updateDir.resolve("sub").resolve("dropped.txt"), "hello");
+
+            Path expected = tempDir.resolve("target").resolve("sub").resolve("dropped.txt");
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!Files.exists(expected) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(Files.exists(expected), "放入 update 的文件应在数秒内同步到目标目录");
+        } finally {
+            service.stop();
+            watcher.join(5000);
+        }
+    }
+
+    @Test
+    void stopWithTimeoutWaitsForLoopExit() throws Exception {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        FileWatchService service = new FileWatchService(configFor(updateDir), 200);
+        Thread watcher = new Thread(() -> {
+            try {
+                service.run();
+            } catch (IOException ignored) {
+            }
+        }, "watch-test");
+        watcher.start();
+        Thread.sleep(300); // 等待监听循环启动
+        Files.writeString(updateDir.resolve("late.txt"), "late");
+
+        assertTrue(service.stop(10_000), "监听循环应在超时前退出");
+        assertFalse(service.isRunning());
+        watcher.join(5000);
+        assertFalse(watcher.isAlive());
+    }
+
+    // ---------------- 辅助 ----------------
+
+    private Path prepareUpdateDir() throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":true}",
+                StandardCharsets.UTF_8);
+        Files.createDirectories(tempDir.resolve("target"));
+        return updateDir;
+    }
+
+    private Config configFor(Path updateDir) {
+        Config config = ConfigLoader.getConfig();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(tempDir.resolve("target").toAbsolutePath());
+        config.setDeletePath(tempDir.resolve("delete").toAbsolutePath());
+        return config;
+    }
+}
@@ -0,0 +1,111 @@
+package com.awei.frt;
+
+import com.awei.frt.cli.FrtCli;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 无头命令行测试：
+ * - 不带 --yes 只输出 JSON 计划，不改动文件，退出码 3
+ * - 带 --yes 真正执行，输出结果，退出码 0；之后 restore --yes 恢复
+ * - 参数错误退出码 2
+ */
+class FrtCliTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void planWithoutYesDoesNotTouchFiles() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Path targetDir = tempDir.resolve("target");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int code = FrtCli.run(new String[]{"update", "--json",
+                "--update", updateDir.toString(), "--target", targetDir.toString()}, print(buffer));
+
+        assertEquals(FrtCli.EXIT_NOT_CONFIRMED, code);
+        JsonNode report = mapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        assertEquals("planned", report.get("status").asText());
+        assertEquals(2, report.get("plan").size());
+        assertEquals(FrtCli.EXIT_NOT_CONFIRMED, report.get("exitCode").asInt());
+        assertEquals("old-a", Files.readString(targetDir.resolve("a.txt")), "计划模式不应改动目标目录");
+        assertFalse(Files.exists(targetDir.resolve("sub")), "计划模式不应新增文件");
+    }
+
+    @Test
+    void yesAppliesAndRestoreReverts() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Path targetDir = tempDir.resolve("target");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int code = FrtCli.run(new String[]{"update", "--yes", "--json",
+                "--update", updateDir.toString(), "--target", targetDir.toString()}, print(buffer));
+
+        assertEquals(FrtCli.EXIT_OK, code);
+        JsonNode report = mapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        assertEquals("applied", report.get("status").asText());
+        assertEquals(2, report.get("result").get("successCount").asInt());
+        assertEquals("new-a", Files.readString(targetDir.resolve("a.txt")));
+        assertEquals("new-b", Files.readString(targetDir.resolve("sub").resolve("b.txt")));
+
+        buffer.reset();
+        code = FrtCli.run(new String[]{"restore", "--yes", "--json"}, print(buffer));
+        assertEquals(FrtCli.EXIT_OK, code);
+        report = mapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        assertEquals("applied", report.get("status").asText());
+        assertEquals("old-a", Files.readString(targetDir.resolve("a.txt")), "替换的文件应恢复为原内容");
+        assertFalse(Files.exists(targetDir.resolve("sub").resolve("b.txt")), "新增的文件应被移除");
+    }
+
+    @Test
+    void usageErrors() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        assertEquals(FrtCli.EXIT_USAGE, FrtCli.run(new String[]{"update", "--bogus"}, print(buffer)));
+        assertEquals(FrtCli.EXIT_USAGE, FrtCli.run(new String[]{"update", "--target"}, print(buffer)));
+        assertTrue(buffer.toString(StandardCharsets.UTF_8).contains("用法"));
+        assertFalse(FrtCli.isCommand("--ui"));
+    }
+
+    // ---------------- 辅助 ----------------
+
+    private Path prepareUpdateDir() throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "new-a");
+        Files.createDirectories(updateDir.resolve("sub"));
+        Files.writeString(updateDir.resolve("sub").resolve("b.txt"), "new-b");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":true}",
+                StandardCharsets.UTF_8);
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(targetDir.resolve("a.txt"), "old-a");
+        return updateDir;
+    }
+
+    private static PrintStream print(ByteArrayOutputStream buffer) {
+        return new PrintStream(buffer, true, StandardCharsets.UTF_8);
+    }
+}
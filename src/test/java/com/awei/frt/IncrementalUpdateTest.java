@@ -0,0 +1,108 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.sync.SyncState;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.service.FileUpdateServiceNew;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量更新（同步清单）测试：
+ * - 成功会话后保存清单，无变化的再次更新不执行任何操作
+ * - 只重新处理源文件有变化的节点
+ * - 规则变化时重新处理其管辖的全部节点
+ */
+class IncrementalUpdateTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        ConfigLoader.getConfig().setIncrementalUpdate(false);
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void unchangedRunDoesNothing() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir("*.txt");
+        Config config = configFor(updateDir);
+
+        ProcessingResult first = new FileUpdateServiceNew(config, () -> "y").updateExecute();
+        assertEquals(3, first.getSuccessCount());
+        assertTrue(Files.exists(SyncState.getManifestPath()), "成功会话后应保存同步清单");
+
+        ProcessingResult second = new FileUpdateServiceNew(config, () -> "y").updateExecute();
+        assertEquals(0, second.getSuccessCount(), "无变化时不应再执行任何操作");
+        assertEquals(0, second.getOperationRecords().size());
+    }
+
+    @Test
+    void onlyChangedSourceIsReprocessed() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir("*.txt");
+        Config config = configFor(updateDir);
+        new FileUpdateServiceNew(config, () -> "y").updateExecute();
+
+        Path changed = updateDir.resolve("sub").resolve("c.txt");
+        Files.writeString(changed, "ccc-v2", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(changed, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        ProcessingResult result = new FileUpdateServiceNew(config, () -> "y").updateExecute();
+        assertEquals(1, result.getSuccessCount(), "只应处理变化的 sub/c.txt");
+        assertEquals("ccc-v2", Files.readString(tempDir.resolve("target").resolve("sub").resolve("c.txt")));
+    }
+
+    @Test
+    void ruleChangeReprocessesGovernedFiles() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir("*.txt");
+        Config config = configFor(updateDir);
+        new FileUpdateServiceNew(config, () -> "y").updateExecute();
+
+        writeRule(updateDir, "*");
+        ProcessingResult result = new FileUpdateServiceNew(config, () -> "y").updateExecute();
+        assertEquals(4, result.getSuccessCount(), "规则变化后应重新处理规则管辖的全部文件（含新匹配的 d.cfg）");
+    }
+
+    // ---------------- 辅助 ----------------
+
+    private Path prepareUpdateDir(String pattern) throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "aaa");
+        Files.writeString(updateDir.resolve("b.txt"), "bbb");
+        Files.writeString(updateDir.resolve("d.cfg"), "ddd");
+        Files.createDirectories(updateDir.resolve("sub"));
+        Files.writeString(updateDir.resolve("sub").resolve("c.txt"), "ccc");
+        writeRule(updateDir, pattern);
+        Files.createDirectories(tempDir.resolve("target"));
+        return updateDir;
+    }
+
+    private void writeRule(Path updateDir, String pattern) throws IOException {
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"" + pattern + "\"],\"inheritToSubfolders\":true}",
+                StandardCharsets.UTF_8);
+    }
+
+    private Config configFor(Path updateDir) {
+        Config config = ConfigLoader.getConfig();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(tempDir.resolve("target").toAbsolutePath());
+        config.setIncrementalUpdate(true);
+        return config;
+    }
+}
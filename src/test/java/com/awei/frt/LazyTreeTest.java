@@ -0,0 +1,121 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.node.FolderNode;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.MatchRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 延迟文件树测试：
+ * - 无有效规则被跳过的子树不会被列出，有规则的目录在处理器进入时列出
+ * - 处理结果与全量构建的树一致；待处理文件数只统计有规则的目录
+ * - 访问子节点时按需列出
+ * - 统计与处理两遍遍历共用每个目录解析好的规则
+ */
+class LazyTreeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void skippedSubtreesAreNeverListed() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+
+        FolderNode lazy = (FolderNode) FileTreeBuilder.buildLazyTree(updateDir);
+        assertFalse(lazy.isListed(), "构建时只创建根节点");
+        OperationContext lazyContext = previewContext(updateDir);
+        lazy.process(null, lazyContext, FileNode.UPDATE_OPERATION);
+
+        FolderNode screenshots = (FolderNode) lazy.getChild("screenshots");
+        FolderNode mods = (FolderNode) lazy.getChild("mods");
+        assertFalse(screenshots.isListed(), "无规则的子树不应被列出");
+        assertTrue(mods.isListed(), "有本地规则的目录应被列出");
+
+        OperationContext eagerContext = previewContext(updateDir);
+        FileTreeBuilder.buildTree(updateDir).process(null, eagerContext, FileNode.UPDATE_OPERATION);
+        assertEquals(2, lazyContext.getProcessingResult().getSuccessCount());
+        assertEquals(eagerContext.getProcessingResult().getSuccessCount(),
+                lazyContext.getProcessingResult().getSuccessCount(), "与全量构建的处理结果一致");
+    }
+
+    @Test
+    void processableCountOnlyListsRuleFolders() throws IOException {
+        Path updateDir = prepareUpdateDir();
+
+        FolderNode lazy = (FolderNode) FileTreeBuilder.buildLazyTree(updateDir);
+        assertEquals(2, FileTreeBuilder.countProcessableFiles(lazy));
+        assertFalse(((FolderNode) lazy.getChild("screenshots")).isListed());
+
+        FolderNode screenshots = (FolderNode) lazy.getChild("screenshots");
+        assertNotNull(screenshots.getChild("shot-1.png"), "访问子节点时按需列出");
+        assertTrue(screenshots.isListed());
+        assertEquals(2, screenshots.getChildCount());
+    }
+
+    @Test
+    void countingPassSharesParsedRulesWithProcessing() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+
+        FolderNode lazy = (FolderNode) FileTreeBuilder.buildLazyTree(updateDir);
+        assertEquals(2, FileTreeBuilder.countProcessableFiles(lazy));
+        FolderNode mods = (FolderNode) lazy.getChild("mods");
+        MatchRule parsed = mods.getLocalRule();
+        // 统计后规则文件不再被读取：删除后处理仍使用统计时解析的规则
+        Files.delete(mods.getPath().resolve("matching-rules.json"));
+
+        OperationContext context = previewContext(updateDir);
+        lazy.process(null, context, FileNode.UPDATE_OPERATION);
+        assertSame(parsed, mods.getLocalRule(), "处理时应复用统计时解析的规则");
+        assertEquals(2, context.getProcessingResult().getSuccessCount());
+    }
+
+    private Path prepareUpdateDir() throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "new-a");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false}",
+                StandardCharsets.UTF_8);
+        Path mods = Files.createDirectories(updateDir.resolve("mods"));
+        Files.writeString(mods.resolve("b.txt"), "new-b");
+        Files.writeString(mods.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"]}", StandardCharsets.UTF_8);
+        Path screenshots = Files.createDirectories(updateDir.resolve("screenshots"));
+        Files.writeString(screenshots.resolve("shot-1.png"), "png");
+        Files.writeString(screenshots.resolve("shot-2.png"), "png");
+        Files.createDirectories(tempDir.resolve("target"));
+        return updateDir;
+    }
+
+    private OperationContext previewContext(Path updateDir) {
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(tempDir.resolve("target").toAbsolutePath());
+        OperationContext context = new OperationContext(config);
+        context.setDryRun(true);
+        return context;
+    }
+}
@@ -0,0 +1,96 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.node.FolderNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 紧凑节点树测试：
+ * - 子节点路径/相对路径由父链推导，与按完整路径构建的结果一致
+ * - 按名称查找子节点（小目录线性、大目录索引），同名节点共享名称实例
+ * - 子节点视图不复制、不可修改；树副本结构一致且处理状态独立
+ */
+class LeanTreeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void derivedPathsMatchFileSystem() throws IOException {
+        Path root = prepareTree();
+        FolderNode tree = (FolderNode) FileTreeBuilder.buildTree(root);
+
+        FolderNode mods = (FolderNode) tree.getChild("mods");
+        FileNode jar = ((FolderNode) mods.getChild("sub")).getChild("deep.jar");
+        assertEquals(root.resolve("mods").resolve("sub").resolve("deep.jar"), jar.getPath());
+        assertEquals("mods/sub/deep.jar", jar.getRelativePath());
+        assertEquals("deep.jar", jar.getName());
+        assertSame(mods, jar.getParent().getParent());
+        assertEquals("", tree.getRelativePath());
+        assertNull(tree.getChild("matching-rules.json"), "规则文件不进入节点树");
+    }
+
+    @Test
+    void childLookupUsesIndexAndSharedNames() throws IOException {
+        Path root = prepareTree();
+        FolderNode tree = (FolderNode) FileTreeBuilder.buildTree(root);
+        FolderNode mods = (FolderNode) tree.getChild("mods");
+
+        assertEquals(21, mods.getChildCount());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("mod-" + i + ".jar", mods.getChild("mod-" + i + ".jar").getName());
+        }
+        assertNull(mods.getChild("missing.jar"));
+
+        FileNode configA = ((FolderNode) tree.getChild("a")).getChild("config");
+        FileNode configB = ((FolderNode) tree.getChild("b")).getChild("config");
+        assertSame(configA.getName(), configB.getName(), "同名节点应共享名称实例");
+    }
+
+    @Test
+    void childrenViewIsNotCopiedAndCopyTreeIsIndependent() throws IOException {
+        Path root = prepareTree();
+        FolderNode tree = (FolderNode) FileTreeBuilder.buildTree(root);
+
+        List<FileNode> children = tree.getChildren();
+        assertSame(children.get(0), tree.getChildren().get(0));
+        assertThrows(UnsupportedOperationException.class, () -> children.add(children.get(0)));
+
+        FolderNode copy = (FolderNode) FileTreeBuilder.copyTree(tree);
+        FileNode original = ((FolderNode) tree.getChild("mods")).getChild("mod-3.jar");
+        FileNode copied = ((FolderNode) copy.getChild("mods")).getChild("mod-3.jar");
+        assertEquals(original.getPath(), copied.getPath());
+        assertEquals(original.getRelativePath(), copied.getRelativePath());
+        original.setHandled(true);
+        assertTrue(original.isHandled());
+        assertFalse(copied.isHandled(), "副本的处理状态独立");
+        assertEquals(FileTreeBuilder.countFiles(tree), FileTreeBuilder.countFiles(copy));
+    }
+
+    private Path prepareTree() throws IOException {
+        Path root = Files.createDirectories(tempDir.resolve("update"));
+        Path mods = Files.createDirectories(root.resolve("mods"));
+        for (int i = 0; i < 20; i++) {
+            Files.writeString(mods.resolve("mod-" + i + ".jar"), "m" + i);
+        }
+        Files.writeString(Files.createDirectories(mods.resolve("sub")).resolve("deep.jar"), "d");
+        Files.createDirectories(root.resolve("a").resolve("config"));
+        Files.createDirectories(root.resolve("b").resolve("config"));
+        Files.writeString(root.resolve("matching-rules.json"), "{}");
+        return root;
+    }
+}
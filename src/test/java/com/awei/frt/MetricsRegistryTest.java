@@ -0,0 +1,84 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.BackupFileLoader;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.metrics.LatencyHistogram;
+import com.awei.frt.model.Config;
+import com.awei.frt.service.FileUpdateServiceNew;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 性能指标测试：
+ * - 延迟直方图分位数误差在分桶精度内（约 6%）
+ * - 一次真实更新后：操作记录旁写出 *.metrics.json（策略耗时/操作计数/复制字节数），
+ *   且指标文件不会被当作操作记录加载
+ */
+class MetricsRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void restoreBackupPath() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void histogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            h.record(i * 1000); // 1µs ~ 1ms
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1_000_000, h.getMaxNanos());
+        long p50 = h.getPercentileNanos(50);
+        long p99 = h.getPercentileNanos(99);
+        assertTrue(Math.abs(p50 - 500_000) <= 500_000 * 0.07, "p50 误差应在分桶精度内: " + p50);
+        assertTrue(Math.abs(p99 - 990_000) <= 990_000 * 0.07, "p99 误差应在分桶精度内: " + p99);
+        assertEquals(500_500, h.getMeanNanos());
+    }
+
+    @Test
+    void updateWritesMetricsNextToRecord() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "hello");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false}",
+                StandardCharsets.UTF_8);
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+
+        Config config = ConfigLoader.getConfig();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(targetDir.toAbsolutePath());
+        config.setDeletePath(tempDir.resolve("delete").toAbsolutePath());
+        new FileUpdateServiceNew(config, () -> "y").updateExecute();
+
+        Path recordDir = ConfigLoader.getBackupPath().resolve("record");
+        List<Path> metricsFiles;
+        try (Stream<Path> s = Files.list(recordDir)) {
+            metricsFiles = s.filter(p -> p.getFileName().toString().endsWith(".metrics.json")).toList();
+        }
+        assertEquals(1, metricsFiles.size(), "应在操作记录旁写出一个指标文件");
+
+        JsonNode metrics = new ObjectMapper().readTree(metricsFiles.get(0).toFile());
+        assertEquals(5, metrics.get("bytesCopied").asLong(), "复制字节数应等于新增文件大小");
+        assertTrue(metrics.get("strategies").has("FileSameName"), "应记录策略耗时");
+        assertEquals(1, metrics.get("operations").get("operation_add").get("success").asLong());
+
+        assertEquals(1, BackupFileLoader.loadOperationRecordsFiles().size(), "指标文件不应被当作操作记录加载");
+    }
+}
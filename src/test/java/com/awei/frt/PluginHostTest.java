@@ -0,0 +1,130 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.metrics.PluginUsage;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.strategy.decorator.StrategyDecorator;
+import com.awei.frt.factory.PluginHost;
+import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.factory.StrategyLoader;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.service.FileUpdateServiceNew;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 插件宿主测试：
+ * - 每个插件独立的长期类加载器，策略调用经守卫层记账（调用次数 / 耗时）
+ * - 单次执行超出时间预算：看门狗隔离插件（不中断调用，避免打断 FRT 自己的文件 IO），后续调用直接跳过记失败
+ * - 解除隔离后恢复执行
+ */
+class PluginHostTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void pluginRunsInOwnClassLoaderAndIsAccounted() throws IOException {
+        loadPlugin("host-fast.jar", "HostFastPlugin", "byte[] data = new byte[64 * 1024]; hash += data.length;");
+        Config config = prepare("HostFastPlugin", 30_000);
+
+        ProcessingResult result = new FileUpdateServiceNew(config, () -> "y").planUpdate();
+
+        assertEquals(0, result.getErrorCount());
+        OperationStrategy raw = StrategyDecorator.unwrap(StrategyFactory.createStrategy("HostFastPlugin"));
+        assertNotSame(PluginHostTest.class.getClassLoader(), raw.getClass().getClassLoader(),
+                "插件类来自插件自己的类加载器");
+        PluginUsage usage = PluginHost.getUsage("host-fast.jar");
+        assertNotNull(usage);
+        assertTrue(usage.getCalls() >= 1, "插件策略调用应经守卫层记账");
+        assertFalse(PluginHost.isQuarantined("host-fast.jar"));
+    }
+
+    @Test
+    void overBudgetPluginIsQuarantinedWithoutInterrupt() throws IOException {
+        loadPlugin("host-slow.jar", "HostSlowPlugin", """
+                try {
+                    Thread.sleep(600);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException("执行被中断");
+                }""");
+        Config config = prepare("HostSlowPlugin", 200);
+
+        ProcessingResult result = new FileUpdateServiceNew(config, () -> "y").planUpdate();
+
+        assertFalse(Thread.currentThread().isInterrupted(), "看门狗不应中断调用线程");
+        assertTrue(PluginHost.isQuarantined("host-slow.jar"));
+        PluginUsage usage = PluginHost.getUsage("host-slow.jar");
+        assertEquals(1, usage.getCalls(), "隔离后不再执行插件代码");
+        assertTrue(usage.getSkipped() >= 1, "隔离后的调用直接跳过");
+        assertTrue(result.getErrorCount() >= 2, "跳过的调用记失败");
+
+        assertTrue(PluginHost.release("host-slow.jar"));
+        assertFalse(PluginHost.isQuarantined("host-slow.jar"));
+    }
+
+    /**
+     * 编译并加载一个插件：execute 中执行给定代码
+     */
+    private void loadPlugin(String jarName, String type, String body) throws IOException {
+        Path pluginsDir = Files.createDirectories(tempDir.resolve("plugins"));
+        TestSupport.buildJar(tempDir, "hostplugin." + type, """
+                package hostplugin;
+
+                import com.awei.frt.core.context.OperationContext;
+                import com.awei.frt.core.node.FileNode;
+                import com.awei.frt.core.strategy.OperationStrategy;
+
+                public class %1$s implements OperationStrategy {
+                    private long hash;
+
+                    @Override
+                    public String getStrategyType() {
+                        return "%1$s";
+                    }
+
+                    @Override
+                    public void execute(FileNode node, OperationContext context, String[] operationType) {
+                        %2$s
+                    }
+                }
+                """.formatted(type, body), pluginsDir.resolve(jarName));
+        StrategyLoader.loadExternalStrategies(pluginsDir);
+        assertTrue(StrategyFactory.isSupported(type));
+    }
+
+    private Config prepare(String strategyType, long budgetMillis) throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(updateDir.resolve("f" + i + ".txt"), "new-" + i);
+        }
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"" + strategyType + "\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false}",
+                StandardCharsets.UTF_8);
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(targetDir.toAbsolutePath());
+        config.setPluginCallBudgetMillis(budgetMillis);
+        return config;
+    }
+}
@@ -0,0 +1,153 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.context.ProgressCallback;
+import com.awei.frt.core.context.ProgressEvent;
+import com.awei.frt.core.context.ProgressPhase;
+import com.awei.frt.core.context.ProgressTracker;
+import com.awei.frt.model.Config;
+import com.awei.frt.service.FileUpdateServiceNew;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 阶段进度测试：
+ * - 热路径上报按间隔合并，只有阶段切换与结束强制产生事件
+ * - 按字节计算完成比例、阶段吞吐量（按 IO 耗时）与剩余时间（跳过的文件从剩余工作量中扣除）
+ * - 更新服务依次上报预览/扫描/复制/记录阶段，字节总数为待复制文件大小之和；逐文件回调语义不变
+ */
+class ProgressTrackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void hotPathUpdatesAreCoalesced() {
+        List<ProgressEvent> events = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(collector(events, 3_600_000));
+        tracker.setTotals(1000, 0);
+        tracker.beginPhase(ProgressPhase.COPY);
+        for (int i = 0; i < 1000; i++) {
+            tracker.addBytes(ProgressPhase.COPY, 10, 1000);
+            tracker.fileDone("f" + i);
+        }
+        tracker.finish();
+
+        assertEquals(2, events.size(), "间隔内的逐文件更新应合并，只有阶段开始与结束事件");
+        ProgressEvent last = events.get(1);
+        assertTrue(last.isFinished());
+        assertEquals(1000, last.getFilesDone());
+        assertEquals(10_000, last.getBytesDone());
+        assertEquals("f999", last.getCurrent());
+    }
+
+    @Test
+    void fractionRateAndEtaFollowBytes() {
+        List<ProgressEvent> events = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(collector(events, 0));
+        tracker.setTotals(2, 100);
+        tracker.addBytes(ProgressPhase.BACKUP, 400, 2_000_000_000L);
+        tracker.addBytes(ProgressPhase.COPY, 25, 1_000_000_000L);
+        tracker.fileDone("big.jar");
+
+        ProgressEvent event = tracker.snapshot();
+        assertEquals(0.25, event.getFraction(), 1e-9, "按字节而非文件数计算比例");
+        assertEquals(25, event.getBytesPerSecond(ProgressPhase.COPY));
+        assertEquals(200, event.getBytesPerSecond(ProgressPhase.BACKUP), "各阶段吞吐量按各自 IO 耗时计算");
+        assertEquals(400, event.getPhaseBytes(ProgressPhase.BACKUP));
+        assertTrue(event.getEtaMillis() >= 0, "已有进度时应给出剩余时间");
+        assertEquals(ProgressPhase.COPY, event.getPhase());
+    }
+
+    @Test
+    void skippedFilesAreRemovedFromRemainingWork() throws InterruptedException {
+        List<ProgressEvent> events = new ArrayList<>();
+        ProgressTracker tracker = new ProgressTracker(collector(events, 3_600_000));
+        tracker.setTotals(3, 300);
+        tracker.fileDone("unchanged.jar", 100);
+        tracker.addBytes(ProgressPhase.COPY, 100, 1_000_000);
+        tracker.fileDone("changed.jar", 100);
+        Thread.sleep(20);
+
+        ProgressEvent event = tracker.snapshot();
+        // 真正要复制的只有 200 字节、已完成一半：剩余时间约等于已用时间（按总字节 300 计算会是两倍）
+        assertEquals(event.getElapsedMillis(), event.getEtaMillis(), "跳过的文件应从剩余工作量中扣除");
+    }
+
+    @Test
+    void updateServiceReportsPhasesAndBytes() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("small.txt"), "1");
+        Files.write(updateDir.resolve("large.txt"), new byte[64 * 1024]);
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false}",
+                StandardCharsets.UTF_8);
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(targetDir.resolve("large.txt"), "old");
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(targetDir.toAbsolutePath());
+
+        List<ProgressEvent> events = new ArrayList<>();
+        List<Integer> perFile = new ArrayList<>();
+        ProgressCallback callback = new ProgressCallback() {
+            @Override
+            public void onProgress(int processed, int total, String current) {
+                perFile.add(processed);
+            }
+
+            @Override
+            public void onEvent(ProgressEvent event) {
+                events.add(event);
+            }
+        };
+
+        new FileUpdateServiceNew(config, () -> "y").updateExecute(callback);
+
+        assertEquals(List.of(1, 2), perFile, "逐文件回调只在真实执行阶段上报");
+        List<ProgressPhase> phases = events.stream().map(ProgressEvent::getPhase).distinct().toList();
+        // 备份/复制逐文件交替，只累计字节不强制产生事件；其余阶段切换都会上报
+        assertTrue(phases.containsAll(List.of(ProgressPhase.PLAN, ProgressPhase.SCAN, ProgressPhase.COPY,
+                ProgressPhase.RECORD)), "应上报各阶段: " + phases);
+        ProgressEvent last = events.get(events.size() - 1);
+        assertTrue(last.isFinished());
+        assertEquals(64 * 1024 + 1, last.getBytesTotal(), "字节总数为待复制文件大小之和");
+        assertEquals(last.getBytesTotal(), last.getBytesDone());
+        assertEquals(3, last.getPhaseBytes(ProgressPhase.BACKUP), "替换前备份的旧目标字节数");
+    }
+
+    private static ProgressCallback collector(List<ProgressEvent> events, long intervalMillis) {
+        return new ProgressCallback() {
+            @Override
+            public void onProgress(int processed, int total, String current) {
+            }
+
+            @Override
+            public void onEvent(ProgressEvent event) {
+                events.add(event);
+            }
+
+            @Override
+            public long eventIntervalMillis() {
+                return intervalMillis;
+            }
+        };
+    }
+}
@@ -0,0 +1,109 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.builder.FileTreeBuilder;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.context.PlanTotals;
+import com.awei.frt.core.node.FileNode;
+import com.awei.frt.core.strategy.RulePruning;
+import com.awei.frt.core.uitls.GlobMatcher;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.MatchRule;
+import com.awei.frt.model.StrategyStep;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 规则剪枝测试：
+ * - 预编译的文件名谓词与 GlobMatcher.matchesAny 语义一致
+ * - 有效规则编译为文件谓词：纯文件名策略可剪枝，含目录级策略（McMod）时不剪枝
+ * - 处理时跳过不可能命中的文件与无规则子树，计划统计报告剪枝数量，进度总数一致
+ */
+class RulePruningTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void compiledGlobMatchesLegacySemantics() {
+        List<List<String>> patternSets = List.of(
+                List.of("*.txt"), List.of("options.txt", "*.cfg"), List.of("mod-?.[1].jar", "a(b)*"),
+                List.of("*"), List.of(), List.of("*config*", "*.JSON"));
+        List<String> names = List.of("a.txt", "A.TXT", "options.txt", "x.cfg", "mod-1.[1].jar", "mod-12.[1].jar",
+                "a(b)c", "ab", "server-config.toml", "data.json", "data.JSON", ".txt");
+        for (List<String> patterns : patternSets) {
+            for (boolean caseSensitive : new boolean[]{true, false}) {
+                Predicate<String> compiled = GlobMatcher.compile(patterns, caseSensitive);
+                for (String name : names) {
+                    assertEquals(GlobMatcher.matchesAny(name, patterns, caseSensitive), compiled.test(name),
+                            patterns + " / " + name + " / caseSensitive=" + caseSensitive);
+                }
+            }
+        }
+    }
+
+    @Test
+    void effectiveRuleCompilesToFileFilter() {
+        MatchRule rule = new MatchRule();
+        rule.setStrategyType("FileSameName");
+        rule.setPatterns(List.of("*.txt"));
+        rule.setExcludePatterns(List.of("secret*"));
+        Predicate<String> filter = RulePruning.compileFileFilter(rule);
+        assertTrue(filter.test("a.txt"));
+        assertFalse(filter.test("secret.txt"), "排除列表生效");
+        assertFalse(filter.test("a.png"));
+
+        StrategyStep mcMod = new StrategyStep();
+        mcMod.setStrategyType("McMod");
+        rule.setStrategyChain(List.of(mcMod));
+        assertNull(RulePruning.compileFileFilter(rule), "目录级策略可能处理任意文件，不能剪枝");
+    }
+
+    @Test
+    void processingSkipsPrunedFilesAndFolders() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "a");
+        Files.writeString(updateDir.resolve("b.png"), "b");
+        Files.writeString(updateDir.resolve("c.json"), "c");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":false}",
+                StandardCharsets.UTF_8);
+        Files.writeString(Files.createDirectories(updateDir.resolve("saves")).resolve("world.dat"), "w");
+        Files.createDirectories(tempDir.resolve("target"));
+
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(tempDir.resolve("target").toAbsolutePath());
+        OperationContext context = new OperationContext(config);
+        context.setDryRun(true);
+        FileNode tree = FileTreeBuilder.buildLazyTree(updateDir);
+
+        assertEquals(1, FileTreeBuilder.countProcessableFiles(tree), "进度总数只统计可能命中的文件");
+        tree.process(null, context, FileNode.UPDATE_OPERATION);
+
+        PlanTotals totals = context.getPlanTotals();
+        assertEquals(1, totals.getAdded());
+        assertEquals(2, totals.getPrunedFiles());
+        assertEquals(1, totals.getPrunedFolders());
+        assertEquals(2, totals.toMap().get("prunedFiles"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.context.OperationContext;
+import com.awei.frt.core.node.FileLeaf;
+import com.awei.frt.core.strategy.McModStrategy;
+import com.awei.frt.core.strategy.OperationStrategy;
+import com.awei.frt.core.strategy.decorator.DecoratorChain;
+import com.awei.frt.core.strategy.decorator.ErrorContainmentDecorator;
+import com.awei.frt.core.strategy.decorator.StrategyDecorator;
+import com.awei.frt.core.strategy.decorator.TimingDecorator;
+import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.model.Config;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 策略装饰器链测试（取代原动态代理 StrategyProxy）：
+ * - 工厂返回装饰后的实例，透传 getStrategyType，可剥出原始策略
+ * - 策略抛异常时：异常兜底装饰器记录日志与失败统计，不向上抛（更新流程不中断）
+ * - 装饰器链可按策略类型单独配置
+ */
+class StrategyDecoratorTest {
+
+    @AfterEach
+    void restoreBackupPath() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void factoryReturnsDecoratedInstance() {
+        OperationStrategy s = StrategyFactory.createStrategy("McMod");
+        assertTrue(s instanceof ErrorContainmentDecorator, "默认链最外层应为异常兜底装饰器");
+        assertEquals("McMod", s.getStrategyType(), "装饰器应透传策略类型");
+        assertTrue(StrategyDecorator.unwrap(s) instanceof McModStrategy, "剥去装饰层应得到原始策略");
+    }
+
+    @Test
+    void containmentSwallowsExceptionAndRecordsError() {
+        OperationStrategy decorated = DecoratorChain.DEFAULT.apply(failingStrategy("Failing"));
+
+        // 备份路径隔离到临时目录，避免会话记录污染真实 testDic/backup
+        TestSupport.isolateBackup(Path.of(System.getProperty("java.io.tmpdir"), "frt-proxy-test"));
+        try {
+            Config config = ConfigLoader.getConfig();
+            config.setTargetPath(Path.of("target-tmp"));
+            OperationContext ctx = new OperationContext(config);
+            FileLeaf leaf = new FileLeaf(Path.of("x.txt"), "x.txt");
+
+            // 不抛异常（装饰器兜底）
+            assertDoesNotThrow(() -> decorated.execute(leaf, ctx, new String[]{OperationContext.OPERATION_ADD}));
+
+            // 失败被统计
+            assertEquals(1, ctx.getProcessingResult().getErrorCount());
+            assertFalse(ctx.getProcessingResult().isSuccess());
+            assertFalse(ctx.getProcessingResult().getOperationRecords().get(0).isSuccess());
+        } finally {
+            TestSupport.restoreBackupPath();
+        }
+    }
+
+    @Test
+    void chainIsConfigurablePerType() {
+        StrategyFactory.register("TestBare", () -> failingStrategy("TestBare"), "测试策略");
+        StrategyFactory.setDecoratorChain("TestBare", DecoratorChain.NONE);
+        try {
+            OperationStrategy bare = StrategyFactory.createStrategy("TestBare");
+            assertFalse(bare instanceof StrategyDecorator, "空链不应包装");
+            assertThrows(IllegalStateException.class, () -> bare.execute(null, null, new String[0]),
+                    "无异常兜底层时异常直接上抛");
+
+            StrategyFactory.setDecoratorChain("TestBare", DecoratorChain.of(TimingDecorator::new));
+            OperationStrategy timed = StrategyFactory.createStrategy("TestBare");
+            assertTrue(timed instanceof TimingDecorator, "重新配置后缓存实例应按新链包装");
+            assertThrows(IllegalStateException.class, () -> timed.execute(null, null, new String[0]));
+            assertEquals(1, ((TimingDecorator) timed).getCallCount(), "计时层在异常时也应计数");
+        } finally {
+            StrategyFactory.setDecoratorChain("TestBare", null);
+        }
+        assertTrue(StrategyFactory.createStrategy("TestBare") instanceof ErrorContainmentDecorator,
+                "传 null 应恢复默认链");
+    }
+
+    private static OperationStrategy failingStrategy(String type) {
+        return new OperationStrategy() {
+            @Override
+            public String getStrategyType() {
+                return type;
+            }
+
+            @Override
+            public void execute(com.awei.frt.core.node.FileNode node,
+                                OperationContext context,
+                                String[] operationType) {
+                throw new IllegalStateException("boom");
+            }
+        };
+    }
+}
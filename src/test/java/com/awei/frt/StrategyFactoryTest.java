@@ -2,8 +2,17 @@ package com.awei.frt;
 
 import com.awei.frt.core.strategy.OperationStrategy;
 import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.model.MatchRule;
 import org.junit.jupiter.api.Test;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -50,6 +59,84 @@ class StrategyFactoryTest {
         }
     }
 
+    @Test
+    void resolveCachesInstanceOnStep() {
+        MatchRule step = new MatchRule();
+        step.setStrategyType("FileSameName");
+        OperationStrategy first = StrategyFactory.resolve(step);
+        assertSame(first, StrategyFactory.resolve(step), "同一步骤重复解析应命中步骤缓存");
+        assertSame(StrategyFactory.createStrategy("FileSameName"), first, "步骤缓存与工厂单例一致");
+    }
+
+    @Test
+    void reRegisterInvalidatesStepCache() {
+        StrategyFactory.register("TestReRegister", TestDummyStrategy::new, "测试策略");
+        MatchRule step = new MatchRule();
+        step.setStrategyType("TestReRegister");
+        OperationStrategy before = StrategyFactory.resolve(step);
+
+        StrategyFactory.register("TestReRegister", TestDummyStrategy::new, null);
+        OperationStrategy after = StrategyFactory.resolve(step);
+        assertNotSame(before, after, "重新注册后步骤上的旧实例应失效");
+        assertEquals("测试策略", StrategyFactory.getDescription("TestReRegister"), "空说明重新注册时保留原说明");
+    }
+
+    @Test
+    void concurrentCreateReturnsSingleInstance() throws InterruptedException {
+        StrategyFactory.register("TestConcurrent", TestDummyStrategy::new, "测试策略");
+        Set<OperationStrategy> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            pool.submit(() -> {
+                start.await();
+                for (int j = 0; j < 1000; j++) {
+                    seen.add(StrategyFactory.createStrategy("TestConcurrent"));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, seen.size(), "并发无锁读取也只应创建一个实例");
+    }
+
+    @Test
+    void concurrentLookupWaitsForSlowPluginLoad() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+        StrategyFactory.setExternalLoaderForTesting(() -> {
+            loads.incrementAndGet();
+            // 加载线程重入查询不应死锁或重复加载
+            assertFalse(StrategyFactory.isSupported("TestSlowPlugin"));
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StrategyFactory.register("TestSlowPlugin", TestDummyStrategy::new, "慢加载插件");
+        });
+        try {
+            Set<Boolean> results = ConcurrentHashMap.newKeySet();
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < 8; i++) {
+                pool.submit(() -> {
+                    start.await();
+                    results.add(StrategyFactory.isSupported("TestSlowPlugin"));
+                    return null;
+                });
+            }
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(Set.of(true), results, "加载进行中的并发查询应等待加载完成，不能漏掉插件类型");
+            assertEquals(1, loads.get(), "插件只应加载一次");
+        } finally {
+            StrategyFactory.setExternalLoaderForTesting(null);
+        }
+    }
+
     /** 测试用最小策略实现 */
     static class TestDummyStrategy implements OperationStrategy {
         @Override
@@ -12,6 +12,7 @@ import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 
@@ -25,9 +26,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  * - classpath SPI 方式：test 资源里的 META-INF/services 描述符
  * - plugins/ 插件 jar 方式：运行时编译一个策略类打成 jar，走 URLClassLoader + 自动类扫描
  * - 类型冲突保护：外部策略不能覆盖内置类型
+ * - 发现缓存：未变化的 jar 按缓存注册、不扫描，策略类首次使用时才初始化；多个未缓存 jar 并行扫描后写入缓存
  */
 class StrategyLoaderTest {
 
+    private static final String INIT_PROPERTY = "frt.test.lazyplugin.init";
+
     @TempDir
     Path tempDir;
 
@@ -114,4 +118,81 @@ class StrategyLoaderTest {
         assertEquals("McMod", StrategyFactory.createStrategy("McMod").getStrategyType());
         assertTrue(StrategyFactory.isSupported("McMod"));
     }
+
+    @Test
+    void cachedPluginIsRegisteredWithoutScanAndInitializedOnFirstUse() throws Exception {
+        Path pluginsDir = Files.createDirectories(tempDir.resolve("plugins"));
+        Path jar = buildPluginJar("lazyplugin", "LazyPlugin", pluginsDir.resolve("lazy-plugin.jar"));
+        System.clearProperty(INIT_PROPERTY);
+
+        // 首次加载：扫描 jar（需要创建实例取得类型）并写入发现缓存
+        StrategyLoader.loadExternalStrategies(pluginsDir);
+        Path cacheFile = pluginsDir.resolve(".plugin-cache.json");
+        assertTrue(Files.isRegularFile(cacheFile), "扫描后应写入发现缓存");
+        assertTrue(StrategyFactory.isSupported("LazyPlugin"));
+        assertEquals("1", System.getProperty(INIT_PROPERTY));
+
+        // 另一插件目录：同一 jar（保留修改时间，指纹不变）+ 类型改名的缓存；命中缓存时不扫描 jar
+        Path secondDir = Files.createDirectories(tempDir.resolve("plugins2"));
+        Files.copy(jar, secondDir.resolve(jar.getFileName()), StandardCopyOption.COPY_ATTRIBUTES);
+        Files.writeString(secondDir.resolve(".plugin-cache.json"),
+                Files.readString(cacheFile).replace("\"LazyPlugin\"", "\"LazyPluginCached\""));
+        StrategyLoader.loadExternalStrategies(secondDir);
+
+        assertTrue(StrategyFactory.isSupported("LazyPluginCached"), "命中缓存的 jar 按缓存注册");
+        assertFalse(StrategyFactory.getDescription("LazyPluginCached").isEmpty(), "说明来自缓存，无需加载类");
+        assertEquals("1", System.getProperty(INIT_PROPERTY), "命中缓存时不加载、不初始化策略类");
+        StrategyFactory.createStrategy("LazyPluginCached");
+        assertEquals("2", System.getProperty(INIT_PROPERTY), "规则首次引用该类型时才初始化");
+    }
+
+    @Test
+    void uncachedJarsAreScannedInParallelAndCached() throws Exception {
+        Path pluginsDir = Files.createDirectories(tempDir.resolve("plugins"));
+        buildPluginJar("parallela", "ParallelPluginA", pluginsDir.resolve("a.jar"));
+        buildPluginJar("parallelb", "ParallelPluginB", pluginsDir.resolve("b.jar"));
+        Files.writeString(pluginsDir.resolve("empty.jar"), "not a jar");
+
+        StrategyLoader.loadExternalStrategies(pluginsDir);
+
+        assertTrue(StrategyFactory.isSupported("ParallelPluginA"));
+        assertTrue(StrategyFactory.isSupported("ParallelPluginB"));
+        String cache = Files.readString(pluginsDir.resolve(".plugin-cache.json"));
+        assertTrue(cache.contains("ParallelPluginA") && cache.contains("ParallelPluginB"), cache);
+        assertFalse(cache.contains("empty.jar"), "无法打开的 jar 不写入缓存（下次重新扫描）");
+    }
+
+    /**
+     * 运行时编译一个策略类并打成 jar（无 services 文件，走自动类扫描）；
+     * 类初始化时将 INIT_PROPERTY 计数加一（用于检查初始化时机）
+     */
+    private Path buildPluginJar(String pkg, String type, Path jar) throws Exception {
+        return TestSupport.buildJar(tempDir, pkg + "." + type, """
+            package %1$s;
+
+            import com.awei.frt.core.context.OperationContext;
+            import com.awei.frt.core.node.FileNode;
+            import com.awei.frt.core.strategy.OperationStrategy;
+
+            public class %2$s implements OperationStrategy {
+                static {
+                    System.setProperty("%3$s", String.valueOf(Integer.getInteger("%3$s", 0) + 1));
+                }
+
+                @Override
+                public String getStrategyType() {
+                    return "%2$s";
+                }
+
+                @Override
+                public String getDescription() {
+                    return "测试插件策略 %2$s";
+                }
+
+                @Override
+                public void execute(FileNode node, OperationContext context, String[] operationType) {
+                }
+            }
+            """.formatted(pkg, type, INIT_PROPERTY), jar);
+    }
 }
@@ -0,0 +1,81 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.MatchRuleLoader;
+import com.awei.frt.core.strategy.ParamSchema;
+import com.awei.frt.factory.StrategyFactory;
+import com.awei.frt.model.MatchRule;
+import com.awei.frt.model.RuleParams;
+import com.awei.frt.model.StrategyStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 策略参数声明测试：
+ * - 规则加载时按策略声明编译参数：值按类型解析、缺省值填入，执行期取到同一个已编译对象
+ * - 类型错误 / 缺少必填参数的规则加载失败；未声明的参数只告警并保留
+ * - 策略链步骤同样编译；向导校验与加载校验一致
+ */
+class StrategyParamsTest {
+
+    @Test
+    void loaderCompilesTypedParams() {
+        MatchRule rule = MatchRuleLoader.fromJson("""
+                {"strategyType":"ZipEntryContent","patterns":["*.toml"],
+                 "replacements":{"contentContains":" modId , version ,","caseSensitive":"FALSE"}}""");
+        assertNotNull(rule);
+        RuleParams params = rule.getParams();
+        assertEquals(List.of("modId", "version"), params.getList("contentContains"), "列表参数加载时已切分");
+        assertFalse(params.getBoolean("caseSensitive", true), "布尔参数忽略大小写解析");
+        assertSame(params, rule.getParams(), "执行期复用加载时编译的参数");
+        assertFalse(rule.getNameFilter().test("x.txt"));
+        assertTrue(rule.getNameFilter().test("MODS.TOML"), "caseSensitive=false 同样作用于文件名匹配");
+
+        MatchRule defaults = MatchRuleLoader.fromJson("{\"strategyType\":\"FileSameName\"}");
+        assertNotNull(defaults);
+        assertFalse(defaults.getParams().getBoolean("onlyIfContentSame", true), "未配置时取声明的默认值");
+    }
+
+    @Test
+    void invalidParamsRejectRule() {
+        assertNull(MatchRuleLoader.fromJson(
+                "{\"strategyType\":\"FileSameName\",\"replacements\":{\"onlyIfContentSame\":\"yes\"}}"),
+                "布尔参数只接受 true/false");
+        assertNull(MatchRuleLoader.fromJson("{\"strategyType\":\"ZipEntryContent\"}"), "缺少必填参数");
+
+        MatchRule unknown = MatchRuleLoader.fromJson(
+                "{\"strategyType\":\"FileSameName\",\"replacements\":{\"custom\":\"v\"}}");
+        assertNotNull(unknown, "未声明的参数只告警");
+        assertEquals("v", unknown.getParams().getString("custom"));
+    }
+
+    @Test
+    void chainStepsAreCompiledAndWizardValidationMatches() {
+        MatchRule rule = MatchRuleLoader.fromJson("""
+                {"strategyType":"FileSameName","patterns":["*.txt"],
+                 "strategyChain":[{"strategyType":"McMod","replacements":{"onlyIfVersionChanged":"true"}}]}""");
+        assertNotNull(rule);
+        MatchRule step = rule.getEffectiveStrategies().get(1);
+        assertTrue(step.getParams().getBoolean("onlyIfVersionChanged", false));
+        assertSame(step.getParams(), rule.getStrategyChain().get(0).getParams(), "链步骤使用加载时编译的参数");
+
+        MatchRule edited = rule.copy();
+        StrategyStep badStep = edited.getStrategyChain().get(0);
+        badStep.setReplacements(Map.of("onlyIfContentSame", "1"));
+        List<String> errors = MatchRuleLoader.validateParams(edited);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("McMod: "), errors.get(0));
+
+        ParamSchema schema = StrategyFactory.getParamSchema("ZipEntryContent");
+        assertTrue(schema.isDeclared());
+        assertEquals(2, schema.describe().size(), "向导按声明逐个展示参数");
+    }
+}
@@ -0,0 +1,120 @@
+package com.awei.frt;
+
+import com.awei.frt.cli.FrtCli;
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.context.PlanSink;
+import com.awei.frt.core.context.PlanTotals;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.service.FileUpdateServiceNew;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式预览测试：
+ * - 计划记录在处理过程中逐条交给 sink，附带累计统计；不保留记录时结果只有计数
+ * - 命令行 --plan-file 把计划写成 JSON Lines（末行合计），报告只含合计
+ */
+class StreamingPreviewTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void recordsAreStreamedWithRunningTotals() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(tempDir.resolve("target").toAbsolutePath());
+
+        List<String> seen = new ArrayList<>();
+        List<Integer> runningTotals = new ArrayList<>();
+        int[] completed = {0};
+        PlanSink sink = new PlanSink() {
+            @Override
+            public void onRecord(OperationRecord record, PlanTotals totals) {
+                seen.add(record.getTargetPath().getFileName().toString());
+                runningTotals.add(totals.getTotal());
+            }
+
+            @Override
+            public void onComplete(PlanTotals totals) {
+                completed[0]++;
+                assertEquals(1, totals.getAdded());
+                assertEquals(1, totals.getReplaced());
+            }
+        };
+
+        ProcessingResult preview = new FileUpdateServiceNew(config, () -> "n").planUpdate(sink, false);
+
+        assertEquals(List.of(1, 2), runningTotals, "每条记录产生时即回调，累计统计逐条递增");
+        assertTrue(seen.containsAll(List.of("a.txt", "b.txt")));
+        assertEquals(1, completed[0]);
+        assertEquals(2, preview.getSuccessCount(), "不保留记录时仍有计数");
+        assertTrue(preview.getOperationRecords().isEmpty(), "不保留记录时结果不持有完整列表");
+    }
+
+    @Test
+    void cliPlanFileWritesJsonLines() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Path targetDir = tempDir.resolve("target");
+        Path planFile = tempDir.resolve("out").resolve("plan.jsonl");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int code = FrtCli.run(new String[]{"update", "--json", "--plan-file", planFile.toString(),
+                        "--update", updateDir.toString(), "--target", targetDir.toString()},
+                new PrintStream(buffer, true, StandardCharsets.UTF_8));
+
+        assertEquals(FrtCli.EXIT_NOT_CONFIRMED, code);
+        JsonNode report = mapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+        assertEquals("planned", report.get("status").asText());
+        assertEquals(2, report.get("planTotals").get("planned").asInt());
+        assertFalse(report.has("plan"), "流式计划不在报告中重复输出");
+
+        List<String> lines = Files.readAllLines(planFile, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size(), "两条计划 + 一行合计");
+        assertEquals("operation_add", mapper.readTree(lines.stream()
+                .filter(l -> l.contains("b.txt")).findFirst().orElseThrow()).get("operation").asText());
+        assertEquals(2, mapper.readTree(lines.get(2)).get("totals").get("planned").asInt());
+        assertEquals("old-a", Files.readString(targetDir.resolve("a.txt")), "预览不应改动目标");
+    }
+
+    private Path prepareUpdateDir() throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "new-a");
+        Files.createDirectories(updateDir.resolve("sub"));
+        Files.writeString(updateDir.resolve("sub").resolve("b.txt"), "new-b");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":true}",
+                StandardCharsets.UTF_8);
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(targetDir.resolve("a.txt"), "old-a");
+        return updateDir;
+    }
+}
@@ -1,11 +1,20 @@
 package com.awei.frt;
 
+import com.awei.frt.core.builder.BackupFileLoader;
 import com.awei.frt.core.builder.ConfigLoader;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 /**
- * 测试辅助：把备份路径隔离到临时目录，避免测试写入真实 testDic/backup
+ * 测试辅助：
+ * - 把备份路径隔离到临时目录，避免测试写入真实 testDic/backup
+ * - 运行时编译插件类并打成 jar（模拟玩家写的策略插件）
  */
 public final class TestSupport {
 
@@ -20,13 +29,43 @@ public final class TestSupport {
     private TestSupport() {
     }
 
-    /** 把备份路径指向临时目录（隔离） */
+    /** 把备份路径指向临时目录（隔离），并清空上一个测试留下的静态备份索引 */
     public static void isolateBackup(Path tempRoot) {
         ConfigLoader.setBackupPathForTesting(tempRoot.resolve("backup"));
+        BackupFileLoader.resetBackupIndexForTesting();
     }
 
     /** 恢复真实备份路径 */
     public static void restoreBackupPath() {
         ConfigLoader.setBackupPathForTesting(REAL_BACKUP);
     }
+
+    /**
+     * 运行时编译一个类（classpath 为测试 classpath）并打成 jar（不含 services 文件）
+     * @param workDir   工作目录（源文件与 class 输出放在其下按类名区分的子目录）
+     * @param className 全限定类名
+     * @param source    源码
+     * @param jar       输出 jar
+     */
+    public static Path buildJar(Path workDir, String className, String source, Path jar) throws IOException {
+        Path srcFile = workDir.resolve("src-" + className).resolve(className.replace('.', '/') + ".java");
+        Path classesDir = Files.createDirectories(workDir.resolve("classes-" + className));
+        Files.createDirectories(srcFile.getParent());
+        Files.writeString(srcFile, source);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-encoding", "UTF-8",
+                "-cp", System.getProperty("java.class.path"), "-d", classesDir.toString(), srcFile.toString());
+        if (result != 0) {
+            throw new IllegalStateException("编译失败: " + className);
+        }
+        try (JarOutputStream jos = new JarOutputStream(Files.newOutputStream(jar));
+             var walk = Files.walk(classesDir)) {
+            for (Path f : walk.filter(Files::isRegularFile).toList()) {
+                jos.putNextEntry(new JarEntry(classesDir.relativize(f).toString().replace('\\', '/')));
+                jos.write(Files.readAllBytes(f));
+                jos.closeEntry();
+            }
+        }
+        return jar;
+    }
 }
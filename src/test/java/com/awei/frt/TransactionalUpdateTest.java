@@ -0,0 +1,167 @@
+package com.awei.frt;
+
+import com.awei.frt.core.builder.ConfigLoader;
+import com.awei.frt.core.transaction.StagedTransaction;
+import com.awei.frt.model.Config;
+import com.awei.frt.model.OperationRecord;
+import com.awei.frt.model.ProcessingResult;
+import com.awei.frt.service.FileUpdateServiceNew;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 事务化更新（暂存 + 原子提交）测试：
+ * - 提交后目标更新完整，不残留暂存目录与事务标记；配合增量更新时再次运行无操作
+ * - 任一暂存失败整体中止，目标不改动，记录改为失败
+ * - 中断恢复：COMMITTING 标记前滚，STAGING 标记回滚
+ */
+class TransactionalUpdateTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        TestSupport.restoreBackupPath();
+    }
+
+    @Test
+    void commitsAllChangesAndCleansUp() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path updateDir = prepareUpdateDir();
+        Config config = configFor(updateDir);
+
+        ProcessingResult first = new FileUpdateServiceNew(config, () -> "y").updateExecute();
+        assertEquals(2, first.getSuccessCount());
+        assertEquals("new-a", Files.readString(tempDir.resolve("target").resolve("a.txt")));
+        assertEquals("new-b", Files.readString(tempDir.resolve("target").resolve("sub").resolve("b.txt")));
+        assertNoLeftovers();
+
+        ProcessingResult second = new FileUpdateServiceNew(config, () -> "y").updateExecute();
+        assertEquals(0, second.getOperationRecords().size(), "提交后刷新了目标指纹，增量再次运行应无操作");
+    }
+
+    @Test
+    void stagingFailureAbortsWithoutTouchingTarget() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(target.resolve("a.txt"), "old-a");
+        Path source = Files.writeString(tempDir.resolve("new-a.txt"), "new-a");
+
+        ProcessingResult result = new ProcessingResult();
+        StagedTransaction txn = StagedTransaction.begin(target, 2);
+        txn.stageCopy(source, target.resolve("a.txt"), succeeded(result));
+        txn.stageCopy(tempDir.resolve("missing.txt"), target.resolve("b.txt"), succeeded(result));
+
+        assertEquals(2, txn.commit(result), "暂存失败应整体中止");
+        assertEquals(0, result.getSuccessCount());
+        assertEquals(2, result.getErrorCount());
+        assertEquals("old-a", Files.readString(target.resolve("a.txt")), "中止后目标不应改动");
+        assertFalse(Files.exists(target.resolve("b.txt")));
+        assertFalse(Files.exists(txn.getStagingDir()));
+        assertNoLeftovers();
+    }
+
+    @Test
+    void recoveryRollsForwardCommitAndRollsBackStaging() throws IOException {
+        TestSupport.isolateBackup(tempDir);
+        Path target = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(target.resolve("a.txt"), "old-a");
+        Files.writeString(target.resolve("gone.txt"), "old");
+
+        // 提交中断：a.txt 尚未移动，gone.txt 尚未删除
+        Path committing = Files.createDirectories(tempDir.resolve(".target.frt-staging-1"));
+        Files.writeString(committing.resolve("0"), "new-a");
+        writeMarker("1", committing, "COMMITTING", List.of(
+                entry("COPY", committing.resolve("0"), target.resolve("a.txt")),
+                entry("DELETE", null, target.resolve("gone.txt"))));
+        // 暂存中断：尚未提交
+        Path staging = Files.createDirectories(tempDir.resolve(".target.frt-staging-2"));
+        Files.writeString(staging.resolve("0"), "never");
+        writeMarker("2", staging, "STAGING", List.of());
+
+        assertEquals(2, StagedTransaction.recoverPending());
+        assertEquals("new-a", Files.readString(target.resolve("a.txt")), "COMMITTING 标记应前滚");
+        assertFalse(Files.exists(target.resolve("gone.txt")));
+        assertFalse(Files.exists(committing));
+        assertFalse(Files.exists(staging), "STAGING 标记应丢弃暂存");
+        assertNoLeftovers();
+    }
+
+    // ---------------- 辅助 ----------------
+
+    private Path prepareUpdateDir() throws IOException {
+        Path updateDir = Files.createDirectories(tempDir.resolve("update"));
+        Files.writeString(updateDir.resolve("a.txt"), "new-a");
+        Files.createDirectories(updateDir.resolve("sub"));
+        Files.writeString(updateDir.resolve("sub").resolve("b.txt"), "new-b");
+        Files.writeString(updateDir.resolve("matching-rules.json"),
+                "{\"strategyType\":\"FileSameName\",\"patterns\":[\"*.txt\"],\"inheritToSubfolders\":true}",
+                StandardCharsets.UTF_8);
+        Path targetDir = Files.createDirectories(tempDir.resolve("target"));
+        Files.writeString(targetDir.resolve("a.txt"), "old-a");
+        return updateDir;
+    }
+
+    private Config configFor(Path updateDir) {
+        Config config = ConfigLoader.getConfig().copy();
+        config.setUpdatePath(updateDir.toAbsolutePath());
+        config.setTargetPath(tempDir.resolve("target").toAbsolutePath());
+        config.setIncrementalUpdate(true);
+        config.setTransactionalUpdate(true);
+        return config;
+    }
+
+    private static OperationRecord succeeded(ProcessingResult result) {
+        OperationRecord record = new OperationRecord();
+        record.setSuccess(true);
+        result.addOperationRecord(record);
+        return record;
+    }
+
+    private static StagedTransaction.Entry entry(String kind, Path staged, Path target) {
+        StagedTransaction.Entry entry = new StagedTransaction.Entry();
+        entry.kind = kind;
+        entry.staged = staged == null ? null : staged.toString();
+        entry.target = target.toString();
+        return entry;
+    }
+
+    private static void writeMarker(String id, Path stagingDir, String state,
+                                    List<StagedTransaction.Entry> entries) throws IOException {
+        StagedTransaction.Marker marker = new StagedTransaction.Marker();
+        marker.id = id;
+        marker.state = state;
+        marker.stagingDir = stagingDir.toString();
+        marker.entries = entries;
+        Path dir = Files.createDirectories(StagedTransaction.getMarkerDir());
+        Files.writeString(dir.resolve("txn-" + id + ".json"), new ObjectMapper().writeValueAsString(marker));
+    }
+
+    // 不残留事务标记与暂存目录
+    private void assertNoLeftovers() throws IOException {
+        Path markerDir = StagedTransaction.getMarkerDir();
+        if (Files.isDirectory(markerDir)) {
+            try (Stream<Path> files = Files.list(markerDir)) {
+                assertEquals(0, files.count(), "不应残留事务标记");
+            }
+        }
+        try (Stream<Path> siblings = Files.list(tempDir)) {
+            assertTrue(siblings.noneMatch(p -> p.getFileName().toString().contains(".frt-staging-")),
+                    "不应残留暂存目录");
+        }
+    }
+}
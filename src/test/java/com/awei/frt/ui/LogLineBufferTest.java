@@ -0,0 +1,78 @@
+package com.awei.frt.ui;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 日志区行缓冲测试：
+ * - 多次追加在一次 drain 中切行；未结束行（输入提示）由后续文本续写
+ * - 超出保留行数时丢弃最旧的行，并报告移除数
+ * - UTF-8 多字节字符跨两次 write 拆开时不乱码
+ */
+class LogLineBufferTest {
+
+    @Test
+    void drainSplitsLinesAndContinuesOpenLine() {
+        LogLineBuffer buffer = new LogLineBuffer(100);
+        buffer.append("第一行\r\n第二");
+        buffer.append("行\n请输入: ");
+
+        LogLineBuffer.Update first = buffer.drain();
+        assertEquals(3, first.size);
+        assertEquals(0, first.firstChanged);
+        assertEquals(List.of("第一行", "第二行", "请输入: "), lines(buffer));
+        assertNull(buffer.drain(), "没有新文本时不产生变化");
+
+        buffer.append("y\n");
+        LogLineBuffer.Update second = buffer.drain();
+        assertEquals(2, second.firstChanged, "续写未结束行：从最后一行开始变化");
+        assertEquals(3, second.size);
+        assertEquals("请输入: y", buffer.get(2));
+    }
+
+    @Test
+    void oldestLinesAreDroppedBeyondCap() {
+        LogLineBuffer buffer = new LogLineBuffer(3);
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            text.append("line").append(i).append('\n');
+        }
+        buffer.append(text.toString());
+
+        LogLineBuffer.Update update = buffer.drain();
+        assertEquals(2, update.removed);
+        assertEquals(3, update.size);
+        assertEquals(List.of("line3", "line4", "line5"), lines(buffer));
+        assertEquals(2, buffer.getDroppedLines());
+    }
+
+    @Test
+    void textStreamDecodesSplitMultibyteCharacters() throws IOException {
+        List<String> received = new ArrayList<>();
+        OutputStream stream = LogLineBuffer.textStream(received::add);
+        byte[] bytes = "更新完成\n".getBytes(StandardCharsets.UTF_8);
+
+        stream.write(bytes, 0, 4);            // "更" + "新" 的第一个字节
+        stream.write(bytes[4]);
+        stream.write(bytes, 5, bytes.length - 5);
+
+        assertEquals("更新完成\n", String.join("", received));
+        assertEquals("更", received.get(0), "不完整的尾部字节留待下次解码");
+    }
+
+    private static List<String> lines(LogLineBuffer buffer) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < buffer.size(); i++) {
+            lines.add(buffer.get(i));
+        }
+        return lines;
+    }
+}
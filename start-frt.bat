@@ -6,6 +6,8 @@ rem  用法:
 rem    start-frt.bat                默认启动图形界面 (UI)
 rem    start-frt.bat --console      切换为控制台模式（-c 等价）
 rem    start-frt.bat --ui           显式指定图形界面（默认即此）
+rem    start-frt.bat --watch        监听模式：常驻监听 update/delete 目录并自动应用变化
+rem    start-frt.bat update --yes --json   无头命令行（update|delete|restore|cleanup，须为第一个参数）
 rem  要求: JDK 17+（实测 21 可用）
 rem ============================================================
 chcp 65001 >nul
@@ -26,14 +28,22 @@ if not exist "%JAR%" (
     exit /b 1
 )
 
+rem 无头命令行：子命令为第一个参数时全部参数原样透传，不暂停，以命令退出码结束
+if /i "%~1"=="update" goto run_cli
+if /i "%~1"=="delete" goto run_cli
+if /i "%~1"=="restore" goto run_cli
+if /i "%~1"=="cleanup" goto run_cli
+
 rem 默认启动图形界面；--console / -c 切换控制台；其余参数透传（开关参数不转发给程序）
 set USE_UI=1
+set MODE=
 set FORWARD=
 :parse_args
 if "%~1"=="" goto run
 if /i "%~1"=="--ui" goto skip_arg
 if /i "%~1"=="--console" set USE_UI=0 & goto skip_arg
 if /i "%~1"=="-c" set USE_UI=0 & goto skip_arg
+if /i "%~1"=="--watch" set USE_UI=0 & set MODE=--watch & goto skip_arg
 set FORWARD=%FORWARD% "%~1"
 :skip_arg
 shift
@@ -45,8 +55,13 @@ if "%USE_UI%"=="1" (
     echo 若未弹出窗口，请关闭本窗口后运行: start-frt.bat --console 进入控制台模式
     java -Dfile.encoding=UTF-8 -jar "%JAR%" --ui %FORWARD%
 ) else (
-    java -Dfile.encoding=UTF-8 -jar "%JAR%" %FORWARD%
+    java -Dfile.encoding=UTF-8 -jar "%JAR%" %MODE% %FORWARD%
 )
 
 echo.
 pause
+exit /b
+
+:run_cli
+java -Dfile.encoding=UTF-8 -jar "%JAR%" %*
+exit /b %ERRORLEVEL%
@@ -6,6 +6,8 @@
 #    ./start-frt.sh              默认启动图形界面 (UI)
 #    ./start-frt.sh --console    切换为控制台模式（-c 等价）
 #    ./start-frt.sh --ui         显式指定图形界面（默认即此）
+#    ./start-frt.sh --watch      监听模式：常驻监听 update/delete 目录并自动应用变化
+#    ./start-frt.sh update --yes --json   无头命令行（update|delete|restore|cleanup，须为第一个参数）
 #    其他参数会原样透传给程序
 #
 #  要求: JDK 17+（与 start-frt.bat 一致，实测 21 可用）
@@ -43,13 +45,21 @@ if [[ -n "$JAVA_MAJOR" && "$JAVA_MAJOR" -lt 17 ]]; then
     echo "[WARN] 检测到 Java $JAVA_MAJOR，本工具要求 JDK 17+，可能无法运行" >&2
 fi
 
-# 4. 默认启动图形界面；--console / -c 切换控制台；其余参数透传
+# 4. 无头命令行：子命令为第一个参数时全部参数原样透传（stdout 只输出结果，退出码即命令结果）
+case "${1:-}" in
+    update|delete|restore|cleanup)
+        exec java -Dfile.encoding=UTF-8 -jar "$JAR" "$@" ;;
+esac
+
+# 5. 默认启动图形界面；--console / -c 切换控制台；其余参数透传
 USE_UI=true
+MODE=()
 FORWARD=()
 for arg in "$@"; do
     case "$arg" in
         --ui)        USE_UI=true ;;
         --console|-c) USE_UI=false ;;
+        --watch)     USE_UI=false; MODE=(--watch) ;;
         *)           FORWARD+=("$arg") ;;
     esac
 done
@@ -59,5 +69,5 @@ if [[ "$USE_UI" == true ]]; then
     echo "若未弹出窗口，请运行: ./start-frt.sh --console 进入控制台模式"
     exec java -Dfile.encoding=UTF-8 -jar "$JAR" --ui "${FORWARD[@]}"
 else
-    exec java -Dfile.encoding=UTF-8 -jar "$JAR" "${FORWARD[@]}"
+    exec java -Dfile.encoding=UTF-8 -jar "$JAR" "${MODE[@]}" "${FORWARD[@]}"
 fi